@@ -0,0 +1,359 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.ai.mcp.tools.service;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ecf.ai.mcp.tools.annotation.ToolParam;
+import org.eclipse.ecf.ai.mcp.tools.util.ToolDescription;
+import org.eclipse.ecf.ai.mcp.tools.util.ToolParamDescription;
+
+/**
+ * The tools of a set of tool services. When a service is added, the tool
+ * descriptions, the JSON schema of the tool inputs and a method handle to call
+ * each tool are computed once, so that listing and calling tools does not use
+ * reflection. Services must be removed when they are unregistered.
+ *
+ * @since 2.2
+ */
+public class ToolRegistry {
+
+	/**
+	 * A tool of a service added to the registry.
+	 */
+	public static class RegisteredTool {
+
+		private final Object service;
+
+		private final ToolDescription description;
+
+		private final String[] parameterNames;
+
+		private final Class<?>[] parameterTypes;
+
+		private final String inputSchema;
+
+		/**
+		 * Bound to the service, of type (Object[])Object
+		 */
+		private final MethodHandle invoker;
+
+		private volatile boolean removed;
+
+		RegisteredTool(Object service, Method method, ToolDescription description) throws IllegalAccessException {
+			this.service = service;
+			this.description = description;
+			Parameter[] parameters = method.getParameters();
+			this.parameterNames = new String[parameters.length];
+			this.parameterTypes = method.getParameterTypes();
+			for (int i = 0; i < parameters.length; i++) {
+				ToolParam tp = parameters[i].getAnnotation(ToolParam.class);
+				this.parameterNames[i] = (tp != null && !"".equals(tp.name())) ? tp.name() : parameters[i].getName();
+			}
+			this.inputSchema = createInputSchema(description, parameters, parameterTypes);
+			this.invoker = MethodHandles.publicLookup().unreflect(method).bindTo(service)
+					.asSpreader(Object[].class, parameters.length)
+					.asType(MethodType.methodType(Object.class, Object[].class));
+		}
+
+		public Object getService() {
+			return service;
+		}
+
+		public ToolDescription getDescription() {
+			return description;
+		}
+
+		public String getName() {
+			return description.name();
+		}
+
+		/**
+		 * @return the JSON schema of the tool input, an object with a property for
+		 *         each tool parameter
+		 */
+		public String getInputSchema() {
+			return inputSchema;
+		}
+
+		/**
+		 * Call the tool.
+		 *
+		 * @param args the arguments, in the order of the method parameters
+		 * @return the result, <code>null</code> for void methods
+		 * @throws IllegalStateException if the service has been removed from the
+		 *                               registry
+		 * @throws Throwable             any exception thrown by the tool method
+		 */
+		public Object invoke(Object... args) throws Throwable {
+			if (removed) {
+				throw new IllegalStateException("Service of tool=" + description.name() + " has been removed");
+			}
+			return (Object) invoker.invokeExact(args);
+		}
+
+		/**
+		 * Call the tool with named arguments. Numbers are converted to the
+		 * parameter type, as JSON parsers do not know the parameter types.
+		 *
+		 * @param arguments parameter name -&gt; argument value
+		 * @return the result, <code>null</code> for void methods
+		 * @throws IllegalArgumentException if an argument for a primitive
+		 *                                  parameter is missing
+		 * @throws Throwable                any exception thrown by the tool method
+		 */
+		public Object invoke(Map<String, ?> arguments) throws Throwable {
+			Object[] args = new Object[parameterNames.length];
+			for (int i = 0; i < args.length; i++) {
+				Object value = (arguments == null) ? null : arguments.get(parameterNames[i]);
+				if (value == null && parameterTypes[i].isPrimitive()) {
+					throw new IllegalArgumentException(
+							"Missing argument=" + parameterNames[i] + " for tool=" + description.name());
+				}
+				args[i] = convert(value, parameterTypes[i]);
+			}
+			return invoke(args);
+		}
+	}
+
+	/**
+	 * service -&gt; tools of the service. Guarded by this.
+	 */
+	private final Map<Object, List<RegisteredTool>> services = new IdentityHashMap<Object, List<RegisteredTool>>();
+
+	/**
+	 * The services in the order they have been added. Guarded by this.
+	 */
+	private final List<Object> serviceOrder = new ArrayList<Object>();
+
+	/**
+	 * Snapshots of the tools of all services, replaced on every change
+	 */
+	private volatile List<RegisteredTool> tools = Collections.emptyList();
+
+	private volatile List<ToolDescription> descriptions = Collections.emptyList();
+
+	private volatile Map<String, RegisteredTool> toolsByName = Collections.emptyMap();
+
+	/**
+	 * Add the tools of a service. If the service has already been added, its
+	 * tools are not computed again.
+	 *
+	 * @param service            the service
+	 * @param interfaceClassName the name of the tool interface implemented by the
+	 *                           service
+	 * @return the tools of the service
+	 * @throws IllegalAccessException if a tool method is not accessible
+	 */
+	public synchronized List<RegisteredTool> addService(Object service, String interfaceClassName)
+			throws IllegalAccessException {
+		List<RegisteredTool> serviceTools = services.get(service);
+		if (serviceTools == null) {
+			serviceTools = new ArrayList<RegisteredTool>();
+			for (Class<?> c : service.getClass().getInterfaces()) {
+				if (c.getName().equals(interfaceClassName)) {
+					for (Method m : c.getMethods()) {
+						ToolDescription td = ToolDescription.fromMethod(m);
+						if (td != null) {
+							serviceTools.add(new RegisteredTool(service, m, td));
+						}
+					}
+					break;
+				}
+			}
+			serviceTools = Collections.unmodifiableList(serviceTools);
+			services.put(service, serviceTools);
+			serviceOrder.add(service);
+			update();
+		}
+		return serviceTools;
+	}
+
+	/**
+	 * Remove the tools of a service.
+	 *
+	 * @param service the service
+	 * @return <code>true</code> if the service had been added
+	 */
+	public synchronized boolean removeService(Object service) {
+		List<RegisteredTool> serviceTools = services.remove(service);
+		if (serviceTools == null) {
+			return false;
+		}
+		for (RegisteredTool t : serviceTools) {
+			t.removed = true;
+		}
+		for (int i = 0; i < serviceOrder.size(); i++) {
+			if (serviceOrder.get(i) == service) {
+				serviceOrder.remove(i);
+				break;
+			}
+		}
+		update();
+		return true;
+	}
+
+	/**
+	 * @return the tools of all services, in the order the services have been
+	 *         added
+	 */
+	public List<RegisteredTool> getTools() {
+		return tools;
+	}
+
+	/**
+	 * @return the descriptions of the tools of all services, in the order the
+	 *         services have been added
+	 */
+	public List<ToolDescription> getToolDescriptions() {
+		return descriptions;
+	}
+
+	/**
+	 * @param name the tool name
+	 * @return the first tool with the given name, or <code>null</code> if there
+	 *         is none
+	 */
+	public RegisteredTool getTool(String name) {
+		return toolsByName.get(name);
+	}
+
+	private void update() {
+		List<RegisteredTool> newTools = new ArrayList<RegisteredTool>();
+		for (Object service : serviceOrder) {
+			newTools.addAll(services.get(service));
+		}
+		List<ToolDescription> newDescriptions = new ArrayList<ToolDescription>(newTools.size());
+		Map<String, RegisteredTool> newByName = new HashMap<String, RegisteredTool>();
+		for (RegisteredTool t : newTools) {
+			newDescriptions.add(t.description);
+			newByName.putIfAbsent(t.getName(), t);
+		}
+		this.tools = Collections.unmodifiableList(newTools);
+		this.descriptions = Collections.unmodifiableList(newDescriptions);
+		this.toolsByName = newByName;
+	}
+
+	static Object convert(Object value, Class<?> type) {
+		if (value instanceof Number) {
+			Number n = (Number) value;
+			if (type == int.class || type == Integer.class) {
+				return n.intValue();
+			} else if (type == long.class || type == Long.class) {
+				return n.longValue();
+			} else if (type == double.class || type == Double.class) {
+				return n.doubleValue();
+			} else if (type == float.class || type == Float.class) {
+				return n.floatValue();
+			} else if (type == short.class || type == Short.class) {
+				return n.shortValue();
+			} else if (type == byte.class || type == Byte.class) {
+				return n.byteValue();
+			}
+		}
+		return value;
+	}
+
+	static String createInputSchema(ToolDescription description, Parameter[] parameters, Class<?>[] types) {
+		StringBuilder sb = new StringBuilder("{\"type\":\"object\",\"properties\":{");
+		List<ToolParamDescription> params = description.toolParamDescriptions();
+		List<String> required = new ArrayList<String>();
+		int p = 0;
+		for (int i = 0; i < parameters.length; i++) {
+			if (parameters[i].getAnnotation(ToolParam.class) == null) {
+				continue;
+			}
+			ToolParamDescription tpd = params.get(p);
+			if (p++ > 0) {
+				sb.append(',');
+			}
+			appendString(sb, tpd.name()).append(":{\"type\":");
+			appendString(sb, getJsonType(types[i]));
+			if (!"".equals(tpd.description())) {
+				appendString(sb.append(",\"description\":"), tpd.description());
+			}
+			sb.append('}');
+			if (tpd.required()) {
+				required.add(tpd.name());
+			}
+		}
+		sb.append("},\"required\":[");
+		for (int i = 0; i < required.size(); i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			appendString(sb, required.get(i));
+		}
+		return sb.append("]}").toString();
+	}
+
+	static String getJsonType(Class<?> type) {
+		if (type == String.class || type == char.class || type == Character.class) {
+			return "string";
+		} else if (type == boolean.class || type == Boolean.class) {
+			return "boolean";
+		} else if (type == int.class || type == long.class || type == short.class || type == byte.class
+				|| type == Integer.class || type == Long.class || type == Short.class || type == Byte.class
+				|| type == BigInteger.class) {
+			return "integer";
+		} else if (type.isPrimitive() || Number.class.isAssignableFrom(type)) {
+			return "number";
+		} else if (type.isArray() || Collection.class.isAssignableFrom(type)) {
+			return "array";
+		}
+		return "object";
+	}
+
+	private static StringBuilder appendString(StringBuilder sb, String s) {
+		sb.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		return sb.append('"');
+	}
+}
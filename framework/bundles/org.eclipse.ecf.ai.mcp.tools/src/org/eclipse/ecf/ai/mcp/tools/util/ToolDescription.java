@@ -10,7 +10,9 @@
 package org.eclipse.ecf.ai.mcp.tools.util;
 
 import java.io.Serializable;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -24,23 +26,38 @@ import org.eclipse.ecf.ai.mcp.tools.annotation.ToolAnnotations;
 public record ToolDescription(String name, String description, List<ToolParamDescription> toolParamDescriptions,
 		ToolResultDescription resultDescription, ToolAnnotationsDescription toolAnnotationsDescription) implements Serializable {
 
-	public static List<ToolDescription> fromClass(Class<?> clazz) {
-		return Arrays.asList(clazz.getMethods()).stream().map(m -> {
-			// skip static methods
-			if (!Modifier.isStatic(m.getModifiers())) {
-				// Look for Tool annotation
-				Tool ma = m.getAnnotation(Tool.class);
-				if (ma != null) {
-					// Look for ToolAnnotations method annotation
-					ToolAnnotations tas = m.getAnnotation(ToolAnnotations.class);
-					return new ToolDescription(m.getName(), ma.description(),
-							ToolParamDescription.fromParameters(m.getParameters()), ToolResultDescription.fromMethod(m),
-							ToolAnnotationsDescription.fromAnnotations(tas));
-				}
+	/**
+	 * Tool descriptions of a class, computed once per class
+	 */
+	private static final ClassValue<List<ToolDescription>> descriptions = new ClassValue<List<ToolDescription>>() {
+		@Override
+		protected List<ToolDescription> computeValue(Class<?> clazz) {
+			return Collections.unmodifiableList(Arrays.asList(clazz.getMethods()).stream()
+					.map(ToolDescription::fromMethod).filter(Objects::nonNull).collect(Collectors.toList()));
+		}
+	};
+
+	/**
+	 * @since 2.2
+	 */
+	public static ToolDescription fromMethod(Method m) {
+		// skip static methods
+		if (!Modifier.isStatic(m.getModifiers())) {
+			// Look for Tool annotation
+			Tool ma = m.getAnnotation(Tool.class);
+			if (ma != null) {
+				// Look for ToolAnnotations method annotation
+				ToolAnnotations tas = m.getAnnotation(ToolAnnotations.class);
+				return new ToolDescription(m.getName(), ma.description(),
+						ToolParamDescription.fromParameters(m.getParameters()), ToolResultDescription.fromMethod(m),
+						ToolAnnotationsDescription.fromAnnotations(tas));
 			}
-			return null;
-		}).filter(Objects::nonNull).collect(Collectors.toList());
+		}
+		return null;
+	}
 
+	public static List<ToolDescription> fromClass(Class<?> clazz) {
+		return new ArrayList<ToolDescription>(descriptions.get(clazz));
 	}
 
 	public static List<ToolDescription> fromService(Object svc, String serviceClass) {
@@ -13,7 +13,6 @@
 package org.eclipse.ecf.ai.mcp.transports;
 
 import java.io.IOException;
-import java.io.InterruptedIOException;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
@@ -21,9 +20,12 @@ import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -49,14 +51,30 @@ public abstract class AbstractStringChannel {
 		return this.messageDelimiter;
 	}
 
+	/**
+	 * @deprecated writes never block, see {@link #setMaxQueuedBytes(int)}
+	 */
+	@Deprecated
 	public static int DEFAULT_WRITE_TIMEOUT = 5000; // ms
 
+	/**
+	 * @deprecated writes never block, see {@link #maxQueuedBytes}
+	 */
+	@Deprecated
 	protected int writeTimeout = DEFAULT_WRITE_TIMEOUT;
 
+	/**
+	 * @deprecated writes never block, see {@link #setMaxQueuedBytes(int)}
+	 */
+	@Deprecated
 	protected void setWriteTimeout(int timeout) {
 		this.writeTimeout = timeout;
 	}
 
+	/**
+	 * @deprecated writes never block, see {@link #getMaxQueuedBytes()}
+	 */
+	@Deprecated
 	protected int getWriteTimeout() {
 		return this.writeTimeout;
 	}
@@ -85,14 +103,96 @@ public abstract class AbstractStringChannel {
 		return this.terminationTimeout;
 	}
 
+	/**
+	 * @since 1.1
+	 */
+	public static int DEFAULT_MAX_QUEUED_BYTES = 16 * 1024 * 1024;
+
+	protected int maxQueuedBytes = DEFAULT_MAX_QUEUED_BYTES;
+
+	/**
+	 * Set the maximum number of bytes queued for writing to a connection. If
+	 * writing a message would exceed it, the write fails with an IOException.
+	 * 
+	 * @param max the maximum number of queued bytes
+	 * @since 1.1
+	 */
+	protected void setMaxQueuedBytes(int max) {
+		this.maxQueuedBytes = max;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	protected int getMaxQueuedBytes() {
+		return this.maxQueuedBytes;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public static int DEFAULT_MAX_MESSAGE_LENGTH = 16 * 1024 * 1024;
+
+	protected int maxMessageLength = DEFAULT_MAX_MESSAGE_LENGTH;
+
+	/**
+	 * Set the maximum length in bytes of a message read from a connection,
+	 * without the delimiter. If a connection sends a longer message, it is
+	 * closed.
+	 *
+	 * @param max the maximum message length
+	 * @since 1.1
+	 */
+	protected void setMaxMessageLength(int max) {
+		this.maxMessageLength = max;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	protected int getMaxMessageLength() {
+		return this.maxMessageLength;
+	}
+
+	/**
+	 * Maximum number of queued buffers written with one gathering write
+	 */
+	private static final int MAX_GATHERED_BUFFERS = 64;
+
 	protected final Selector selector;
 
+	/**
+	 * @deprecated incoming bytes are read into the per connection
+	 *             {@link AttachedIO#readBuffer}
+	 */
+	@Deprecated
 	protected final ByteBuffer inBuffer;
 
+	protected final int incomingBufferSize;
+
 	protected final ExecutorService executor;
 
+	/**
+	 * Executor that read handlers are run on, so that the selector thread only
+	 * does I/O. The messages of a connection are handled in the order they were
+	 * read, and concurrently with the messages of other connections.
+	 * 
+	 * @since 1.1
+	 */
+	protected final ExecutorService messageExecutor;
+
+	/**
+	 * Whether the {@link #messageExecutor} was created by this channel, and is
+	 * shut down with it
+	 */
+	private final boolean ownsMessageExecutor;
+
 	protected final Object writeLock = new Object();
 
+	private byte[] delimiterBytes;
+
+	private String delimiterBytesFor;
+
 	@FunctionalInterface
 	public interface IOConsumer<T> {
 
@@ -102,17 +202,80 @@ public abstract class AbstractStringChannel {
 
 	protected class AttachedIO {
 
+		/**
+		 * The first queued buffer, if it could not be written completely
+		 */
 		public ByteBuffer writing;
 
+		/**
+		 * @deprecated incoming bytes are read into {@link #readBuffer}
+		 */
+		@Deprecated
 		public StringBuffer reading;
 
+		/**
+		 * Incoming bytes of messages that have not been completely read yet. In
+		 * write mode between reads.
+		 * 
+		 * @since 1.1
+		 */
+		public ByteBuffer readBuffer;
+
+		/**
+		 * Position in {@link #readBuffer} up to which it has been scanned for the
+		 * delimiter
+		 */
+		int scanned;
+
+		/**
+		 * Buffers queued for writing, and the number of bytes remaining in them.
+		 * Guarded by this AttachedIO.
+		 */
+		final Deque<QueuedWrite> writeQueue = new ArrayDeque<QueuedWrite>();
+
+		int queuedBytes;
+
+		/**
+		 * Completes when the last message read has been handled
+		 */
+		CompletableFuture<Void> handled = CompletableFuture.completedFuture(null);
+
 	}
 
-	public AbstractStringChannel(Selector selector, int incomingBufferSize, ExecutorService executor) {
+	private static class QueuedWrite {
+
+		final ByteBuffer buffer;
+
+		final IOConsumer<Object> writeHandler;
+
+		QueuedWrite(ByteBuffer buffer, IOConsumer<Object> writeHandler) {
+			this.buffer = buffer;
+			this.writeHandler = writeHandler;
+		}
+	}
+
+	/**
+	 * @param messageExecutor executor that read handlers are run on. If
+	 *                        <code>null</code>, the channel creates a thread
+	 *                        pool and shuts it down when closed. A supplied
+	 *                        executor is not shut down by the channel.
+	 * @since 1.1
+	 */
+	public AbstractStringChannel(Selector selector, int incomingBufferSize, ExecutorService executor,
+			ExecutorService messageExecutor) {
 		Objects.requireNonNull(selector, "Selector must not be null");
 		this.selector = selector;
-		this.inBuffer = ByteBuffer.allocate(incomingBufferSize);
+		this.incomingBufferSize = incomingBufferSize;
+		this.inBuffer = ByteBuffer.allocate(0);
 		this.executor = (executor == null) ? Executors.newSingleThreadExecutor() : executor;
+		// The handlers of a connection are chained (see handleMessage), so each
+		// connection is handled in order on a pooled thread of its own
+		this.ownsMessageExecutor = (messageExecutor == null);
+		this.messageExecutor = this.ownsMessageExecutor ? Executors.newCachedThreadPool() : messageExecutor;
+	}
+
+	public AbstractStringChannel(Selector selector, int incomingBufferSize, ExecutorService executor) {
+		this(selector, incomingBufferSize, executor, null);
 	}
 
 	public AbstractStringChannel(Selector selector, int incomingBufferSize) {
@@ -143,10 +306,13 @@ public abstract class AbstractStringChannel {
 							handleConnectable(key, connectHandler);
 						} else if (key.isAcceptable()) {
 							handleAcceptable(key, acceptHandler);
-						} else if (key.isReadable()) {
-							handleReadable(key, readHandler);
-						} else if (key.isWritable()) {
-							handleWritable(key);
+						} else {
+							if (key.isReadable()) {
+								handleReadable(key, readHandler);
+							}
+							if (key.isValid() && key.isWritable()) {
+								handleWritable(key);
+							}
 						}
 						iter.remove();
 					}
@@ -176,12 +342,13 @@ public abstract class AbstractStringChannel {
 	protected void handleConnectable(SelectionKey key, IOConsumer<SocketChannel> connectHandler) throws IOException {
 		SocketChannel client = (SocketChannel) key.channel();
 		debug("client={}", client);
+		if (!client.isConnected() && (!client.isConnectionPending() || !client.finishConnect())) {
+			// Not connected yet, wait for next OP_CONNECT
+			return;
+		}
+		debug("connected client={}", client);
 		client.configureBlocking(false);
 		client.register(this.selector, SelectionKey.OP_READ, new AttachedIO());
-		if (client.isConnectionPending()) {
-			client.finishConnect();
-			debug("connected client={}", client);
-		}
 		if (connectHandler != null) {
 			connectHandler.apply(client);
 		}
@@ -219,47 +386,106 @@ public abstract class AbstractStringChannel {
 		SocketChannel client = (SocketChannel) key.channel();
 		AttachedIO io = getAttachedIO(key);
 		debug("read client={}", client);
+		if (io.readBuffer == null) {
+			io.readBuffer = ByteBuffer.allocateDirect(this.incomingBufferSize);
+		}
+		ByteBuffer buf = io.readBuffer;
 		// read
-		int r = client.read(this.inBuffer);
+		int r = client.read(buf);
 		// Check if we should expect any more reads
 		if (r == -1) {
 			throw new IOException("Channel read reached end of stream");
 		}
-		this.inBuffer.flip();
-		String partial = new String(this.inBuffer.array(), 0, r, StandardCharsets.UTF_8);
-		// If there is previous partial, get the io.reading string Buffer
-		StringBuffer sb = (io.reading != null) ? (StringBuffer) io.reading : new StringBuffer();
-		// append the just read partial to the existing or new string buffer
-		sb.append(partial);
-		if (partial.endsWith(messageDelimiter)) {
-			// Get the entire message from the string buffer
-			String message = sb.toString();
-			// Set the io.reading value to null as we are done with this message
-			io.reading = null;
-			debug("read client={} msg=", client, message);
-			if (readHandler != null) {
-				String[] messages = splitMessage(message);
-				for (int i = 0; i < messages.length; i++) {
-					readHandler.apply(messages[i]);
+		// Scan the new bytes for the delimiter. Complete messages are decoded
+		// from the buffer, so multibyte characters are never split
+		byte[] delim = getDelimiterBytes();
+		int end = buf.position();
+		int start = 0;
+		int i = io.scanned;
+		while (i + delim.length <= end) {
+			if (isDelimiterAt(buf, i, delim)) {
+				if (i > start) {
+					String message = StandardCharsets.UTF_8.decode(buf.slice(start, i - start)).toString();
+					debug("read client={} msg={}", client, message);
+					handleMessage(key, io, message, readHandler);
 				}
+				i += delim.length;
+				start = i;
+			} else {
+				i++;
+			}
+		}
+		if (start > 0) {
+			// Move the partial message to the start of the buffer
+			buf.flip();
+			buf.position(start);
+			buf.compact();
+			i -= start;
+			if (buf.capacity() > this.incomingBufferSize && buf.position() < this.incomingBufferSize) {
+				// A large message has been read, release the grown buffer
+				ByteBuffer smaller = ByteBuffer.allocateDirect(this.incomingBufferSize);
+				buf.flip();
+				smaller.put(buf);
+				io.readBuffer = buf = smaller;
 			}
-		} else {
-			io.reading = sb;
-			debug("read partial={}", partial);
 		}
-		// Clear inbuffer for next read
-		this.inBuffer.clear();
+		io.scanned = i;
+		if (!buf.hasRemaining()) {
+			// Message larger than the buffer. Room for the longest allowed message
+			// and its delimiter is enough
+			long limit = (long) this.maxMessageLength + delim.length;
+			if (buf.capacity() >= limit) {
+				throw new IOException("Message too large.  read=" + buf.position() + " maxMessageLength="
+						+ this.maxMessageLength);
+			}
+			ByteBuffer larger = ByteBuffer.allocateDirect((int) Math.min(buf.capacity() * 2L, limit));
+			buf.flip();
+			larger.put(buf);
+			io.readBuffer = larger;
+		}
 	}
 
-	protected void handleWritable(SelectionKey key) throws IOException {
-		ByteBuffer buf = getAttachedIO(key).writing;
-		SocketChannel client = (SocketChannel) key.channel();
-		if (buf != null) {
-			doWrite(key, client, buf, (o) -> {
-				synchronized (writeLock) {
-					writeLock.notifyAll();
+	private byte[] getDelimiterBytes() {
+		String delim = this.messageDelimiter;
+		if (delim != this.delimiterBytesFor) {
+			this.delimiterBytes = delim.getBytes(StandardCharsets.UTF_8);
+			this.delimiterBytesFor = delim;
+		}
+		return this.delimiterBytes;
+	}
+
+	private static boolean isDelimiterAt(ByteBuffer buf, int index, byte[] delim) {
+		for (int j = 0; j < delim.length; j++) {
+			if (buf.get(index + j) != delim[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Hand a message read from a connection to the read handler. The read
+	 * handler is run on the {@link #messageExecutor}, after the handler of the
+	 * previous message of the connection has completed.
+	 * 
+	 * @since 1.1
+	 */
+	protected void handleMessage(SelectionKey key, AttachedIO io, String message, IOConsumer<String> readHandler) {
+		if (readHandler != null) {
+			io.handled = io.handled.thenRunAsync(() -> {
+				try {
+					readHandler.apply(message);
+				} catch (Throwable e) {
+					handleException(key, e);
 				}
-			});
+			}, this.messageExecutor);
+		}
+	}
+
+	protected void handleWritable(SelectionKey key) throws IOException {
+		AttachedIO io = getAttachedIO(key);
+		synchronized (io) {
+			flush(key, (SocketChannel) key.channel(), io);
 		}
 	}
 
@@ -270,29 +496,74 @@ public abstract class AbstractStringChannel {
 				writeHandler);
 	}
 
+	/**
+	 * Queue a buffer for writing to a connection. If nothing else is queued, as
+	 * much as possible is written right away, the rest is written by the
+	 * selector thread when the connection is writable. Never blocks.
+	 * 
+	 * @param writeHandler called when the buffer has been written completely.
+	 *                     May be <code>null</code>.
+	 */
 	protected void doWrite(SelectionKey key, SocketChannel client, ByteBuffer buf, IOConsumer<Object> writeHandler)
 			throws IOException {
-		AttachedIO io = (AttachedIO) key.attachment();
-		synchronized (writeLock) {
-			int written = client.write(buf);
-			if (buf.hasRemaining()) {
-				debug("doWrite written={}, remaining={}", written, buf.remaining());
-				io.writing = buf.slice();
-				key.interestOpsOr(SelectionKey.OP_WRITE);
-			} else {
-				if (logger.isDebugEnabled()) {
-					logger.debug("doWrite message={}", new String(buf.array(), 0, written));
+		if (key == null || !key.isValid()) {
+			throw new IOException("Channel not registered or closed");
+		}
+		AttachedIO io = getAttachedIO(key);
+		synchronized (io) {
+			if (io.queuedBytes + buf.remaining() > this.maxQueuedBytes) {
+				throw new IOException("Write queue full.  queued=" + io.queuedBytes + " maxQueuedBytes="
+						+ this.maxQueuedBytes);
+			}
+			io.writeQueue.add(new QueuedWrite(buf, writeHandler));
+			io.queuedBytes += buf.remaining();
+			if (io.writeQueue.size() == 1) {
+				flush(key, client, io);
+			}
+		}
+	}
+
+	/**
+	 * Write queued buffers until the queue is empty or the connection does not
+	 * take more. Must be called holding the lock of io.
+	 */
+	private void flush(SelectionKey key, SocketChannel client, AttachedIO io) throws IOException {
+		while (!io.writeQueue.isEmpty()) {
+			int n = Math.min(io.writeQueue.size(), MAX_GATHERED_BUFFERS);
+			ByteBuffer[] bufs = new ByteBuffer[n];
+			Iterator<QueuedWrite> queued = io.writeQueue.iterator();
+			for (int i = 0; i < n; i++) {
+				bufs[i] = queued.next().buffer;
+			}
+			long written = client.write(bufs);
+			io.queuedBytes -= (int) written;
+			debug("doWrite written={}, queued={}", written, io.queuedBytes);
+			while (!io.writeQueue.isEmpty() && !io.writeQueue.peek().buffer.hasRemaining()) {
+				QueuedWrite w = io.writeQueue.poll();
+				if (w.writeHandler != null) {
+					w.writeHandler.apply(null);
 				}
-				io.writing = null;
-				key.interestOps(SelectionKey.OP_READ);
-				if (writeHandler != null) {
-					writeHandler.apply(null);
+			}
+			if (bufs[n - 1].hasRemaining()) {
+				// The connection does not take more now, continue when writable
+				io.writing = io.writeQueue.peek().buffer;
+				if ((key.interestOps() & SelectionKey.OP_WRITE) == 0) {
+					key.interestOpsOr(SelectionKey.OP_WRITE);
+					this.selector.wakeup();
 				}
+				return;
 			}
 		}
+		io.writing = null;
+		if ((key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+			key.interestOpsAnd(~SelectionKey.OP_WRITE);
+		}
 	}
 
 	protected void executorShutdown() {
+		if (this.ownsMessageExecutor && !this.messageExecutor.isShutdown()) {
+			this.messageExecutor.shutdown();
+		}
 		if (!this.executor.isShutdown()) {
 			debug("shutdown");
 			try {
@@ -325,39 +596,46 @@ public abstract class AbstractStringChannel {
 		}
 	}
 
+	/**
+	 * Queue a message for writing to a channel. Embedded line breaks are escaped
+	 * and the message delimiter is appended. Does not wait for the message to be
+	 * written.
+	 */
 	protected void writeMessageToChannel(SocketChannel client, String message) throws IOException {
 		Objects.requireNonNull(client, "Client must not be null");
 		Objects.requireNonNull(message, "Message must not be null");
-		// Escape any embedded newlines in the JSON message
-		String outputMessage = message.replace("\r\n", "\\n").replace("\n", "\\n").replace("\r", "\\n")
-				// add message delimiter
-				.concat(DEFAULT_MESSAGE_DELIMITER);
+		String outputMessage = escapeLineBreaks(message).concat(DEFAULT_MESSAGE_DELIMITER);
 		debug("writing msg={}", outputMessage);
-		synchronized (writeLock) {
-			// do the non blocking write in thread while holding lock.
-			doWrite(client, outputMessage, null);
-			ByteBuffer bufRemaining = null;
-			long waitTime = System.currentTimeMillis() + this.writeTimeout;
-			while (waitTime - System.currentTimeMillis() > 0) {
-				// Before releasing lock, check for writing buffer remaining
-				bufRemaining = getAttachedIO(client.keyFor(this.selector)).writing;
-				if (bufRemaining == null || bufRemaining.remaining() == 0) {
-					// It's done
-					break;
-				}
-				// If write is *not* completed, then wait timeout /10
-				try {
-					debug("writeBlocking WAITING(ms)={} msg={}", String.valueOf(waitTime / 10), outputMessage);
-					writeLock.wait(waitTime / 10);
-				} catch (InterruptedException e) {
-					throw new InterruptedIOException("write message wait interrupted");
+		doWrite(client, outputMessage, null);
+	}
+
+	/**
+	 * Escape any embedded newlines in the JSON message
+	 */
+	private static String escapeLineBreaks(String message) {
+		int i = 0;
+		int length = message.length();
+		while (i < length && message.charAt(i) != '\n' && message.charAt(i) != '\r') {
+			i++;
+		}
+		if (i == length) {
+			return message;
+		}
+		StringBuilder sb = new StringBuilder(length + 16).append(message, 0, i);
+		for (; i < length; i++) {
+			char c = message.charAt(i);
+			if (c == '\r') {
+				if (i + 1 < length && message.charAt(i + 1) == '\n') {
+					i++;
 				}
-			}
-			if (bufRemaining != null && bufRemaining.remaining() > 0) {
-				throw new IOException("Write not completed.  Non empty buffer remaining after timeout");
+				sb.append("\\n");
+			} else if (c == '\n') {
+				sb.append("\\n");
+			} else {
+				sb.append(c);
 			}
 		}
-		debug("writing done msg={}", outputMessage);
+		return sb.toString();
 	}
 
 	protected void configureConnectSocketChannel(SocketChannel client, SocketAddress connectAddress)
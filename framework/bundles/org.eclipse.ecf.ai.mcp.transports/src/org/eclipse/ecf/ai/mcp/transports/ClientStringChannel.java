@@ -31,6 +31,14 @@ public class ClientStringChannel extends AbstractStringChannel {
 
 	protected final Object connectLock = new Object();
 
+	/**
+	 * @since 1.1
+	 */
+	public ClientStringChannel(Selector selector, int incomingBufferSize, ExecutorService executor,
+			ExecutorService messageExecutor) {
+		super(selector, incomingBufferSize, executor, messageExecutor);
+	}
+
 	public ClientStringChannel(Selector selector, int incomingBufferSize, ExecutorService executor) {
 		super(selector, incomingBufferSize, executor);
 	}
@@ -51,24 +59,41 @@ public class ClientStringChannel extends AbstractStringChannel {
 			IOConsumer<SocketChannel> connectHandler, IOConsumer<String> readHandler) throws IOException {
 		debug("connect targetAddress={}", address);
 		client.configureBlocking(false);
-		client.register(selector, SelectionKey.OP_CONNECT);
+		// OP_CONNECT is set after connect, as an unconnected socket may be
+		// reported connectable
+		SelectionKey key = client.register(selector, 0);
 		configureConnectSocketChannel(client, address);
 		// Start the read thread before connect
 		// No/null accept handler for clients
-		start(null, (c) -> {
+		IOConsumer<SocketChannel> handler = (c) -> {
 			synchronized (connectLock) {
 				if (connectHandler != null) {
 					connectHandler.apply(c);
 				}
 				connectLock.notifyAll();
 			}
-		}, readHandler);
-
-		client.connect(address);
+		};
+		start(null, handler, readHandler);
+
+		if (client.connect(address)) {
+			// Connected immediately (e.g. unix domain socket)
+			handleConnectable(key, handler);
+		} else {
+			key.interestOps(SelectionKey.OP_CONNECT);
+		}
+		selector.wakeup();
 		try {
 			debug("connect targetAddress={}", address);
+			long waitTime = System.currentTimeMillis() + this.connectTimeout;
 			synchronized (connectLock) {
-				connectLock.wait(this.connectTimeout);
+				while (key.attachment() == null) {
+					long remaining = waitTime - System.currentTimeMillis();
+					if (remaining <= 0) {
+						throw new IOException("Connect to address=" + address + " timed out after "
+								+ String.valueOf(this.connectTimeout) + "ms");
+					}
+					connectLock.wait(remaining);
+				}
 			}
 		} catch (InterruptedException e) {
 			throw new IOException(
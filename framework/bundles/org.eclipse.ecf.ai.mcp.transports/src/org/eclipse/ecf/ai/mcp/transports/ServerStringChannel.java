@@ -33,6 +33,14 @@ public class ServerStringChannel extends AbstractStringChannel {
 		super();
 	}
 
+	/**
+	 * @since 1.1
+	 */
+	public ServerStringChannel(Selector selector, int incomingBufferSize, ExecutorService executor,
+			ExecutorService messageExecutor) {
+		super(selector, incomingBufferSize, executor, messageExecutor);
+	}
+
 	public ServerStringChannel(Selector selector, int incomingBufferSize, ExecutorService executor) {
 		super(selector, incomingBufferSize, executor);
 	}
@@ -0,0 +1,110 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.internal.provider;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.ecf.core.sharedobject.util.SimpleFIFOQueue;
+import org.eclipse.ecf.core.util.Trace;
+
+/**
+ * Queue that is drained by tasks run on an {@link Executor}, rather than by a
+ * thread blocked in {@link #dequeue()}.  At most one drain task is scheduled at
+ * any time, so queued items are consumed one at a time and in order.
+ */
+public class ExecutorFIFOQueue extends SimpleFIFOQueue {
+
+	/**
+	 * Maximum number of items consumed by one task before it is rescheduled, so
+	 * that a busy queue cannot hold on to a pool thread.
+	 */
+	public static final int MAX_DRAIN = 64;
+
+	public interface Consumer {
+		/**
+		 * Consume the head of the queue.  Called by one task at a time.
+		 * @param item the queued item.  Will not be <code>null</code>.
+		 * @return <code>true</code> if the item has been consumed and should be removed
+		 * from the queue, <code>false</code> to stop consuming items.
+		 */
+		boolean consume(Object item);
+	}
+
+	private final Executor executor;
+	private final Consumer consumer;
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+	private volatile boolean started = false;
+	private volatile boolean done = false;
+
+	private final Runnable drain = new Runnable() {
+		public void run() {
+			try {
+				for (int i = 0; i < MAX_DRAIN && !done; i++) {
+					if (isEmpty())
+						break;
+					// Only drain task removes items, so this will not block
+					final Object item = peekQueue();
+					if (item == null)
+						break;
+					if (!consumer.consume(item)) {
+						done = true;
+						break;
+					}
+					removeHead();
+				}
+			} finally {
+				scheduled.set(false);
+			}
+			if (!isEmpty())
+				schedule();
+		}
+	};
+
+	public ExecutorFIFOQueue(Executor executor, Consumer consumer) {
+		this.executor = executor;
+		this.consumer = consumer;
+	}
+
+	public boolean enqueue(Object obj) {
+		if (!super.enqueue(obj))
+			return false;
+		schedule();
+		return true;
+	}
+
+	/**
+	 * Start consuming queued items.  Items enqueued before start are kept until then.
+	 */
+	public void start() {
+		started = true;
+		schedule();
+	}
+
+	public boolean isStarted() {
+		return started && !done;
+	}
+
+	private void schedule() {
+		if (!started || done)
+			return;
+		if (scheduled.compareAndSet(false, true)) {
+			try {
+				executor.execute(drain);
+			} catch (final RejectedExecutionException e) {
+				scheduled.set(false);
+				Trace.catching(ProviderPlugin.PLUGIN_ID, ECFProviderDebugOptions.EXCEPTIONS_CATCHING, ExecutorFIFOQueue.class, "schedule", e); //$NON-NLS-1$
+			}
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.internal.provider;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.ecf.core.util.Trace;
+
+/**
+ * Thread mode of the provider, selected with the system property
+ * <code>org.eclipse.ecf.provider.threads</code>:
+ * <ul>
+ * <li><code>platform</code> (default): a platform thread per shared object and per connection loop</li>
+ * <li><code>virtual</code>: shared object events and connection sends are run by a virtual thread
+ * per task executor, and connection receive and keep alive loops run on virtual threads.  Falls
+ * back to <code>pool</code> if virtual threads are not available in the running VM.</li>
+ * <li><code>pool</code>: shared object events and connection sends are run by a bounded pool of
+ * <code>org.eclipse.ecf.provider.threads.poolsize</code> platform threads</li>
+ * </ul>
+ * In <code>pool</code> mode tasks wait in an unbounded queue while all pool threads are busy.  A
+ * shared object that blocks while handling an event, e.g. for a synchronous remote call, holds a
+ * pool thread until the response has been delivered, and the response is delivered by a task on
+ * the same pool.  <code>poolsize</code> must therefore be larger than the number of shared object
+ * events that may block at the same time, or the pool starves.  Use <code>virtual</code> or
+ * <code>platform</code> mode if that number is not known.
+ */
+public final class ProviderThreads {
+
+	public static final String MODE_PROP = "org.eclipse.ecf.provider.threads"; //$NON-NLS-1$
+
+	public static final String PLATFORM = "platform"; //$NON-NLS-1$
+	public static final String VIRTUAL = "virtual"; //$NON-NLS-1$
+	public static final String POOL = "pool"; //$NON-NLS-1$
+
+	public static final String MODE = System.getProperty(MODE_PROP, PLATFORM);
+
+	/**
+	 * Number of threads of the <code>pool</code> mode executor.  Must be larger than the number of
+	 * tasks that may block at the same time.
+	 */
+	public static final int POOL_SIZE = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.threads.poolsize", String.valueOf(Math.max(4, 2 * Runtime.getRuntime().availableProcessors())))); //$NON-NLS-1$
+
+	// Thread.ofVirtual() and Thread.Builder methods, if running on a VM with virtual threads
+	private static Method ofVirtual;
+	private static Method builderName;
+	private static Method builderUnstarted;
+
+	static {
+		if (VIRTUAL.equalsIgnoreCase(MODE)) {
+			try {
+				ofVirtual = Thread.class.getMethod("ofVirtual"); //$NON-NLS-1$
+				final Class builderClass = Class.forName("java.lang.Thread$Builder"); //$NON-NLS-1$
+				builderName = builderClass.getMethod("name", new Class[] {String.class}); //$NON-NLS-1$
+				builderUnstarted = builderClass.getMethod("unstarted", new Class[] {Runnable.class}); //$NON-NLS-1$
+			} catch (final Exception e) {
+				ofVirtual = null;
+				Trace.trace(ProviderPlugin.PLUGIN_ID, ECFProviderDebugOptions.CONNECTION, "Virtual threads not available, using thread pool"); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private static ExecutorService executor;
+
+	private ProviderThreads() {
+		// no instantiation
+	}
+
+	/**
+	 * @return <code>true</code> if virtual threads were requested and are available
+	 */
+	public static boolean isVirtual() {
+		return ofVirtual != null;
+	}
+
+	/**
+	 * @return <code>true</code> if the thread mode is not <code>platform</code>
+	 */
+	public static boolean isExecutorMode() {
+		return VIRTUAL.equalsIgnoreCase(MODE) || POOL.equalsIgnoreCase(MODE);
+	}
+
+	/**
+	 * Create a new (unstarted) thread.  In virtual mode a virtual thread is
+	 * returned, and the given thread group is ignored.
+	 *
+	 * @param group the thread group.  May be <code>null</code>.
+	 * @param runnable the runnable.  Must not be <code>null</code>.
+	 * @param name the thread name.  Must not be <code>null</code>.
+	 * @return Thread the new thread.  Will not be <code>null</code>.
+	 */
+	public static Thread newThread(ThreadGroup group, Runnable runnable, String name) {
+		if (isVirtual()) {
+			try {
+				final Object builder = builderName.invoke(ofVirtual.invoke(null, (Object[]) null), new Object[] {name});
+				return (Thread) builderUnstarted.invoke(builder, new Object[] {runnable});
+			} catch (final Exception e) {
+				Trace.catching(ProviderPlugin.PLUGIN_ID, ECFProviderDebugOptions.EXCEPTIONS_CATCHING, ProviderThreads.class, "newThread", e); //$NON-NLS-1$
+			}
+		}
+		return new Thread(group, runnable, name);
+	}
+
+	/**
+	 * @return Executor the shared executor, or <code>null</code> in <code>platform</code> mode
+	 */
+	public static synchronized Executor getExecutor() {
+		if (!isExecutorMode())
+			return null;
+		if (executor == null) {
+			if (isVirtual()) {
+				try {
+					executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null, (Object[]) null); //$NON-NLS-1$
+				} catch (final Exception e) {
+					Trace.catching(ProviderPlugin.PLUGIN_ID, ECFProviderDebugOptions.EXCEPTIONS_CATCHING, ProviderThreads.class, "getExecutor", e); //$NON-NLS-1$
+				}
+			}
+			if (executor == null) {
+				final ThreadPoolExecutor pool = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					public Thread newThread(Runnable r) {
+						final Thread t = new Thread(r, "ECF-Worker-" + count.incrementAndGet()); //$NON-NLS-1$
+						t.setDaemon(true);
+						return t;
+					}
+				});
+				pool.allowCoreThreadTimeOut(true);
+				executor = pool;
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * Shut down the shared executor, if it has been created.
+	 */
+	public static synchronized void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+}
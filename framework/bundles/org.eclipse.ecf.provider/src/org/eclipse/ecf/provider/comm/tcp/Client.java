@@ -18,14 +18,14 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.Executor;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.ecf.core.identity.ID;
 import org.eclipse.ecf.core.identity.IDFactory;
 import org.eclipse.ecf.core.sharedobject.util.SimpleFIFOQueue;
 import org.eclipse.ecf.core.util.ECFException;
 import org.eclipse.ecf.core.util.Trace;
-import org.eclipse.ecf.internal.provider.ECFProviderDebugOptions;
-import org.eclipse.ecf.internal.provider.ProviderPlugin;
+import org.eclipse.ecf.internal.provider.*;
 import org.eclipse.ecf.provider.comm.*;
 
 public final class Client implements ISynchAsynchConnection {
@@ -37,6 +37,39 @@ public final class Client implements ISynchAsynchConnection {
 	// Default maximum cached messages on object stream is 50
 	public static final int DEFAULT_MAX_BUFFER_MSG = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.comm.tcp.client.maxmsgs", "50")); //$NON-NLS-1$ //$NON-NLS-2$
 	public static final int DEFAULT_WAIT_INTERVAL = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.comm.tcp.client.waitinterval", "10")); //$NON-NLS-1$ //$NON-NLS-2$
+	/**
+	 * Whether to disable Nagle's algorithm on the socket.  Default is <code>true</code>.
+	 * @since 4.11
+	 */
+	public static final boolean DEFAULT_TCP_NODELAY = Boolean.valueOf(System.getProperty("org.eclipse.ecf.provider.comm.tcp.client.tcpnodelay", "true")).booleanValue(); //$NON-NLS-1$ //$NON-NLS-2$
+	/**
+	 * Size of the buffer between the object output stream and the socket.
+	 * @since 4.11
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.comm.tcp.client.buffersize", "32768")); //$NON-NLS-1$ //$NON-NLS-2$
+	/**
+	 * Maximum number of queued messages written before the output stream is flushed.
+	 * Set to 1 to flush after every message.
+	 * @since 4.11
+	 */
+	public static final int DEFAULT_MAX_BATCH_MSGS = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.comm.tcp.client.batchsize", "64")); //$NON-NLS-1$ //$NON-NLS-2$
+	/**
+	 * Maximum time (ms) that queued messages are written before the output stream is
+	 * flushed, when more messages keep arriving.
+	 * @since 4.11
+	 */
+	public static final long DEFAULT_MAX_BATCH_LATENCY = Long.parseLong(System.getProperty("org.eclipse.ecf.provider.comm.tcp.client.batchlatency", "5")); //$NON-NLS-1$ //$NON-NLS-2$
+	/**
+	 * Connection property (String[]) with the message codecs to offer in the connect request.
+	 * @since 4.11
+	 */
+	public static final String CODECS_PROPERTY = "org.eclipse.ecf.provider.comm.codecs"; //$NON-NLS-1$
+	/**
+	 * Connection property (String) with the message codec selected for the connection.  Not
+	 * present if messages are Java serialized.
+	 * @since 4.11
+	 */
+	public static final String CODEC_PROPERTY = "org.eclipse.ecf.provider.comm.codec"; //$NON-NLS-1$
 	protected Socket socket;
 	private String addressPort = "-1:<no endpoint>:-1"; //$NON-NLS-1$
 	// Underlying streams
@@ -45,7 +78,7 @@ public final class Client implements ISynchAsynchConnection {
 	// Event handler
 	protected ISynchAsynchEventHandler handler;
 	// Our queue
-	protected SimpleFIFOQueue queue = new SimpleFIFOQueue();
+	protected SimpleFIFOQueue queue = createQueue();
 	protected int keepAlive = 0;
 	protected Thread sendThread;
 	protected Thread rcvThread;
@@ -62,6 +95,11 @@ public final class Client implements ISynchAsynchConnection {
 	private final Object disconnectLock = new Object();
 	protected final Object outputStreamLock = new Object();
 	private int maxmsgs = DEFAULT_MAX_BUFFER_MSG;
+	// Batch state and counters.  Guarded by outputStreamLock
+	private int batchCount = 0;
+	private long batchStart = 0;
+	private volatile long sentCount = 0;
+	private volatile long flushCount = 0;
 
 	private String getHostNameForAddressWithoutLookup(InetAddress inetAddress) {
 		// First get InetAddress.toString(), which returns
@@ -155,11 +193,32 @@ public final class Client implements ISynchAsynchConnection {
 	public synchronized boolean isStarted() {
 		if (sendThread != null)
 			return sendThread.isAlive();
+		if (queue instanceof ExecutorFIFOQueue)
+			return ((ExecutorFIFOQueue) queue).isStarted() && !queue.isStopped();
 		return false;
 	}
 
+	private SimpleFIFOQueue createQueue() {
+		final Executor executor = ProviderThreads.getExecutor();
+		if (executor == null)
+			return new SimpleFIFOQueue();
+		// Messages are sent by executor tasks rather than by a sender thread
+		return new ExecutorFIFOQueue(executor, new ExecutorFIFOQueue.Consumer() {
+			public boolean consume(Object item) {
+				try {
+					// item is still at the head of the queue
+					send((Serializable) item, queue.size() > 1);
+					return true;
+				} catch (Exception e) {
+					handleException(e);
+					return false;
+				}
+			}
+		});
+	}
+
 	private void setSocketOptions(Socket aSocket) throws SocketException {
-		aSocket.setTcpNoDelay(true);
+		aSocket.setTcpNoDelay(DEFAULT_TCP_NODELAY);
 		if (keepAlive > 0) {
 			aSocket.setKeepAlive(true);
 			aSocket.setSoTimeout(keepAlive);
@@ -215,13 +274,15 @@ public final class Client implements ISynchAsynchConnection {
 			setSocketOptions(s);
 			// Now we've got a connection so set our socket
 			setSocket(s);
-			outputStream = new ObjectOutputStream(s.getOutputStream());
+			outputStream = new ObjectOutputStream(new BufferedOutputStream(s.getOutputStream(), DEFAULT_BUFFER_SIZE));
 			outputStream.flush();
 			inputStream = ProviderPlugin.getDefault().createObjectInputStream(s.getInputStream());
 			debug("connect;" + anURI); //$NON-NLS-1$
 			// send connect data and get synchronous response
-			send(new ConnectRequestMessage(anURI, (Serializable) data));
+			send(new ConnectRequestMessage(anURI, (Serializable) data, (String[]) properties.get(CODECS_PROPERTY)));
 			res = (ConnectResultMessage) readObject();
+			if (res != null && res.getCodec() != null)
+				properties.put(CODEC_PROPERTY, res.getCodec());
 		} catch (final IOException e) {
 			throw new ECFException("Exception during connection to " + remote.getName(), e); //$NON-NLS-1$
 		}
@@ -240,11 +301,12 @@ public final class Client implements ISynchAsynchConnection {
 	private void setupThreads() {
 		// Setup threads
 		debug("setupThreads()"); //$NON-NLS-1$
-		sendThread = (Thread) AccessController.doPrivileged(new PrivilegedAction() {
-			public Object run() {
-				return getSendThread();
-			}
-		});
+		if (!(queue instanceof ExecutorFIFOQueue))
+			sendThread = (Thread) AccessController.doPrivileged(new PrivilegedAction() {
+				public Object run() {
+					return getSendThread();
+				}
+			});
 		rcvThread = (Thread) AccessController.doPrivileged(new PrivilegedAction() {
 			public Object run() {
 				return getRcvThread();
@@ -253,7 +315,7 @@ public final class Client implements ISynchAsynchConnection {
 	}
 
 	Thread getSendThread() {
-		final Thread aThread = new Thread(new Runnable() {
+		final Thread aThread = ProviderThreads.newThread(null, new Runnable() {
 			public void run() {
 				Thread me = Thread.currentThread();
 				// Loop until done sending messages (thread explicitly
@@ -267,8 +329,9 @@ public final class Client implements ISynchAsynchConnection {
 					if (me.isInterrupted() || aMsg == null)
 						break;
 					try {
-						// Actually send message
-						send(aMsg);
+						// Actually send message.  Flush is deferred while more
+						// messages are queued
+						send(aMsg, queue.size() > 1);
 						// Successful...remove message from queue
 						queue.removeHead();
 					} catch (Exception e) {
@@ -314,9 +377,25 @@ public final class Client implements ISynchAsynchConnection {
 	private int resetCounter = 0;
 
 	void send(Serializable snd) throws IOException {
+		send(snd, false);
+	}
+
+	/**
+	 * Write message to the output stream.  If more is <code>true</code>, the stream
+	 * is only flushed if the current batch has reached {@link #DEFAULT_MAX_BATCH_MSGS}
+	 * messages or is older than {@link #DEFAULT_MAX_BATCH_LATENCY}.
+	 */
+	private void send(Serializable snd, boolean more) throws IOException {
 		synchronized (outputStreamLock) {
 			outputStream.writeObject(snd);
-			outputStream.flush();
+			sentCount++;
+			if (batchCount++ == 0)
+				batchStart = System.currentTimeMillis();
+			if (!more || batchCount >= DEFAULT_MAX_BATCH_MSGS || System.currentTimeMillis() - batchStart >= DEFAULT_MAX_BATCH_LATENCY) {
+				outputStream.flush();
+				flushCount++;
+				batchCount = 0;
+			}
 			if (resetCounter > this.maxmsgs) {
 				outputStream.reset();
 				resetCounter = 0;
@@ -325,6 +404,30 @@ public final class Client implements ISynchAsynchConnection {
 		}
 	}
 
+	/**
+	 * @return long the number of messages written to the output stream
+	 * @since 4.11
+	 */
+	public long getSentMessageCount() {
+		return sentCount;
+	}
+
+	/**
+	 * @return long the number of times the output stream has been flushed.  The ratio
+	 * of {@link #getSentMessageCount()} to this count is the average number of messages
+	 * per flush.
+	 * @since 4.11
+	 */
+	public long getFlushCount() {
+		return flushCount;
+	}
+
+	private boolean isWaitingForPing() {
+		synchronized (pingLock) {
+			return waitForPing;
+		}
+	}
+
 	private void handlePingResp() {
 		synchronized (pingLock) {
 			waitForPing = false;
@@ -353,7 +456,7 @@ public final class Client implements ISynchAsynchConnection {
 	}
 
 	Thread getRcvThread() {
-		final Thread aThread = new Thread(new Runnable() {
+		final Thread aThread = ProviderThreads.newThread(null, new Runnable() {
 			public void run() {
 				Thread me = Thread.currentThread();
 				// Loop forever and handle objects received.
@@ -409,6 +512,8 @@ public final class Client implements ISynchAsynchConnection {
 			sendThread.start();
 		if (rcvThread != null)
 			rcvThread.start();
+		if (queue instanceof ExecutorFIFOQueue)
+			((ExecutorFIFOQueue) queue).start();
 		// Setup and start keep alive thread
 		if (keepAlive > 0)
 			keepAliveThread = setupPing();
@@ -423,7 +528,7 @@ public final class Client implements ISynchAsynchConnection {
 	private Thread setupPing() {
 		debug("setupPing()"); //$NON-NLS-1$
 		final int pingStartWait = (new SecureRandom()).nextInt(keepAlive / 2);
-		return new Thread(new Runnable() {
+		return ProviderThreads.newThread(null, new Runnable() {
 			public void run() {
 				final Thread me = Thread.currentThread();
 				// Sleep a random interval to start
@@ -452,17 +557,19 @@ public final class Client implements ISynchAsynchConnection {
 							// thread
 							queue.enqueue(ping);
 							// send(ping);
-							int count = 0;
-							final int interval = DEFAULT_WAIT_INTERVAL;
-							while (waitForPing && count < interval) {
-								pingLock.wait(frequency / interval);
-								count++;
-							}
-							// If we haven't received a response, then we assume
-							// the remote is not reachable and throw
-							if (waitForPing)
-								throw new IOException(getAddressPort() + " remote not reachable by ping"); //$NON-NLS-1$
 						}
+						int count = 0;
+						final int interval = DEFAULT_WAIT_INTERVAL;
+						// Sleep outside of pingLock rather than wait on it, so that
+						// a virtual keep alive thread does not pin its carrier
+						while (isWaitingForPing() && count < interval) {
+							Thread.sleep(frequency / interval);
+							count++;
+						}
+						// If we haven't received a response, then we assume
+						// the remote is not reachable and throw
+						if (isWaitingForPing())
+							throw new IOException(getAddressPort() + " remote not reachable by ping"); //$NON-NLS-1$
 					} catch (final Exception e) {
 						handleException(e);
 						break;
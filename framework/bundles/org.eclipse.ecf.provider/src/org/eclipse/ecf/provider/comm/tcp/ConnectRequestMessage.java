@@ -20,12 +20,25 @@ public class ConnectRequestMessage implements Serializable {
 	private static final long serialVersionUID = 3257844363974226229L;
 	URI target;
 	Serializable data;
+	String[] codecs;
 
 	public ConnectRequestMessage(URI target, Serializable data) {
 		this.target = target;
 		this.data = data;
 	}
 
+	/**
+	 * @param target the target URI
+	 * @param data the connect data
+	 * @param codecs the message codecs supported by the requester, in order of preference.
+	 * May be <code>null</code>.
+	 * @since 4.11
+	 */
+	public ConnectRequestMessage(URI target, Serializable data, String[] codecs) {
+		this(target, data);
+		this.codecs = codecs;
+	}
+
 	public URI getTarget() {
 		return target;
 	}
@@ -34,6 +47,15 @@ public class ConnectRequestMessage implements Serializable {
 		return data;
 	}
 
+	/**
+	 * @return String[] the message codecs offered by the requester.  Will be <code>null</code>
+	 * if the requester only supports Java serialization.
+	 * @since 4.11
+	 */
+	public String[] getCodecs() {
+		return codecs;
+	}
+
 	public String toString() {
 		StringBuffer buf = new StringBuffer("ConnectRequestMessage["); //$NON-NLS-1$
 		buf.append(target).append(";").append(data).append("]"); //$NON-NLS-1$ //$NON-NLS-2$
@@ -18,15 +18,35 @@ import java.io.Serializable;
 public class ConnectResultMessage implements Serializable {
 	private static final long serialVersionUID = 3833188038300938804L;
 	Serializable data;
+	String codec;
 
 	public ConnectResultMessage(Serializable data) {
 		this.data = data;
 	}
 
+	/**
+	 * @param data the connect result data
+	 * @param codec the message codec selected for the connection.  May be <code>null</code>.
+	 * @since 4.11
+	 */
+	public ConnectResultMessage(Serializable data, String codec) {
+		this(data);
+		this.codec = codec;
+	}
+
 	public Serializable getData() {
 		return data;
 	}
 
+	/**
+	 * @return String the message codec selected by the receiver of the connect request.  Will be
+	 * <code>null</code> if messages are Java serialized.
+	 * @since 4.11
+	 */
+	public String getCodec() {
+		return codec;
+	}
+
 	public String toString() {
 		StringBuffer buf = new StringBuffer("ConnectResultMessage["); //$NON-NLS-1$
 		buf.append(data).append("]"); //$NON-NLS-1$
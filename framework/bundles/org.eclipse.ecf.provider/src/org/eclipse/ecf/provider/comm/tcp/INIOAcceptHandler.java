@@ -0,0 +1,49 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.provider.comm.tcp;
+
+import java.io.InputStream;
+import java.io.Serializable;
+import java.net.Socket;
+
+/**
+ * Accept handler for {@link NIOServer}.
+ *
+ * @since 4.11
+ */
+public interface INIOAcceptHandler extends ISocketAcceptHandler {
+	/**
+	 * Handle the connect request received on a newly accepted {@link NIOClient}.
+	 * Called on a thread of the handler executor of the client's {@link NIOEventLoopGroup},
+	 * not on the event loop thread.  Implementers must
+	 * set the event handler for the client via {@link NIOClient#setEventHandler(org.eclipse.ecf.provider.comm.ISynchAsynchEventHandler)}
+	 * before the client is started.
+	 *
+	 * @param client the accepted client.  Will not be <code>null</code>.
+	 * @param request the connect request.  Will not be <code>null</code>.
+	 * @return Serializable the data to send back to the client in the {@link ConnectResultMessage}
+	 * @throws Exception if the connect request cannot be handled.  The client is closed.
+	 */
+	public Serializable handleConnectRequest(NIOClient client, ConnectRequestMessage request) throws Exception;
+
+	/**
+	 * Handle a connection accepted by a {@link NIOServer} that was opened by a
+	 * blocking {@link Client}.  Called on a new thread, with the socket in blocking mode.
+	 *
+	 * @param aSocket the accepted socket.  Will not be <code>null</code>.
+	 * @param ins the input stream to read the client's object stream from.  Includes
+	 * any bytes already read by the server.  Will not be <code>null</code>.
+	 * @throws Exception if the connection cannot be handled.  The socket is closed.
+	 */
+	public void handleAccept(Socket aSocket, InputStream ins) throws Exception;
+}
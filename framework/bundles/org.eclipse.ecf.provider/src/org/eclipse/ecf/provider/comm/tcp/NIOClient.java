@@ -0,0 +1,790 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.provider.comm.tcp;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.*;
+import java.util.concurrent.Executor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.ecf.core.identity.ID;
+import org.eclipse.ecf.core.identity.IDFactory;
+import org.eclipse.ecf.core.util.ECFException;
+import org.eclipse.ecf.core.util.Trace;
+import org.eclipse.ecf.internal.provider.*;
+import org.eclipse.ecf.provider.comm.*;
+
+/**
+ * Non-blocking {@link ISynchAsynchConnection} implementation.  Rather than the
+ * dedicated send, receive and keep-alive threads of {@link Client}, all reads,
+ * writes and keep-alive checks for a NIOClient are done by one of the selector
+ * threads of a shared {@link NIOEventLoopGroup}.
+ * <p>
+ * The messages exchanged are the same {@link ConnectRequestMessage},
+ * {@link ConnectResultMessage}, {@link AsynchMessage}, {@link SynchMessage},
+ * {@link PingMessage} and {@link PingResponseMessage} used by {@link Client}.
+ * Each is written as a separate frame (a four byte length followed by the
+ * serialized message) so that it can be read without blocking.  A NIOClient
+ * sends {@link #PREFACE} before its first frame, which allows a {@link NIOServer}
+ * to also accept connections from blocking {@link Client}s.
+ * </p>
+ * <p>
+ * Received messages are not handled on the selector thread.  They are queued
+ * and handed to the connection's event handler in order, one at a time, by a
+ * task on the handler executor of the {@link NIOEventLoopGroup}, so a slow
+ * handler does not delay i/o for the other connections of the group.
+ * </p>
+ *
+ * @since 4.11
+ */
+public class NIOClient implements ISynchAsynchConnection {
+
+	public static final String PROTOCOL = Client.PROTOCOL;
+
+	/**
+	 * Written by a connecting NIOClient before the first frame ('ECFN').
+	 */
+	public static final int PREFACE = 0x4543464E;
+
+	public static final int DEFAULT_MAX_FRAME_SIZE = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.comm.tcp.nio.maxframesize", "67108864")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	public static final int DEFAULT_HANDSHAKE_TIMEOUT = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.comm.tcp.nio.handshaketimeout", "30000")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	public static final int DEFAULT_READ_BUFFER_SIZE = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.comm.tcp.nio.readbuffersize", "16384")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	// Maximum number of buffers handed to a single gathering write
+	private static final int MAX_GATHER = 64;
+
+	// First two bytes of a java serialization stream, i.e. a blocking Client
+	private static final int STREAM_MAGIC = 0xACED;
+
+	private static final int STATE_PREFACE = 0;
+	private static final int STATE_HANDSHAKE = 1;
+	// Connect request received, and being handled by the accept handler
+	private static final int STATE_ACCEPTING = 2;
+	private static final int STATE_OPEN = 3;
+	private static final int STATE_CLOSED = 4;
+
+	protected SocketChannel channel;
+	protected ISynchAsynchEventHandler handler;
+	protected ID containerID = null;
+	protected volatile int keepAlive = 0;
+	protected long closeTimeout = Client.DEFAULT_CLOSE_TIMEOUT;
+	protected Map properties;
+
+	private final NIOEventLoop loop;
+	private final INIOAcceptHandler acceptHandler;
+	private final ThreadGroup threadGroup;
+	private SelectionKey key;
+	private volatile int state;
+	private String addressPort = "-1:<no endpoint>:-1"; //$NON-NLS-1$
+	private volatile boolean started = false;
+
+	// Received messages, handed to the handler in order
+	private final ExecutorFIFOQueue inbound;
+
+	// Outbound frames.  Guarded by writeLock
+	private final Object writeLock = new Object();
+	private final LinkedList<ByteBuffer> writeQueue = new LinkedList<ByteBuffer>();
+	private boolean writeScheduled = false;
+	private boolean writesHeld = false;
+	private boolean closeAfterWrite = false;
+	protected boolean isClosing = false;
+
+	// Inbound.  Only accessed by loop thread
+	private final ByteBuffer readBuffer = ByteBuffer.allocate(DEFAULT_READ_BUFFER_SIZE);
+	private ByteBuffer frameBuffer;
+	private final int maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+
+	// Keep alive.  Only accessed by loop thread
+	private final long createdTime = System.currentTimeMillis();
+	private long lastReceived = createdTime;
+	private long pingSent = 0;
+	private boolean waitForPing = false;
+
+	private boolean disconnectHandled = false;
+	private final Object disconnectLock = new Object();
+
+	private final NIOEventLoop.Handler selectHandler = new NIOEventLoop.Handler() {
+		public void handleSelect(SelectionKey k) {
+			try {
+				if (k.isReadable())
+					handleRead();
+				if (k.isValid() && k.isWritable())
+					writeQueued();
+			} catch (final Exception e) {
+				handleException(e);
+			}
+		}
+
+		public void handleTick(long now) {
+			checkKeepAlive(now);
+		}
+	};
+
+	private final Runnable writeTask = new Runnable() {
+		public void run() {
+			try {
+				writeQueued();
+			} catch (final IOException e) {
+				handleException(e);
+			}
+		}
+	};
+
+	/**
+	 * Create client for connecting to a {@link NIOServer}.
+	 * @param handler the event handler.  Must not be <code>null</code>.
+	 * @param keepAlive the keep alive interval in ms.  If &lt;= 0 no keep alive is done.
+	 * @param loops the event loop group to use.  Must not be <code>null</code>.
+	 */
+	public NIOClient(ISynchAsynchEventHandler handler, int keepAlive, NIOEventLoopGroup loops) {
+		if (handler == null)
+			throw new NullPointerException("event handler cannot be null"); //$NON-NLS-1$
+		this.handler = handler;
+		this.keepAlive = keepAlive;
+		this.containerID = handler.getEventHandlerID();
+		this.properties = new HashMap();
+		this.loop = loops.next();
+		this.acceptHandler = null;
+		this.threadGroup = null;
+		this.state = STATE_HANDSHAKE;
+		this.inbound = createInboundQueue(loops.getHandlerExecutor());
+	}
+
+	/**
+	 * Create client for connecting to a {@link NIOServer}, using the default
+	 * event loop group.
+	 * @param handler the event handler.  Must not be <code>null</code>.
+	 * @param keepAlive the keep alive interval in ms.  If &lt;= 0 no keep alive is done.
+	 * @throws IOException if the default event loop group cannot be created
+	 */
+	public NIOClient(ISynchAsynchEventHandler handler, int keepAlive) throws IOException {
+		this(handler, keepAlive, NIOEventLoopGroup.getDefault());
+	}
+
+	/**
+	 * Create client for a channel accepted by a {@link NIOServer}.
+	 */
+	NIOClient(SocketChannel channel, NIOEventLoop loop, Executor handlerExecutor, INIOAcceptHandler acceptHandler, int keepAlive, ThreadGroup threadGroup) {
+		this.channel = channel;
+		this.loop = loop;
+		this.acceptHandler = acceptHandler;
+		this.keepAlive = keepAlive;
+		this.threadGroup = threadGroup;
+		this.properties = new Properties();
+		this.state = STATE_PREFACE;
+		// Nothing is written until the connect result has been sent
+		this.writesHeld = true;
+		this.inbound = createInboundQueue(handlerExecutor);
+		setAddressPort(channel.socket());
+	}
+
+	private ExecutorFIFOQueue createInboundQueue(Executor executor) {
+		final ExecutorFIFOQueue queue = new ExecutorFIFOQueue(executor, new ExecutorFIFOQueue.Consumer() {
+			public boolean consume(Object item) {
+				return handleInbound(item);
+			}
+		});
+		queue.start();
+		return queue;
+	}
+
+	private String getHostNameForAddressWithoutLookup(InetAddress inetAddress) {
+		final String inetAddressStr = inetAddress.toString();
+		final int slashPos = inetAddressStr.indexOf('/');
+		if (slashPos == 0)
+			return inetAddressStr.substring(1);
+		return inetAddressStr.substring(0, slashPos);
+	}
+
+	private void setAddressPort(Socket s) {
+		if (s != null && s.getInetAddress() != null)
+			addressPort = s.getLocalPort() + ":" //$NON-NLS-1$
+					+ getHostNameForAddressWithoutLookup(s.getInetAddress()) + ":" + s.getPort(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Set the event handler for an accepted client.  Must be called by
+	 * {@link INIOAcceptHandler#handleConnectRequest(NIOClient, ConnectRequestMessage)}.
+	 * @param handler the event handler.  Must not be <code>null</code>.
+	 */
+	public void setEventHandler(ISynchAsynchEventHandler handler) {
+		if (handler == null)
+			throw new NullPointerException("event handler cannot be null"); //$NON-NLS-1$
+		this.handler = handler;
+		this.containerID = handler.getEventHandlerID();
+	}
+
+	/**
+	 * Set the keep alive interval, e.g. to the keep alive of the container that
+	 * accepted the connect request.
+	 * @param keepAlive the keep alive interval in ms.  If &lt;= 0 no keep alive is done.
+	 */
+	public void setKeepAlive(int keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+
+	/**
+	 * @return Socket the socket for this client's channel.  May be <code>null</code> if not connected.
+	 */
+	public Socket getSocket() {
+		final SocketChannel c = channel;
+		return (c == null) ? null : c.socket();
+	}
+
+	public ID getLocalID() {
+		if (containerID != null)
+			return containerID;
+		final Socket socket = getSocket();
+		if (socket == null)
+			return null;
+		try {
+			return IDFactory.getDefault().createStringID(PROTOCOL + "://" + getHostNameForAddressWithoutLookup(socket.getLocalAddress()) //$NON-NLS-1$
+					+ ":" + socket.getLocalPort()); //$NON-NLS-1$
+		} catch (final Exception e) {
+			traceStack("Exception in getLocalID()", e); //$NON-NLS-1$
+			return null;
+		}
+	}
+
+	public void removeListener(IConnectionListener l) {
+		// XXX does not support listeners
+	}
+
+	public void addListener(IConnectionListener l) {
+		// XXX does not support listeners
+	}
+
+	public boolean isConnected() {
+		final SocketChannel c = channel;
+		return c != null && state != STATE_CLOSED && c.isConnected();
+	}
+
+	public boolean isStarted() {
+		return started && state != STATE_CLOSED;
+	}
+
+	public synchronized Object connect(ID remote, Object data, int timeout) throws ECFException {
+		debug("connect(" + remote + "," + data + "," + timeout + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		if (channel != null)
+			throw new ECFException("Already connected"); //$NON-NLS-1$
+		if (remote == null)
+			throw new ECFException("remote cannot be null"); //$NON-NLS-1$
+		URI anURI = null;
+		try {
+			anURI = new URI(remote.getName());
+		} catch (final URISyntaxException e) {
+			throw new ECFException("Invalid URI for remoteID=" + remote, e); //$NON-NLS-1$
+		}
+		ConnectResultMessage res = null;
+		SocketChannel c = null;
+		try {
+			c = SocketChannel.open();
+			final Socket s = c.socket();
+			s.setTcpNoDelay(true);
+			s.connect(new InetSocketAddress(anURI.getHost(), anURI.getPort()), timeout);
+			channel = c;
+			setAddressPort(s);
+			// Handshake is done in blocking mode, before the channel is
+			// registered with the event loop
+			final ByteBuffer preface = ByteBuffer.allocate(4);
+			preface.putInt(PREFACE).flip();
+			writeFully(c, preface);
+			writeFully(c, encode(new ConnectRequestMessage(anURI, (Serializable) data, (String[]) properties.get(Client.CODECS_PROPERTY))));
+			s.setSoTimeout(timeout);
+			final DataInputStream ins = new DataInputStream(s.getInputStream());
+			final int length = ins.readInt();
+			checkFrameLength(length);
+			final byte[] frame = new byte[length];
+			ins.readFully(frame);
+			res = (ConnectResultMessage) decode(frame);
+			if (res != null && res.getCodec() != null)
+				properties.put(Client.CODEC_PROPERTY, res.getCodec());
+			s.setSoTimeout(0);
+			c.configureBlocking(false);
+		} catch (final IOException e) {
+			closeChannel(c);
+			channel = null;
+			throw new ECFException("Exception during connection to " + remote.getName(), e); //$NON-NLS-1$
+		}
+		debug("connect;rcv:" + res); //$NON-NLS-1$
+		if (res == null)
+			throw new ECFException("Result cannot be null"); //$NON-NLS-1$
+		state = STATE_OPEN;
+		lastReceived = System.currentTimeMillis();
+		final Object ret = res.getData();
+		debug("connect;returning:" + ret); //$NON-NLS-1$
+		return ret;
+	}
+
+	private void writeFully(SocketChannel c, ByteBuffer buf) throws IOException {
+		while (buf.hasRemaining())
+			c.write(buf);
+	}
+
+	/**
+	 * Register accepted channel with the event loop.
+	 */
+	void register() {
+		loop.execute(new Runnable() {
+			public void run() {
+				try {
+					key = loop.register(channel, SelectionKey.OP_READ, selectHandler);
+				} catch (final IOException e) {
+					traceStack("Could not register accepted channel", e); //$NON-NLS-1$
+					closeChannel(channel);
+					state = STATE_CLOSED;
+				}
+			}
+		});
+	}
+
+	public synchronized void start() {
+		debug("start()"); //$NON-NLS-1$
+		if (started)
+			return;
+		started = true;
+		// Accepted clients are registered with the loop on accept
+		if (acceptHandler != null)
+			return;
+		loop.execute(new Runnable() {
+			public void run() {
+				try {
+					if (state == STATE_CLOSED)
+						return;
+					key = loop.register(channel, SelectionKey.OP_READ, selectHandler);
+					writeQueued();
+				} catch (final IOException e) {
+					handleException(e);
+				}
+			}
+		});
+	}
+
+	public void stop() {
+		debug("stop()"); //$NON-NLS-1$
+	}
+
+	public void setCloseTimeout(long t) {
+		closeTimeout = t;
+	}
+
+	// Inbound
+
+	void handleRead() throws IOException {
+		final int count = channel.read(readBuffer);
+		if (count < 0)
+			throw new EOFException(getAddressPort() + " end of stream"); //$NON-NLS-1$
+		readBuffer.flip();
+		try {
+			if (state == STATE_PREFACE && !handlePreface())
+				return;
+			while (state != STATE_CLOSED) {
+				if (frameBuffer == null) {
+					if (readBuffer.remaining() < 4)
+						break;
+					final int length = readBuffer.getInt();
+					checkFrameLength(length);
+					frameBuffer = ByteBuffer.allocate(length);
+				}
+				final int n = Math.min(readBuffer.remaining(), frameBuffer.remaining());
+				final int limit = readBuffer.limit();
+				readBuffer.limit(readBuffer.position() + n);
+				frameBuffer.put(readBuffer);
+				readBuffer.limit(limit);
+				if (frameBuffer.hasRemaining())
+					break;
+				final byte[] frame = frameBuffer.array();
+				frameBuffer = null;
+				handleFrame(frame);
+			}
+		} finally {
+			readBuffer.compact();
+		}
+	}
+
+	/**
+	 * @return true if preface was a NIOClient preface, false if not enough
+	 * data has been read yet or the connection was handed off.
+	 */
+	private boolean handlePreface() throws IOException {
+		if (readBuffer.remaining() >= 2 && (readBuffer.getShort(readBuffer.position()) & 0xFFFF) == STREAM_MAGIC) {
+			handOffToBlockingAccept();
+			return false;
+		}
+		if (readBuffer.remaining() < 4)
+			return false;
+		if (readBuffer.getInt() != PREFACE)
+			throw new InvalidObjectException(getAddressPort() + " invalid connect preface"); //$NON-NLS-1$
+		state = STATE_HANDSHAKE;
+		return true;
+	}
+
+	/**
+	 * The remote is a blocking {@link Client}, so give the socket (in blocking mode) and the bytes
+	 * read so far to the accept handler on a new thread, as {@link Server} does.
+	 */
+	private void handOffToBlockingAccept() {
+		final byte[] read = new byte[readBuffer.remaining()];
+		readBuffer.get(read);
+		state = STATE_CLOSED;
+		key.cancel();
+		loop.unregister(selectHandler);
+		// The channel is deregistered by the next select, so switch to blocking after that
+		loop.execute(new Runnable() {
+			public void run() {
+				new Thread(threadGroup, new Runnable() {
+					public void run() {
+						final Socket socket = channel.socket();
+						try {
+							channel.configureBlocking(true);
+							debug("accept blocking client:" + socket.getInetAddress()); //$NON-NLS-1$
+							acceptHandler.handleAccept(socket, new SequenceInputStream(new ByteArrayInputStream(read), socket.getInputStream()));
+						} catch (final Exception e) {
+							traceStack("Unexpected exception in handleAccept...closing", e); //$NON-NLS-1$
+							try {
+								socket.close();
+							} catch (final IOException e1) {
+								ProviderPlugin.getDefault().log(new Status(IStatus.ERROR, ProviderPlugin.PLUGIN_ID, IStatus.ERROR, "accept.close", e1)); //$NON-NLS-1$
+							}
+						}
+					}
+				}).start();
+			}
+		});
+	}
+
+	private void checkFrameLength(int length) throws IOException {
+		if (length < 0 || length > maxFrameSize)
+			throw new InvalidObjectException(getAddressPort() + " invalid frame length " + length); //$NON-NLS-1$
+	}
+
+	private void handleFrame(byte[] frame) throws IOException {
+		lastReceived = System.currentTimeMillis();
+		// Any message from the remote shows that it is reachable
+		waitForPing = false;
+		final Serializable msg = decode(frame);
+		if (state == STATE_HANDSHAKE) {
+			if (!(msg instanceof ConnectRequestMessage))
+				throw new InvalidObjectException(getAddressPort() + " expected connect request, received " + msg); //$NON-NLS-1$
+			state = STATE_ACCEPTING;
+			inbound.enqueue(msg);
+		} else if (state == STATE_ACCEPTING) {
+			// Nothing is sent by the remote until it has the connect result
+			throw new InvalidObjectException(getAddressPort() + " unexpected message before connect result " + msg); //$NON-NLS-1$
+		} else if (msg instanceof PingMessage) {
+			enqueue(encode(new PingResponseMessage()));
+		} else if (!(msg instanceof PingResponseMessage)) {
+			// lastReceived already updated for ping responses
+			inbound.enqueue(msg);
+		}
+	}
+
+	/**
+	 * Handle queued item.  Called by one inbound task at a time.
+	 * @return false if no more items should be handled
+	 */
+	boolean handleInbound(Object item) {
+		if (item instanceof DisconnectEvent) {
+			handler.handleDisconnectEvent((DisconnectEvent) item);
+			return false;
+		}
+		try {
+			if (state == STATE_ACCEPTING)
+				handleConnectRequest((ConnectRequestMessage) item);
+			else
+				handleRcv((Serializable) item);
+		} catch (final Exception e) {
+			// Queues the disconnect event after the messages already received
+			handleException(e);
+		}
+		return true;
+	}
+
+	private void handleConnectRequest(ConnectRequestMessage msg) throws IOException {
+		Serializable resp = null;
+		try {
+			resp = acceptHandler.handleConnectRequest(this, msg);
+		} catch (final Exception e) {
+			traceStack("Unexpected exception in handleConnectRequest...closing", e); //$NON-NLS-1$
+			disconnect();
+			return;
+		}
+		state = STATE_OPEN;
+		final ByteBuffer result = encode(new ConnectResultMessage(resp, (String) properties.get(Client.CODEC_PROPERTY)));
+		synchronized (writeLock) {
+			// The connect result must be the first frame sent
+			writeQueue.addFirst(result);
+			writesHeld = false;
+			// If the connect request was refused, close after sending result
+			if (!started)
+				closeAfterWrite = true;
+		}
+		writeQueued();
+	}
+
+	void handleRcv(Serializable rcv) throws IOException {
+		try {
+			if (rcv instanceof SynchMessage) {
+				// Handle synch message. The only valid synch message is
+				// 'close'.
+				handler.handleSynchEvent(new SynchEvent(this, ((SynchMessage) rcv).getData()));
+			} else if (rcv instanceof AsynchMessage) {
+				handler.handleAsynchEvent(new AsynchEvent(this, ((AsynchMessage) rcv).getData()));
+			} else
+				throw new IOException("Invalid message received"); //$NON-NLS-1$
+		} catch (final IOException e) {
+			disconnect();
+			throw e;
+		}
+	}
+
+	void checkKeepAlive(long now) {
+		if (state != STATE_OPEN) {
+			// Accepted channels that do not send a connect request are closed
+			if ((state == STATE_PREFACE || state == STATE_HANDSHAKE) && now - createdTime > DEFAULT_HANDSHAKE_TIMEOUT)
+				handleException(new SocketTimeoutException(getAddressPort() + " connect request not received")); //$NON-NLS-1$
+			return;
+		}
+		if (keepAlive <= 0 || !started)
+			return;
+		final int frequency = keepAlive / 2;
+		if (waitForPing) {
+			if (now - pingSent > frequency)
+				handleException(new IOException(getAddressPort() + " remote not reachable by ping")); //$NON-NLS-1$
+		} else if (now - lastReceived > frequency) {
+			try {
+				waitForPing = true;
+				pingSent = now;
+				enqueue(encode(new PingMessage()));
+			} catch (final IOException e) {
+				handleException(e);
+			}
+		}
+	}
+
+	// Outbound
+
+	private ByteBuffer encode(Serializable obj) throws IOException {
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final DataOutputStream dos = new DataOutputStream(bos);
+		// Placeholder for length
+		dos.writeInt(0);
+		final ObjectOutputStream oos = new ObjectOutputStream(dos);
+		oos.writeObject(obj);
+		oos.close();
+		final ByteBuffer result = ByteBuffer.wrap(bos.toByteArray());
+		result.putInt(0, result.limit() - 4);
+		return result;
+	}
+
+	private Serializable decode(byte[] frame) throws IOException {
+		final ObjectInputStream ois = ProviderPlugin.getDefault().createObjectInputStream(new ByteArrayInputStream(frame));
+		try {
+			return (Serializable) ois.readObject();
+		} catch (final ClassNotFoundException e) {
+			traceStack("readObject;classnotfoundexception", e); //$NON-NLS-1$
+			final IOException except = new IOException("Protocol violation due to class load failure"); //$NON-NLS-1$
+			except.setStackTrace(e.getStackTrace());
+			throw except;
+		}
+	}
+
+	private void enqueue(ByteBuffer frame) throws IOException {
+		synchronized (writeLock) {
+			if (state == STATE_CLOSED)
+				throw new ConnectException("Not connected"); //$NON-NLS-1$
+			writeQueue.add(frame);
+			if (writesHeld || writeScheduled || key == null)
+				return;
+			writeScheduled = true;
+		}
+		loop.execute(writeTask);
+	}
+
+	/**
+	 * Write as many queued frames as the channel will accept without blocking.  May be
+	 * called on any thread.
+	 */
+	void writeQueued() throws IOException {
+		boolean close = false;
+		synchronized (writeLock) {
+			writeScheduled = false;
+			if (writesHeld || state == STATE_CLOSED)
+				return;
+			while (!writeQueue.isEmpty()) {
+				final int count = Math.min(writeQueue.size(), MAX_GATHER);
+				final ByteBuffer[] bufs = new ByteBuffer[count];
+				final Iterator<ByteBuffer> it = writeQueue.iterator();
+				for (int i = 0; i < count; i++)
+					bufs[i] = it.next();
+				channel.write(bufs);
+				while (!writeQueue.isEmpty() && !writeQueue.getFirst().hasRemaining())
+					writeQueue.removeFirst();
+				// Socket send buffer is full
+				if (bufs[count - 1].hasRemaining())
+					break;
+			}
+			final SelectionKey k = key;
+			if (k != null && k.isValid()) {
+				final int ops = k.interestOps();
+				if (writeQueue.isEmpty())
+					k.interestOps(ops & ~SelectionKey.OP_WRITE);
+				else
+					k.interestOps(ops | SelectionKey.OP_WRITE);
+			}
+			close = writeQueue.isEmpty() && closeAfterWrite;
+			writeLock.notifyAll();
+		}
+		if (close)
+			disconnect();
+	}
+
+	public void sendAsynch(ID recipient, byte[] obj) throws IOException {
+		queueObject(recipient, obj);
+	}
+
+	public void sendAsynch(ID recipient, Object obj) throws IOException {
+		queueObject(recipient, (Serializable) obj);
+	}
+
+	public void queueObject(ID recipient, Serializable obj) throws IOException {
+		if (isClosing)
+			throw new ConnectException("Not connected"); //$NON-NLS-1$
+		enqueue(encode(new AsynchMessage(obj)));
+	}
+
+	public synchronized Serializable sendObject(ID recipient, Serializable obj) throws IOException {
+		if (state == STATE_CLOSED || isClosing)
+			throw new ConnectException("Not connected"); //$NON-NLS-1$
+		sendClose(new SynchMessage(obj));
+		return null;
+	}
+
+	/**
+	 * Queue close message, and then write on the calling thread until it has been
+	 * written or the close timeout has elapsed.  The calling thread does the
+	 * writing because the loop thread may be waiting for locks held by the caller.
+	 */
+	private void sendClose(Serializable snd) throws IOException {
+		debug("sendClose(" + snd + ")"); //$NON-NLS-1$ //$NON-NLS-2$
+		final ByteBuffer frame = encode(snd);
+		synchronized (writeLock) {
+			if (state == STATE_CLOSED)
+				throw new ConnectException("Not connected"); //$NON-NLS-1$
+			isClosing = true;
+			writeQueue.add(frame);
+			final long end = System.currentTimeMillis() + closeTimeout;
+			while (!writeQueue.isEmpty() && state != STATE_CLOSED) {
+				writeQueued();
+				final long remaining = end - System.currentTimeMillis();
+				if (writeQueue.isEmpty() || remaining <= 0)
+					break;
+				try {
+					writeLock.wait(Math.min(remaining, Client.DEFAULT_WAIT_INTERVAL));
+				} catch (final InterruptedException e) {
+					traceStack("sendClose wait", e); //$NON-NLS-1$
+					return;
+				}
+			}
+		}
+	}
+
+	public Object sendSynch(ID rec, Object obj) throws IOException {
+		return sendObject(rec, (Serializable) obj);
+	}
+
+	public Object sendSynch(ID rec, byte[] obj) throws IOException {
+		return sendObject(rec, obj);
+	}
+
+	// Close
+
+	void handleException(Throwable e) {
+		synchronized (disconnectLock) {
+			if (!disconnectHandled) {
+				disconnectHandled = true;
+				if (e != null)
+					traceStack("handleException in thread=" //$NON-NLS-1$
+							+ Thread.currentThread().getName(), e);
+				// Delivered to the handler after the messages already received
+				if (handler != null && state != STATE_PREFACE && state != STATE_HANDSHAKE && state != STATE_ACCEPTING)
+					inbound.enqueue(new DisconnectEvent(this, e, null));
+			}
+		}
+		disconnect();
+	}
+
+	private void closeChannel(SocketChannel c) {
+		if (c == null)
+			return;
+		try {
+			c.close();
+		} catch (final IOException e) {
+			traceStack("closeChannel Exception", e); //$NON-NLS-1$
+		}
+	}
+
+	public void disconnect() {
+		debug("disconnect()"); //$NON-NLS-1$
+		synchronized (writeLock) {
+			if (state == STATE_CLOSED)
+				return;
+			state = STATE_CLOSED;
+			writeQueue.clear();
+			writeLock.notifyAll();
+		}
+		// Closing the channel also cancels the key
+		closeChannel(channel);
+		loop.execute(new Runnable() {
+			public void run() {
+				loop.unregister(selectHandler);
+			}
+		});
+	}
+
+	public Map getProperties() {
+		return properties;
+	}
+
+	public void setProperties(Map props) {
+		this.properties = props;
+	}
+
+	public Object getAdapter(Class clazz) {
+		return null;
+	}
+
+	String getAddressPort() {
+		return addressPort;
+	}
+
+	protected void debug(String msg) {
+		Trace.trace(ProviderPlugin.PLUGIN_ID, ECFProviderDebugOptions.CONNECTION, getLocalID() + "." + msg); //$NON-NLS-1$
+	}
+
+	protected void traceStack(String msg, Throwable e) {
+		Trace.catching(ProviderPlugin.PLUGIN_ID, ECFProviderDebugOptions.EXCEPTIONS_CATCHING, NIOClient.class, msg, e);
+	}
+
+	public String toString() {
+		StringBuffer buf = new StringBuffer("NIOClient["); //$NON-NLS-1$
+		buf.append(getAddressPort()).append("]"); //$NON-NLS-1$
+		return buf.toString();
+	}
+}
@@ -0,0 +1,140 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.provider.comm.tcp;
+
+import java.io.IOException;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.eclipse.ecf.core.util.Trace;
+import org.eclipse.ecf.internal.provider.ECFProviderDebugOptions;
+import org.eclipse.ecf.internal.provider.ProviderPlugin;
+
+/**
+ * Single selector thread.  All channel registration, reads, writes and
+ * keep-alive checks for the channels registered with this loop are done on
+ * the loop thread.
+ */
+final class NIOEventLoop implements Runnable {
+
+	/**
+	 * Callback for channels registered with an event loop.
+	 */
+	interface Handler {
+		/**
+		 * Called on the loop thread when the given key has been selected.
+		 * @param key the selected key.  Will not be <code>null</code>.
+		 */
+		void handleSelect(SelectionKey key);
+
+		/**
+		 * Called on the loop thread roughly every {@link NIOEventLoop#TICK_INTERVAL} ms.
+		 * @param now the current time in ms
+		 */
+		void handleTick(long now);
+	}
+
+	static final long TICK_INTERVAL = 1000;
+
+	private final Selector selector;
+	private final Thread thread;
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+	// Only accessed on loop thread
+	private final Set<Handler> handlers = new HashSet<Handler>();
+	private volatile boolean closed = false;
+	private long lastTick = System.currentTimeMillis();
+
+	NIOEventLoop(ThreadGroup group, String name) throws IOException {
+		selector = Selector.open();
+		thread = new Thread(group, this, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	Selector getSelector() {
+		return selector;
+	}
+
+	boolean inEventLoop() {
+		return Thread.currentThread() == thread;
+	}
+
+	void execute(Runnable task) {
+		tasks.add(task);
+		selector.wakeup();
+	}
+
+	/**
+	 * Register channel with this loop.  Must be called on the loop thread.
+	 */
+	SelectionKey register(SelectableChannel channel, int ops, Handler handler) throws ClosedChannelException {
+		final SelectionKey key = channel.register(selector, ops, handler);
+		handlers.add(handler);
+		return key;
+	}
+
+	/**
+	 * Remove handler from keep-alive ticks.  Must be called on the loop thread.
+	 */
+	void unregister(Handler handler) {
+		handlers.remove(handler);
+	}
+
+	public void run() {
+		while (!closed) {
+			try {
+				selector.select(TICK_INTERVAL);
+				runTasks();
+				final Set<SelectionKey> selected = selector.selectedKeys();
+				for (final Iterator<SelectionKey> i = selected.iterator(); i.hasNext();) {
+					final SelectionKey key = i.next();
+					i.remove();
+					if (key.isValid())
+						((Handler) key.attachment()).handleSelect(key);
+				}
+				final long now = System.currentTimeMillis();
+				if (now - lastTick >= TICK_INTERVAL) {
+					lastTick = now;
+					final Handler[] hs = handlers.toArray(new Handler[handlers.size()]);
+					for (int i = 0; i < hs.length; i++)
+						hs[i].handleTick(now);
+				}
+			} catch (final ClosedSelectorException e) {
+				break;
+			} catch (final Exception e) {
+				Trace.catching(ProviderPlugin.PLUGIN_ID, ECFProviderDebugOptions.EXCEPTIONS_CATCHING, NIOEventLoop.class, "run", e); //$NON-NLS-1$
+			}
+		}
+		Trace.trace(ProviderPlugin.PLUGIN_ID, ECFProviderDebugOptions.CONNECTION, thread.getName() + " TERMINATING"); //$NON-NLS-1$
+	}
+
+	private void runTasks() {
+		Runnable task = null;
+		while ((task = tasks.poll()) != null) {
+			try {
+				task.run();
+			} catch (final Exception e) {
+				Trace.catching(ProviderPlugin.PLUGIN_ID, ECFProviderDebugOptions.EXCEPTIONS_CATCHING, NIOEventLoop.class, "runTasks", e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	void close() {
+		closed = true;
+		try {
+			selector.close();
+		} catch (final IOException e) {
+			Trace.catching(ProviderPlugin.PLUGIN_ID, ECFProviderDebugOptions.EXCEPTIONS_CATCHING, NIOEventLoop.class, "close", e); //$NON-NLS-1$
+		}
+	}
+}
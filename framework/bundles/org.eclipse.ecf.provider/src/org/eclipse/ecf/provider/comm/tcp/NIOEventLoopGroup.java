@@ -0,0 +1,122 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.provider.comm.tcp;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.ecf.internal.provider.ProviderThreads;
+
+/**
+ * Fixed size group of selector threads shared by {@link NIOClient} and
+ * {@link NIOServer} instances.  Connections are assigned to the loops of the
+ * group round-robin, so the number of threads used for i/o does not grow with
+ * the number of connections.  Received messages are handed to the connections'
+ * event handlers by tasks on a separate handler executor, so that the selector
+ * threads only do i/o.
+ *
+ * @since 4.11
+ */
+public class NIOEventLoopGroup {
+
+	public static final int DEFAULT_EVENT_LOOPS = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.comm.tcp.nio.eventloops", String.valueOf(Math.max(2, Runtime.getRuntime().availableProcessors())))); //$NON-NLS-1$
+
+	private static NIOEventLoopGroup defaultGroup;
+
+	private final String name;
+	private final NIOEventLoop[] loops;
+	private int next = 0;
+	// Created by this group, null if not created yet or if the provider's virtual thread executor is used
+	private ExecutorService handlerExecutor;
+
+	public NIOEventLoopGroup(String name, int size) throws IOException {
+		if (size <= 0)
+			throw new IllegalArgumentException("size must be > 0"); //$NON-NLS-1$
+		this.name = name;
+		loops = new NIOEventLoop[size];
+		for (int i = 0; i < size; i++)
+			loops[i] = new NIOEventLoop(null, name + ":" + i); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return NIOEventLoopGroup the shared group of size {@link #DEFAULT_EVENT_LOOPS}.
+	 * Will not be <code>null</code>.
+	 * @throws IOException if the group's selectors cannot be opened
+	 */
+	public static synchronized NIOEventLoopGroup getDefault() throws IOException {
+		if (defaultGroup == null)
+			defaultGroup = new NIOEventLoopGroup("ECF-NIO", DEFAULT_EVENT_LOOPS); //$NON-NLS-1$
+		return defaultGroup;
+	}
+
+	/**
+	 * Close the shared group, if it has been created.
+	 */
+	public static synchronized void closeDefault() {
+		if (defaultGroup != null) {
+			defaultGroup.close();
+			defaultGroup = null;
+		}
+	}
+
+	synchronized NIOEventLoop next() {
+		final NIOEventLoop result = loops[next];
+		next = (next + 1) % loops.length;
+		return result;
+	}
+
+	public int getSize() {
+		return loops.length;
+	}
+
+	/**
+	 * Get the executor that runs the event handlers of the group's connections.
+	 * In the <code>virtual</code> thread mode of the provider this is the
+	 * provider's shared executor, otherwise a pool of daemon threads that are
+	 * created as needed and end when idle.  Handlers may block (e.g. for
+	 * synchronous remote calls, whose responses are delivered by other
+	 * handlers), so the pool is not bounded, and the bounded executor of the
+	 * <code>pool</code> thread mode is not used.
+	 * @return Executor the handler executor.  Will not be <code>null</code>.
+	 */
+	public synchronized Executor getHandlerExecutor() {
+		if (ProviderThreads.isVirtual()) {
+			final Executor providerExecutor = ProviderThreads.getExecutor();
+			if (providerExecutor != null)
+				return providerExecutor;
+		}
+		if (handlerExecutor == null) {
+			handlerExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				public Thread newThread(Runnable r) {
+					final Thread t = new Thread(r, name + "-handler-" + count.incrementAndGet()); //$NON-NLS-1$
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return handlerExecutor;
+	}
+
+	public void close() {
+		for (int i = 0; i < loops.length; i++)
+			loops[i].close();
+		synchronized (this) {
+			if (handlerExecutor != null) {
+				handlerExecutor.shutdown();
+				handlerExecutor = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.provider.comm.tcp;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.*;
+import org.eclipse.ecf.core.util.Trace;
+import org.eclipse.ecf.internal.provider.ECFProviderDebugOptions;
+import org.eclipse.ecf.internal.provider.ProviderPlugin;
+
+/**
+ * Server socket channel that accepts {@link NIOClient} connections on one of the
+ * loops of a {@link NIOEventLoopGroup}.  Unlike {@link Server}, no thread is created
+ * per accepted connection.
+ *
+ * @since 4.11
+ */
+public class NIOServer {
+
+	private final ServerSocketChannel serverChannel;
+	private final NIOEventLoopGroup loops;
+	private final NIOEventLoop acceptLoop;
+	private final int keepAlive;
+	private INIOAcceptHandler acceptHandler;
+	private ThreadGroup threadGroup;
+
+	protected void debug(String msg) {
+		Trace.trace(ProviderPlugin.PLUGIN_ID, ECFProviderDebugOptions.CONNECTION, msg);
+	}
+
+	protected void traceStack(String msg, Throwable e) {
+		Trace.catching(ProviderPlugin.PLUGIN_ID, ECFProviderDebugOptions.EXCEPTIONS_CATCHING, NIOServer.class, msg, e);
+	}
+
+	/**
+	 * @param group thread group used for connections from blocking {@link Client}s.  May be <code>null</code>.
+	 * @param port port
+	 * @param backlog backlog
+	 * @param bindAddress a bindAddress.  May be <code>null</code>.
+	 * @param handler the accept handler.  Must not be <code>null</code>.
+	 * @param loops the event loop group to use for accepted connections.  Must not be <code>null</code>.
+	 * @param keepAlive the keep alive for accepted connections
+	 * @throws IOException if server setup cannot be done
+	 */
+	public NIOServer(ThreadGroup group, int port, int backlog, InetAddress bindAddress, INIOAcceptHandler handler, NIOEventLoopGroup loops, int keepAlive) throws IOException {
+		if (handler == null)
+			throw new NullPointerException("Accept handler cannot be null"); //$NON-NLS-1$
+		if (loops == null)
+			throw new NullPointerException("Event loop group cannot be null"); //$NON-NLS-1$
+		this.acceptHandler = handler;
+		this.threadGroup = group;
+		this.loops = loops;
+		this.keepAlive = keepAlive;
+		serverChannel = ServerSocketChannel.open();
+		try {
+			serverChannel.socket().bind(new InetSocketAddress(bindAddress, port), backlog);
+			serverChannel.configureBlocking(false);
+		} catch (final IOException e) {
+			serverChannel.close();
+			throw e;
+		}
+		acceptLoop = loops.next();
+		acceptLoop.execute(new Runnable() {
+			public void run() {
+				try {
+					acceptLoop.register(serverChannel, SelectionKey.OP_ACCEPT, acceptor);
+				} catch (final IOException e) {
+					traceStack("Could not register server channel", e); //$NON-NLS-1$
+				}
+			}
+		});
+	}
+
+	public NIOServer(int port, INIOAcceptHandler handler) throws IOException {
+		this(null, port, Server.DEFAULT_BACKLOG, null, handler, NIOEventLoopGroup.getDefault(), Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.generic.keepalive", "30000"))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private final NIOEventLoop.Handler acceptor = new NIOEventLoop.Handler() {
+		public void handleSelect(SelectionKey key) {
+			if (!key.isAcceptable())
+				return;
+			for (;;) {
+				SocketChannel channel = null;
+				try {
+					channel = serverChannel.accept();
+					if (channel == null)
+						return;
+					debug("accept:" + channel.socket().getInetAddress()); //$NON-NLS-1$
+					channel.configureBlocking(false);
+					channel.socket().setTcpNoDelay(true);
+					new NIOClient(channel, loops.next(), loops.getHandlerExecutor(), acceptHandler, keepAlive, threadGroup).register();
+				} catch (final IOException e) {
+					traceStack("Exception in accept", e); //$NON-NLS-1$
+					if (channel == null) {
+						// Server channel has failed, so give up
+						key.cancel();
+						return;
+					}
+					try {
+						channel.close();
+					} catch (final IOException e1) {
+						// ignore
+					}
+				}
+			}
+		}
+
+		public void handleTick(long now) {
+			// nothing to do
+		}
+	};
+
+	public int getLocalPort() {
+		return serverChannel.socket().getLocalPort();
+	}
+
+	public InetAddress getInetAddress() {
+		return serverChannel.socket().getInetAddress();
+	}
+
+	public synchronized void close() throws IOException {
+		debug("Closing NIOServer on port " + getLocalPort()); //$NON-NLS-1$
+		acceptLoop.execute(new Runnable() {
+			public void run() {
+				acceptLoop.unregister(acceptor);
+			}
+		});
+		serverChannel.close();
+		if (threadGroup != null) {
+			threadGroup.interrupt();
+			threadGroup = null;
+		}
+		acceptHandler = null;
+	}
+}
@@ -310,7 +310,7 @@ public abstract class ClientSOContainer extends SOContainer implements ISharedOb
 	 */
 	protected void queueContainerMessage(ContainerMessage message) throws IOException {
 		// Do it
-		connection.sendAsynch(message.getToContainerID(), serialize(message));
+		sendContainerMessage(connection, message);
 	}
 
 	/**
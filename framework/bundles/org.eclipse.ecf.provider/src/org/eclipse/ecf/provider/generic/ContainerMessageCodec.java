@@ -0,0 +1,418 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.provider.generic;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.ecf.core.identity.ID;
+import org.eclipse.ecf.internal.provider.ProviderPlugin;
+import org.eclipse.ecf.provider.comm.IAsynchConnection;
+import org.eclipse.ecf.provider.comm.IConnection;
+import org.eclipse.ecf.provider.comm.tcp.Client;
+
+/**
+ * Compact binary encoding of {@link ContainerMessage}s, used on connections
+ * that negotiated {@link #NAME} in the connect request.  The container
+ * message header and the known message types are written field by field,
+ * and IDs are interned: the first use of an ID on a connection sends the
+ * serialized ID, later uses send its index.  Data that is not a byte array
+ * or String is written with Java serialization.
+ * <p>
+ * Encoded messages start with {@link #MAGIC}, so they can be told apart from
+ * Java serialized messages (which start with 0xACED) by the receiver.
+ * <p>
+ * One instance is kept per connection.  Messages must be decoded in the
+ * order they were encoded, so encoding and queueing for send are done while
+ * holding the codec's lock (see {@link #sendAsynch(IAsynchConnection, ID, ContainerMessage, Map)}).
+ */
+final class ContainerMessageCodec {
+
+	/**
+	 * Name of this codec in the connect request/result.
+	 */
+	static final String NAME = "ecf.binary.1"; //$NON-NLS-1$
+
+	/**
+	 * Set to <code>java</code> to neither offer nor accept the binary codec.
+	 */
+	static final boolean ENABLED = !"java".equalsIgnoreCase(System.getProperty("org.eclipse.ecf.provider.generic.codec", "binary")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	static final byte MAGIC = (byte) 0xEC;
+	static final byte VERSION = 1;
+
+	static final int MAX_IDS = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.generic.codec.maxids", "4096")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final String INSTANCE_KEY = ContainerMessageCodec.class.getName();
+
+	// Message types
+	private static final int VIEW_CHANGE = 1;
+	private static final int CREATE = 2;
+	private static final int CREATE_RESPONSE = 3;
+	private static final int SHARED_OBJECT = 4;
+	private static final int SHARED_OBJECT_DISPOSE = 5;
+	private static final int JOIN_GROUP = 6;
+	private static final int LEAVE_GROUP = 7;
+	private static final int OTHER = 8;
+
+	// ID references.  Values >= ID_INDEX are table indexes
+	private static final int ID_NULL = 0;
+	private static final int ID_INLINE = 1;
+	private static final int ID_NEW = 2;
+	private static final int ID_INDEX = 3;
+
+	// Object tags
+	private static final int OBJ_NULL = 0;
+	private static final int OBJ_BYTES = 1;
+	private static final int OBJ_STRING = 2;
+	private static final int OBJ_SERIALIZED = 3;
+
+	private static final String[] CODECS = new String[] {NAME};
+
+	/**
+	 * Buffer that can be reused between messages.
+	 */
+	static final class Buffer extends ByteArrayOutputStream {
+		Buffer(int size) {
+			super(size);
+		}
+
+		byte[] array() {
+			return buf;
+		}
+	}
+
+	// Encoder state.  Guarded by this
+	private final Map<ID, Integer> encodeIDs = new HashMap<ID, Integer>();
+	private final Buffer out = new Buffer(512);
+	private final DataOutputStream dout = new DataOutputStream(out);
+
+	// Decoder state.  Only used by the connection's receiver
+	private final List<ID> decodeIDs = new ArrayList<ID>();
+	// Set when a message could not be decoded.  The ID table may no longer be in
+	// step with the sender, so no more messages are decoded
+	private boolean decodeFailed;
+
+	/**
+	 * @return String[] the codecs to offer in a connect request, or <code>null</code> if disabled
+	 */
+	static String[] getOfferedCodecs() {
+		return (ENABLED) ? CODECS : null;
+	}
+
+	/**
+	 * @param offered the codecs offered in a connect request.  May be <code>null</code>.
+	 * @return String the codec to use for the connection, or <code>null</code> for Java serialization
+	 */
+	static String selectCodec(String[] offered) {
+		if (!ENABLED || offered == null)
+			return null;
+		for (int i = 0; i < offered.length; i++)
+			if (NAME.equals(offered[i]))
+				return NAME;
+		return null;
+	}
+
+	/**
+	 * @param conn the connection.  May be <code>null</code>.
+	 * @return ContainerMessageCodec the codec for the given connection, or <code>null</code>
+	 * if the connection did not negotiate this codec
+	 */
+	static ContainerMessageCodec getCodec(IConnection conn) {
+		if (conn == null)
+			return null;
+		final Map props = conn.getProperties();
+		if (props == null)
+			return null;
+		synchronized (props) {
+			final Object codec = props.get(INSTANCE_KEY);
+			if (codec instanceof ContainerMessageCodec)
+				return (ContainerMessageCodec) codec;
+			if (!NAME.equals(props.get(Client.CODEC_PROPERTY)))
+				return null;
+			final ContainerMessageCodec result = new ContainerMessageCodec();
+			props.put(INSTANCE_KEY, result);
+			return result;
+		}
+	}
+
+	/**
+	 * Encode message and queue it for sending on the given connection.
+	 *
+	 * @param conn the connection.  Must not be <code>null</code>.
+	 * @param recipient the recipient
+	 * @param message the message to send.  Must not be <code>null</code>.
+	 * @param serialized cache of Java serialized data shared by calls for the same
+	 * broadcast message.  May be <code>null</code>.
+	 * @throws IOException if message cannot be encoded or sent
+	 */
+	synchronized void sendAsynch(IAsynchConnection conn, ID recipient, ContainerMessage message, Map<Object, byte[]> serialized) throws IOException {
+		conn.sendAsynch(recipient, encode(message, serialized));
+	}
+
+	byte[] encode(ContainerMessage message, Map<Object, byte[]> serialized) throws IOException {
+		// Subclasses of ContainerMessage are sent as is
+		if (message.getClass() != ContainerMessage.class)
+			return SOContainer.serialize(message);
+		out.reset();
+		dout.writeByte(MAGIC);
+		dout.writeByte(VERSION);
+		final Serializable data = message.getData();
+		if (data instanceof ContainerMessage.SharedObjectMessage) {
+			writeHeader(SHARED_OBJECT, message);
+			final ContainerMessage.SharedObjectMessage m = (ContainerMessage.SharedObjectMessage) data;
+			writeID(m.getFromSharedObjectID());
+			writeObject(m.getData(), serialized);
+		} else if (data instanceof ContainerMessage.ViewChangeMessage) {
+			writeHeader(VIEW_CHANGE, message);
+			final ContainerMessage.ViewChangeMessage m = (ContainerMessage.ViewChangeMessage) data;
+			final ID[] ids = m.getChangeIDs();
+			writeVarInt((ids == null) ? 0 : ids.length + 1);
+			if (ids != null)
+				for (int i = 0; i < ids.length; i++)
+					writeID(ids[i]);
+			dout.writeBoolean(m.isAdd());
+			writeObject(m.getData(), serialized);
+		} else if (data instanceof ContainerMessage.CreateMessage) {
+			writeHeader(CREATE, message);
+			writeObject(((ContainerMessage.CreateMessage) data).getData(), serialized);
+		} else if (data instanceof ContainerMessage.CreateResponseMessage) {
+			writeHeader(CREATE_RESPONSE, message);
+			final ContainerMessage.CreateResponseMessage m = (ContainerMessage.CreateResponseMessage) data;
+			writeID(m.getSharedObjectID());
+			dout.writeLong(m.getSequence());
+			writeObject(m.getException(), serialized);
+		} else if (data instanceof ContainerMessage.SharedObjectDisposeMessage) {
+			writeHeader(SHARED_OBJECT_DISPOSE, message);
+			writeID(((ContainerMessage.SharedObjectDisposeMessage) data).getSharedObjectID());
+		} else if (data instanceof ContainerMessage.JoinGroupMessage) {
+			writeHeader(JOIN_GROUP, message);
+			writeObject(((ContainerMessage.JoinGroupMessage) data).getData(), serialized);
+		} else if (data instanceof ContainerMessage.LeaveGroupMessage) {
+			writeHeader(LEAVE_GROUP, message);
+			writeObject(((ContainerMessage.LeaveGroupMessage) data).getData(), serialized);
+		} else {
+			writeHeader(OTHER, message);
+			writeObject(data, serialized);
+		}
+		dout.flush();
+		return out.toByteArray();
+	}
+
+	private void writeHeader(int type, ContainerMessage message) throws IOException {
+		dout.writeByte(type);
+		writeID(message.getFromContainerID());
+		writeID(message.getToContainerID());
+		dout.writeLong(message.getSequence());
+	}
+
+	private void writeVarInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			dout.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		dout.writeByte(value);
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		writeVarInt(bytes.length);
+		dout.write(bytes);
+	}
+
+	private void writeID(ID id) throws IOException {
+		if (id == null) {
+			writeVarInt(ID_NULL);
+			return;
+		}
+		final Integer index = encodeIDs.get(id);
+		if (index != null) {
+			writeVarInt(ID_INDEX + index.intValue());
+			return;
+		}
+		if (encodeIDs.size() < MAX_IDS) {
+			encodeIDs.put(id, Integer.valueOf(encodeIDs.size()));
+			writeVarInt(ID_NEW);
+		} else
+			writeVarInt(ID_INLINE);
+		writeBytes(SOContainer.serialize(id));
+	}
+
+	private void writeObject(Object obj, Map<Object, byte[]> serialized) throws IOException {
+		if (obj == null)
+			writeVarInt(OBJ_NULL);
+		else if (obj instanceof byte[]) {
+			writeVarInt(OBJ_BYTES);
+			writeBytes((byte[]) obj);
+		} else if (obj instanceof String) {
+			writeVarInt(OBJ_STRING);
+			writeBytes(((String) obj).getBytes(StandardCharsets.UTF_8));
+		} else {
+			writeVarInt(OBJ_SERIALIZED);
+			byte[] bytes = (serialized == null) ? null : serialized.get(obj);
+			if (bytes == null) {
+				bytes = SOContainer.serialize((Serializable) obj);
+				if (serialized != null)
+					serialized.put(obj, bytes);
+			}
+			writeBytes(bytes);
+		}
+	}
+
+	/**
+	 * Decode a received message.  If a message cannot be decoded the ID table may
+	 * no longer match the sender's, so this and all later calls throw an
+	 * IOException, and the caller must close the connection (see
+	 * {@link SOContainer#handleAsynchIOException(IOException, org.eclipse.ecf.provider.comm.AsynchEvent)}).
+	 *
+	 * @param bytes the received bytes, starting with {@link #MAGIC}.  Must not be <code>null</code>.
+	 * @return ContainerMessage the decoded message, or <code>null</code> if some of the message's
+	 * data classes could not be loaded
+	 * @throws IOException if bytes cannot be decoded
+	 */
+	ContainerMessage decode(byte[] bytes) throws IOException {
+		if (decodeFailed)
+			throw new StreamCorruptedException("Container message codec out of step after earlier decode failure"); //$NON-NLS-1$
+		try {
+			return decodeMessage(bytes);
+		} catch (final IOException e) {
+			decodeFailed = true;
+			throw e;
+		} catch (final RuntimeException e) {
+			// e.g. ClassCastException for data of the wrong type
+			decodeFailed = true;
+			throw (IOException) new StreamCorruptedException("Invalid container message: " + e).initCause(e); //$NON-NLS-1$
+		}
+	}
+
+	private ContainerMessage decodeMessage(byte[] bytes) throws IOException {
+		final DataInputStream din = new DataInputStream(new ByteArrayInputStream(bytes));
+		if (din.readByte() != MAGIC)
+			throw new StreamCorruptedException("Invalid container message"); //$NON-NLS-1$
+		final byte version = din.readByte();
+		if (version != VERSION)
+			throw new StreamCorruptedException("Unsupported container message version " + version); //$NON-NLS-1$
+		final int type = din.readByte();
+		final ID fromID = readID(din);
+		final ID toID = readID(din);
+		final long sequence = din.readLong();
+		// All IDs of a message are read before any other data, so the ID table
+		// stays in step with the sender even if the data cannot be read
+		try {
+			switch (type) {
+				case SHARED_OBJECT : {
+					final ID soID = readID(din);
+					return ContainerMessage.createSharedObjectMessage(fromID, toID, sequence, soID, readObject(din));
+				}
+				case VIEW_CHANGE : {
+					final int count = readVarInt(din);
+					ID[] ids = null;
+					if (count > 0) {
+						ids = new ID[count - 1];
+						for (int i = 0; i < ids.length; i++)
+							ids[i] = readID(din);
+					}
+					final boolean add = din.readBoolean();
+					return ContainerMessage.createViewChangeMessage(fromID, toID, sequence, ids, add, readObject(din));
+				}
+				case CREATE :
+					return ContainerMessage.createSharedObjectCreateMessage(fromID, toID, sequence, readObject(din));
+				case CREATE_RESPONSE : {
+					final ID soID = readID(din);
+					final long responseSequence = din.readLong();
+					return ContainerMessage.createSharedObjectCreateResponseMessage(fromID, toID, sequence, soID, (Throwable) readObject(din), responseSequence);
+				}
+				case SHARED_OBJECT_DISPOSE :
+					return ContainerMessage.createSharedObjectDisposeMessage(fromID, toID, sequence, readID(din));
+				case JOIN_GROUP :
+					return ContainerMessage.createJoinGroupMessage(fromID, toID, sequence, readObject(din));
+				case LEAVE_GROUP :
+					return ContainerMessage.createLeaveGroupMessage(fromID, toID, sequence, readObject(din));
+				case OTHER :
+					return new ContainerMessage(fromID, toID, sequence, readObject(din));
+				default :
+					throw new StreamCorruptedException("Invalid container message type " + type); //$NON-NLS-1$
+			}
+		} catch (final ClassNotFoundException e) {
+			ProviderPlugin.getDefault().log(new Status(IStatus.ERROR, ProviderPlugin.PLUGIN_ID, "class not found on decode", e)); //$NON-NLS-1$
+			SOContainer.printToSystemError("decode class not found", e); //$NON-NLS-1$
+			return null;
+		}
+	}
+
+	private int readVarInt(DataInputStream din) throws IOException {
+		int result = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			final int b = din.readUnsignedByte();
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return result;
+		}
+		throw new StreamCorruptedException("Invalid varint"); //$NON-NLS-1$
+	}
+
+	private byte[] readBytes(DataInputStream din) throws IOException {
+		final int length = readVarInt(din);
+		if (length < 0 || length > din.available())
+			throw new StreamCorruptedException("Invalid length " + length); //$NON-NLS-1$
+		final byte[] bytes = new byte[length];
+		din.readFully(bytes);
+		return bytes;
+	}
+
+	private Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+		return ProviderPlugin.getDefault().createObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+	}
+
+	private ID readID(DataInputStream din) throws IOException {
+		final int ref = readVarInt(din);
+		if (ref == ID_NULL)
+			return null;
+		if (ref >= ID_INDEX) {
+			final int index = ref - ID_INDEX;
+			if (index >= decodeIDs.size())
+				throw new StreamCorruptedException("Invalid ID reference " + index); //$NON-NLS-1$
+			return decodeIDs.get(index);
+		}
+		final byte[] bytes = readBytes(din);
+		ID id = null;
+		try {
+			id = (ID) deserialize(bytes);
+		} catch (final ClassNotFoundException e) {
+			throw new InvalidObjectException("ID class not found: " + e.getMessage()); //$NON-NLS-1$
+		} finally {
+			// The sender added the ID to its table, so take the slot even if
+			// the ID cannot be read
+			if (ref == ID_NEW)
+				decodeIDs.add(id);
+		}
+		return id;
+	}
+
+	private Serializable readObject(DataInputStream din) throws IOException, ClassNotFoundException {
+		final int tag = readVarInt(din);
+		switch (tag) {
+			case OBJ_NULL :
+				return null;
+			case OBJ_BYTES :
+				return readBytes(din);
+			case OBJ_STRING :
+				return new String(readBytes(din), StandardCharsets.UTF_8);
+			case OBJ_SERIALIZED :
+				return (Serializable) deserialize(readBytes(din));
+			default :
+				throw new StreamCorruptedException("Invalid object tag " + tag); //$NON-NLS-1$
+		}
+	}
+}
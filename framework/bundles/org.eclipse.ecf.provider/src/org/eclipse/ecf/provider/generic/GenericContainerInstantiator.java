@@ -48,6 +48,12 @@ public class GenericContainerInstantiator implements IContainerInstantiator, IRe
 
 	private static final String BINDADDRESS_PROP = "bindAddress"; //$NON-NLS-1$
 
+	/**
+	 * Either {@link TCPServerSOContainer#TRANSPORT_TCP} or {@link TCPServerSOContainer#TRANSPORT_NIO}
+	 * @since 4.11
+	 */
+	public static final String TRANSPORT_PROP = "transport"; //$NON-NLS-1$
+
 	public GenericContainerInstantiator() {
 		super();
 	}
@@ -88,6 +94,7 @@ public class GenericContainerInstantiator implements IContainerInstantiator, IRe
 		ID id;
 		Integer keepAlive;
 		InetAddress bindAddress;
+		String transport = TCPServerSOContainer.DEFAULT_TRANSPORT;
 
 		public GenericContainerArgs(ID id, Integer keepAlive) {
 			this.id = id;
@@ -100,6 +107,19 @@ public class GenericContainerInstantiator implements IContainerInstantiator, IRe
 			this.bindAddress = bindAddress;
 		}
 
+		/**
+		 * @param id id
+		 * @param keepAlive keep alive
+		 * @param bindAddress bind address.  May be <code>null</code>
+		 * @param transport transport.  May be <code>null</code>
+		 * @since 4.11
+		 */
+		public GenericContainerArgs(ID id, Integer keepAlive, InetAddress bindAddress, String transport) {
+			this(id, keepAlive, bindAddress);
+			if (transport != null)
+				this.transport = transport;
+		}
+
 		public ID getID() {
 			return id;
 		}
@@ -115,6 +135,28 @@ public class GenericContainerInstantiator implements IContainerInstantiator, IRe
 		public InetAddress getBindAddress() {
 			return bindAddress;
 		}
+
+		/**
+		 * @return String the transport.  Will not be <code>null</code>
+		 * @since 4.11
+		 */
+		public String getTransport() {
+			return transport;
+		}
+	}
+
+	/**
+	 * @param map properties
+	 * @return String transport from properties, or <code>null</code> if not present
+	 * @since 4.11
+	 */
+	protected String getTransportFromMap(Map map) {
+		Object o = map.get(TRANSPORT_PROP);
+		if (o == null)
+			return null;
+		if (!(o instanceof String))
+			throw new IllegalArgumentException("transport value must be of type String"); //$NON-NLS-1$
+		return (String) o;
 	}
 
 	/**
@@ -126,9 +168,11 @@ public class GenericContainerInstantiator implements IContainerInstantiator, IRe
 	protected GenericContainerArgs getClientArgs(Object[] args) throws IDCreateException {
 		ID newID = null;
 		Integer ka = null;
+		String transport = null;
 		if (args != null && args.length > 0) {
 			if (args[0] instanceof Map) {
 				Map map = (Map) args[0];
+				transport = getTransportFromMap(map);
 				Object idVal = map.get(ID_PROP);
 				if (idVal == null)
 					idVal = IDFactory.getDefault().createGUID();
@@ -150,7 +194,7 @@ public class GenericContainerInstantiator implements IContainerInstantiator, IRe
 			newID = IDFactory.getDefault().createStringID(IDFactory.getDefault().createGUID().getName());
 		if (ka == null)
 			ka = Integer.valueOf(TCPServerSOContainer.DEFAULT_KEEPALIVE);
-		return new GenericContainerArgs(newID, ka);
+		return new GenericContainerArgs(newID, ka, null, transport);
 	}
 
 	protected boolean isClient(ContainerTypeDescription description) {
@@ -170,6 +214,7 @@ public class GenericContainerInstantiator implements IContainerInstantiator, IRe
 		ID newID = null;
 		Integer ka = null;
 		InetAddress bindAddress = null;
+		String transport = null;
 		boolean privateIntent = false;
 		if (args != null && args.length > 0) {
 			if (args[0] instanceof Map) {
@@ -212,6 +257,7 @@ public class GenericContainerInstantiator implements IContainerInstantiator, IRe
 				if (o == null)
 					o = map.get(KEEPALIVE_PROP.toLowerCase());
 				ka = getIntegerFromArg(o);
+				transport = getTransportFromMap(map);
 				// Get private intent if present
 				privateIntent = ContainerInstantiatorUtils.containsPrivateIntent(map);
 
@@ -234,7 +280,7 @@ public class GenericContainerInstantiator implements IContainerInstantiator, IRe
 		if (privateIntent)
 			ContainerInstantiatorUtils.checkPrivate(newID);
 
-		return new GenericContainerArgs(newID, ka, bindAddress);
+		return new GenericContainerArgs(newID, ka, bindAddress, transport);
 	}
 
 	private ID createTCPServerID(String hostname, int port, String path) {
@@ -293,7 +339,7 @@ public class GenericContainerInstantiator implements IContainerInstantiator, IRe
 	 * @since 4.5
 	 */
 	protected IContainer createClientContainer(GenericContainerArgs gcargs) throws Exception {
-		return new TCPClientSOContainer(new SOContainerConfig(gcargs.getID()), gcargs.getKeepAlive().intValue());
+		return new TCPClientSOContainer(new SOContainerConfig(gcargs.getID()), gcargs.getKeepAlive().intValue(), TCPServerSOContainer.isNIOTransport(gcargs.getTransport()));
 	}
 
 	/**
@@ -303,7 +349,7 @@ public class GenericContainerInstantiator implements IContainerInstantiator, IRe
 	 * @since 4.5
 	 */
 	protected IContainer createServerContainer(GenericContainerArgs gcargs) throws Exception {
-		return new TCPServerSOContainer(new SOContainerConfig(gcargs.getID()), gcargs.getBindAddress(), gcargs.getKeepAlive().intValue());
+		return new TCPServerSOContainer(new SOContainerConfig(gcargs.getID()), gcargs.getBindAddress(), gcargs.getKeepAlive().intValue(), TCPServerSOContainer.isNIOTransport(gcargs.getTransport()));
 	}
 
 	public IContainer createInstance(ContainerTypeDescription description, Object[] args) throws ContainerCreateException {
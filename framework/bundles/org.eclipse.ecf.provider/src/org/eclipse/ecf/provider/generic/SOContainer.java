@@ -15,6 +15,7 @@ import java.io.*;
 import java.security.*;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import org.eclipse.core.runtime.*;
 import org.eclipse.ecf.core.AbstractContainer;
 import org.eclipse.ecf.core.ContainerConnectException;
@@ -29,6 +30,7 @@ import org.eclipse.ecf.core.sharedobject.util.ISharedObjectMessageSerializer;
 import org.eclipse.ecf.core.util.*;
 import org.eclipse.ecf.internal.provider.ECFProviderDebugOptions;
 import org.eclipse.ecf.internal.provider.ProviderPlugin;
+import org.eclipse.ecf.internal.provider.ProviderThreads;
 import org.eclipse.ecf.provider.comm.*;
 import org.eclipse.ecf.provider.generic.ContainerMessage.SharedObjectMessage;
 import org.eclipse.ecf.provider.generic.gmm.Member;
@@ -516,6 +518,25 @@ public abstract class SOContainer extends AbstractContainer implements ISharedOb
 		return new Thread(sharedObjectThreadGroup, runnable, sharedObjectID.getName() + ":run"); //$NON-NLS-1$
 	}
 
+	/**
+	 * Get the executor used to deliver events to the shared objects of this
+	 * container.  If non-<code>null</code>, each shared object's events are run
+	 * as tasks on this executor (one task at a time per shared object, in order)
+	 * rather than by a thread from {@link #getNewSharedObjectThread(ID, Runnable)}.
+	 * The default implementation returns the provider's shared executor if the
+	 * <code>org.eclipse.ecf.provider.threads</code> system property is set to
+	 * <code>virtual</code> or <code>pool</code>, and <code>null</code> otherwise.
+	 * The <code>pool</code> executor is bounded, so shared objects that block
+	 * while handling events need a <code>org.eclipse.ecf.provider.threads.poolsize</code>
+	 * larger than the number of events that may block at the same time.
+	 *
+	 * @return Executor the executor to use, or <code>null</code> to use a thread per shared object
+	 * @since 4.11
+	 */
+	protected Executor getSharedObjectExecutor() {
+		return ProviderThreads.getExecutor();
+	}
+
 	protected long getNextSequenceNumber() {
 		if (sequenceNumber == Long.MAX_VALUE) {
 			sequenceNumber = 0;
@@ -547,6 +568,34 @@ public abstract class SOContainer extends AbstractContainer implements ISharedOb
 		return null;
 	}
 
+	private static ContainerMessage deserializeContainerMessage(IConnection conn, byte[] bytes) throws IOException {
+		if (bytes.length > 0 && bytes[0] == ContainerMessageCodec.MAGIC) {
+			final ContainerMessageCodec codec = ContainerMessageCodec.getCodec(conn);
+			if (codec == null)
+				throw new StreamCorruptedException("Container message codec not negotiated for connection"); //$NON-NLS-1$
+			return codec.decode(bytes);
+		}
+		return deserializeContainerMessage(bytes);
+	}
+
+	/**
+	 * Send message to the message's toContainerID on the given connection.  If the
+	 * connection negotiated the binary container message codec the message is sent
+	 * in binary form, otherwise it is Java serialized.
+	 *
+	 * @param conn the connection to send on.  Must not be <code>null</code>.
+	 * @param message the message to send.  Must not be <code>null</code>.
+	 * @throws IOException if message cannot be encoded or sent
+	 * @since 4.11
+	 */
+	protected void sendContainerMessage(IAsynchConnection conn, ContainerMessage message) throws IOException {
+		final ContainerMessageCodec codec = ContainerMessageCodec.getCodec(conn);
+		if (codec == null)
+			conn.sendAsynch(message.getToContainerID(), serialize(message));
+		else
+			codec.sendAsynch(conn, message.getToContainerID(), message, null);
+	}
+
 	/**
 	 * @param message message
 	 * @param t exception to print to system error
@@ -873,7 +922,7 @@ public abstract class SOContainer extends AbstractContainer implements ISharedOb
 				debug("Ignoring event without valid data " + event); //$NON-NLS-1$
 				return;
 			}
-			final ContainerMessage mess = validateContainerMessage(deserializeContainerMessage((byte[]) obj));
+			final ContainerMessage mess = validateContainerMessage(deserializeContainerMessage(event.getConnection(), (byte[]) obj));
 			if (mess == null) {
 				debug("event not validated: " + event); //$NON-NLS-1$
 				return;
@@ -19,9 +19,10 @@ import java.net.URI;
 import java.util.*;
 import org.eclipse.ecf.internal.provider.ProviderPlugin;
 import org.eclipse.ecf.provider.comm.IConnectRequestHandler;
+import org.eclipse.ecf.provider.comm.IConnection;
 import org.eclipse.ecf.provider.comm.tcp.*;
 
-public class SOContainerGroup implements ISocketAcceptHandler {
+public class SOContainerGroup implements INIOAcceptHandler {
 
 	/**
 	 * @since 4.7
@@ -76,7 +77,7 @@ public class SOContainerGroup implements ISocketAcceptHandler {
 	 * @since 4.7
 	 */
 	protected ObjectOutputStream createObjectOutputStream(Socket aSocket) throws IOException {
-		return new ObjectOutputStream(aSocket.getOutputStream());
+		return new ObjectOutputStream(new BufferedOutputStream(aSocket.getOutputStream(), Client.DEFAULT_BUFFER_SIZE));
 	}
 
 	/**
@@ -109,14 +110,32 @@ public class SOContainerGroup implements ISocketAcceptHandler {
 	 */
 	public void handleAccept(Socket aSocket) throws Exception {
 		// Set tcp no delay option
-		aSocket.setTcpNoDelay(true);
+		aSocket.setTcpNoDelay(Client.DEFAULT_TCP_NODELAY);
 
 		final ObjectOutputStream oStream = createObjectOutputStream(aSocket);
 		oStream.flush();
 		final ObjectInputStream iStream = createObjectInputStream(aSocket);
 
-		final ConnectRequestMessage req = readConnectRequestMessage(iStream);
+		handleAccept(aSocket, oStream, iStream);
+	}
+
+	/**
+	 * @param aSocket socket
+	 * @param ins input stream to read client object stream from
+	 * @since 4.11
+	 */
+	public void handleAccept(Socket aSocket, InputStream ins) throws Exception {
+		// Set tcp no delay option
+		aSocket.setTcpNoDelay(Client.DEFAULT_TCP_NODELAY);
+
+		final ObjectOutputStream oStream = createObjectOutputStream(aSocket);
+		oStream.flush();
+		final ObjectInputStream iStream = ProviderPlugin.getDefault().createObjectInputStream(ins);
+
+		handleAccept(aSocket, oStream, iStream);
+	}
 
+	private SOContainer getContainerForConnectRequest(ConnectRequestMessage req) throws IOException {
 		final URI uri = req.getTarget();
 		if (uri == null)
 			throw new InvalidObjectException(INVALID_CONNECT + " URI connect target cannot be null"); //$NON-NLS-1$
@@ -128,6 +147,13 @@ public class SOContainerGroup implements ISocketAcceptHandler {
 		final SOContainer srs = get(path);
 		if (srs == null)
 			throw new InvalidObjectException("Container not found for path=" + path); //$NON-NLS-1$
+		return srs;
+	}
+
+	private void handleAccept(Socket aSocket, ObjectOutputStream oStream, ObjectInputStream iStream) throws Exception {
+		final ConnectRequestMessage req = readConnectRequestMessage(iStream);
+
+		final SOContainer srs = getContainerForConnectRequest(req);
 
 		// Create our local messaging interface
 		final Client newClient = new Client(aSocket, iStream, oStream, srs.getMessageReceiver());
@@ -136,12 +162,37 @@ public class SOContainerGroup implements ISocketAcceptHandler {
 		// No other threads can access messaging interface until connect request handler has
 		// accepted or rejected connect request
 		synchronized (outputStreamLock) {
+			// Select message codec before anything is queued for the new client
+			final String codec = selectCodec(newClient, req);
 			// Call checkConnect
-			final Serializable resp = ((IConnectRequestHandler) srs).handleConnectRequest(aSocket, path, req.getData(), newClient);
+			final Serializable resp = ((IConnectRequestHandler) srs).handleConnectRequest(aSocket, req.getTarget().getPath(), req.getData(), newClient);
 			// Create connect response wrapper and send it back
-			oStream.writeObject(new ConnectResultMessage(resp));
+			oStream.writeObject(new ConnectResultMessage(resp, codec));
 			oStream.flush();
 		}
 	}
 
+	/**
+	 * @since 4.11
+	 */
+	public Serializable handleConnectRequest(NIOClient client, ConnectRequestMessage req) throws Exception {
+		if (req == null)
+			throw new InvalidObjectException(INVALID_CONNECT + " Connect request message cannot be null"); //$NON-NLS-1$
+		final SOContainer srs = getContainerForConnectRequest(req);
+		client.setEventHandler(srs.getMessageReceiver());
+		// The client was accepted with the group's keep alive
+		if (srs instanceof TCPServerSOContainer)
+			client.setKeepAlive(((TCPServerSOContainer) srs).getKeepAlive());
+		selectCodec(client, req);
+		// The connect result is sent by the client before anything else it has queued
+		return ((IConnectRequestHandler) srs).handleConnectRequest(client.getSocket(), req.getTarget().getPath(), req.getData(), client);
+	}
+
+	private String selectCodec(IConnection conn, ConnectRequestMessage req) {
+		final String codec = ContainerMessageCodec.selectCodec(req.getCodecs());
+		if (codec != null)
+			conn.getProperties().put(Client.CODEC_PROPERTY, codec);
+		return codec;
+	}
+
 }
\ No newline at end of file
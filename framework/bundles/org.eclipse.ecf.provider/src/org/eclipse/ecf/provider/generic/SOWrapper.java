@@ -16,6 +16,7 @@ package org.eclipse.ecf.provider.generic;
 import java.io.Serializable;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.concurrent.Executor;
 import org.eclipse.ecf.core.events.ContainerConnectedEvent;
 import org.eclipse.ecf.core.events.ContainerDisconnectedEvent;
 import org.eclipse.ecf.core.identity.ID;
@@ -27,6 +28,7 @@ import org.eclipse.ecf.core.sharedobject.util.SimpleFIFOQueue;
 import org.eclipse.ecf.core.util.Event;
 import org.eclipse.ecf.core.util.Trace;
 import org.eclipse.ecf.internal.provider.ECFProviderDebugOptions;
+import org.eclipse.ecf.internal.provider.ExecutorFIFOQueue;
 import org.eclipse.ecf.internal.provider.ProviderPlugin;
 import org.eclipse.ecf.provider.generic.gmm.Member;
 
@@ -46,7 +48,7 @@ public class SOWrapper {
 		containerID = cont.getID();
 		sharedObjectConfig = null;
 		thread = null;
-		queue = new SimpleFIFOQueue();
+		queue = createQueue();
 	}
 
 	public SOWrapper(SOConfig aConfig, ISharedObject obj, SOContainer cont) {
@@ -56,7 +58,30 @@ public class SOWrapper {
 		container = cont;
 		containerID = cont.getID();
 		thread = null;
-		queue = new SimpleFIFOQueue();
+		queue = createQueue();
+	}
+
+	private SimpleFIFOQueue createQueue() {
+		final Executor executor = container.getSharedObjectExecutor();
+		if (executor == null)
+			return new SimpleFIFOQueue();
+		// Events are delivered by executor tasks rather than by a thread per shared object
+		return new ExecutorFIFOQueue(executor, new ExecutorFIFOQueue.Consumer() {
+			public boolean consume(Object item) {
+				try {
+					dispatch((Event) item);
+				} catch (Throwable t) {
+					handleRuntimeException(t);
+				}
+				return true;
+			}
+		});
+	}
+
+	private boolean isRunning() {
+		if (queue instanceof ExecutorFIFOQueue)
+			return ((ExecutorFIFOQueue) queue).isStarted();
+		return thread != null;
 	}
 
 	protected void init() throws SharedObjectInitException {
@@ -78,6 +103,12 @@ public class SOWrapper {
 	}
 
 	protected void activated() {
+		if (queue instanceof ExecutorFIFOQueue) {
+			container.notifySharedObjectActivated(sharedObjectID);
+			((ExecutorFIFOQueue) queue).start();
+			send(new SharedObjectActivatedEvent(containerID, sharedObjectID));
+			return;
+		}
 		thread = (Thread) AccessController.doPrivileged(new PrivilegedAction() {
 			public Object run() {
 				Thread aThread = getThread();
@@ -100,14 +131,14 @@ public class SOWrapper {
 
 	protected void destroyed() {
 		if (!queue.isStopped()) {
-			if (thread != null)
+			if (isRunning())
 				queue.enqueue(new DisposeEvent());
 			queue.close();
 		}
 	}
 
 	protected void otherChanged(ID otherID, boolean activated) {
-		if (activated && thread != null) {
+		if (activated && isRunning()) {
 			send(new SharedObjectActivatedEvent(containerID, otherID));
 		} else {
 			send(new SharedObjectDeactivatedEvent(containerID, otherID));
@@ -115,7 +146,7 @@ public class SOWrapper {
 	}
 
 	protected void memberChanged(Member m, boolean add) {
-		if (thread != null) {
+		if (isRunning()) {
 			if (add) {
 				send(new ContainerConnectedEvent(containerID, m.getID()));
 			} else {
@@ -136,13 +167,7 @@ public class SOWrapper {
 					if (Thread.currentThread().isInterrupted() || evt == null)
 						break;
 					try {
-						if (evt instanceof ProcEvent) {
-							SOWrapper.this.svc(((ProcEvent) evt).getEvent());
-						} else if (evt instanceof DisposeEvent) {
-							SOWrapper.this.doDestroy();
-						} else {
-							SOWrapper.this.svc(evt);
-						}
+						dispatch(evt);
 					} catch (Throwable t) {
 						handleRuntimeException(t);
 					}
@@ -158,6 +183,16 @@ public class SOWrapper {
 		});
 	}
 
+	void dispatch(Event evt) {
+		if (evt instanceof ProcEvent) {
+			svc(((ProcEvent) evt).getEvent());
+		} else if (evt instanceof DisposeEvent) {
+			doDestroy();
+		} else {
+			svc(evt);
+		}
+	}
+
 	private void send(Event evt) {
 		queue.enqueue(new ProcEvent(evt));
 	}
@@ -16,6 +16,8 @@ package org.eclipse.ecf.provider.generic;
 import java.io.IOException;
 import java.io.Serializable;
 import java.net.*;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import org.eclipse.ecf.core.ContainerConnectException;
 import org.eclipse.ecf.core.events.*;
 import org.eclipse.ecf.core.identity.ID;
@@ -139,7 +141,7 @@ public class ServerSOContainer extends SOContainer implements ISharedObjectConta
 		} else {
 			final IAsynchConnection conn = getConnectionForID(message.getToContainerID());
 			if (conn != null)
-				conn.sendAsynch(message.getToContainerID(), serialize(message));
+				sendContainerMessage(conn, message);
 		}
 	}
 
@@ -152,6 +154,16 @@ public class ServerSOContainer extends SOContainer implements ISharedObjectConta
 			queueContainerMessage(new ContainerMessage(from, null, getNextSequenceNumber(), data.getData()));
 		} else {
 			final Object ms[] = groupManager.getMembers();
+			final long sequence = getNextSequenceNumber();
+			// Java serialized once, with null toContainerID (all), and the same bytes
+			// are sent to every member.  Receivers treat a null toContainerID the
+			// same as their own ID.  Members using the binary codec get their own
+			// encoding, sharing any Java serialized data.  Create messages are
+			// still addressed to each member, as the toContainerID is passed to
+			// checkRemoteCreate and ISharedObjectPolicy.checkAddSharedObject
+			final boolean addressed = data.getData() instanceof ContainerMessage.CreateMessage;
+			byte[] bytes = null;
+			Map<Object, byte[]> serialized = null;
 			for (int i = 0; i < ms.length; i++) {
 				final Member m = (Member) ms[i];
 				final ID oldID = m.getID();
@@ -159,7 +171,20 @@ public class ServerSOContainer extends SOContainer implements ISharedObjectConta
 					final IAsynchConnection conn = (IAsynchConnection) m.getData();
 					if (conn != null) {
 						try {
-							conn.sendAsynch(oldID, serialize(new ContainerMessage(from, oldID, getNextSequenceNumber(), data.getData())));
+							final ContainerMessageCodec codec = ContainerMessageCodec.getCodec(conn);
+							if (codec != null) {
+								if (serialized == null)
+									serialized = new IdentityHashMap<Object, byte[]>();
+								codec.sendAsynch(conn, oldID, new ContainerMessage(from, oldID, sequence, data.getData()), serialized);
+								continue;
+							}
+							if (addressed)
+								conn.sendAsynch(oldID, serialize(new ContainerMessage(from, oldID, sequence, data.getData())));
+							else {
+								if (bytes == null)
+									bytes = serialize(new ContainerMessage(from, null, sequence, data.getData()));
+								conn.sendAsynch(oldID, bytes);
+							}
 						} catch (final IOException e) {
 							traceStack("Exception in forwardExcluding from " //$NON-NLS-1$
 									+ from + " with oldID " + oldID, e); //$NON-NLS-1$
@@ -286,11 +311,23 @@ public class ServerSOContainer extends SOContainer implements ISharedObjectConta
 
 	private final void queueToAll(ContainerMessage message) {
 		final Object[] members = groupManager.getMembers();
+		byte[] bytes = null;
+		Map<Object, byte[]> serialized = null;
 		for (int i = 0; i < members.length; i++) {
 			final IAsynchConnection conn = (IAsynchConnection) ((Member) members[i]).getData();
 			if (conn != null) {
 				try {
-					conn.sendAsynch(message.getToContainerID(), serialize(message));
+					final ContainerMessageCodec codec = ContainerMessageCodec.getCodec(conn);
+					if (codec != null) {
+						if (serialized == null)
+							serialized = new IdentityHashMap<Object, byte[]>();
+						codec.sendAsynch(conn, message.getToContainerID(), message, serialized);
+						continue;
+					}
+					// Message is the same for all members, so only serialize once
+					if (bytes == null)
+						bytes = serialize(message);
+					conn.sendAsynch(message.getToContainerID(), bytes);
 				} catch (final IOException e) {
 					traceStack("Exception in queueToAll for ContainerMessage " + message, e); //$NON-NLS-1$
 				}
@@ -13,16 +13,20 @@
 
 package org.eclipse.ecf.provider.generic;
 
+import java.io.IOException;
 import org.eclipse.ecf.core.identity.ID;
 import org.eclipse.ecf.core.identity.IDFactory;
 import org.eclipse.ecf.core.sharedobject.ISharedObjectContainerConfig;
 import org.eclipse.ecf.provider.comm.ConnectionCreateException;
 import org.eclipse.ecf.provider.comm.ISynchAsynchConnection;
 import org.eclipse.ecf.provider.comm.tcp.Client;
+import org.eclipse.ecf.provider.comm.tcp.NIOClient;
 
 public class TCPClientSOContainer extends ClientSOContainer {
 	int keepAlive = 0;
 
+	private boolean nio = TCPServerSOContainer.isNIOTransport(TCPServerSOContainer.DEFAULT_TRANSPORT);
+
 	public static final int DEFAULT_TCP_CONNECT_TIMEOUT = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.generic.TCPClientSOContainer.defaultConnectTimeout", "30000")); //$NON-NLS-1$ //$NON-NLS-2$
 
 	public static final String DEFAULT_COMM_NAME = org.eclipse.ecf.provider.comm.tcp.Client.class.getName();
@@ -36,6 +40,18 @@ public class TCPClientSOContainer extends ClientSOContainer {
 		keepAlive = ka;
 	}
 
+	/**
+	 * @param config config
+	 * @param ka keep alive
+	 * @param nio true if {@link NIOClient} connections should be used to connect
+	 * to a server using the {@link TCPServerSOContainer#TRANSPORT_NIO} transport
+	 * @since 4.11
+	 */
+	public TCPClientSOContainer(ISharedObjectContainerConfig config, int ka, boolean nio) {
+		this(config, ka);
+		this.nio = nio;
+	}
+
 	protected int getConnectTimeout() {
 		return DEFAULT_TCP_CONNECT_TIMEOUT;
 	}
@@ -44,11 +60,23 @@ public class TCPClientSOContainer extends ClientSOContainer {
 	 * @param remoteSpace remote space
 	 * @param data and data
 	 * @return ISynchAsynchConnection a non-<code>null</code> instance.
-	 * @throws ConnectionCreateException not thrown by this implementation.
+	 * @throws ConnectionCreateException if the event loops for a {@link NIOClient} cannot be created.
 	 */
 	protected ISynchAsynchConnection createConnection(ID remoteSpace, Object data) throws ConnectionCreateException {
 		debug("createClientConnection:" + remoteSpace + ":" + data); //$NON-NLS-1$ //$NON-NLS-2$
-		ISynchAsynchConnection conn = new Client(receiver, keepAlive);
+		ISynchAsynchConnection conn = null;
+		if (nio) {
+			try {
+				conn = new NIOClient(receiver, keepAlive);
+			} catch (final IOException e) {
+				throw new ConnectionCreateException("Could not create NIO connection", e); //$NON-NLS-1$
+			}
+		} else
+			conn = new Client(receiver, keepAlive);
+		// Offer the binary container message codec to the server
+		final String[] codecs = ContainerMessageCodec.getOfferedCodecs();
+		if (codecs != null)
+			conn.getProperties().put(Client.CODECS_PROPERTY, codecs);
 		return conn;
 	}
 
@@ -37,6 +37,24 @@ public class TCPServerSOContainer extends ServerSOContainer implements IConnectR
 	 */
 	public static final boolean DEFAULT_FALLBACK_PORT = Boolean.valueOf(System.getProperty("org.eclipse.ecf.provider.generic.port.fallback", "true")).booleanValue(); //$NON-NLS-1$//$NON-NLS-2$
 
+	/**
+	 * Transport using a {@link Server} and blocking {@link org.eclipse.ecf.provider.comm.tcp.Client} connections
+	 * @since 4.11
+	 */
+	public static final String TRANSPORT_TCP = "tcp"; //$NON-NLS-1$
+
+	/**
+	 * Transport using a {@link org.eclipse.ecf.provider.comm.tcp.NIOServer} and non-blocking
+	 * {@link org.eclipse.ecf.provider.comm.tcp.NIOClient} connections
+	 * @since 4.11
+	 */
+	public static final String TRANSPORT_NIO = "nio"; //$NON-NLS-1$
+
+	/**
+	 * @since 4.11
+	 */
+	public static final String DEFAULT_TRANSPORT = System.getProperty("org.eclipse.ecf.provider.generic.transport", TRANSPORT_TCP); //$NON-NLS-1$
+
 	static {
 		final Boolean useHostname = Boolean.valueOf(System.getProperty("org.eclipse.ecf.provider.generic.host.useHostName", "true")); //$NON-NLS-1$ //$NON-NLS-2$
 		if (useHostname.booleanValue()) {
@@ -67,6 +85,15 @@ public class TCPServerSOContainer extends ServerSOContainer implements IConnectR
 		return getServerURL("localhost", DEFAULT_NAME); //$NON-NLS-1$
 	}
 
+	/**
+	 * @param transport transport name.  May be <code>null</code>.
+	 * @return true if transport is {@link #TRANSPORT_NIO}, false otherwise
+	 * @since 4.11
+	 */
+	public static boolean isNIOTransport(String transport) {
+		return TRANSPORT_NIO.equalsIgnoreCase(transport);
+	}
+
 	/**
 	 * @param config config
 	 * @param port port
@@ -95,14 +122,28 @@ public class TCPServerSOContainer extends ServerSOContainer implements IConnectR
 	 * @since 4.4
 	 */
 	public TCPServerSOContainer(ISharedObjectContainerConfig config, InetAddress bindAddress, int keepAlive) throws IOException, URISyntaxException {
+		this(config, bindAddress, keepAlive, isNIOTransport(DEFAULT_TRANSPORT));
+	}
+
+	/**
+	 * @param config config
+	 * @param bindAddress bind address
+	 * @param keepAlive keep alive
+	 * @param nio true if clients should be accepted with the {@link #TRANSPORT_NIO} transport
+	 * @throws IOException if some problem creating
+	 * @throws URISyntaxException if some problem creating
+	 * @since 4.11
+	 */
+	public TCPServerSOContainer(ISharedObjectContainerConfig config, InetAddress bindAddress, int keepAlive, boolean nio) throws IOException, URISyntaxException {
 		super(config);
+		this.keepAlive = keepAlive;
 		isSingle = true;
 		URI actualURI = parseAndValidateURI();
 		int port = actualURI.getPort();
 		String path = actualURI.getPath();
 		if (path == null)
 			throw new NullPointerException("path cannot be null"); //$NON-NLS-1$
-		this.group = new TCPServerSOContainerGroup(TCPServerSOContainerGroup.DEFAULT_GROUP_NAME, null, port, Server.DEFAULT_BACKLOG, bindAddress);
+		this.group = new TCPServerSOContainerGroup(TCPServerSOContainerGroup.DEFAULT_GROUP_NAME, null, port, Server.DEFAULT_BACKLOG, bindAddress, nio);
 		this.group.add(path, this);
 		this.group.putOnTheAir();
 	}
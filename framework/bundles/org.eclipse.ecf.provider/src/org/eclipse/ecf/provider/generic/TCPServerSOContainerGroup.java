@@ -17,13 +17,15 @@ import java.net.InetAddress;
 import org.eclipse.ecf.core.util.Trace;
 import org.eclipse.ecf.internal.provider.ECFProviderDebugOptions;
 import org.eclipse.ecf.internal.provider.ProviderPlugin;
-import org.eclipse.ecf.provider.comm.tcp.Server;
+import org.eclipse.ecf.provider.comm.tcp.*;
 
 public class TCPServerSOContainerGroup extends SOContainerGroup {
 
 	public static final String DEFAULT_GROUP_NAME = TCPServerSOContainerGroup.class.getName();
 	private int port;
 	private Server listener;
+	private NIOServer nioListener;
+	private final boolean nio;
 	private boolean isOnTheAir = false;
 	private final ThreadGroup threadGroup;
 
@@ -36,14 +38,28 @@ public class TCPServerSOContainerGroup extends SOContainerGroup {
 	 * @param port port
 	 * @param backlog backlog
 	 * @param bindAddress bind address
-	 * @since 4.4
+	 * @param nio true if connections should be accepted by a {@link NIOServer} rather than a {@link Server}
+	 * @since 4.11
 	 */
-	public TCPServerSOContainerGroup(String name, ThreadGroup group, int port, int backlog, InetAddress bindAddress) {
+	public TCPServerSOContainerGroup(String name, ThreadGroup group, int port, int backlog, InetAddress bindAddress, boolean nio) {
 		super(name);
 		threadGroup = group;
 		this.port = port;
 		this.backlog = backlog;
 		this.bindAddress = bindAddress;
+		this.nio = nio;
+	}
+
+	/**
+	 * @param name name
+	 * @param group thread group to use
+	 * @param port port
+	 * @param backlog backlog
+	 * @param bindAddress bind address
+	 * @since 4.4
+	 */
+	public TCPServerSOContainerGroup(String name, ThreadGroup group, int port, int backlog, InetAddress bindAddress) {
+		this(name, group, port, backlog, bindAddress, TCPServerSOContainer.isNIOTransport(TCPServerSOContainer.DEFAULT_TRANSPORT));
 	}
 
 	/**
@@ -79,8 +95,14 @@ public class TCPServerSOContainerGroup extends SOContainerGroup {
 
 	public synchronized void putOnTheAir() throws IOException {
 		trace("TCPServerSOContainerGroup at port " + port + " on the air"); //$NON-NLS-1$ //$NON-NLS-2$
-		listener = new Server(threadGroup, port, backlog, bindAddress, this);
-		port = listener.getLocalPort();
+		if (nio) {
+			// Each accepted client gets the keep alive of its container when its connect request is handled
+			nioListener = new NIOServer(threadGroup, port, backlog, bindAddress, this, NIOEventLoopGroup.getDefault(), TCPServerSOContainer.DEFAULT_KEEPALIVE);
+			port = nioListener.getLocalPort();
+		} else {
+			listener = new Server(threadGroup, port, backlog, bindAddress, this);
+			port = listener.getLocalPort();
+		}
 		isOnTheAir = true;
 	}
 
@@ -98,9 +120,26 @@ public class TCPServerSOContainerGroup extends SOContainerGroup {
 			}
 			listener = null;
 		}
+		if (nioListener != null) {
+			trace("Taking " + getName() + " off the air."); //$NON-NLS-1$ //$NON-NLS-2$
+			try {
+				nioListener.close();
+			} catch (final IOException e) {
+				traceStack("Exception in closeListener", e); //$NON-NLS-1$
+			}
+			nioListener = null;
+		}
 		isOnTheAir = false;
 	}
 
+	/**
+	 * @return true if connections are accepted by a {@link NIOServer}
+	 * @since 4.11
+	 */
+	public boolean isNIO() {
+		return nio;
+	}
+
 	public int getPort() {
 		return port;
 	}
@@ -0,0 +1,47 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *   Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.remoteservice.rest.client;
+
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.util.Map;
+import org.eclipse.ecf.remoteservice.IRemoteCall;
+import org.eclipse.ecf.remoteservice.client.IRemoteCallable;
+import org.eclipse.ecf.remoteservice.client.IRemoteResponseDeserializer;
+
+/**
+ * A response deserializer that reads the response body from the stream of the
+ * http response, rather than from a byte array holding the whole body. If the
+ * response deserializer of a {@link RestClientContainer} implements this
+ * interface, {@link RestClientService} passes it the response stream.
+ *
+ * @since 2.9
+ */
+public interface IRemoteResponseStreamDeserializer extends IRemoteResponseDeserializer {
+
+	/**
+	 * Deserialize the response body.
+	 *
+	 * @param endpoint the endpoint uri of the call
+	 * @param call the call
+	 * @param callable the callable
+	 * @param responseHeaders the http response headers
+	 * @param responseBody the response body.  Will not be <code>null</code>.  The
+	 * caller closes the stream after this method returns, so it must not be read
+	 * after this method returns.
+	 * @return the deserialized response
+	 * @throws NotSerializableException if the response cannot be deserialized
+	 */
+	public Object deserializeResponse(String endpoint, IRemoteCall call, IRemoteCallable callable, Map responseHeaders, InputStream responseBody) throws NotSerializableException;
+
+}
@@ -12,16 +12,45 @@
  *****************************************************************************/
 package org.eclipse.ecf.remoteservice.rest.client;
 
+import java.io.IOException;
+import java.time.Duration;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.*;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
 import org.eclipse.ecf.remoteservice.IRemoteService;
 import org.eclipse.ecf.remoteservice.client.IRemoteServiceClientContainerAdapter;
 import org.eclipse.ecf.remoteservice.client.RemoteServiceClientRegistration;
 import org.eclipse.ecf.remoteservice.rest.identity.RestID;
 
 /**
- * A container for REST services. 
+ * A container for REST services.  The remote services of a container share
+ * one http client with a pool of persistent connections, and one
+ * <code>java.net.http.HttpClient</code> for asynchronous calls.  Both are
+ * released when the container is disposed.
  */
 public class RestClientContainer extends AbstractRestClientContainer implements IRemoteServiceClientContainerAdapter {
 
+	/**
+	 * @since 2.9
+	 */
+	public static final int maxConnections = Integer.parseInt(System.getProperty("org.eclipse.ecf.remoteservice.rest.RestClientContainer.maxConnections", "200")); //$NON-NLS-1$ //$NON-NLS-2$
+	/**
+	 * @since 2.9
+	 */
+	public static final int maxConnectionsPerRoute = Integer.parseInt(System.getProperty("org.eclipse.ecf.remoteservice.rest.RestClientContainer.maxConnectionsPerRoute", "50")); //$NON-NLS-1$ //$NON-NLS-2$
+	/**
+	 * Time in ms that idle connections are kept open when the server response
+	 * has no Keep-Alive timeout
+	 * @since 2.9
+	 */
+	public static final long keepAlive = Long.parseLong(System.getProperty("org.eclipse.ecf.remoteservice.rest.RestClientContainer.keepAlive", "30000")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	private final Object httpClientLock = new Object();
+	private CloseableHttpClient httpClient;
+	private java.net.http.HttpClient asyncHttpClient;
+
 	public RestClientContainer(RestID id) {
 		super(id);
 	}
@@ -30,4 +59,76 @@ public class RestClientContainer extends AbstractRestClientContainer implements
 		return new RestClientService(this, registration);
 	}
 
+	/**
+	 * @return the http client shared by the remote services of this container
+	 * @since 2.9
+	 */
+	public CloseableHttpClient getHttpClient() {
+		synchronized (httpClientLock) {
+			if (httpClient == null)
+				httpClient = createHttpClient();
+			return httpClient;
+		}
+	}
+
+	/**
+	 * Create the http client shared by the remote services of this container.
+	 * @return http client with a pool of at most {@link #maxConnections}
+	 * connections, and at most {@link #maxConnectionsPerRoute} connections per
+	 * route
+	 * @since 2.9
+	 */
+	protected CloseableHttpClient createHttpClient() {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(maxConnections);
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+		return HttpClientBuilder.create().setConnectionManager(connectionManager).setKeepAliveStrategy(new ConnectionKeepAliveStrategy() {
+			public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+				long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+				return (duration < 0) ? keepAlive : duration;
+			}
+		}).build();
+	}
+
+	/**
+	 * @return the java.net.http client shared by the remote services of this
+	 * container for asynchronous calls
+	 * @since 2.9
+	 */
+	public java.net.http.HttpClient getAsyncHttpClient() {
+		synchronized (httpClientLock) {
+			if (asyncHttpClient == null)
+				asyncHttpClient = createAsyncHttpClient();
+			return asyncHttpClient;
+		}
+	}
+
+	/**
+	 * @return the java.net.http client for asynchronous calls
+	 * @since 2.9
+	 */
+	protected java.net.http.HttpClient createAsyncHttpClient() {
+		java.net.http.HttpClient.Builder builder = java.net.http.HttpClient.newBuilder().followRedirects(java.net.http.HttpClient.Redirect.NORMAL);
+		if (RestClientService.connectTimeout > 0)
+			builder.connectTimeout(Duration.ofMillis(RestClientService.connectTimeout));
+		return builder.build();
+	}
+
+	public void dispose() {
+		super.dispose();
+		synchronized (httpClientLock) {
+			if (httpClient != null) {
+				try {
+					httpClient.close();
+				} catch (IOException e) {
+					// ignore
+				}
+				httpClient = null;
+			}
+			// java.net.http.HttpClient has no close method before Java 21, its
+			// threads and connections are released when it is unreachable
+			asyncHttpClient = null;
+		}
+	}
+
 }
@@ -15,7 +15,13 @@ package org.eclipse.ecf.remoteservice.rest.client;
 import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.apache.http.*;
 import org.apache.http.auth.*;
 import org.apache.http.client.HttpClient;
@@ -23,29 +29,50 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.message.AbstractHttpMessage;
+import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
 import org.eclipse.ecf.core.security.*;
 import org.eclipse.ecf.core.util.ECFException;
-import org.eclipse.ecf.remoteservice.IRemoteCall;
-import org.eclipse.ecf.remoteservice.IRemoteService;
+import org.eclipse.ecf.remoteservice.*;
 import org.eclipse.ecf.remoteservice.client.*;
+import org.eclipse.ecf.remoteservice.events.IRemoteCallCompleteEvent;
+import org.eclipse.ecf.remoteservice.events.IRemoteCallStartEvent;
 import org.eclipse.ecf.remoteservice.rest.IRestCall;
 import org.eclipse.ecf.remoteservice.rest.RestException;
+import org.eclipse.equinox.concurrent.future.IFuture;
+import org.eclipse.equinox.concurrent.future.SingleOperationFuture;
 
 /**
  * This class represents a REST service from the client side of view. So a
  * RESTful web service can be accessed via the methods provided by this class.
  * Mostly the methods are inherited from {@link IRemoteService}.
+ * <p>
+ * Synchronous calls are executed with the pooled http client shared by the
+ * services of the {@link RestClientContainer}. Asynchronous calls are sent
+ * with the container's <code>java.net.http.HttpClient</code>, so that no
+ * thread waits for the response.
  */
 public class RestClientService extends AbstractRestClientService {
 
 	public static final int socketTimeout = Integer.parseInt(System.getProperty("org.eclipse.ecf.remoteservice.rest.RestClientService.socketTimeout", "-1")); //$NON-NLS-1$ //$NON-NLS-2$
 	public static final int connectRequestTimeout = Integer.parseInt(System.getProperty("org.eclipse.ecf.remoteservice.rest.RestClientService.connectRequestTimeout", "-1")); //$NON-NLS-1$ //$NON-NLS-2$
 	public static final int connectTimeout = Integer.parseInt(System.getProperty("org.eclipse.ecf.remoteservice.rest.RestClientService.connectTimeout", "-1")); //$NON-NLS-1$ //$NON-NLS-2$
+	/**
+	 * @since 2.9
+	 */
+	public static final boolean asyncHttpClientEnabled = Boolean.valueOf(System.getProperty("org.eclipse.ecf.remoteservice.rest.RestClientService.asyncHttpClient", "true")).booleanValue(); //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Headers set by java.net.http.HttpClient itself
+	 */
+	private static final Set<String> ASYNC_RESTRICTED_HEADERS = new HashSet<String>(Arrays.asList("connection", "content-length", "expect", "host", "upgrade")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
 
 	protected final static int DEFAULT_RESPONSE_BUFFER_SIZE = 1024;
 
@@ -54,12 +81,17 @@ public class RestClientService extends AbstractRestClientService {
 	protected HttpClient httpClient;
 	protected int responseBufferSize = DEFAULT_RESPONSE_BUFFER_SIZE;
 
+	// Whether processResponse(..., byte[]) is overridden, null until checked
+	private volatile Boolean byteResponseProcessingOverridden;
+
 	public RestClientService(RestClientContainer container, RemoteServiceClientRegistration registration) {
 		super(container, registration);
 		this.httpClient = createHttpClient();
 	}
 
 	protected HttpClient createHttpClient() {
+		if (container instanceof RestClientContainer)
+			return ((RestClientContainer) container).getHttpClient();
 		return HttpClientBuilder.create().build();
 	}
 
@@ -131,17 +163,19 @@ public class RestClientService extends AbstractRestClientService {
 		HttpRequestBase httpMethod = (urirequest == null) ? createAndPrepareHttpMethod(endpointUri, call, callable) : createAndPrepareHttpMethod(urirequest);
 		trace("invokeRemoteCall", "executing httpMethod" + httpMethod); //$NON-NLS-1$ //$NON-NLS-2$
 		// execute method
-		byte[] responseBody = null;
 		int responseCode = 500;
 		HttpResponse response = null;
+		Object result = null;
 		try {
 			response = httpClient.execute(httpMethod);
 			trace("invokeRemoteCall", "httpMethod executed. response=" + response); //$NON-NLS-1$ //$NON-NLS-2$
 			responseCode = response.getStatusLine().getStatusCode();
 			if (isResponseOk(response)) {
-				// Get responseBody as String
-				responseBody = getResponseAsBytes(response);
+				Map responseHeaders = convertResponseHeaders(response.getAllHeaders());
+				trace("processResponse", "httpMethod=" + httpMethod + ";call=" + call + ";callable=" + callable + ";responseHeaders=" + responseHeaders); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				result = processResponse(endpointUri, call, callable, responseHeaders, response);
 			} else {
+				byte[] responseBody = null;
 				// If this method returns true, we should retrieve the response body
 				if (retrieveErrorResponseBody(response)) {
 					responseBody = getResponseAsBytes(response);
@@ -149,20 +183,299 @@ public class RestClientService extends AbstractRestClientService {
 				// Now pass to the exception handler
 				handleException("Http response not OK.  httpMethod=" + httpMethod + " responseCode=" + Integer.valueOf(responseCode), null, responseCode, responseBody); //$NON-NLS-1$ //$NON-NLS-2$
 			}
+		} catch (NotSerializableException e) {
+			handleException("Exception deserializing response.  httpMethod=" + httpMethod + " responseCode=" + Integer.valueOf(responseCode), e, responseCode); //$NON-NLS-1$ //$NON-NLS-2$
 		} catch (IOException e) {
 			handleException("RestClientService transport IOException", e, responseCode); //$NON-NLS-1$
+		} finally {
+			// release the connection to the pool
+			if (response != null)
+				EntityUtils.consumeQuietly(response.getEntity());
+		}
+		return result;
+	}
+
+	/**
+	 * Deserialize the response of a successful call.  The response entity
+	 * stream is passed to
+	 * {@link #processResponse(String, IRemoteCall, IRemoteCallable, Map, InputStream)}.
+	 * If there is no entity, <code>null</code> is passed to
+	 * {@link #processResponse(String, IRemoteCall, IRemoteCallable, Map, byte[])}.
+	 * 
+	 * @param uri the endpoint uri
+	 * @param call the call
+	 * @param callable the callable
+	 * @param responseHeaders the response headers
+	 * @param response the http response
+	 * @return the deserialized response
+	 * @throws IOException if the response cannot be read or deserialized
+	 * @since 2.9
+	 */
+	protected Object processResponse(String uri, IRemoteCall call, IRemoteCallable callable, Map responseHeaders, HttpResponse response) throws IOException {
+		HttpEntity entity = response.getEntity();
+		if (entity == null)
+			return processResponse(uri, call, callable, responseHeaders, (byte[]) null);
+		InputStream responseBody = entity.getContent();
+		try {
+			return processResponse(uri, call, callable, responseHeaders, responseBody);
+		} finally {
+			responseBody.close();
+		}
+	}
+
+	/**
+	 * Deserialize the response body of a successful call.  If the response
+	 * deserializer of the container is an {@link IRemoteResponseStreamDeserializer}
+	 * it reads the stream.  If it is not, or if this service or its container
+	 * override <code>processResponse(String, IRemoteCall, IRemoteCallable, Map, byte[])</code>,
+	 * the body is read completely and passed to
+	 * {@link #processResponse(String, IRemoteCall, IRemoteCallable, Map, byte[])}.
+	 * 
+	 * @param uri the endpoint uri
+	 * @param call the call
+	 * @param callable the callable
+	 * @param responseHeaders the response headers
+	 * @param responseBody the response body.  Will not be <code>null</code>.
+	 * Closed by the caller.
+	 * @return the deserialized response
+	 * @throws IOException if the response cannot be read or deserialized
+	 * @since 2.9
+	 */
+	protected Object processResponse(String uri, IRemoteCall call, IRemoteCallable callable, Map responseHeaders, InputStream responseBody) throws IOException {
+		IRemoteResponseDeserializer deserializer = getClientContainer().getResponseDeserializer();
+		if (deserializer instanceof IRemoteResponseStreamDeserializer && !isByteResponseProcessingOverridden())
+			return ((IRemoteResponseStreamDeserializer) deserializer).deserializeResponse(uri, call, callable, responseHeaders, responseBody);
+		return processResponse(uri, call, callable, responseHeaders, responseBody.readAllBytes());
+	}
+
+	/**
+	 * @return <code>true</code> if the class of this service or of its
+	 * container overrides the <code>processResponse</code> method for a
+	 * response body byte array, which then has to be used.
+	 */
+	private boolean isByteResponseProcessingOverridden() {
+		Boolean result = byteResponseProcessingOverridden;
+		if (result == null) {
+			Class[] parameterTypes = new Class[] {String.class, IRemoteCall.class, IRemoteCallable.class, Map.class, byte[].class};
+			result = Boolean.valueOf(declaresMethod(getClass(), AbstractClientService.class, "processResponse", parameterTypes) //$NON-NLS-1$
+					|| declaresMethod(getClientContainer().getClass(), AbstractClientContainer.class, "processResponse", parameterTypes)); //$NON-NLS-1$
+			byteResponseProcessingOverridden = result;
+		}
+		return result.booleanValue();
+	}
+
+	/**
+	 * @return <code>true</code> if the class or one of its superclasses below
+	 * the given base class declares the method
+	 */
+	private static boolean declaresMethod(Class clazz, Class base, String name, Class[] parameterTypes) {
+		for (Class c = clazz; c != null && c != base; c = c.getSuperclass()) {
+			try {
+				c.getDeclaredMethod(name, parameterTypes);
+				return true;
+			} catch (NoSuchMethodException e) {
+				// not declared by this class
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return <code>true</code> if asynchronous calls are sent with the
+	 * container's <code>java.net.http.HttpClient</code>.  This is the case
+	 * unless disabled with the
+	 * <code>org.eclipse.ecf.remoteservice.rest.RestClientService.asyncHttpClient</code>
+	 * system property, or the service does not use the container's http client.
+	 * Subclasses that override {@link #invokeRemoteCall(IRemoteCall, IRemoteCallable)}
+	 * should return <code>false</code>.
+	 * @since 2.9
+	 */
+	protected boolean isAsyncHttpClientEnabled() {
+		return asyncHttpClientEnabled && container instanceof RestClientContainer && httpClient == ((RestClientContainer) container).getHttpClient();
+	}
+
+	protected IFuture callAsync(final IRemoteCall call, final IRemoteCallable callable) {
+		if (callable == null || !isAsyncHttpClientEnabled())
+			return super.callAsync(call, callable);
+		final AsyncCallFuture future = new AsyncCallFuture();
+		sendAsync(call, callable).whenComplete((result, exception) -> future.complete(result, unwrap(exception)));
+		return future;
+	}
+
+	protected void callAsync(final IRemoteCall call, final IRemoteCallable callable, final IRemoteCallListener listener) {
+		if (callable == null || !isAsyncHttpClientEnabled()) {
+			super.callAsync(call, callable, listener);
+			return;
 		}
+		final long reqID = getNextRequestID();
+		if (listener != null) {
+			listener.handleEvent(new IRemoteCallStartEvent() {
+				public IRemoteCall getCall() {
+					return call;
+				}
+
+				public IRemoteServiceReference getReference() {
+					return getRegistration().getReference();
+				}
+
+				public long getRequestId() {
+					return reqID;
+				}
+			});
+		}
+		sendAsync(call, callable).whenComplete((r, e) -> {
+			final Object result = r;
+			final Throwable exception = unwrap(e);
+			if (listener != null) {
+				listener.handleEvent(new IRemoteCallCompleteEvent() {
+
+					public Throwable getException() {
+						return exception;
+					}
+
+					public Object getResponse() {
+						return result;
+					}
+
+					public boolean hadException() {
+						return exception != null;
+					}
+
+					public long getRequestId() {
+						return reqID;
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Send a call with the container's <code>java.net.http.HttpClient</code>.
+	 * The request is prepared as for {@link #invokeRemoteCall(IRemoteCall, IRemoteCallable)},
+	 * and then converted with {@link #createAsyncHttpRequest(HttpRequestBase)}.
+	 * 
+	 * @param call the call
+	 * @param callable the callable
+	 * @return future completed with the deserialized response, or with a
+	 * {@link CompletionException} whose cause is the {@link ECFException} of
+	 * the call
+	 * @since 2.9
+	 */
+	protected CompletableFuture<Object> sendAsync(final IRemoteCall call, final IRemoteCallable callable) {
+		final String endpointUri;
+		final HttpRequestBase httpMethod;
+		final java.net.http.HttpRequest request;
+		try {
+			endpointUri = prepareEndpointAddress(call, callable);
+			UriRequest urirequest = createUriRequest(endpointUri, call, callable);
+			httpMethod = (urirequest == null) ? createAndPrepareHttpMethod(endpointUri, call, callable) : createAndPrepareHttpMethod(urirequest);
+			request = createAsyncHttpRequest(httpMethod);
+		} catch (Exception e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		trace("sendAsync", "sending httpMethod" + httpMethod); //$NON-NLS-1$ //$NON-NLS-2$
+		return ((RestClientContainer) container).getAsyncHttpClient().sendAsync(request, BodyHandlers.ofByteArray()).handle((response, exception) -> {
+			try {
+				return processAsyncResponse(endpointUri, call, callable, httpMethod, response, unwrap(exception));
+			} catch (ECFException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+
+	private Object processAsyncResponse(String endpointUri, IRemoteCall call, IRemoteCallable callable, HttpRequestBase httpMethod, java.net.http.HttpResponse<byte[]> asyncResponse, Throwable exception) throws ECFException {
+		if (exception != null)
+			handleException("RestClientService transport IOException", exception, 500); //$NON-NLS-1$
+		// Processed as the responses of synchronous calls
+		HttpResponse response = toHttpResponse(asyncResponse);
+		int responseCode = asyncResponse.statusCode();
 		Object result = null;
 		try {
-			Map responseHeaders = convertResponseHeaders(response.getAllHeaders());
-			trace("processResponse", "httpMethod=" + httpMethod + ";call=" + call + ";callable=" + callable + ";responseHeaders=" + responseHeaders + ";responseBody=" + responseBody); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
-			result = processResponse(endpointUri, call, callable, responseHeaders, responseBody);
+			if (isResponseOk(response)) {
+				Map responseHeaders = convertResponseHeaders(response.getAllHeaders());
+				trace("processResponse", "httpMethod=" + httpMethod + ";call=" + call + ";callable=" + callable + ";responseHeaders=" + responseHeaders); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				result = processResponse(endpointUri, call, callable, responseHeaders, response);
+			} else {
+				byte[] responseBody = null;
+				if (retrieveErrorResponseBody(response)) {
+					responseBody = asyncResponse.body();
+				}
+				handleException("Http response not OK.  httpMethod=" + httpMethod + " responseCode=" + Integer.valueOf(responseCode), null, responseCode, responseBody); //$NON-NLS-1$ //$NON-NLS-2$
+			}
 		} catch (NotSerializableException e) {
 			handleException("Exception deserializing response.  httpMethod=" + httpMethod + " responseCode=" + Integer.valueOf(responseCode), e, responseCode); //$NON-NLS-1$ //$NON-NLS-2$
+		} catch (IOException e) {
+			handleException("RestClientService transport IOException", e, responseCode); //$NON-NLS-1$
 		}
 		return result;
 	}
 
+	/**
+	 * Convert a response of the <code>java.net.http.HttpClient</code> to an
+	 * {@link HttpResponse} with the status code, headers and body.
+	 */
+	private static HttpResponse toHttpResponse(java.net.http.HttpResponse<byte[]> asyncResponse) {
+		BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, asyncResponse.statusCode(), null);
+		for (Map.Entry<String, List<String>> header : asyncResponse.headers().map().entrySet())
+			for (String value : header.getValue())
+				response.addHeader(header.getKey(), value);
+		if (asyncResponse.body() != null)
+			response.setEntity(new ByteArrayEntity(asyncResponse.body()));
+		return response;
+	}
+
+	/**
+	 * Convert a prepared http method to a <code>java.net.http.HttpRequest</code>.
+	 * The uri, method, headers and entity of the http method are copied, and
+	 * the socket timeout of its config is used as request timeout.
+	 * 
+	 * @param httpMethod the prepared http method
+	 * @return the request
+	 * @throws IOException if the request entity cannot be read
+	 * @since 2.9
+	 */
+	protected java.net.http.HttpRequest createAsyncHttpRequest(HttpRequestBase httpMethod) throws IOException {
+		java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder(httpMethod.getURI()).version(java.net.http.HttpClient.Version.HTTP_1_1);
+		Header[] headers = httpMethod.getAllHeaders();
+		for (int i = 0; i < headers.length; i++)
+			if (!ASYNC_RESTRICTED_HEADERS.contains(headers[i].getName().toLowerCase(Locale.ROOT)))
+				builder.header(headers[i].getName(), headers[i].getValue());
+		BodyPublisher body = BodyPublishers.noBody();
+		if (httpMethod instanceof HttpEntityEnclosingRequest) {
+			HttpEntity entity = ((HttpEntityEnclosingRequest) httpMethod).getEntity();
+			if (entity != null) {
+				ByteArrayOutputStream os = new ByteArrayOutputStream();
+				entity.writeTo(os);
+				body = BodyPublishers.ofByteArray(os.toByteArray());
+				if (entity.getContentType() != null && !httpMethod.containsHeader(HTTP.CONTENT_TYPE))
+					builder.header(HTTP.CONTENT_TYPE, entity.getContentType().getValue());
+				if (entity.getContentEncoding() != null && !httpMethod.containsHeader(HTTP.CONTENT_ENCODING))
+					builder.header(HTTP.CONTENT_ENCODING, entity.getContentEncoding().getValue());
+			}
+		}
+		builder.method(httpMethod.getMethod(), body);
+		RequestConfig config = httpMethod.getConfig();
+		if (config != null && config.getSocketTimeout() > 0)
+			builder.timeout(Duration.ofMillis(config.getSocketTimeout()));
+		return builder.build();
+	}
+
+	private static Throwable unwrap(Throwable exception) {
+		return (exception instanceof CompletionException && exception.getCause() != null) ? exception.getCause() : exception;
+	}
+
+	/**
+	 * Future of an asynchronous call, completed by the async http client.
+	 */
+	static class AsyncCallFuture extends SingleOperationFuture {
+		void complete(Object result, Throwable exception) {
+			if (exception != null)
+				setException(exception);
+			else
+				set(result);
+		}
+	}
+
 	protected boolean retrieveErrorResponseBody(HttpResponse response) {
 		// XXX this needs to be defined differently for 
 		return false;
@@ -48,7 +48,7 @@ public class OSGIObjectInputStream extends ObjectInputStream implements OSGIObje
 				String className = serDTO.getClassname();
 				Class<?> clazz = null;
 				try {
-					clazz = loadClass(className);
+					clazz = loadCachedClass(className);
 				} catch (Exception e) {
 					throw new IOException("Could not load class for instance of SerDTO with className=" + className); //$NON-NLS-1$
 				}
@@ -60,7 +60,7 @@ public class OSGIObjectInputStream extends ObjectInputStream implements OSGIObje
 		@Override
 		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
 			try {
-				return loadClass(desc.getName());
+				return loadCachedClass(desc.getName());
 			} catch (Exception e) {
 				return super.resolveClass(desc);
 			}
@@ -83,6 +83,7 @@ public class OSGIObjectInputStream extends ObjectInputStream implements OSGIObje
 	 */
 	public void setClassLoader(ClassLoader cl) {
 		this.classLoader = cl;
+		loadedClasses.clear();
 	}
 
 	public void setLogService(LogService log) {
@@ -97,6 +98,21 @@ public class OSGIObjectInputStream extends ObjectInputStream implements OSGIObje
 		}
 	}
 
+	/**
+	 * Classes loaded by this stream, by class name.  Resolves each class name once
+	 * per stream, rather than once per object.
+	 */
+	private final Map<String, Class<?>> loadedClasses = new HashMap<String, Class<?>>();
+
+	private Class<?> loadCachedClass(String classname) throws ClassNotFoundException {
+		Class<?> result = loadedClasses.get(classname);
+		if (result == null) {
+			result = loadClass(classname);
+			loadedClasses.put(classname, result);
+		}
+		return result;
+	}
+
 	protected Class loadClass(String classname) throws ClassNotFoundException {
 		ClassLoader cl = this.classLoader;
 		Bundle bundle = b;
@@ -110,25 +126,17 @@ public class OSGIObjectInputStream extends ObjectInputStream implements OSGIObje
 		return (bundle == null) ? Class.forName(classname) : bundle.loadClass(classname);
 	}
 
+	private static final Map<String, Class<?>> primitiveTypes = new HashMap<String, Class<?>>();
+
+	static {
+		final Class<?>[] types = {byte.class, long.class, int.class, short.class, char.class, boolean.class, float.class, double.class};
+		for (int i = 0; i < types.length; i++)
+			primitiveTypes.put(types[i].getName(), types[i]);
+	}
+
 	protected Class<?> getClassForType(String type) throws ClassNotFoundException {
-		if (type.equals(byte.class.getName()))
-			return byte.class;
-		else if (type.equals(long.class.getName()))
-			return long.class;
-		else if (type.equals(int.class.getName()))
-			return int.class;
-		else if (type.equals(short.class.getName()))
-			return short.class;
-		else if (type.equals(char.class.getName()))
-			return char.class;
-		else if (type.equals(boolean.class.getName()))
-			return boolean.class;
-		else if (type.equals(float.class.getName()))
-			return float.class;
-		else if (type.equals(double.class.getName()))
-			return double.class;
-		else
-			return loadClass(type);
+		final Class<?> result = primitiveTypes.get(type);
+		return (result != null) ? result : loadCachedClass(type);
 	}
 
 	protected final Object readObjectOverride() throws IOException, ClassNotFoundException {
@@ -150,7 +158,7 @@ public class OSGIObjectInputStream extends ObjectInputStream implements OSGIObje
 					Array.set(oresult, i, readObjectOverride());
 				return oresult;
 			case C_DICT : // Dictionary
-				Class<?> dictClazz = loadClass(in.readUTF());
+				Class<?> dictClazz = loadCachedClass(in.readUTF());
 				Dictionary dict = null;
 				Constructor cons;
 				try {
@@ -230,7 +238,7 @@ public class OSGIObjectInputStream extends ObjectInputStream implements OSGIObje
 			case C_OFLOAT :
 				return in.readFloat();
 			case C_ENUM :
-				return Enum.valueOf(loadClass(in.readUTF()), in.readUTF());
+				return Enum.valueOf((Class) loadCachedClass(in.readUTF()), in.readUTF());
 			case C_OBJECT :
 				return readNonSerializedObject();
 			default :
@@ -242,16 +250,36 @@ public class OSGIObjectInputStream extends ObjectInputStream implements OSGIObje
 		return in.readObject();
 	}
 
+	/**
+	 * Declared fields of a class by name, made accessible once per class.
+	 */
+	private static final ClassValue<Map<String, Field>> declaredFields = new ClassValue<Map<String, Field>>() {
+		@Override
+		protected Map<String, Field> computeValue(Class<?> type) {
+			final Field[] fields = type.getDeclaredFields();
+			final Map<String, Field> result = new HashMap<String, Field>(Math.max(16, 2 * fields.length));
+			for (int i = 0; i < fields.length; i++) {
+				if (!Modifier.isPublic(fields[i].getModifiers()))
+					try {
+						fields[i].setAccessible(true);
+					} catch (RuntimeException e) {
+						// reported when field is set
+					}
+				result.put(fields[i].getName(), fields[i]);
+			}
+			return result;
+		}
+	};
+
 	protected Object readFields(Class<?> clazz, Object inst) throws IOException {
 		try {
 			int fieldCount = in.readInt();
 			while (fieldCount > -1) {
 				for (int i = 0; i < fieldCount; i++) {
 					final String fieldName = in.readUTF();
-					final Field field = clazz.getDeclaredField(fieldName);
-					final int mod = field.getModifiers();
-					if (!Modifier.isPublic(mod))
-						field.setAccessible(true);
+					final Field field = declaredFields.get(clazz).get(fieldName);
+					if (field == null)
+						throw new NoSuchFieldException(fieldName);
 
 					//
 					final Object value = readObjectOverride();
@@ -280,7 +308,7 @@ public class OSGIObjectInputStream extends ObjectInputStream implements OSGIObje
 		// read object stream class
 		String className = in.readUTF();
 		trace("readNonSerializedObject " + className); //$NON-NLS-1$
-		Class<?> clazz = loadClass(className);
+		Class<?> clazz = loadCachedClass(className);
 		// create instance
 		Object instance = createInstance(clazz);
 		return readFields(clazz, instance);
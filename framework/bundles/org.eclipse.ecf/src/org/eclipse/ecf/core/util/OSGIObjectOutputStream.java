@@ -79,30 +79,43 @@ public class OSGIObjectOutputStream extends ObjectOutputStream implements OSGIOb
 		}
 	}
 
+	/**
+	 * Non-static, non-transient fields declared by a class, made accessible once
+	 * per class.
+	 */
+	private static final ClassValue<Field[]> declaredFields = new ClassValue<Field[]>() {
+		@Override
+		protected Field[] computeValue(Class<?> type) {
+			final Field[] allFields = type.getDeclaredFields();
+			final List<Field> result = new ArrayList<Field>(allFields.length);
+			for (int i = 0; i < allFields.length; i++) {
+				final int mod = allFields[i].getModifiers();
+				if (Modifier.isStatic(mod) || Modifier.isTransient(mod))
+					continue;
+				else if (!Modifier.isPublic(mod))
+					try {
+						allFields[i].setAccessible(true);
+					} catch (RuntimeException e) {
+						// reported when field is read
+					}
+				result.add(allFields[i]);
+			}
+			return result.toArray(new Field[result.size()]);
+		}
+	};
+
 	protected void writeFields(Object obj, Class<?> clazz) throws IOException {
 		while (clazz != Object.class) {
 			try {
-				final Field[] allFields = clazz.getDeclaredFields();
-				final int allFieldCount = allFields.length;
-				int actualFieldCount = 0;
-				for (int i = 0; i < allFieldCount; i++) {
-					final int mod = allFields[i].getModifiers();
-					if (!(Modifier.isStatic(mod) || Modifier.isTransient(mod)))
-						actualFieldCount++;
-				}
+				final Field[] fields = declaredFields.get(clazz);
 				// write field count
-				out.writeInt(actualFieldCount);
-				for (int i = 0; i < allFieldCount; i++) {
-					final int mod = allFields[i].getModifiers();
-					if (Modifier.isStatic(mod) || Modifier.isTransient(mod))
-						continue;
-					else if (!Modifier.isPublic(mod))
-						allFields[i].setAccessible(true);
-					Object val = allFields[i].get(obj);
+				out.writeInt(fields.length);
+				for (int i = 0; i < fields.length; i++) {
+					Object val = fields[i].get(obj);
 					// Check to see it's not a circular ref
 					if (val != obj) {
 						// write field name
-						out.writeUTF(allFields[i].getName());
+						out.writeUTF(fields[i].getName());
 						// field value
 						writeObjectOverride(val);
 					}
@@ -127,6 +140,62 @@ public class OSGIObjectOutputStream extends ObjectOutputStream implements OSGIOb
 		out.writeObject(obj);
 	}
 
+	/**
+	 * Type code written for instances of a class, found once per class.  DTOs are
+	 * written as {@link SerDTO}, and {@link Version}s as {@link SerVersion}.
+	 */
+	private static final ClassValue<Byte> writeTypes = new ClassValue<Byte>() {
+		@Override
+		protected Byte computeValue(Class<?> clazz) {
+			return Byte.valueOf(getWriteType(clazz));
+		}
+	};
+
+	static byte getWriteType(Class<?> clazz) {
+		if (clazz.isArray())
+			return C_ARRAY;
+		else if (clazz == Long.class)
+			return C_OLONG;
+		else if (clazz == Integer.class)
+			return C_OINT;
+		else if (clazz == Short.class)
+			return C_OSHORT;
+		else if (clazz == Boolean.class)
+			return C_OBOOL;
+		else if (clazz == Byte.class)
+			return C_OBYTE;
+		else if (clazz == Character.class)
+			return C_OCHAR;
+		else if (clazz == Float.class)
+			return C_OFLOAT;
+		else if (clazz == Double.class)
+			return C_ODOUBLE;
+		else if (clazz == String.class)
+			return C_STRING;
+		else if (Dictionary.class.isAssignableFrom(clazz))
+			return C_DICT;
+		else if (Map.class.isAssignableFrom(clazz))
+			return C_MAP;
+		else if (List.class.isAssignableFrom(clazz))
+			return C_LIST;
+		else if (Set.class.isAssignableFrom(clazz))
+			return C_SET;
+		else if (Collection.class.isAssignableFrom(clazz))
+			return C_COLL;
+		else if (Iterable.class.isAssignableFrom(clazz))
+			return C_ITER;
+		else if (Enum.class.isAssignableFrom(clazz))
+			return C_ENUM;
+		else if (Externalizable.class.isAssignableFrom(clazz))
+			return C_EXTER;
+		else if (Serializable.class.isAssignableFrom(clazz))
+			return C_SER;
+		else if (Version.class.isAssignableFrom(clazz))
+			return C_VER;
+		else
+			return C_DTO;
+	}
+
 	@Override
 	protected void writeObjectOverride(Object obj) throws IOException {
 		if (obj == null) {
@@ -134,176 +203,144 @@ public class OSGIObjectOutputStream extends ObjectOutputStream implements OSGIOb
 			return;
 		}
 		Class<?> clazz = obj.getClass();
-		if (clazz.isArray()) {
-			out.writeByte(C_ARRAY);
-			int len = Array.getLength(obj);
-			// write length
-			out.writeInt(len);
-			// write component type
-			out.writeUTF(clazz.getComponentType().getName());
-			// write out each array entry
-			for (int i = 0; i < len; i++)
-				writeObjectOverride(Array.get(obj, i));
-			return;
-		} else if (obj instanceof Long) {
-			if (clazz.isPrimitive()) {
-				out.writeByte(C_LONG);
-			} else {
+		final byte type = writeTypes.get(clazz).byteValue();
+		switch (type) {
+			case C_ARRAY :
+				out.writeByte(C_ARRAY);
+				int len = Array.getLength(obj);
+				// write length
+				out.writeInt(len);
+				// write component type
+				out.writeUTF(clazz.getComponentType().getName());
+				// write out each array entry
+				for (int i = 0; i < len; i++)
+					writeObjectOverride(Array.get(obj, i));
+				return;
+			case C_OLONG :
 				out.writeByte(C_OLONG);
-			}
-			out.writeLong((Long) obj);
-			return;
-		} else if (obj instanceof Integer) {
-			if (clazz.isPrimitive()) {
-				out.writeByte(C_INT);
-			} else {
+				out.writeLong((Long) obj);
+				return;
+			case C_OINT :
 				out.writeByte(C_OINT);
-			}
-			out.writeInt((Integer) obj);
-			return;
-		} else if (obj instanceof Short) {
-			if (clazz.isPrimitive()) {
-				out.writeByte(C_SHORT);
-			} else {
+				out.writeInt((Integer) obj);
+				return;
+			case C_OSHORT :
 				out.writeByte(C_OSHORT);
-			}
-			out.writeShort((Short) obj);
-			return;
-		} else if (obj instanceof Boolean) {
-			if (clazz.isPrimitive()) {
-				out.writeByte(C_BOOL);
-			} else {
+				out.writeShort((Short) obj);
+				return;
+			case C_OBOOL :
 				out.writeByte(C_OBOOL);
-			}
-			out.writeBoolean((Boolean) obj);
-			return;
-		} else if (obj instanceof Byte) {
-			if (clazz.isPrimitive()) {
-				out.writeByte(C_BYTE);
-			} else {
+				out.writeBoolean((Boolean) obj);
+				return;
+			case C_OBYTE :
 				out.writeByte(C_OBYTE);
-			}
-			out.writeByte((Byte) obj);
-			return;
-		} else if (obj instanceof Character) {
-			if (clazz.isPrimitive()) {
-				out.writeByte(C_CHAR);
-			} else {
+				out.writeByte((Byte) obj);
+				return;
+			case C_OCHAR :
 				out.writeByte(C_OCHAR);
-			}
-			out.writeChar((Character) obj);
-			return;
-		} else if (obj instanceof Float) {
-			if (clazz.isPrimitive()) {
-				out.writeByte(C_FLOAT);
-			} else {
+				out.writeChar((Character) obj);
+				return;
+			case C_OFLOAT :
 				out.writeByte(C_OFLOAT);
-			}
-			out.writeFloat((Float) obj);
-			return;
-		} else if (obj instanceof Double) {
-			if (clazz.isPrimitive()) {
-				out.writeByte(C_DOUBLE);
-			} else {
+				out.writeFloat((Float) obj);
+				return;
+			case C_ODOUBLE :
 				out.writeByte(C_ODOUBLE);
-			}
-			out.writeDouble((Double) obj);
-			return;
-		} else if (obj instanceof String) {
-			out.writeByte(C_STRING);
-			out.writeUTF((String) obj);
-			return;
-		} else if (obj instanceof Dictionary) {
-			trace("writing dictionary"); //$NON-NLS-1$
-			out.writeByte(C_DICT);
-			out.writeUTF(clazz.getName());
-			Dictionary dict = (Dictionary) obj;
-			// write size
-			int ds = dict.size();
-			out.writeInt(ds);
-			// for each element in Map
-			for (Enumeration e = dict.keys(); e.hasMoreElements();) {
-				Object key = e.nextElement();
-				writeObjectOverride(key);
-				writeObjectOverride(dict.get(key));
-			}
-			return;
-		} else if (obj instanceof Map) {
-			out.writeByte(C_MAP);
-			Map map = (Map) obj;
-			// write size
-			int size = map.size();
-			out.writeInt(size);
-			// for each element in Map
-			for (Object key : map.keySet()) {
-				// Write key
-				writeObjectOverride(key);
-				// Write value
-				writeObjectOverride(map.get(key));
-			}
-			return;
-		} else if (obj instanceof List) {
-			out.writeByte(C_LIST);
-			List list = (List) obj;
-			// write size
-			int size = list.size();
-			out.writeInt(size);
-			// write each element
-			for (Object item : list)
-				writeObjectOverride(item);
-			return;
-		} else if (obj instanceof Set) {
-			out.writeByte(C_SET);
-			Set set = (Set) obj;
-			// write size
-			int size = set.size();
-			out.writeInt(size);
-			// then elements
-			for (Object item : set)
-				writeObjectOverride(item);
-			return;
-		} else if (obj instanceof Collection) {
-			out.writeByte(C_COLL);
-			Collection col = (Collection) obj;
-			// write size
-			int size = col.size();
-			out.writeInt(size);
-			// then elements
-			for (Object item : col)
-				writeObjectOverride(item);
-			return;
-		} else if (obj instanceof Iterable) {
-			out.writeByte(C_ITER);
-			Iterable itr = (Iterable) obj;
-			int size = 0;
-			// Get size
-			for (@SuppressWarnings("unused")
-			Object v : itr)
-				size++;
-			// write size
-			out.writeInt(size);
-			// write elements
-			for (Object item : itr)
-				writeObjectOverride(item);
-			return;
-		} else if (obj instanceof Enum) {
-			out.writeByte(C_ENUM);
-			out.writeUTF(obj.getClass().getName());
-			out.writeUTF(((Enum) obj).name());
-			return;
-		}
-		if (obj instanceof Externalizable) {
-			out.writeByte(C_EXTER);
-			writeExternalizable((Externalizable) obj, clazz);
-		} else if (obj instanceof Serializable) {
-			out.writeByte(C_SER);
-			writeSerializable(obj, clazz);
-			return;
-		} else if (obj instanceof Version) {
-			writeObjectOverride(new SerVersion((Version) obj));
-		} else {
-			writeObjectOverride(new SerDTO(obj));
-			return;
+				out.writeDouble((Double) obj);
+				return;
+			case C_STRING :
+				out.writeByte(C_STRING);
+				out.writeUTF((String) obj);
+				return;
+			case C_DICT :
+				trace("writing dictionary"); //$NON-NLS-1$
+				out.writeByte(C_DICT);
+				out.writeUTF(clazz.getName());
+				Dictionary dict = (Dictionary) obj;
+				// write size
+				int ds = dict.size();
+				out.writeInt(ds);
+				// for each element in Map
+				for (Enumeration e = dict.keys(); e.hasMoreElements();) {
+					Object key = e.nextElement();
+					writeObjectOverride(key);
+					writeObjectOverride(dict.get(key));
+				}
+				return;
+			case C_MAP :
+				out.writeByte(C_MAP);
+				Map map = (Map) obj;
+				// write size
+				int size = map.size();
+				out.writeInt(size);
+				// for each element in Map
+				for (Object key : map.keySet()) {
+					// Write key
+					writeObjectOverride(key);
+					// Write value
+					writeObjectOverride(map.get(key));
+				}
+				return;
+			case C_LIST :
+				out.writeByte(C_LIST);
+				List list = (List) obj;
+				// write size
+				out.writeInt(list.size());
+				// write each element
+				for (Object item : list)
+					writeObjectOverride(item);
+				return;
+			case C_SET :
+				out.writeByte(C_SET);
+				Set set = (Set) obj;
+				// write size
+				out.writeInt(set.size());
+				// then elements
+				for (Object item : set)
+					writeObjectOverride(item);
+				return;
+			case C_COLL :
+				out.writeByte(C_COLL);
+				Collection col = (Collection) obj;
+				// write size
+				out.writeInt(col.size());
+				// then elements
+				for (Object item : col)
+					writeObjectOverride(item);
+				return;
+			case C_ITER :
+				out.writeByte(C_ITER);
+				Iterable itr = (Iterable) obj;
+				int isize = 0;
+				// Get size
+				for (@SuppressWarnings("unused")
+				Object v : itr)
+					isize++;
+				// write size
+				out.writeInt(isize);
+				// write elements
+				for (Object item : itr)
+					writeObjectOverride(item);
+				return;
+			case C_ENUM :
+				out.writeByte(C_ENUM);
+				out.writeUTF(obj.getClass().getName());
+				out.writeUTF(((Enum) obj).name());
+				return;
+			case C_EXTER :
+				out.writeByte(C_EXTER);
+				writeExternalizable((Externalizable) obj, clazz);
+				return;
+			case C_SER :
+				out.writeByte(C_SER);
+				writeSerializable(obj, clazz);
+				return;
+			case C_VER :
+				writeObjectOverride(new SerVersion((Version) obj));
+				return;
+			default :
+				writeObjectOverride(new SerDTO(obj));
+				return;
 		}
 	}
 
@@ -13,10 +13,10 @@ package org.eclipse.ecf.core.util;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 /**
  * @since 3.10
@@ -27,14 +27,51 @@ public class SerDTO implements Serializable {
 	private String className;
 	private Map<String, Object> fields;
 
+	/**
+	 * Public fields and constructor of a DTO class, found once per class.
+	 */
+	static final class DTOPlan {
+		final Field[] fields;
+		final Constructor<?> constructor;
+
+		DTOPlan(Class<?> clazz) {
+			final List<Field> l = new ArrayList<Field>();
+			for (Field f : clazz.getFields()) {
+				final int mod = f.getModifiers();
+				if (Modifier.isStatic(mod) || Modifier.isTransient(mod))
+					continue;
+				try {
+					f.setAccessible(true);
+				} catch (RuntimeException e) {
+					// use as is
+				}
+				l.add(f);
+			}
+			this.fields = l.toArray(new Field[l.size()]);
+			Constructor<?> c = null;
+			try {
+				c = clazz.getConstructor(new Class[] {});
+				c.setAccessible(true);
+			} catch (Exception e) {
+				// no public no-arg constructor, so cannot be read
+			}
+			this.constructor = c;
+		}
+	}
+
+	private static final ClassValue<DTOPlan> plans = new ClassValue<DTOPlan>() {
+		@Override
+		protected DTOPlan computeValue(Class<?> type) {
+			return new DTOPlan(type);
+		}
+	};
+
 	public SerDTO(Object obj) {
 		Class<?> clazz = obj.getClass();
 		this.className = clazz.getName();
-		this.fields = new HashMap<String, Object>();
-		for (Field f : clazz.getFields()) {
-			final int mod = f.getModifiers();
-			if (Modifier.isStatic(mod) || Modifier.isTransient(mod))
-				continue;
+		final Field[] fs = plans.get(clazz).fields;
+		this.fields = new HashMap<String, Object>(Math.max(16, 2 * fs.length));
+		for (Field f : fs) {
 			Object value = null;
 			try {
 				value = f.get(obj);
@@ -58,11 +95,13 @@ public class SerDTO implements Serializable {
 	public Object readObject(Class<?> clazz) throws IOException {
 		Object result = null;
 		try {
-			result = clazz.getConstructor(new Class[] {}).newInstance();
-			for (Field f : clazz.getFields()) {
+			final DTOPlan plan = plans.get(clazz);
+			if (plan.constructor == null)
+				throw new NoSuchMethodException(clazz.getName() + ".<init>()"); //$NON-NLS-1$
+			result = plan.constructor.newInstance();
+			for (Field f : plan.fields) {
 				Object v = fields.get(f.getName());
 				if (v != null) {
-					f.setAccessible(true);
 					try {
 						f.set(result, v);
 					} catch (Exception e) {
@@ -23,6 +23,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.SAXParserFactory;
 
@@ -109,6 +117,45 @@ public class Activator implements BundleActivator {
 	private Collection<ExportRegistration> exportedRegistrations;
 	private Collection<ImportRegistration> importedRegistrations;
 
+	/**
+	 * The maximum number of asynchronous imports and exports running at the
+	 * same time.
+	 */
+	private static final int ASYNC_THREADS = Integer.getInteger(
+			"org.eclipse.ecf.osgi.services.remoteserviceadmin.asyncThreads", //$NON-NLS-1$
+			Math.max(4, Runtime.getRuntime().availableProcessors())).intValue();
+
+	private Object executorLock = new Object();
+	private ExecutorService executor;
+	private boolean executorStopped;
+
+	/**
+	 * @return the executor of the asynchronous imports and exports of all
+	 *         RemoteServiceAdmin instances
+	 * @throws RejectedExecutionException if the bundle has been stopped
+	 */
+	public ExecutorService getExecutor() {
+		synchronized (executorLock) {
+			if (executorStopped)
+				throw new RejectedExecutionException("RemoteServiceAdmin bundle is stopped"); //$NON-NLS-1$
+			if (executor == null) {
+				ThreadPoolExecutor pool = new ThreadPoolExecutor(ASYNC_THREADS, ASYNC_THREADS, 60, TimeUnit.SECONDS,
+						new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+							private final AtomicInteger count = new AtomicInteger();
+
+							public Thread newThread(Runnable r) {
+								Thread t = new Thread(r, "RSA Import/Export " + count.incrementAndGet()); //$NON-NLS-1$
+								t.setDaemon(true);
+								return t;
+							}
+						});
+				pool.allowCoreThreadTimeOut(true);
+				executor = pool;
+			}
+			return executor;
+		}
+	}
+
 	private void initializeProxyServiceFactoryBundle() throws Exception {
 		// First, find proxy bundle
 		for (Bundle b : context.getBundles()) {
@@ -253,8 +300,8 @@ public class Activator implements BundleActivator {
 	public void start(BundleContext bundleContext) throws Exception {
 		Activator.context = bundleContext;
 		Activator.instance = this;
-		this.exportedRegistrations = new ArrayList<ExportRegistration>();
-		this.importedRegistrations = new ArrayList<ImportRegistration>();
+		this.exportedRegistrations = RegistrationIndex.createExportRegistrations();
+		this.importedRegistrations = RegistrationIndex.createImportRegistrations();
 		// start dependent bundles first
 		initializeDependents();
 		// initialize the RSA proxy service factory bundle...so that we
@@ -391,6 +438,19 @@ public class Activator implements BundleActivator {
 		}
 		stopProxyServiceFactoryBundle();
 
+		List<Runnable> dropped = null;
+		synchronized (executorLock) {
+			executorStopped = true;
+			if (executor != null) {
+				dropped = executor.shutdownNow();
+				executor = null;
+			}
+		}
+		// complete the futures of the imports and exports that have not run
+		if (dropped != null)
+			for (Runnable r : dropped)
+				if (r instanceof Future)
+					((Future<?>) r).cancel(false);
 		synchronized (importedRegistrations) {
 			if (importedRegistrations != null) {
 				importedRegistrations.clear();
@@ -0,0 +1,358 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *   Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.internal.osgi.services.remoteserviceadmin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.osgi.framework.Filter;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.remoteserviceadmin.EndpointDescription;
+import org.osgi.service.remoteserviceadmin.RemoteConstants;
+
+/**
+ * The compiled endpoint listener scopes of endpoint (event) listener services,
+ * with an index of the listeners by the endpoint framework uuids and object
+ * classes their scopes require. The scope of a listener is compiled once when
+ * it is first used, and again after {@link #update(ServiceReference)}.
+ */
+public class EndpointListenerScopes {
+
+	private static final String FRAMEWORK_UUID = RemoteConstants.ENDPOINT_FRAMEWORK_UUID.toLowerCase();
+
+	private static final String OBJECTCLASS = org.osgi.framework.Constants.OBJECTCLASS.toLowerCase();
+
+	/**
+	 * The compiled endpoint listener scope of a listener.
+	 */
+	public static class Scope {
+
+		private final String[] filters;
+
+		private final Filter[] compiled;
+
+		private final Set<String> frameworkUUIDs = new HashSet<String>();
+
+		private final Set<String> objectClasses = new HashSet<String>();
+
+		private boolean restricted = true;
+
+		/**
+		 * @param filters the endpoint listener scope filters. Invalid filters are
+		 *                logged and never match.
+		 */
+		public Scope(List<String> filters) {
+			List<String> valid = new ArrayList<String>(filters.size());
+			List<Filter> validCompiled = new ArrayList<Filter>(filters.size());
+			for (String filter : filters) {
+				if (filter == null || "".equals(filter)) //$NON-NLS-1$
+					continue;
+				try {
+					validCompiled.add(FrameworkUtil.createFilter(filter));
+				} catch (InvalidSyntaxException e) {
+					LogUtility.logError("Scope", DebugOptions.ENDPOINT_DESCRIPTION_LOCATOR, getClass(), //$NON-NLS-1$
+							"invalid endpoint listener filter=" + filter, e); //$NON-NLS-1$
+					continue;
+				}
+				valid.add(filter);
+				Map<String, String> equalities = getRequiredEqualities(filter);
+				String uuid = equalities.get(FRAMEWORK_UUID);
+				String objectClass = equalities.get(OBJECTCLASS);
+				if (uuid != null)
+					frameworkUUIDs.add(uuid);
+				else if (objectClass != null)
+					objectClasses.add(objectClass);
+				else
+					restricted = false;
+			}
+			this.filters = valid.toArray(new String[valid.size()]);
+			this.compiled = validCompiled.toArray(new Filter[validCompiled.size()]);
+		}
+
+		/**
+		 * @return <code>true</code> if the scope has no valid filter, and
+		 *         therefore matches no endpoint
+		 */
+		public boolean isEmpty() {
+			return filters.length == 0;
+		}
+
+		/**
+		 * @return <code>true</code> if every filter of the scope requires a
+		 *         framework uuid or an object class
+		 */
+		public boolean isRestricted() {
+			return restricted;
+		}
+
+		/**
+		 * @return the framework uuids required by filters of the scope
+		 */
+		public Set<String> getFrameworkUUIDs() {
+			return frameworkUUIDs;
+		}
+
+		/**
+		 * @return the object classes required by filters of the scope that do
+		 *         not require a framework uuid
+		 */
+		public Set<String> getObjectClasses() {
+			return objectClasses;
+		}
+
+		/**
+		 * @param properties the properties of the endpoint description, see
+		 *                   {@link EndpointListenerScopes#getProperties(EndpointDescription)}
+		 * @return the first filter of the scope that matches, or <code>null</code>
+		 *         if none matches
+		 */
+		public String match(Dictionary<String, Object> properties) {
+			for (int i = 0; i < compiled.length; i++)
+				if (compiled[i].matchCase(properties))
+					return filters[i];
+			return null;
+		}
+	}
+
+	private final String scopeProperty;
+
+	private final Map<ServiceReference, Scope> scopes = new HashMap<ServiceReference, Scope>();
+
+	private final Map<String, Set<ServiceReference>> byFrameworkUUID = new HashMap<String, Set<ServiceReference>>();
+
+	private final Map<String, Set<ServiceReference>> byObjectClass = new HashMap<String, Set<ServiceReference>>();
+
+	private final Set<ServiceReference> unrestricted = new HashSet<ServiceReference>();
+
+	/**
+	 * @param scopeProperty the name of the service property holding the
+	 *                      endpoint listener scope
+	 */
+	public EndpointListenerScopes(String scopeProperty) {
+		this.scopeProperty = scopeProperty;
+	}
+
+	/**
+	 * Get the scope of a listener, compile it if necessary.
+	 *
+	 * @param reference the service reference of the listener
+	 * @return the scope
+	 */
+	public synchronized Scope getScope(ServiceReference reference) {
+		Scope scope = scopes.get(reference);
+		if (scope == null) {
+			Map<String, Object> properties = new HashMap<String, Object>();
+			String[] keys = reference.getPropertyKeys();
+			if (keys != null)
+				for (int i = 0; i < keys.length; i++)
+					if (scopeProperty.equalsIgnoreCase(keys[i]))
+						properties.put(scopeProperty, reference.getProperty(keys[i]));
+			@SuppressWarnings("unchecked")
+			List<String> filters = PropertiesUtil.getStringPlusProperty(properties, scopeProperty);
+			scope = new Scope(filters);
+			scopes.put(reference, scope);
+			if (!scope.isEmpty()) {
+				if (scope.isRestricted()) {
+					index(byFrameworkUUID, scope.getFrameworkUUIDs(), reference);
+					index(byObjectClass, scope.getObjectClasses(), reference);
+				} else
+					unrestricted.add(reference);
+			}
+		}
+		return scope;
+	}
+
+	/**
+	 * Compile the scope of a listener again, after its service properties have
+	 * been modified.
+	 *
+	 * @param reference the service reference of the listener
+	 */
+	public synchronized void update(ServiceReference reference) {
+		remove(reference);
+		getScope(reference);
+	}
+
+	/**
+	 * Remove the scope of a listener.
+	 *
+	 * @param reference the service reference of the listener
+	 */
+	public synchronized void remove(ServiceReference reference) {
+		Scope scope = scopes.remove(reference);
+		if (scope != null) {
+			unindex(byFrameworkUUID, scope.getFrameworkUUIDs(), reference);
+			unindex(byObjectClass, scope.getObjectClasses(), reference);
+			unrestricted.remove(reference);
+		}
+	}
+
+	/**
+	 * Remove all scopes.
+	 */
+	public synchronized void clear() {
+		scopes.clear();
+		byFrameworkUUID.clear();
+		byObjectClass.clear();
+		unrestricted.clear();
+	}
+
+	/**
+	 * Select the listeners whose scope can match an endpoint description.
+	 *
+	 * @param references  the service references of the listeners
+	 * @param description the endpoint description
+	 * @return the service references of the listeners whose scope can match,
+	 *         in the order of <code>references</code>
+	 */
+	public synchronized List<ServiceReference> getCandidates(ServiceReference[] references,
+			EndpointDescription description) {
+		// listeners seen for the first time are compiled and indexed
+		for (int i = 0; i < references.length; i++)
+			getScope(references[i]);
+		Set<ServiceReference> candidates = new HashSet<ServiceReference>(unrestricted);
+		Set<ServiceReference> refs = byFrameworkUUID.get(description.getFrameworkUUID());
+		if (refs != null)
+			candidates.addAll(refs);
+		for (String objectClass : description.getInterfaces()) {
+			refs = byObjectClass.get(objectClass);
+			if (refs != null)
+				candidates.addAll(refs);
+		}
+		List<ServiceReference> results = new ArrayList<ServiceReference>();
+		for (int i = 0; i < references.length; i++)
+			if (candidates.contains(references[i]))
+				results.add(references[i]);
+		return results;
+	}
+
+	private static void index(Map<String, Set<ServiceReference>> index, Set<String> keys,
+			ServiceReference reference) {
+		for (String key : keys) {
+			Set<ServiceReference> refs = index.get(key);
+			if (refs == null) {
+				refs = new HashSet<ServiceReference>();
+				index.put(key, refs);
+			}
+			refs.add(reference);
+		}
+	}
+
+	private static void unindex(Map<String, Set<ServiceReference>> index, Set<String> keys,
+			ServiceReference reference) {
+		for (String key : keys) {
+			Set<ServiceReference> refs = index.get(key);
+			if (refs != null) {
+				refs.remove(reference);
+				if (refs.isEmpty())
+					index.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Get the properties of an endpoint description for matching. Like
+	 * {@link EndpointDescription#matches(String)}, the keys are case
+	 * insensitive.
+	 *
+	 * @param description the endpoint description
+	 * @return the properties
+	 */
+	public static Dictionary<String, Object> getProperties(EndpointDescription description) {
+		final Map<String, Object> properties = description.getProperties();
+		return new Dictionary<String, Object>() {
+			public int size() {
+				return properties.size();
+			}
+
+			public boolean isEmpty() {
+				return properties.isEmpty();
+			}
+
+			public Enumeration<String> keys() {
+				return Collections.enumeration(properties.keySet());
+			}
+
+			public Enumeration<Object> elements() {
+				return Collections.enumeration(properties.values());
+			}
+
+			public Object get(Object key) {
+				return properties.get(key);
+			}
+
+			public Object put(String key, Object value) {
+				throw new UnsupportedOperationException();
+			}
+
+			public Object remove(Object key) {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Get the attributes a filter requires to be equal to a value, that is the
+	 * simple equality terms of the filter, or of a top level conjunction.
+	 *
+	 * @param filter the filter
+	 * @return lower case attribute name -&gt; value
+	 */
+	static Map<String, String> getRequiredEqualities(String filter) {
+		Map<String, String> results = new HashMap<String, String>();
+		String f = filter.trim();
+		if (!f.startsWith("(") || !f.endsWith(")")) //$NON-NLS-1$ //$NON-NLS-2$
+			return results;
+		String inner = f.substring(1, f.length() - 1).trim();
+		List<String> terms = new ArrayList<String>();
+		if (inner.startsWith("&")) { //$NON-NLS-1$
+			int depth = 0;
+			int start = -1;
+			for (int i = 1; i < inner.length(); i++) {
+				char c = inner.charAt(i);
+				if (c == '\\')
+					i++;
+				else if (c == '(') {
+					if (depth++ == 0)
+						start = i;
+				} else if (c == ')' && --depth == 0)
+					terms.add(inner.substring(start, i + 1));
+			}
+		} else
+			terms.add(f);
+		for (Iterator<String> i = terms.iterator(); i.hasNext();) {
+			String term = i.next();
+			int eq = term.indexOf('=');
+			if (eq < 2 || term.indexOf('(', 1) != -1)
+				continue;
+			char op = term.charAt(eq - 1);
+			if (op == '~' || op == '<' || op == '>')
+				continue;
+			String value = term.substring(eq + 1, term.length() - 1);
+			if (value.length() == 0 || value.indexOf('*') != -1 || value.indexOf('\\') != -1)
+				continue;
+			results.put(term.substring(1, eq).trim().toLowerCase(), value);
+		}
+		return results;
+	}
+}
@@ -0,0 +1,219 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *   Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.internal.osgi.services.remoteserviceadmin;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.ecf.core.identity.ID;
+import org.eclipse.ecf.osgi.services.remoteserviceadmin.RemoteServiceAdmin;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.remoteserviceadmin.EndpointDescription;
+import org.osgi.service.remoteserviceadmin.ExportReference;
+import org.osgi.service.remoteserviceadmin.ExportRegistration;
+import org.osgi.service.remoteserviceadmin.ImportReference;
+import org.osgi.service.remoteserviceadmin.ImportRegistration;
+
+/**
+ * Collection of import or export registrations, with an index of the
+ * registrations by key. The keys of a registration are determined when it is
+ * added, so that it can be removed from the index after it has been closed.
+ * <p>
+ * Import registrations are indexed by the endpoint id of the imported endpoint
+ * and by the remote service (see {@link #getRemoteServiceKey(ID, long)}),
+ * export registrations by the exported service reference. Registrations with
+ * an exception are not indexed.
+ * </p>
+ *
+ * @param <R> the type of the registrations
+ */
+public class RegistrationIndex<R> extends AbstractCollection<R> {
+
+	/**
+	 * Determines the keys of a registration.
+	 *
+	 * @param <R> the type of the registrations
+	 */
+	public interface KeyProvider<R> {
+		Collection<Object> getKeys(R registration);
+	}
+
+	/**
+	 * The key of a remote service: the remote container id and the container
+	 * relative remote service id.
+	 */
+	private static final class RemoteServiceKey {
+
+		private final ID containerID;
+
+		private final long remoteServiceId;
+
+		RemoteServiceKey(ID containerID, long remoteServiceId) {
+			this.containerID = containerID;
+			this.remoteServiceId = remoteServiceId;
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof RemoteServiceKey))
+				return false;
+			RemoteServiceKey other = (RemoteServiceKey) o;
+			return remoteServiceId == other.remoteServiceId && containerID.equals(other.containerID);
+		}
+
+		public int hashCode() {
+			return containerID.hashCode() * 31 + (int) (remoteServiceId ^ (remoteServiceId >>> 32));
+		}
+	}
+
+	private static final KeyProvider<ImportRegistration> IMPORT_KEYS = new KeyProvider<ImportRegistration>() {
+		public Collection<Object> getKeys(ImportRegistration registration) {
+			ImportReference ref = registration.getImportReference();
+			if (ref == null)
+				return Collections.emptyList();
+			List<Object> keys = new ArrayList<Object>(2);
+			EndpointDescription ed = ref.getImportedEndpoint();
+			if (ed != null)
+				keys.add(ed.getId());
+			if (ref instanceof RemoteServiceAdmin.ImportReference) {
+				RemoteServiceAdmin.ImportReference ecfRef = (RemoteServiceAdmin.ImportReference) ref;
+				ID containerID = ecfRef.getContainerID();
+				if (containerID != null)
+					keys.add(getRemoteServiceKey(containerID, ecfRef.getRemoteServiceId()));
+			}
+			return keys;
+		}
+	};
+
+	private static final KeyProvider<ExportRegistration> EXPORT_KEYS = new KeyProvider<ExportRegistration>() {
+		public Collection<Object> getKeys(ExportRegistration registration) {
+			ExportReference ref = registration.getExportReference();
+			ServiceReference serviceReference = (ref == null) ? null : ref.getExportedService();
+			if (serviceReference == null)
+				return Collections.emptyList();
+			return Collections.<Object> singletonList(serviceReference);
+		}
+	};
+
+	/**
+	 * @return new empty collection of import registrations
+	 */
+	public static RegistrationIndex<ImportRegistration> createImportRegistrations() {
+		return new RegistrationIndex<ImportRegistration>(IMPORT_KEYS);
+	}
+
+	/**
+	 * @return new empty collection of export registrations
+	 */
+	public static RegistrationIndex<ExportRegistration> createExportRegistrations() {
+		return new RegistrationIndex<ExportRegistration>(EXPORT_KEYS);
+	}
+
+	/**
+	 * @param containerID     the id of the remote container
+	 * @param remoteServiceId the container relative id of the remote service
+	 * @return the key of the import registrations of the remote service
+	 */
+	public static Object getRemoteServiceKey(ID containerID, long remoteServiceId) {
+		return new RemoteServiceKey(containerID, remoteServiceId);
+	}
+
+	private final KeyProvider<R> keyProvider;
+
+	/**
+	 * registration -&gt; keys
+	 */
+	private final ConcurrentMap<R, Collection<Object>> registrations = new ConcurrentHashMap<R, Collection<Object>>();
+
+	/**
+	 * key -&gt; registrations
+	 */
+	private final ConcurrentMap<Object, Set<R>> index = new ConcurrentHashMap<Object, Set<R>>();
+
+	public RegistrationIndex(KeyProvider<R> keyProvider) {
+		this.keyProvider = keyProvider;
+	}
+
+	/**
+	 * @param key the key
+	 * @return the registrations with the given key. Never <code>null</code>.
+	 */
+	public List<R> get(Object key) {
+		Set<R> regs = index.get(key);
+		return (regs == null) ? new ArrayList<R>() : new ArrayList<R>(regs);
+	}
+
+	public boolean add(R registration) {
+		Collection<Object> keys = keyProvider.getKeys(registration);
+		if (registrations.putIfAbsent(registration, keys) != null)
+			return false;
+		for (Object key : keys)
+			index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(registration);
+		return true;
+	}
+
+	public boolean remove(Object registration) {
+		Collection<Object> keys = registrations.remove(registration);
+		if (keys == null)
+			return false;
+		for (Object key : keys)
+			index.computeIfPresent(key, (k, regs) -> {
+				regs.remove(registration);
+				return regs.isEmpty() ? null : regs;
+			});
+		return true;
+	}
+
+	public boolean contains(Object registration) {
+		return registrations.containsKey(registration);
+	}
+
+	public void clear() {
+		registrations.clear();
+		index.clear();
+	}
+
+	public int size() {
+		return registrations.size();
+	}
+
+	public Iterator<R> iterator() {
+		final Iterator<Map.Entry<R, Collection<Object>>> i = registrations.entrySet().iterator();
+		return new Iterator<R>() {
+			private R current;
+
+			public boolean hasNext() {
+				return i.hasNext();
+			}
+
+			public R next() {
+				current = i.next().getKey();
+				return current;
+			}
+
+			public void remove() {
+				if (current == null)
+					throw new IllegalStateException();
+				RegistrationIndex.this.remove(current);
+				current = null;
+			}
+		};
+	}
+}
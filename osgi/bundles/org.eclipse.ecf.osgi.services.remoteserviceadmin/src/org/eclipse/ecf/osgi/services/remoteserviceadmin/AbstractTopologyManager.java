@@ -19,6 +19,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -85,6 +86,10 @@ public abstract class AbstractTopologyManager {
 			"org.eclipse.ecf.osgi.services.remoteserviceadmin.AbstractTopologyManager.requireServiceExportedConfigs", //$NON-NLS-1$
 			"false")).booleanValue(); //$NON-NLS-1$
 
+	private boolean asyncImport = new Boolean(System.getProperty(
+			"org.eclipse.ecf.osgi.services.remoteserviceadmin.AbstractTopologyManager.asyncImport", //$NON-NLS-1$
+			"false")).booleanValue(); //$NON-NLS-1$
+
 	public AbstractTopologyManager(BundleContext context) {
 		serviceInfoFactoryTracker = new ServiceTracker(context, createISIFFilter(context), null);
 		serviceInfoFactoryTracker.open();
@@ -329,8 +334,18 @@ public abstract class AbstractTopologyManager {
 				+ endpointDescription);
 		// Import service
 		RemoteServiceAdmin rsa = (RemoteServiceAdmin) getRemoteServiceAdmin();
-		if (rsa != null)
-			rsa.importService(endpointDescription);
+		if (rsa != null) {
+			// If asyncImport is set, imports are run in parallel, so that a
+			// burst of discovered endpoints does not block the caller
+			if (asyncImport)
+				rsa.importServiceAsync(endpointDescription).whenComplete((reg, t) -> {
+					if (t != null)
+						logError("handleECFEndpointAdded", "Could not import endpointDescription=" //$NON-NLS-1$ //$NON-NLS-2$
+								+ endpointDescription, t);
+				});
+			else
+				rsa.importService(endpointDescription);
+		}
 	}
 
 	/**
@@ -343,15 +358,23 @@ public abstract class AbstractTopologyManager {
 				+ endpointDescription);
 		RemoteServiceAdmin rsa = (RemoteServiceAdmin) getRemoteServiceAdmin();
 		if (rsa != null) {
-			List<RemoteServiceAdmin.ImportRegistration> importedRegistrations = rsa.getImportedRegistrations();
 			org.eclipse.ecf.osgi.services.remoteserviceadmin.EndpointDescription ed = (org.eclipse.ecf.osgi.services.remoteserviceadmin.EndpointDescription) endpointDescription;
-			for (RemoteServiceAdmin.ImportRegistration importedRegistration : importedRegistrations) {
-				if (importedRegistration.match(ed)) {
-					trace("handleEndpointRemoved", "closing importedRegistration=" //$NON-NLS-1$ //$NON-NLS-2$
-							+ importedRegistration);
-					importedRegistration.close();
-				}
-			}
+			// If the endpoint is still being imported, close once the import is
+			// complete
+			CompletableFuture<ImportRegistration> pending = rsa.getPendingImport(ed.getId());
+			if (pending != null)
+				pending.whenComplete((reg, t) -> closeImportedRegistrations(rsa, ed));
+			else
+				closeImportedRegistrations(rsa, ed);
+		}
+	}
+
+	private void closeImportedRegistrations(RemoteServiceAdmin rsa,
+			org.eclipse.ecf.osgi.services.remoteserviceadmin.EndpointDescription ed) {
+		for (RemoteServiceAdmin.ImportRegistration importedRegistration : rsa.getImportedRegistrations(ed)) {
+			trace("handleEndpointRemoved", "closing importedRegistration=" //$NON-NLS-1$ //$NON-NLS-2$
+					+ importedRegistration);
+			importedRegistration.close();
 		}
 	}
 
@@ -364,15 +387,22 @@ public abstract class AbstractTopologyManager {
 				+ endpoint);
 		RemoteServiceAdmin rsa = (RemoteServiceAdmin) getRemoteServiceAdmin();
 		if (rsa != null) {
-			List<RemoteServiceAdmin.ImportRegistration> importedRegistrations = rsa.getImportedRegistrations();
 			org.eclipse.ecf.osgi.services.remoteserviceadmin.EndpointDescription ed = (org.eclipse.ecf.osgi.services.remoteserviceadmin.EndpointDescription) endpoint;
-			for (RemoteServiceAdmin.ImportRegistration importedRegistration : importedRegistrations) {
-				if (importedRegistration.match(ed)) {
-					trace("handleECFEndpointModified", "updating importedRegistration=" //$NON-NLS-1$ //$NON-NLS-2$
-							+ importedRegistration);
-					importedRegistration.update(endpoint);
-				}
-			}
+			// If the endpoint is still being imported, update once the import is
+			// complete
+			CompletableFuture<ImportRegistration> pending = rsa.getPendingImport(ed.getId());
+			if (pending != null)
+				pending.whenComplete((reg, t) -> updateImportedRegistrations(rsa, endpoint));
+			else
+				updateImportedRegistrations(rsa, endpoint);
+		}
+	}
+
+	private void updateImportedRegistrations(RemoteServiceAdmin rsa, EndpointDescription endpoint) {
+		for (RemoteServiceAdmin.ImportRegistration importedRegistration : rsa.getImportedRegistrations(endpoint)) {
+			trace("handleECFEndpointModified", "updating importedRegistration=" //$NON-NLS-1$ //$NON-NLS-2$
+					+ importedRegistration);
+			importedRegistration.update(endpoint);
 		}
 	}
 
@@ -490,16 +520,14 @@ public abstract class AbstractTopologyManager {
 	protected void handleServiceModifying(ServiceReference serviceReference) {
 		RemoteServiceAdmin rsa = (RemoteServiceAdmin) getRemoteServiceAdmin();
 		if (rsa != null) {
-			List<RemoteServiceAdmin.ExportRegistration> exportedRegistrations = rsa.getExportedRegistrations();
-			for (RemoteServiceAdmin.ExportRegistration exportedRegistration : exportedRegistrations) {
-				if (exportedRegistration.match(serviceReference)) {
-					trace("handleServiceModifying", "modifying exportRegistration for serviceReference=" //$NON-NLS-1$ //$NON-NLS-2$
-							+ serviceReference);
-					EndpointDescription updatedED = (EndpointDescription) exportedRegistration.update(null);
-					if (updatedED == null)
-						logWarning("handleServiceModifying", "ExportRegistration.update failed with exception=" //$NON-NLS-1$//$NON-NLS-2$
-								+ exportedRegistration.getException());
-				}
+			for (RemoteServiceAdmin.ExportRegistration exportedRegistration : rsa
+					.getExportedRegistrations(serviceReference)) {
+				trace("handleServiceModifying", "modifying exportRegistration for serviceReference=" //$NON-NLS-1$ //$NON-NLS-2$
+						+ serviceReference);
+				EndpointDescription updatedED = (EndpointDescription) exportedRegistration.update(null);
+				if (updatedED == null)
+					logWarning("handleServiceModifying", "ExportRegistration.update failed with exception=" //$NON-NLS-1$//$NON-NLS-2$
+							+ exportedRegistration.getException());
 			}
 		}
 	}
@@ -507,14 +535,11 @@ public abstract class AbstractTopologyManager {
 	protected void handleServiceUnregistering(ServiceReference serviceReference) {
 		RemoteServiceAdmin rsa = (RemoteServiceAdmin) getRemoteServiceAdmin();
 		if (rsa != null) {
-			List<RemoteServiceAdmin.ExportRegistration> exportedRegistrations = ((RemoteServiceAdmin) getRemoteServiceAdmin())
-					.getExportedRegistrations();
-			for (RemoteServiceAdmin.ExportRegistration exportedRegistration : exportedRegistrations) {
-				if (exportedRegistration.match(serviceReference)) {
-					trace("handleServiceUnregistering", "closing exportRegistration for serviceReference=" //$NON-NLS-1$ //$NON-NLS-2$
-							+ serviceReference);
-					exportedRegistration.close();
-				}
+			for (RemoteServiceAdmin.ExportRegistration exportedRegistration : rsa
+					.getExportedRegistrations(serviceReference)) {
+				trace("handleServiceUnregistering", "closing exportRegistration for serviceReference=" //$NON-NLS-1$ //$NON-NLS-2$
+						+ serviceReference);
+				exportedRegistration.close();
 			}
 		}
 	}
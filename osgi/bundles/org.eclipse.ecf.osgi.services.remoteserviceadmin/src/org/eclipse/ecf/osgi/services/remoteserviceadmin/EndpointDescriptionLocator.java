@@ -48,6 +48,7 @@ import org.eclipse.ecf.discovery.IServiceListener;
 import org.eclipse.ecf.discovery.identity.IServiceID;
 import org.eclipse.ecf.internal.osgi.services.remoteserviceadmin.Activator;
 import org.eclipse.ecf.internal.osgi.services.remoteserviceadmin.DebugOptions;
+import org.eclipse.ecf.internal.osgi.services.remoteserviceadmin.EndpointListenerScopes;
 import org.eclipse.ecf.internal.osgi.services.remoteserviceadmin.LogUtility;
 import org.eclipse.ecf.internal.osgi.services.remoteserviceadmin.PropertiesUtil;
 import org.eclipse.equinox.concurrent.future.IExecutor;
@@ -121,6 +122,11 @@ public class EndpointDescriptionLocator implements IEndpointDescriptionLocator {
 	private ServiceTracker endpointListenerTracker;
 	private ServiceTracker endpointEventListenerTracker;
 
+	private final EndpointListenerScopes endpointListenerScopes = new EndpointListenerScopes(
+			EndpointListener.ENDPOINT_LISTENER_SCOPE);
+	private final EndpointListenerScopes endpointEventListenerScopes = new EndpointListenerScopes(
+			EndpointEventListener.ENDPOINT_LISTENER_SCOPE);
+
 	private ServiceTracker advertiserTracker;
 	private Object advertiserTrackerLock = new Object();
 
@@ -271,9 +277,11 @@ public class EndpointDescriptionLocator implements IEndpointDescriptionLocator {
 					}
 
 					public void modifiedService(ServiceReference reference, Object service) {
+						endpointListenerScopes.update(reference);
 					}
 
 					public void removedService(ServiceReference reference, Object service) {
+						endpointListenerScopes.remove(reference);
 					}
 				});
 
@@ -308,9 +316,11 @@ public class EndpointDescriptionLocator implements IEndpointDescriptionLocator {
 					}
 
 					public void modifiedService(ServiceReference reference, Object service) {
+						endpointEventListenerScopes.update(reference);
 					}
 
 					public void removedService(ServiceReference reference, Object service) {
+						endpointEventListenerScopes.remove(reference);
 					}
 				});
 
@@ -378,11 +388,13 @@ public class EndpointDescriptionLocator implements IEndpointDescriptionLocator {
 			endpointListenerTracker.close();
 			endpointListenerTracker = null;
 		}
+		endpointListenerScopes.clear();
 
 		if (endpointEventListenerTracker != null) {
 			endpointEventListenerTracker.close();
 			endpointEventListenerTracker = null;
 		}
+		endpointEventListenerScopes.clear();
 
 		// Shutdown asynchronous event manager
 		if (eventManager != null) {
@@ -700,8 +712,13 @@ public class EndpointDescriptionLocator implements IEndpointDescriptionLocator {
 		return AccessController.doPrivileged(new PrivilegedAction<EndpointListenerHolder[]>() {
 			public EndpointListenerHolder[] run() {
 				synchronized (endpointListenerServiceTrackerLock) {
-					return getMatchingEndpointListenerHolders(endpointListenerTracker.getServiceReferences(),
-							description);
+					ServiceReference[] refs = endpointListenerTracker.getServiceReferences();
+					if (refs == null)
+						return null;
+					// only the listeners whose scope can match the description
+					List<ServiceReference> candidates = endpointListenerScopes.getCandidates(refs, description);
+					return getMatchingEndpointListenerHolders(
+							candidates.toArray(new ServiceReference[candidates.size()]), description);
 				}
 			}
 		});
@@ -719,8 +736,13 @@ public class EndpointDescriptionLocator implements IEndpointDescriptionLocator {
 		return AccessController.doPrivileged(new PrivilegedAction<EndpointEventListenerHolder[]>() {
 			public EndpointEventListenerHolder[] run() {
 				synchronized (endpointEventListenerServiceTrackerLock) {
-					return getMatchingEndpointEventListenerHolders(endpointEventListenerTracker.getServiceReferences(),
-							description, type);
+					ServiceReference[] refs = endpointEventListenerTracker.getServiceReferences();
+					if (refs == null)
+						return null;
+					// only the listeners whose scope can match the description
+					List<ServiceReference> candidates = endpointEventListenerScopes.getCandidates(refs, description);
+					return getMatchingEndpointEventListenerHolders(
+							candidates.toArray(new ServiceReference[candidates.size()]), description, type);
 				}
 			}
 		});
@@ -797,18 +819,18 @@ public class EndpointDescriptionLocator implements IEndpointDescriptionLocator {
 		if (refs == null)
 			return null;
 		List results = new ArrayList();
+		Dictionary<String, Object> properties = EndpointListenerScopes.getProperties(description);
 		for (int i = 0; i < refs.length; i++) {
-			EndpointEventListener listener = (EndpointEventListener) context.getService(refs[i]);
-			if (listener == null)
-				continue;
-			List<String> filters = PropertiesUtil.getStringPlusProperty(getMapFromProperties(refs[i]),
-					EndpointEventListener.ENDPOINT_LISTENER_SCOPE);
+			EndpointListenerScopes.Scope scope = endpointEventListenerScopes.getScope(refs[i]);
 			// Only proceed if there is a filter present
-			if (filters.size() > 0) {
-				String matchingFilter = isMatch(description, filters);
-				if (matchingFilter != null)
-					results.add(new EndpointEventListenerHolder(listener, description, matchingFilter, type));
-			}
+			if (scope.isEmpty())
+				continue;
+			String matchingFilter = scope.match(properties);
+			if (matchingFilter == null)
+				continue;
+			EndpointEventListener listener = (EndpointEventListener) context.getService(refs[i]);
+			if (listener != null)
+				results.add(new EndpointEventListenerHolder(listener, description, matchingFilter, type));
 		}
 		return (EndpointEventListenerHolder[]) results.toArray(new EndpointEventListenerHolder[results.size()]);
 	}
@@ -818,45 +840,19 @@ public class EndpointDescriptionLocator implements IEndpointDescriptionLocator {
 		if (refs == null)
 			return null;
 		List results = new ArrayList();
+		Dictionary<String, Object> properties = EndpointListenerScopes.getProperties(description);
 		for (int i = 0; i < refs.length; i++) {
-			EndpointListener listener = (EndpointListener) context.getService(refs[i]);
-			if (listener == null)
+			EndpointListenerScopes.Scope scope = endpointListenerScopes.getScope(refs[i]);
+			if (scope.isEmpty())
 				continue;
-			List<String> filters = PropertiesUtil.getStringPlusProperty(getMapFromProperties(refs[i]),
-					EndpointListener.ENDPOINT_LISTENER_SCOPE);
-			if (filters.size() > 0) {
-				String matchingFilter = isMatch(description, filters);
-				if (matchingFilter != null)
-					results.add(new EndpointListenerHolder(listener, description, matchingFilter));
-			}
-		}
-		return (EndpointListenerHolder[]) results.toArray(new EndpointListenerHolder[results.size()]);
-	}
-
-	private String isMatch(EndpointDescription description, List<String> filters) {
-		for (String filter : filters) {
-			if (filter == null || "".equals(filter)) //$NON-NLS-1$
+			String matchingFilter = scope.match(properties);
+			if (matchingFilter == null)
 				continue;
-			try {
-				if (description.matches(filter))
-					return filter;
-			} catch (IllegalArgumentException e) {
-				logError("isMatch", "invalid endpoint listener filter=" //$NON-NLS-1$ //$NON-NLS-2$
-						+ filters, e);
-			}
-		}
-		return null;
-	}
-
-	private Map getMapFromProperties(ServiceReference ref) {
-		Map<String, Object> results = new TreeMap<String, Object>(String.CASE_INSENSITIVE_ORDER);
-		String[] keys = ref.getPropertyKeys();
-		if (keys != null) {
-			for (int i = 0; i < keys.length; i++) {
-				results.put(keys[i], ref.getProperty(keys[i]));
-			}
+			EndpointListener listener = (EndpointListener) context.getService(refs[i]);
+			if (listener != null)
+				results.add(new EndpointListenerHolder(listener, description, matchingFilter));
 		}
-		return results;
+		return (EndpointListenerHolder[]) results.toArray(new EndpointListenerHolder[results.size()]);
 	}
 
 	class EndpointDescriptionBundleTrackerCustomizer implements BundleTrackerCustomizer {
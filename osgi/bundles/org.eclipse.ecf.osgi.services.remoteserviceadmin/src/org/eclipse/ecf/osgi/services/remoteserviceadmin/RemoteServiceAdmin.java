@@ -25,12 +25,23 @@ import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ISafeRunnable;
@@ -46,6 +57,7 @@ import org.eclipse.ecf.internal.osgi.services.remoteserviceadmin.Activator;
 import org.eclipse.ecf.internal.osgi.services.remoteserviceadmin.DebugOptions;
 import org.eclipse.ecf.internal.osgi.services.remoteserviceadmin.LogUtility;
 import org.eclipse.ecf.internal.osgi.services.remoteserviceadmin.PropertiesUtil;
+import org.eclipse.ecf.internal.osgi.services.remoteserviceadmin.RegistrationIndex;
 import org.eclipse.ecf.remoteservice.IExtendedRemoteServiceRegistration;
 import org.eclipse.ecf.remoteservice.IOSGiRemoteServiceContainerAdapter;
 import org.eclipse.ecf.remoteservice.IRSAConsumerContainerAdapter;
@@ -130,11 +142,39 @@ public class RemoteServiceAdmin implements org.osgi.service.remoteserviceadmin.R
 	private Collection<org.osgi.service.remoteserviceadmin.ExportRegistration> exportedRegistrations;
 	private Collection<org.osgi.service.remoteserviceadmin.ImportRegistration> importedRegistrations;
 
-	private Collection<ExportRegistration> localExportedRegistrations = new ArrayList<ExportRegistration>();
-	private Collection<ImportRegistration> localImportedRegistrations = new ArrayList<ImportRegistration>();
+	private Collection<ExportRegistration> localExportedRegistrations = new LinkedHashSet<ExportRegistration>();
+	private Collection<ImportRegistration> localImportedRegistrations = new LinkedHashSet<ImportRegistration>();
 
 	private ServiceRegistration eventListenerHookRegistration;
 
+	/**
+	 * Endpoint id -&gt; import in progress. An endpoint is imported by one
+	 * thread at a time, other imports of the endpoint wait for it and then reuse
+	 * its ImportEndpoint.
+	 */
+	private static final ConcurrentMap<String, InProgress> importsInProgress = new ConcurrentHashMap<String, InProgress>();
+
+	/**
+	 * Service reference -&gt; export in progress. A service is exported by one
+	 * thread at a time, other exports of the service wait for it and then reuse
+	 * its ExportEndpoints.
+	 */
+	private static final ConcurrentMap<ServiceReference, InProgress> exportsInProgress = new ConcurrentHashMap<ServiceReference, InProgress>();
+
+	/**
+	 * Time in ms an import or export waits for the one in progress for the same
+	 * endpoint or service. After it, the import or export continues without
+	 * waiting, so that imports and exports waiting for each other, e.g. from
+	 * service listeners, do not deadlock.
+	 */
+	private static final long IN_PROGRESS_TIMEOUT = Long.getLong(
+			"org.eclipse.ecf.osgi.services.remoteserviceadmin.inProgressTimeout", 30000).longValue(); //$NON-NLS-1$
+
+	/**
+	 * Endpoint id -&gt; pending asynchronous import of this instance
+	 */
+	private final ConcurrentMap<String, CompletableFuture<org.osgi.service.remoteserviceadmin.ImportRegistration>> pendingImports = new ConcurrentHashMap<String, CompletableFuture<org.osgi.service.remoteserviceadmin.ImportRegistration>>();
+
 	/**
 	 * @return List of exported registrations
 	 * @since 4.2
@@ -155,9 +195,62 @@ public class RemoteServiceAdmin implements org.osgi.service.remoteserviceadmin.R
 		}
 	}
 
+	/**
+	 * @param ed endpoint description
+	 * @return List of imported registrations that match the given endpoint
+	 *         description
+	 */
+	List<ImportRegistration> getImportedRegistrations(EndpointDescription ed) {
+		List<ImportRegistration> results = new ArrayList<ImportRegistration>();
+		for (org.osgi.service.remoteserviceadmin.ImportRegistration reg : getImportedRegistrations(ed.getId()))
+			if (reg instanceof ImportRegistration && ((ImportRegistration) reg).match(ed))
+				results.add((ImportRegistration) reg);
+		return results;
+	}
+
+	/**
+	 * @param serviceReference service reference
+	 * @return List of exported registrations that match the given service
+	 *         reference
+	 */
+	List<ExportRegistration> getExportedRegistrations(ServiceReference serviceReference) {
+		List<ExportRegistration> results = new ArrayList<ExportRegistration>();
+		for (org.osgi.service.remoteserviceadmin.ExportRegistration reg : getExportedRegistrations(
+				(Object) serviceReference))
+			if (reg instanceof ExportRegistration && ((ExportRegistration) reg).match(serviceReference))
+				results.add((ExportRegistration) reg);
+		return results;
+	}
+
+	/**
+	 * Get the imported registrations with the given key, if the imported
+	 * registrations are indexed. Otherwise all imported registrations.
+	 */
+	private List<org.osgi.service.remoteserviceadmin.ImportRegistration> getImportedRegistrations(Object key) {
+		if (importedRegistrations instanceof RegistrationIndex)
+			return ((RegistrationIndex<org.osgi.service.remoteserviceadmin.ImportRegistration>) importedRegistrations)
+					.get(key);
+		synchronized (importedRegistrations) {
+			return new ArrayList<org.osgi.service.remoteserviceadmin.ImportRegistration>(importedRegistrations);
+		}
+	}
+
+	/**
+	 * Get the exported registrations with the given key, if the exported
+	 * registrations are indexed. Otherwise all exported registrations.
+	 */
+	private List<org.osgi.service.remoteserviceadmin.ExportRegistration> getExportedRegistrations(Object key) {
+		if (exportedRegistrations instanceof RegistrationIndex)
+			return ((RegistrationIndex<org.osgi.service.remoteserviceadmin.ExportRegistration>) exportedRegistrations)
+					.get(key);
+		synchronized (exportedRegistrations) {
+			return new ArrayList<org.osgi.service.remoteserviceadmin.ExportRegistration>(exportedRegistrations);
+		}
+	}
+
 	public RemoteServiceAdmin(Bundle clientBundle) {
-		this(clientBundle, new ArrayList<org.osgi.service.remoteserviceadmin.ExportRegistration>(),
-				new ArrayList<org.osgi.service.remoteserviceadmin.ImportRegistration>());
+		this(clientBundle, RegistrationIndex.createExportRegistrations(),
+				RegistrationIndex.createImportRegistrations());
 	}
 
 	/**
@@ -286,71 +379,75 @@ public class RemoteServiceAdmin implements org.osgi.service.remoteserviceadmin.R
 		// Create result registrations. This collection will be returned
 		Collection<ExportRegistration> resultRegistrations = new ArrayList<ExportRegistration>();
 
-		// check for previously exported registration for the serviceReference
-		synchronized (exportedRegistrations) {
-			ExportEndpoint exportEndpoint = findExistingExportEndpoint(serviceReference, null);
-			// If found then create a second ExportRegistration from endpoint
-			if (exportEndpoint != null) {
-				trace("exportService", "serviceReference=" + serviceReference + " export endpoint already exists=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-						+ exportEndpoint + ".  Returning new ExportRegistration for existing endpoint"); //$NON-NLS-1$
-				ExportRegistration reg = new ExportRegistration(exportEndpoint);
-				addExportRegistration(reg);
-				resultRegistrations.add(reg);
+		// wait for other exports of the serviceReference to complete
+		InProgress exportInProgress = beginInProgress(exportsInProgress, serviceReference);
+		try {
+			// check for previously exported registration for the serviceReference
+			synchronized (exportedRegistrations) {
+				ExportEndpoint exportEndpoint = findExistingExportEndpoint(serviceReference, null);
+				// If found then create a second ExportRegistration from endpoint
+				if (exportEndpoint != null) {
+					trace("exportService", "serviceReference=" + serviceReference + " export endpoint already exists=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+							+ exportEndpoint + ".  Returning new ExportRegistration for existing endpoint"); //$NON-NLS-1$
+					ExportRegistration reg = new ExportRegistration(exportEndpoint);
+					addExportRegistration(reg);
+					resultRegistrations.add(reg);
+				}
 			}
-		}
-		// If the serviceReference hasn't already been exported before (above)
-		if (resultRegistrations.size() == 0) {
-			// Get a host container selector
-			final IHostContainerSelector hostContainerSelector = getHostContainerSelector();
-			// and use it to select ECF remote service containers that match given exported
-			// interfaces, configs, and intents
-			IRemoteServiceContainer[] rsContainers = null;
-			try {
-				rsContainers = (IRemoteServiceContainer[]) AccessController.doPrivileged(new PrivilegedExceptionAction() {
-					public Object run() throws SelectContainerException {
-						return hostContainerSelector.selectHostContainers(serviceReference,
-								(Map<String, Object>) overridingProperties, exportedInterfaces, exportedConfigs,
-								serviceIntents);
-					}
-				});
-			} catch (PrivilegedActionException e) {
-				Exception except = e.getException();
-				// see discussion on osgi bug
-				// https://www.osgi.org/members/bugzilla/show_bug.cgi?id=2591
-				String errorMessage = "Failed to select host container"; //$NON-NLS-1$
-				if (except instanceof SelectContainerException) {
-					SelectContainerException sce = (SelectContainerException) except;
-					Throwable sceCause = sce.getCause();
-					if (sceCause instanceof ContainerCreateException) {
-						// Some dummy props need to be set to allow the creation of a dummy export
-						// registration
-						Map<String, Object> props = new HashMap<String, Object>(overridingProperties);
-						props.put(org.osgi.service.remoteserviceadmin.RemoteConstants.ENDPOINT_ID, "0"); //$NON-NLS-1$
-						props.put(org.osgi.service.remoteserviceadmin.RemoteConstants.SERVICE_IMPORTED_CONFIGS,
-								"import.error.config"); //$NON-NLS-1$
-						props.put(RemoteConstants.ENDPOINT_ID, "export.error.id"); //$NON-NLS-1$
-						props.put(RemoteConstants.ENDPOINT_CONTAINER_ID_NAMESPACE, StringID.class.getName());
-						ExportRegistration errorRegistration = new RemoteServiceAdmin.ExportRegistration(sceCause,
-								new EndpointDescription(serviceReference, props));
-						addExportRegistration(errorRegistration);
-						resultRegistrations.add(errorRegistration);
+			// If the serviceReference hasn't already been exported before (above)
+			if (resultRegistrations.size() == 0) {
+				// Get a host container selector
+				final IHostContainerSelector hostContainerSelector = getHostContainerSelector();
+				// and use it to select ECF remote service containers that match given exported
+				// interfaces, configs, and intents
+				IRemoteServiceContainer[] rsContainers = null;
+				try {
+					rsContainers = (IRemoteServiceContainer[]) AccessController.doPrivileged(new PrivilegedExceptionAction() {
+						public Object run() throws SelectContainerException {
+							return hostContainerSelector.selectHostContainers(serviceReference,
+									(Map<String, Object>) overridingProperties, exportedInterfaces, exportedConfigs,
+									serviceIntents);
+						}
+					});
+				} catch (PrivilegedActionException e) {
+					Exception except = e.getException();
+					// see discussion on osgi bug
+					// https://www.osgi.org/members/bugzilla/show_bug.cgi?id=2591
+					String errorMessage = "Failed to select host container"; //$NON-NLS-1$
+					if (except instanceof SelectContainerException) {
+						SelectContainerException sce = (SelectContainerException) except;
+						Throwable sceCause = sce.getCause();
+						if (sceCause instanceof ContainerCreateException) {
+							// Some dummy props need to be set to allow the creation of a dummy export
+							// registration
+							Map<String, Object> props = new HashMap<String, Object>(overridingProperties);
+							props.put(org.osgi.service.remoteserviceadmin.RemoteConstants.ENDPOINT_ID, "0"); //$NON-NLS-1$
+							props.put(org.osgi.service.remoteserviceadmin.RemoteConstants.SERVICE_IMPORTED_CONFIGS,
+									"import.error.config"); //$NON-NLS-1$
+							props.put(RemoteConstants.ENDPOINT_ID, "export.error.id"); //$NON-NLS-1$
+							props.put(RemoteConstants.ENDPOINT_CONTAINER_ID_NAMESPACE, StringID.class.getName());
+							ExportRegistration errorRegistration = new RemoteServiceAdmin.ExportRegistration(sceCause,
+									new EndpointDescription(serviceReference, props));
+							addExportRegistration(errorRegistration);
+							resultRegistrations.add(errorRegistration);
+						} else
+							throw new IllegalArgumentException(errorMessage, except);
 					} else
 						throw new IllegalArgumentException(errorMessage, except);
-				} else
-					throw new IllegalArgumentException(errorMessage, except);
-			}
-			// If no registration exist (no errorRegistration added above)
-			if (resultRegistrations.size() == 0) {
-				// If no containers found above, log warning and return
-				if (rsContainers == null || rsContainers.length == 0) {
-					String errorMessage = "No containers found for serviceReference=" //$NON-NLS-1$
-							+ serviceReference + " properties=" + overridingProperties //$NON-NLS-1$
-							+ ". Remote service NOT EXPORTED"; //$NON-NLS-1$
-					logWarning("exportService", errorMessage); //$NON-NLS-1$
-					return Collections.EMPTY_LIST;
 				}
-				// actually do the export
-				synchronized (exportedRegistrations) {
+				// If no registration exist (no errorRegistration added above)
+				if (resultRegistrations.size() == 0) {
+					// If no containers found above, log warning and return
+					if (rsContainers == null || rsContainers.length == 0) {
+						String errorMessage = "No containers found for serviceReference=" //$NON-NLS-1$
+								+ serviceReference + " properties=" + overridingProperties //$NON-NLS-1$
+								+ ". Remote service NOT EXPORTED"; //$NON-NLS-1$
+						logWarning("exportService", errorMessage); //$NON-NLS-1$
+						return Collections.EMPTY_LIST;
+					}
+					// actually do the export. This is done without holding the lock
+					// of the exported registrations, only the new registrations are
+					// added with the lock held
 					// For all selected containers
 					for (int i = 0; i < rsContainers.length; i++) {
 						Map endpointDescriptionProperties = createExportEndpointDescriptionProperties(serviceReference,
@@ -359,8 +456,7 @@ public class RemoteServiceAdmin implements org.osgi.service.remoteserviceadmin.R
 						// otherwise, actually export the service to create
 						// a new ExportEndpoint and use it to create a new
 						// ExportRegistration
-						EndpointDescription endpointDescription = new EndpointDescription(
-								endpointDescriptionProperties);
+						EndpointDescription endpointDescription = new EndpointDescription(endpointDescriptionProperties);
 
 						ExportRegistration exportRegistration = null;
 
@@ -380,6 +476,8 @@ public class RemoteServiceAdmin implements org.osgi.service.remoteserviceadmin.R
 					}
 				}
 			}
+		} finally {
+			endInProgress(exportsInProgress, serviceReference, exportInProgress);
 		}
 
 		// publish all activeExportRegistrations
@@ -439,14 +537,28 @@ public class RemoteServiceAdmin implements org.osgi.service.remoteserviceadmin.R
 
 		// If one selected then import the service to create an import
 		// registration
-		synchronized (importedRegistrations) {
-			if (importRegistration == null) {
-				ImportEndpoint importEndpoint = findImportEndpoint(ed);
-				importRegistration = ((importEndpoint != null) ? new ImportRegistration(importEndpoint)
-						: importService(ed, rsContainer));
+		if (importRegistration == null) {
+			// wait for other imports of the endpoint to complete
+			InProgress importInProgress = beginInProgress(importsInProgress, ed.getId());
+			try {
+				synchronized (importedRegistrations) {
+					ImportEndpoint importEndpoint = findImportEndpoint(ed);
+					if (importEndpoint != null) {
+						importRegistration = new ImportRegistration(importEndpoint);
+						addImportRegistration(importRegistration);
+					}
+				}
+				// The import of a new endpoint is done without holding the lock
+				// of the imported registrations
+				if (importRegistration == null) {
+					importRegistration = importService(ed, rsContainer);
+					addImportRegistration(importRegistration);
+				}
+			} finally {
+				endInProgress(importsInProgress, ed.getId(), importInProgress);
 			}
+		} else
 			addImportRegistration(importRegistration);
-		}
 		// publish import event
 		publishImportEvent(importRegistration);
 		trace("importService", "importRegistration=" + importRegistration); //$NON-NLS-1$ //$NON-NLS-2$
@@ -506,6 +618,188 @@ public class RemoteServiceAdmin implements org.osgi.service.remoteserviceadmin.R
 
 	// end RemoteServiceAdmin service interface impl methods
 
+	/**
+	 * Export a service asynchronously. The export is done as by
+	 * {@link #exportService(ServiceReference, Map)} on the executor shared by
+	 * all RemoteServiceAdmin instances, which runs at most
+	 * <code>org.eclipse.ecf.osgi.services.remoteserviceadmin.asyncThreads</code>
+	 * imports and exports at the same time.
+	 *
+	 * @param serviceReference   the service to export
+	 * @param overridingProperties properties overriding the service properties.
+	 *                           May be <code>null</code>.
+	 * @return future completed with the export registrations of the service, or
+	 *         completed exceptionally if the export throws an exception or the
+	 *         bundle is stopped before the export has run
+	 * @since 4.10
+	 */
+	public CompletableFuture<Collection<org.osgi.service.remoteserviceadmin.ExportRegistration>> exportServiceAsync(
+			final ServiceReference<?> serviceReference, final Map<String, ?> overridingProperties) {
+		final CompletableFuture<Collection<org.osgi.service.remoteserviceadmin.ExportRegistration>> result = new CompletableFuture<Collection<org.osgi.service.remoteserviceadmin.ExportRegistration>>();
+		runAsync(() -> AccessController.doPrivileged(
+				(PrivilegedAction<Collection<org.osgi.service.remoteserviceadmin.ExportRegistration>>) () -> exportService(
+						serviceReference, overridingProperties)),
+				result);
+		return result;
+	}
+
+	/**
+	 * Import an endpoint asynchronously. The import is done as by
+	 * {@link #importService(org.osgi.service.remoteserviceadmin.EndpointDescription)}
+	 * on the executor shared by all RemoteServiceAdmin instances, which runs at
+	 * most
+	 * <code>org.eclipse.ecf.osgi.services.remoteserviceadmin.asyncThreads</code>
+	 * imports and exports at the same time. Asynchronous imports of the same
+	 * endpoint are run one after the other, and reuse the ImportEndpoint of the
+	 * first one. The last of them is the pending import of the endpoint until
+	 * it has completed.
+	 *
+	 * @param endpointDescription the endpoint to import
+	 * @return future completed with the import registration, or
+	 *         <code>null</code> if the endpoint could not be imported (see
+	 *         {@link #importService(org.osgi.service.remoteserviceadmin.EndpointDescription)}),
+	 *         or completed exceptionally if the bundle is stopped before the
+	 *         import has run
+	 * @throws SecurityException if the caller does not have the import
+	 *                           permission for the endpoint
+	 * @since 4.10
+	 */
+	public CompletableFuture<org.osgi.service.remoteserviceadmin.ImportRegistration> importServiceAsync(
+			final org.osgi.service.remoteserviceadmin.EndpointDescription endpointDescription) {
+		// the permission is checked for the caller, the import itself is run
+		// privileged
+		checkEndpointPermission(endpointDescription, EndpointPermission.IMPORT);
+		final String endpointId = endpointDescription.getId();
+		final CompletableFuture<org.osgi.service.remoteserviceadmin.ImportRegistration> result = new CompletableFuture<org.osgi.service.remoteserviceadmin.ImportRegistration>();
+		// this import becomes the pending import of the endpoint, chained
+		// behind the one that was pending before
+		CompletableFuture<org.osgi.service.remoteserviceadmin.ImportRegistration> previous;
+		do {
+			previous = pendingImports.get(endpointId);
+		} while (previous == null ? pendingImports.putIfAbsent(endpointId, result) != null
+				: !pendingImports.replace(endpointId, previous, result));
+		if (previous == null)
+			runImportAsync(endpointDescription, result);
+		else
+			previous.whenComplete((reg, t) -> runImportAsync(endpointDescription, result));
+		return result;
+	}
+
+	private void runImportAsync(final org.osgi.service.remoteserviceadmin.EndpointDescription endpointDescription,
+			final CompletableFuture<org.osgi.service.remoteserviceadmin.ImportRegistration> result) {
+		final String endpointId = endpointDescription.getId();
+		// however the import completes, it is no longer pending
+		result.whenComplete((reg, t) -> pendingImports.remove(endpointId, result));
+		runAsync(() -> privilegedImportService(endpointDescription), result);
+	}
+
+	/**
+	 * Run the callable on the executor, and complete the future with its result.
+	 * The future is completed exceptionally if the executor rejects the callable,
+	 * or if it is shut down before the callable has run.
+	 */
+	private <T> void runAsync(Callable<T> callable, CompletableFuture<T> result) {
+		try {
+			getExecutor().execute(new AsyncTask<T>(callable, result));
+		} catch (RuntimeException e) {
+			result.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * An asynchronous import or export. If it is cancelled before it has run,
+	 * e.g. when the executor is shut down, its future is completed with the
+	 * CancellationException.
+	 */
+	private static class AsyncTask<T> extends FutureTask<T> {
+
+		private final CompletableFuture<T> result;
+
+		AsyncTask(Callable<T> callable, CompletableFuture<T> result) {
+			super(callable);
+			this.result = result;
+		}
+
+		@Override
+		protected void done() {
+			try {
+				result.complete(get());
+			} catch (ExecutionException e) {
+				result.completeExceptionally(e.getCause());
+			} catch (CancellationException e) {
+				result.completeExceptionally(e);
+			} catch (InterruptedException e) {
+				// not possible, the task is done
+				result.completeExceptionally(e);
+			}
+		}
+	}
+
+	/**
+	 * @param endpointId the endpoint id
+	 * @return the pending asynchronous import of the endpoint, or
+	 *         <code>null</code> if there is none
+	 */
+	CompletableFuture<org.osgi.service.remoteserviceadmin.ImportRegistration> getPendingImport(String endpointId) {
+		return pendingImports.get(endpointId);
+	}
+
+	private org.osgi.service.remoteserviceadmin.ImportRegistration privilegedImportService(
+			final org.osgi.service.remoteserviceadmin.EndpointDescription endpointDescription) {
+		return AccessController.doPrivileged(
+				(PrivilegedAction<org.osgi.service.remoteserviceadmin.ImportRegistration>) () -> importService(
+						endpointDescription));
+	}
+
+	private Executor getExecutor() {
+		Activator a = Activator.getDefault();
+		if (a == null)
+			throw new IllegalStateException("RemoteServiceAdmin bundle is not active"); //$NON-NLS-1$
+		return a.getExecutor();
+	}
+
+	/**
+	 * Begin an import or export, after waiting for the one in progress for the
+	 * same key to complete, for at most {@link #IN_PROGRESS_TIMEOUT} ms.
+	 *
+	 * @return the import or export in progress, or <code>null</code> if it is
+	 *         reentrant or continues without waiting
+	 */
+	private <K> InProgress beginInProgress(ConcurrentMap<K, InProgress> inProgress, K key) {
+		InProgress mine = new InProgress();
+		InProgress other;
+		long end = System.currentTimeMillis() + IN_PROGRESS_TIMEOUT;
+		while ((other = inProgress.putIfAbsent(key, mine)) != null) {
+			// reentrant import or export, e.g. from a service listener
+			if (other.owner == mine.owner)
+				return null;
+			try {
+				other.get(Math.max(1, end - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				logWarning("beginInProgress", "Timed out waiting for thread=" + other.owner.getName() //$NON-NLS-1$ //$NON-NLS-2$
+						+ " to complete the import or export of " + key + ".  Continuing without waiting"); //$NON-NLS-1$ //$NON-NLS-2$
+				return null;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			} catch (ExecutionException e) {
+				// not completed exceptionally
+			}
+		}
+		return mine;
+	}
+
+	private static <K> void endInProgress(ConcurrentMap<K, InProgress> inProgress, K key, InProgress mine) {
+		if (mine != null) {
+			inProgress.remove(key, mine);
+			mine.complete(null);
+		}
+	}
+
+	private static class InProgress extends CompletableFuture<Void> {
+		final Thread owner = Thread.currentThread();
+	}
+
 	private boolean checkEndpointPermissionRead(String methodName,
 			org.osgi.service.remoteserviceadmin.EndpointDescription endpointDescription) {
 		try {
@@ -1447,7 +1741,8 @@ public class RemoteServiceAdmin implements org.osgi.service.remoteserviceadmin.R
 	}
 
 	private ExportEndpoint findExistingExportEndpoint(ServiceReference serviceReference, ID containerID) {
-		for (org.osgi.service.remoteserviceadmin.ExportRegistration eReg : exportedRegistrations) {
+		for (org.osgi.service.remoteserviceadmin.ExportRegistration eReg : getExportedRegistrations(
+				(Object) serviceReference)) {
 			if (eReg instanceof ExportRegistration) {
 
 				ExportEndpoint exportEndpoint = ((ExportRegistration) eReg).getExportEndpoint(serviceReference,
@@ -2382,7 +2677,7 @@ public class RemoteServiceAdmin implements org.osgi.service.remoteserviceadmin.R
 	}
 
 	private ImportEndpoint findImportEndpoint(EndpointDescription ed) {
-		for (org.osgi.service.remoteserviceadmin.ImportRegistration reg : importedRegistrations) {
+		for (org.osgi.service.remoteserviceadmin.ImportRegistration reg : getImportedRegistrations(ed.getId())) {
 			if (reg instanceof ImportRegistration) {
 				ImportEndpoint endpoint = ((ImportRegistration) reg).getImportEndpoint(ed);
 				if (endpoint != null)
@@ -2394,15 +2689,12 @@ public class RemoteServiceAdmin implements org.osgi.service.remoteserviceadmin.R
 
 	private void unimportService(IRemoteServiceID remoteServiceID) {
 		List<ImportRegistration> removedRegistrations = new ArrayList<ImportRegistration>();
-		synchronized (importedRegistrations) {
-			for (Iterator<org.osgi.service.remoteserviceadmin.ImportRegistration> i = importedRegistrations
-					.iterator(); i.hasNext();) {
-				org.osgi.service.remoteserviceadmin.ImportRegistration iReg = i.next();
-				if (iReg instanceof ImportRegistration) {
-					ImportRegistration importRegistration = (ImportRegistration) iReg;
-					if (importRegistration.match(remoteServiceID))
-						removedRegistrations.add(importRegistration);
-				}
+		for (org.osgi.service.remoteserviceadmin.ImportRegistration iReg : getImportedRegistrations(RegistrationIndex
+				.getRemoteServiceKey(remoteServiceID.getContainerID(), remoteServiceID.getContainerRelativeID()))) {
+			if (iReg instanceof ImportRegistration) {
+				ImportRegistration importRegistration = (ImportRegistration) iReg;
+				if (importRegistration.match(remoteServiceID))
+					removedRegistrations.add(importRegistration);
 			}
 		}
 		// Now close all of them
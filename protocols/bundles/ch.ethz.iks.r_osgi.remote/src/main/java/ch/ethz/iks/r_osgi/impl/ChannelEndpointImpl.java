@@ -43,6 +43,7 @@ import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -179,6 +180,40 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 	 */
 	private short nextStreamID = 0;
 
+	/**
+	 * the size of the read-ahead and write windows of streams, in bytes. Zero
+	 * disables windowed streaming. The window of a stream is the smaller of
+	 * the sizes of the two peers.
+	 */
+	private static final int STREAM_WINDOW = Integer.parseInt(System
+			.getProperty("ch.ethz.iks.r_osgi.stream.window", "262144")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * the maximum size of a chunk pushed for a read-ahead window.
+	 */
+	private static final int STREAM_CHUNK_SIZE = Integer.parseInt(System
+			.getProperty("ch.ethz.iks.r_osgi.stream.chunkSize", "32768")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * the callbacks of open read-ahead windows and windowed writes. Map of XID
+	 * -&gt; AsyncCallback. Unlike <code>callbacks</code>, a read-ahead window
+	 * receives many results for the same XID.
+	 */
+	private final Map streamCallbacks = new HashMap(0);
+
+	/**
+	 * the read-ahead windows served by this peer. Map of stream id -&gt;
+	 * StreamPusher.
+	 */
+	private final Map streamPushers = new HashMap(0);
+
+	/**
+	 * the windowed writes to streams of this peer. Map of stream id -&gt;
+	 * StreamWriter, removed when all writes queued for the stream have been
+	 * performed.
+	 */
+	private final Map streamWriters = new HashMap(0);
+
 	/**
 	 * the handler registration, if the remote topic space is not empty.
 	 */
@@ -196,7 +231,12 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 							+ "=org/osgi/service/remoteserviceadmin/*))" //$NON-NLS-1$
 					+ ")"; //$NON-NLS-1$
 
-	private ArrayList workQueue = new ArrayList();
+	/**
+	 * the tasks of this endpoint, run on the worker threads shared by all
+	 * endpoints. Leases, lease updates and remote events are added as ordered
+	 * tasks.
+	 */
+	private final WorkQueue workQueue;
 
 	/**
 	 * used by the multiplexer and serves as a marker whether or not the channel
@@ -235,12 +275,13 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 	ChannelEndpointImpl(final NetworkChannelFactory factory,
 			final URI endpointAddress) throws RemoteOSGiException, IOException {
 		trace("<init>(factory="+factory+",endpointAddress="+endpointAddress+")");
+		workQueue = new WorkQueue(endpointAddress.toString(),
+				RemoteOSGiServiceImpl.MAX_THREADS_PER_ENDPOINT);
 		networkChannel = factory.getConnection(this, endpointAddress);
 		if (RemoteOSGiServiceImpl.DEBUG) {
 			RemoteOSGiServiceImpl.log.log(LogService.LOG_DEBUG,
 					"opening new channel " + getRemoteAddress()); //$NON-NLS-1$
 		}
-		initThreadPool();
 		RemoteOSGiServiceImpl.registerChannelEndpoint(this);
 	}
 
@@ -252,43 +293,13 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 	 */
 	ChannelEndpointImpl(final NetworkChannel channel) {
 		trace("<init>(channel="+channel+";remoteAddress="+channel.getRemoteAddress()+";localAddress="+channel.getLocalAddress()+")");
+		workQueue = new WorkQueue(channel.getRemoteAddress().toString(),
+				RemoteOSGiServiceImpl.MAX_THREADS_PER_ENDPOINT);
 		networkChannel = channel;
 		channel.bind(this);
-		initThreadPool();
 		RemoteOSGiServiceImpl.registerChannelEndpoint(this);
 	}
 
-	/**
-	 * initialize the thread pool
-	 */
-	private void initThreadPool() {
-		// TODO: tradeoff, could as well be central for all endpoints...
-		final ThreadGroup threadPool = new ThreadGroup("WorkerThreads"
-				+ toString());
-		for (int i = 0; i < RemoteOSGiServiceImpl.MAX_THREADS_PER_ENDPOINT; i++) {
-			final Thread t = new Thread(threadPool, "r-OSGi ChannelWorkerThread" + i) {
-				public void run() {
-					try {
-						while (!isInterrupted()) {
-							final Runnable r;
-							synchronized (workQueue) {
-								while (workQueue.isEmpty()) {
-									workQueue.wait();
-								}
-								r = (Runnable) workQueue.remove(0);
-							}
-							r.run();
-						}
-					} catch (InterruptedException ie) {
-						ie.printStackTrace();
-					}
-				}
-			};
-			t.setDaemon(true);
-			t.start();
-		}
-	}
-
 	/**
 	 * process a recieved message. Called by the channel.
 	 * 
@@ -310,29 +321,64 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 		if (callback != null) {
 			callback.result(msg);
 			return;
-		} else {
-			final Runnable r = new Runnable() {
-				public void run() {
-					final RemoteOSGiMessage reply = handleMessage(msg);
-					if (reply != null) {
-
-						try {
-							trace("reply(msg="+reply+";remoteAddress="+networkChannel.getRemoteAddress()+")");
-							networkChannel.sendMessage(reply);
-						} catch (final NotSerializableException nse) {
-							throw new RemoteOSGiException("Error sending " //$NON-NLS-1$
-									+ reply, nse);
-						} catch (NullPointerException npe) {
-							// channel got closed							
-						} catch (final IOException e) {
-							dispose();
-						}
-					}
-				}
-			};
-			synchronized (workQueue) {
-				workQueue.add(r);
-				workQueue.notify();
+		}
+		if (msg.getFuncID() == RemoteOSGiMessage.STREAM_RESULT) {
+			final AsyncCallback streamCallback;
+			synchronized (streamCallbacks) {
+				streamCallback = (AsyncCallback) streamCallbacks.get(xid);
+			}
+			if (streamCallback != null) {
+				streamCallback.result(msg);
+				return;
+			}
+		} else if (msg.getFuncID() == RemoteOSGiMessage.STREAM_REQUEST
+				&& ((StreamRequestMessage) msg).getOp() == StreamRequestMessage.WRITE_ARRAY_WINDOWED) {
+			// windowed writes have to be performed in the order they arrive
+			queueStreamWrite((StreamRequestMessage) msg);
+			return;
+		}
+		final Runnable r = new Runnable() {
+			public void run() {
+				handleAndReply(msg);
+			}
+		};
+		// all messages start in the order they were received. The lease,
+		// service updates and events also have to complete in that order
+		workQueue.execute(r, msg.getFuncID() == RemoteOSGiMessage.LEASE
+				|| msg.getFuncID() == RemoteOSGiMessage.LEASE_UPDATE
+				|| msg.getFuncID() == RemoteOSGiMessage.REMOTE_EVENT);
+	}
+
+	/**
+	 * run a task on the worker threads of this endpoint.
+	 * 
+	 * @param r
+	 *            the task.
+	 */
+	private void execute(final Runnable r) {
+		workQueue.execute(r);
+	}
+
+	/**
+	 * handle a received message and send the reply, if there is one.
+	 * 
+	 * @param msg
+	 *            the received message.
+	 */
+	void handleAndReply(final RemoteOSGiMessage msg) {
+		final RemoteOSGiMessage reply = handleMessage(msg);
+		if (reply != null) {
+
+			try {
+				trace("reply(msg="+reply+";remoteAddress="+networkChannel.getRemoteAddress()+")");
+				networkChannel.sendMessage(reply);
+			} catch (final NotSerializableException nse) {
+				throw new RemoteOSGiException("Error sending " //$NON-NLS-1$
+						+ reply, nse);
+			} catch (NullPointerException npe) {
+				// channel got closed							
+			} catch (final IOException e) {
+				dispose();
 			}
 		}
 	}
@@ -606,10 +652,33 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 		proxiedServices.clear();
 		closeStreams();
 		streams.clear();
+		synchronized (streamPushers) {
+			for (final Iterator it = streamPushers.values().iterator(); it
+					.hasNext();) {
+				((StreamPusher) it.next()).close();
+			}
+			streamPushers.clear();
+		}
+		synchronized (streamWriters) {
+			streamWriters.clear();
+		}
+		final AsyncCallback[] pending;
+		synchronized (streamCallbacks) {
+			pending = (AsyncCallback[]) streamCallbacks.values().toArray(
+					new AsyncCallback[streamCallbacks.size()]);
+			streamCallbacks.clear();
+		}
+		for (int i = 0; i < pending.length; i++) {
+			pending[i].result(null);
+		}
 		handlerReg = null;
 		synchronized (callbacks) {
 			callbacks.notifyAll();
 		}
+		if (RemoteOSGiServiceImpl.DEBUG) {
+			RemoteOSGiServiceImpl.log.log(LogService.LOG_DEBUG, "DISPOSED " //$NON-NLS-1$
+					+ workQueue); //$NON-NLS-1$
+		}
 	}
 
 	public boolean isConnected() {
@@ -737,6 +806,218 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 		doStreamOp(requestMsg);
 	}
 
+	/**
+	 * open a read-ahead window on the input stream on the peer identified by
+	 * id. The peer pushes the data of the stream to the proxy until the window
+	 * is used up.
+	 * 
+	 * @param proxy
+	 *            the proxy that receives the data.
+	 * @param streamID
+	 *            the ID of the stream.
+	 * @param windowSize
+	 *            the initial credit in bytes.
+	 * @return the XID of the window.
+	 * @throws IOException
+	 *             when an IOException occurs.
+	 */
+	public int openReadWindow(final InputStreamProxy proxy,
+			final short streamID, final int windowSize) throws IOException {
+		final StreamRequestMessage requestMsg = new StreamRequestMessage();
+		requestMsg.setOp(StreamRequestMessage.READ_WINDOW);
+		requestMsg.setStreamID(streamID);
+		requestMsg.setLenOrVal(windowSize);
+		requestMsg.setXID(RemoteOSGiServiceImpl.nextXid());
+		final Integer xid = Integer.valueOf(requestMsg.getXID());
+		synchronized (streamCallbacks) {
+			streamCallbacks.put(xid, new AsyncCallback() {
+				public void result(final RemoteOSGiMessage msg) {
+					final StreamResultMessage result = (StreamResultMessage) msg;
+					if (result == null || result.causedException()
+							|| result.getLen() < 0) {
+						// the window is closed
+						synchronized (streamCallbacks) {
+							streamCallbacks.remove(xid);
+						}
+					}
+					proxy.windowResult(result);
+				}
+			});
+		}
+		sendStreamRequest(requestMsg);
+		return requestMsg.getXID();
+	}
+
+	/**
+	 * grant more credit to the read-ahead window of the input stream on the
+	 * peer identified by id.
+	 * 
+	 * @param streamID
+	 *            the ID of the stream.
+	 * @param credit
+	 *            the number of bytes read from the window.
+	 * @throws IOException
+	 *             when an IOException occurs.
+	 */
+	public void sendStreamCredit(final short streamID, final int credit)
+			throws IOException {
+		final StreamRequestMessage requestMsg = new StreamRequestMessage();
+		requestMsg.setOp(StreamRequestMessage.CREDIT);
+		requestMsg.setStreamID(streamID);
+		requestMsg.setLenOrVal(credit);
+		sendStreamRequest(requestMsg);
+	}
+
+	/**
+	 * close the read-ahead window of the input stream on the peer identified by
+	 * id.
+	 * 
+	 * @param xid
+	 *            the XID of the window.
+	 * @param streamID
+	 *            the ID of the stream.
+	 * @throws IOException
+	 *             when an IOException occurs.
+	 */
+	public void closeReadWindow(final int xid, final short streamID)
+			throws IOException {
+		synchronized (streamCallbacks) {
+			streamCallbacks.remove(Integer.valueOf(xid));
+		}
+		if (networkChannel != null) {
+			sendStreamCredit(streamID, -1);
+		}
+	}
+
+	/**
+	 * write bytes from array to output stream on the peer identified by id
+	 * without waiting for the write to be performed. The proxy is notified of
+	 * the result.
+	 * 
+	 * @param proxy
+	 *            the proxy that is notified of the result.
+	 * @param streamID
+	 *            the ID of the stream.
+	 * @param b
+	 *            the source array.
+	 * @param off
+	 *            offset into the source array.
+	 * @param len
+	 *            number of bytes to copy.
+	 * @throws IOException
+	 *             when an IOException occurs.
+	 */
+	public void writeStreamWindowed(final OutputStreamProxy proxy,
+			final short streamID, final byte[] b, final int off, final int len)
+			throws IOException {
+		final byte[] data = new byte[len];
+		System.arraycopy(b, off, data, 0, len);
+
+		final StreamRequestMessage requestMsg = new StreamRequestMessage();
+		requestMsg.setOp(StreamRequestMessage.WRITE_ARRAY_WINDOWED);
+		requestMsg.setStreamID(streamID);
+		requestMsg.setData(data);
+		requestMsg.setLenOrVal(len);
+		requestMsg.setXID(RemoteOSGiServiceImpl.nextXid());
+		final Integer xid = Integer.valueOf(requestMsg.getXID());
+		synchronized (streamCallbacks) {
+			streamCallbacks.put(xid, new AsyncCallback() {
+				public void result(final RemoteOSGiMessage msg) {
+					synchronized (streamCallbacks) {
+						streamCallbacks.remove(xid);
+					}
+					proxy.windowResult((StreamResultMessage) msg, len);
+				}
+			});
+		}
+		try {
+			sendStreamRequest(requestMsg);
+		} catch (final IOException e) {
+			synchronized (streamCallbacks) {
+				streamCallbacks.remove(xid);
+			}
+			proxy.windowResult(null, len);
+			throw e;
+		}
+	}
+
+	/**
+	 * send a stream request without waiting for a result.
+	 * 
+	 * @param requestMsg
+	 *            the request message.
+	 * @throws IOException
+	 *             if the message could not be sent.
+	 */
+	private void sendStreamRequest(final StreamRequestMessage requestMsg)
+			throws IOException {
+		try {
+			send(requestMsg);
+		} catch (final RemoteOSGiException e) {
+			final IOException ioe = new IOException("Operation " //$NON-NLS-1$
+					+ requestMsg.getOp() + " on stream " //$NON-NLS-1$
+					+ requestMsg.getStreamID() + " failed."); //$NON-NLS-1$
+			ioe.initCause(e);
+			throw ioe;
+		}
+	}
+
+	/**
+	 * queue a windowed write to be performed after the windowed writes to the
+	 * same stream received before.
+	 * 
+	 * @param reqMsg
+	 *            the request message.
+	 */
+	private void queueStreamWrite(final StreamRequestMessage reqMsg) {
+		final Integer streamID = Integer.valueOf(reqMsg.getStreamID());
+		final StreamWriter writer;
+		synchronized (streamWriters) {
+			StreamWriter w = (StreamWriter) streamWriters.get(streamID);
+			if (w == null) {
+				w = new StreamWriter(new WorkQueue(getRemoteAddress()
+						+ "#" + streamID, 1)); //$NON-NLS-1$
+				streamWriters.put(streamID, w);
+			}
+			w.pending++;
+			writer = w;
+		}
+		writer.queue.execute(new Runnable() {
+			public void run() {
+				try {
+					handleAndReply(reqMsg);
+				} finally {
+					synchronized (streamWriters) {
+						// a new writer only starts when this one is done, so
+						// the writes remain in order
+						if (--writer.pending == 0
+								&& streamWriters.get(streamID) == writer) {
+							streamWriters.remove(streamID);
+						}
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * the queue of windowed writes to a stream.
+	 */
+	private static final class StreamWriter {
+
+		final WorkQueue queue;
+
+		/**
+		 * the number of writes queued or running. Guarded by
+		 * <code>streamWriters</code>.
+		 */
+		int pending;
+
+		StreamWriter(final WorkQueue queue) {
+			this.queue = queue;
+		}
+	}
+
 	/**
 	 * get the channel URI.
 	 * 
@@ -1367,7 +1648,38 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 					m.setResult(StreamResultMessage.RESULT_WRITE_OK);
 					return m;
 				}
-				case StreamRequestMessage.WRITE_ARRAY: {
+				case StreamRequestMessage.READ_WINDOW: {
+					final StreamPusher pusher = new StreamPusher(reqMsg
+							.getStreamID(), (InputStream) stream, reqMsg
+							.getXID());
+					synchronized (streamPushers) {
+						final StreamPusher old = (StreamPusher) streamPushers
+								.put(Integer.valueOf(reqMsg.getStreamID()),
+										pusher);
+						if (old != null) {
+							old.close();
+						}
+					}
+					pusher.addCredit(reqMsg.getLenOrVal());
+					return null;
+				}
+				case StreamRequestMessage.CREDIT: {
+					final StreamPusher pusher;
+					synchronized (streamPushers) {
+						pusher = (StreamPusher) streamPushers.get(Integer
+								.valueOf(reqMsg.getStreamID()));
+					}
+					if (pusher != null) {
+						if (reqMsg.getLenOrVal() < 0) {
+							pusher.close();
+						} else {
+							pusher.addCredit(reqMsg.getLenOrVal());
+						}
+					}
+					return null;
+				}
+				case StreamRequestMessage.WRITE_ARRAY:
+				case StreamRequestMessage.WRITE_ARRAY_WINDOWED: {
 					((OutputStream) stream).write(reqMsg.getData());
 					final StreamResultMessage m = new StreamResultMessage();
 					m.setXID(reqMsg.getXID());
@@ -1384,6 +1696,21 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 				m.setResult(StreamResultMessage.RESULT_EXCEPTION);
 				m.setException(e);
 				return m;
+			} catch (final RuntimeException e) {
+				if (reqMsg.getOp() == StreamRequestMessage.CREDIT) {
+					// no one waits for a result
+					return null;
+				}
+				// report it to the proxy, which would otherwise wait for the
+				// result forever
+				final IOException ioe = new IOException("Operation " //$NON-NLS-1$
+						+ reqMsg.getOp() + " on stream " //$NON-NLS-1$
+						+ reqMsg.getStreamID() + " failed: " + e); //$NON-NLS-1$
+				final StreamResultMessage m = new StreamResultMessage();
+				m.setXID(reqMsg.getXID());
+				m.setResult(StreamResultMessage.RESULT_EXCEPTION);
+				m.setException(ioe);
+				return m;
 			}
 		}
 		case RemoteOSGiMessage.REQUEST_BUNDLE:
@@ -1651,7 +1978,8 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 	 * @return the placeholder object that is sent to the actual client
 	 */
 	private InputStreamHandle getInputStreamPlaceholder(final InputStream origIS) {
-		final InputStreamHandle sp = new InputStreamHandle(nextStreamID());
+		final InputStreamHandle sp = new InputStreamHandle(nextStreamID(),
+				STREAM_WINDOW);
 		streams.put(Integer.valueOf(sp.getStreamID()), origIS);
 		return sp;
 	}
@@ -1664,7 +1992,8 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 	 * @return the proxy for the input stream
 	 */
 	private InputStream getInputStreamProxy(final InputStreamHandle placeholder) {
-		return new InputStreamProxy(placeholder.getStreamID(), this);
+		return new InputStreamProxy(placeholder.getStreamID(), this,
+				getStreamWindow(placeholder.getWindowSize()));
 	}
 
 	/**
@@ -1677,7 +2006,8 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 	 */
 	private OutputStreamHandle getOutputStreamPlaceholder(
 			final OutputStream origOS) {
-		final OutputStreamHandle sp = new OutputStreamHandle(nextStreamID());
+		final OutputStreamHandle sp = new OutputStreamHandle(nextStreamID(),
+				STREAM_WINDOW);
 		streams.put(Integer.valueOf(sp.getStreamID()), origOS);
 		return sp;
 	}
@@ -1692,7 +2022,23 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 	 */
 	private OutputStream getOutputStreamProxy(
 			final OutputStreamHandle placeholder) {
-		return new OutputStreamProxy(placeholder.getStreamID(), this);
+		return new OutputStreamProxy(placeholder.getStreamID(), this,
+				getStreamWindow(placeholder.getWindowSize()));
+	}
+
+	/**
+	 * get the window size of a stream.
+	 * 
+	 * @param remoteWindowSize
+	 *            the window size supported by the serving peer.
+	 * @return the smaller of the window sizes of both peers, zero if one of
+	 *         them does not support windowed streaming.
+	 */
+	private static int getStreamWindow(final int remoteWindowSize) {
+		if (remoteWindowSize <= 0 || STREAM_WINDOW <= 0) {
+			return 0;
+		}
+		return Math.min(remoteWindowSize, STREAM_WINDOW);
 	}
 
 	/**
@@ -1728,6 +2074,127 @@ public final class ChannelEndpointImpl implements ChannelEndpoint {
 		}
 	}
 
+	/**
+	 * pushes the data of a local input stream to the peer for a read-ahead
+	 * window, as long as the window has credit. Runs on the worker threads,
+	 * but on at most one at a time, and pushes one chunk per run so that the
+	 * other tasks of the endpoint get a turn between chunks.
+	 */
+	final class StreamPusher implements Runnable {
+
+		private final short streamID;
+
+		private final InputStream in;
+
+		private final int xid;
+
+		private int credit;
+
+		private boolean running;
+
+		private boolean closed;
+
+		StreamPusher(final short streamID, final InputStream in, final int xid) {
+			this.streamID = streamID;
+			this.in = in;
+			this.xid = xid;
+		}
+
+		synchronized void addCredit(final int n) {
+			credit += n;
+			if (!running && !closed && credit > 0) {
+				running = true;
+				execute(this);
+			}
+		}
+
+		synchronized void close() {
+			closed = true;
+		}
+
+		public void run() {
+			boolean more = false;
+			try {
+				final int len;
+				synchronized (this) {
+					if (closed || credit <= 0) {
+						return;
+					}
+					len = Math.min(credit, STREAM_CHUNK_SIZE);
+				}
+				final StreamResultMessage m = new StreamResultMessage();
+				m.setXID(xid);
+				try {
+					final byte[] b = new byte[len];
+					int read = in.read(b, 0, len);
+					if (read == 0) {
+						// no progress, wait for a single byte instead of
+						// trying again
+						final int c = in.read();
+						if (c < 0) {
+							read = -1;
+						} else {
+							b[0] = (byte) c;
+							read = 1;
+						}
+					}
+					m.setResult(StreamResultMessage.RESULT_ARRAY);
+					m.setLen(read);
+					if (read > 0) {
+						m.setData(b);
+					}
+					synchronized (this) {
+						if (read < 0) {
+							closed = true;
+						} else {
+							credit -= read;
+						}
+					}
+				} catch (final IOException e) {
+					m.setResult(StreamResultMessage.RESULT_EXCEPTION);
+					m.setException(e);
+					close();
+				} catch (final RuntimeException e) {
+					// the cause may not be known to the peer, only send the
+					// description
+					m.setResult(StreamResultMessage.RESULT_EXCEPTION);
+					m.setException(new IOException("Reading stream " //$NON-NLS-1$
+							+ streamID + " failed: " + e)); //$NON-NLS-1$
+					close();
+				}
+				try {
+					send(m);
+				} catch (final RuntimeException e) {
+					close();
+				}
+				synchronized (this) {
+					more = !closed && credit > 0;
+				}
+			} finally {
+				final boolean done;
+				synchronized (this) {
+					if (!more) {
+						running = false;
+					}
+					done = closed;
+				}
+				// not holding the monitor of the pusher, as close() is called
+				// holding the lock of streamPushers
+				if (done) {
+					synchronized (streamPushers) {
+						if (streamPushers.get(Integer.valueOf(streamID)) == this) {
+							streamPushers.remove(Integer.valueOf(streamID));
+						}
+					}
+				}
+			}
+			if (more) {
+				// push the next chunk after the tasks queued in the meantime
+				execute(this);
+			}
+		}
+	}
+
 	/**
 	 * forwards events over the channel to the remote peer.
 	 * 
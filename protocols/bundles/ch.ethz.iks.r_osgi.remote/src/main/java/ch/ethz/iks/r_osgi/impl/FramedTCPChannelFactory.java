@@ -0,0 +1,913 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package ch.ethz.iks.r_osgi.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.osgi.service.log.LogService;
+
+import ch.ethz.iks.r_osgi.URI;
+import ch.ethz.iks.r_osgi.Remoting;
+import ch.ethz.iks.r_osgi.channels.ChannelEndpoint;
+import ch.ethz.iks.r_osgi.channels.NetworkChannel;
+import ch.ethz.iks.r_osgi.channels.NetworkChannelFactory;
+import ch.ethz.iks.r_osgi.messages.RemoteOSGiMessage;
+
+/**
+ * Channel factory for the <code>r-osgi.bin</code> transport. Like the default
+ * <code>r-osgi</code> transport it runs over TCP, but every message is sent as
+ * a sequence of length-prefixed binary frames instead of on a single object
+ * stream:
+ *
+ * <pre>
+ * [int length][int message id][byte flags][payload]
+ * </pre>
+ *
+ * The payload of a message starts with its function ID and xid in binary. The
+ * body follows in the serialization of the default transport, on an object
+ * stream of its own: the bodies carry call arguments, properties and bundles,
+ * which need object serialization anyway, and a stream shared by all messages
+ * would have to be read in the order the messages were written, which the
+ * interleaving of frames does not keep.
+ * <p>
+ * Messages larger than <code>ch.ethz.iks.r_osgi.bin.fragmentSize</code> bytes
+ * (default 16KB) are split into several frames. All messages are sent in one
+ * ordered queue, except that the frames of remote calls and their results are
+ * interleaved with the frames of bundles and services being delivered ahead of
+ * them, so a remote call is not blocked behind the transfer of a large bundle.
+ * No message overtakes a lease, lease update or remote event, or is overtaken
+ * by one. The received messages are passed to the endpoint in the order they
+ * have been completely received.
+ * </p>
+ * <p>
+ * All connections of the factory are served by a single selector thread, which
+ * reads and writes through pooled direct buffers. The received messages are
+ * processed on the shared worker threads, see {@link WorkQueue}.
+ * </p>
+ * <p>
+ * The factory listens on port <code>ch.ethz.iks.r_osgi.bin.port</code>
+ * (default 9279) and is only registered if
+ * <code>ch.ethz.iks.r_osgi.registerBinaryChannel</code> is set to
+ * <code>true</code>.
+ * </p>
+ */
+final class FramedTCPChannelFactory implements NetworkChannelFactory {
+
+	static final String PROTOCOL = "r-osgi.bin"; //$NON-NLS-1$
+
+	/**
+	 * the default port.
+	 */
+	static final int DEFAULT_PORT = Integer.getInteger(
+			"ch.ethz.iks.r_osgi.bin.port", 9279).intValue(); //$NON-NLS-1$
+
+	/**
+	 * the size of the pooled buffers. A frame always fits into a buffer.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * length, message id and flags.
+	 */
+	private static final int HEADER_SIZE = 9;
+
+	/**
+	 * the maximum payload of a frame.
+	 */
+	static final int FRAGMENT_SIZE = Math.max(1024, Math.min(
+			BUFFER_SIZE - HEADER_SIZE, Integer.getInteger(
+					"ch.ethz.iks.r_osgi.bin.fragmentSize", 16 * 1024) //$NON-NLS-1$
+					.intValue()));
+
+	/**
+	 * the number of bytes queued for sending on a channel before senders have
+	 * to wait.
+	 */
+	private static final int MAX_QUEUED = Integer.getInteger(
+			"ch.ethz.iks.r_osgi.bin.maxQueued", 4 * 1024 * 1024).intValue(); //$NON-NLS-1$
+
+	/**
+	 * the maximum number of buffers kept in the pool.
+	 */
+	private static final int MAX_POOLED = 64;
+
+	/**
+	 * sent by both sides when the connection is opened.
+	 */
+	private static final int MAGIC = 0x524F4231; // "ROB1"
+
+	/**
+	 * the frame holds the first part of a message.
+	 */
+	private static final byte FIRST = 1;
+
+	/**
+	 * the frame holds the last part of a message.
+	 */
+	private static final byte LAST = 2;
+
+	/**
+	 * function ID and xid in front of the body of a message.
+	 */
+	private static final int MESSAGE_HEADER_SIZE = 5;
+
+	/**
+	 * the buffer pool.
+	 */
+	private static final ConcurrentLinkedQueue pool = new ConcurrentLinkedQueue();
+
+	private static final AtomicInteger pooled = new AtomicInteger();
+
+	Remoting remoting;
+
+	protected int listeningPort;
+
+	private volatile Selector selector;
+
+	private SelectorThread thread;
+
+	/**
+	 * channels waiting to be registered with the selector, or to get the
+	 * write interest set.
+	 */
+	private final ConcurrentLinkedQueue pending = new ConcurrentLinkedQueue();
+
+	/**
+	 * get a new connection.
+	 *
+	 * @param endpoint
+	 *            the channel endpoint.
+	 * @param endpointURI
+	 *            the URI of the remote host.
+	 * @return the transport channel.
+	 * @throws IOException
+	 * @see ch.ethz.iks.r_osgi.channels.NetworkChannelFactory#getConnection(ch.ethz.iks.r_osgi.channels.ChannelEndpoint,
+	 *      ch.ethz.iks.r_osgi.URI)
+	 */
+	public NetworkChannel getConnection(final ChannelEndpoint endpoint,
+			final URI endpointURI) throws IOException {
+		if (selector == null) {
+			throw new IOException("Channel factory is not active"); //$NON-NLS-1$
+		}
+		int port = endpointURI.getPort();
+		if (port == -1) {
+			port = DEFAULT_PORT;
+		}
+		final SocketChannel socketChannel = SocketChannel
+				.open(new InetSocketAddress(endpointURI.getHost(), port));
+		final FramedChannel channel = new FramedChannel(socketChannel,
+				endpointURI);
+		channel.endpoint = endpoint;
+		register(channel);
+		return channel;
+	}
+
+	/**
+	 * Activate the factory. Is called by R-OSGi when the factory is discovered.
+	 *
+	 * @see ch.ethz.iks.r_osgi.channels.NetworkChannelFactory#activate(ch.ethz.iks.r_osgi.Remoting)
+	 */
+	public void activate(final Remoting r) throws IOException {
+		remoting = r;
+		final Selector s = Selector.open();
+		ServerSocketChannel server;
+		int e = 0;
+		while (true) {
+			server = ServerSocketChannel.open();
+			try {
+				listeningPort = DEFAULT_PORT + e;
+				server.socket().bind(new InetSocketAddress(listeningPort));
+				break;
+			} catch (final BindException b) {
+				server.close();
+				e++;
+			}
+		}
+		if (e != 0) {
+			System.err.println("WARNING: Port " //$NON-NLS-1$
+					+ DEFAULT_PORT
+					+ " already in use. The binary channel is running on port " //$NON-NLS-1$
+					+ listeningPort);
+		}
+		server.configureBlocking(false);
+		server.register(s, SelectionKey.OP_ACCEPT);
+		selector = s;
+		thread = new SelectorThread(s, server);
+		thread.start();
+	}
+
+	/**
+	 * Deactivate the factory.
+	 *
+	 * @see ch.ethz.iks.r_osgi.channels.NetworkChannelFactory#deactivate(ch.ethz.iks.r_osgi.Remoting)
+	 */
+	public void deactivate(final Remoting r) throws IOException {
+		final Selector s = selector;
+		selector = null;
+		if (thread != null) {
+			thread.interrupt();
+			s.wakeup();
+			thread = null;
+		}
+		remoting = null;
+	}
+
+	/**
+	 * get the listening port.
+	 *
+	 * @see ch.ethz.iks.r_osgi.channels.NetworkChannelFactory#getListeningPort(java.lang.String)
+	 */
+	public int getListeningPort(final String protocol) {
+		return listeningPort;
+	}
+
+	/**
+	 * register a channel with the selector, or set the write interest of a
+	 * registered channel.
+	 *
+	 * @param channel
+	 *            the channel.
+	 */
+	void register(final FramedChannel channel) {
+		pending.offer(channel);
+		final Selector s = selector;
+		if (s != null) {
+			s.wakeup();
+		} else {
+			failPending();
+		}
+	}
+
+	/**
+	 * fail the channels that could not be registered because the factory has
+	 * been deactivated.
+	 */
+	void failPending() {
+		FramedChannel channel;
+		while ((channel = (FramedChannel) pending.poll()) != null) {
+			channel.failed(new IOException("Channel factory deactivated")); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * get a buffer from the pool.
+	 *
+	 * @return a cleared buffer.
+	 */
+	static ByteBuffer acquireBuffer() {
+		final ByteBuffer buffer = (ByteBuffer) pool.poll();
+		if (buffer == null) {
+			return ByteBuffer.allocateDirect(BUFFER_SIZE);
+		}
+		pooled.decrementAndGet();
+		buffer.clear();
+		return buffer;
+	}
+
+	/**
+	 * return a buffer to the pool.
+	 *
+	 * @param buffer
+	 *            the buffer.
+	 */
+	static void releaseBuffer(final ByteBuffer buffer) {
+		if (pooled.incrementAndGet() <= MAX_POOLED) {
+			pool.offer(buffer);
+		} else {
+			pooled.decrementAndGet();
+		}
+	}
+
+	/**
+	 * remote calls and their results can overtake bundles and services.
+	 *
+	 * @param funcID
+	 *            the function ID of the message.
+	 * @return true, if the message is a remote call or result.
+	 */
+	static boolean isCall(final short funcID) {
+		return funcID == RemoteOSGiMessage.REMOTE_CALL
+				|| funcID == RemoteOSGiMessage.REMOTE_CALL_RESULT;
+	}
+
+	/**
+	 * bundles and services can be overtaken by remote calls and results.
+	 *
+	 * @param funcID
+	 *            the function ID of the message.
+	 * @return true, if the message delivers bundles or a service.
+	 */
+	static boolean isDelivery(final short funcID) {
+		return funcID == RemoteOSGiMessage.DELIVER_BUNDLE
+				|| funcID == RemoteOSGiMessage.DELIVER_BUNDLES
+				|| funcID == RemoteOSGiMessage.DELIVER_SERVICE;
+	}
+
+	/**
+	 * the selector thread, accepts connections and reads and writes the frames
+	 * of all channels.
+	 */
+	private final class SelectorThread extends Thread {
+
+		private final Selector selector;
+
+		private final ServerSocketChannel server;
+
+		SelectorThread(final Selector selector, final ServerSocketChannel server) {
+			this.selector = selector;
+			this.server = server;
+			setName("FramedTCPChannel:SelectorThread"); //$NON-NLS-1$
+			setDaemon(true);
+		}
+
+		public void run() {
+			try {
+				while (!isInterrupted()) {
+					selector.select();
+					FramedChannel channel;
+					while ((channel = (FramedChannel) pending.poll()) != null) {
+						channel.register(selector);
+					}
+					final Iterator it = selector.selectedKeys().iterator();
+					while (it.hasNext()) {
+						final SelectionKey key = (SelectionKey) it.next();
+						it.remove();
+						if (!key.isValid()) {
+							continue;
+						}
+						if (key.isAcceptable()) {
+							accept();
+							continue;
+						}
+						channel = (FramedChannel) key.attachment();
+						try {
+							if (key.isReadable()) {
+								channel.read();
+							}
+							if (key.isValid() && key.isWritable()
+									&& channel.write()) {
+								key.interestOps(SelectionKey.OP_READ);
+							}
+						} catch (final IOException ioe) {
+							channel.failed(ioe);
+						}
+					}
+				}
+			} catch (final IOException ioe) {
+				RemoteOSGiServiceImpl.log.log(LogService.LOG_ERROR,
+						"Binary channel selector failed", ioe); //$NON-NLS-1$
+			} finally {
+				final Iterator it = selector.keys().iterator();
+				while (it.hasNext()) {
+					final Object attachment = ((SelectionKey) it.next())
+							.attachment();
+					if (attachment instanceof FramedChannel) {
+						((FramedChannel) attachment).failed(new IOException(
+								"Channel factory deactivated")); //$NON-NLS-1$
+					}
+				}
+				failPending();
+				try {
+					server.close();
+					selector.close();
+				} catch (final IOException ioe) {
+					// ignore
+				}
+			}
+		}
+
+		private void accept() throws IOException {
+			SocketChannel socketChannel;
+			while ((socketChannel = server.accept()) != null) {
+				final Socket socket = socketChannel.socket();
+				// addresses, not names: a reverse lookup would stall the
+				// selector thread
+				final FramedChannel channel = new FramedChannel(
+						socketChannel, URI.create(PROTOCOL + "://" //$NON-NLS-1$
+								+ socket.getInetAddress().getHostAddress()
+								+ ":" + socket.getPort())); //$NON-NLS-1$
+				if (remoting != null) {
+					// binds the channel and registers it with the selector
+					remoting.createEndpoint(channel);
+				} else {
+					channel.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * a message queued for sending.
+	 */
+	private static final class OutgoingMessage {
+
+		final int id;
+
+		final short funcID;
+
+		final byte[] data;
+
+		int offset;
+
+		OutgoingMessage(final int id, final short funcID, final byte[] data) {
+			this.id = id;
+			this.funcID = funcID;
+			this.data = data;
+		}
+	}
+
+	/**
+	 * a message being received.
+	 */
+	private static final class IncomingMessage {
+
+		byte[] data = new byte[FRAGMENT_SIZE];
+
+		int length;
+
+		void append(final ByteBuffer buffer, final int n) {
+			if (length + n > data.length) {
+				final byte[] grown = new byte[Math.max(data.length * 2, length
+						+ n)];
+				System.arraycopy(data, 0, grown, 0, length);
+				data = grown;
+			}
+			buffer.get(data, length, n);
+			length += n;
+		}
+	}
+
+	/**
+	 * a channel with framed binary transport over TCP.
+	 */
+	final class FramedChannel implements NetworkChannel {
+
+		private final SocketChannel socketChannel;
+
+		/**
+		 * the remote endpoint address.
+		 */
+		private final URI remoteEndpointAddress;
+
+		/**
+		 * the local endpoint address.
+		 */
+		private final URI localEndpointAddress;
+
+		/**
+		 * the channel endpoint.
+		 */
+		ChannelEndpoint endpoint;
+
+		/**
+		 * connected ?
+		 */
+		volatile boolean connected = true;
+
+		/**
+		 * the selection key, only used by the selector thread.
+		 */
+		private SelectionKey key;
+
+		// outgoing messages, guarded by outLock
+
+		private final Object outLock = new Object();
+
+		private final LinkedList queue = new LinkedList();
+
+		private int queuedBytes;
+
+		private int nextMessageId;
+
+		private boolean preferCall;
+
+		private boolean magicSent;
+
+		// selector thread state
+
+		private ByteBuffer writeBuffer;
+
+		private ByteBuffer readBuffer;
+
+		private boolean magicReceived;
+
+		/**
+		 * message id -&gt; IncomingMessage.
+		 */
+		private final Map incoming = new HashMap();
+
+		/**
+		 * passes the received messages to the endpoint, in order.
+		 */
+		private final WorkQueue receiveQueue;
+
+		FramedChannel(final SocketChannel socketChannel, final URI remote)
+				throws IOException {
+			this.socketChannel = socketChannel;
+			remoteEndpointAddress = remote;
+			final Socket socket = socketChannel.socket();
+			localEndpointAddress = URI.create(PROTOCOL + "://" //$NON-NLS-1$
+					+ socket.getLocalAddress().getHostAddress() + ":" //$NON-NLS-1$
+					+ socket.getLocalPort());
+			socket.setKeepAlive(true);
+			socket.setTcpNoDelay(true);
+			socketChannel.configureBlocking(false);
+			receiveQueue = new WorkQueue("FramedTCPChannel:" + remote, 1); //$NON-NLS-1$
+		}
+
+		/**
+		 * bind the channel to a channel endpoint.
+		 *
+		 * @see ch.ethz.iks.r_osgi.channels.NetworkChannel#bind(ch.ethz.iks.r_osgi.channels.ChannelEndpoint)
+		 */
+		public void bind(final ChannelEndpoint e) {
+			endpoint = e;
+			FramedTCPChannelFactory.this.register(this);
+		}
+
+		/**
+		 * register with the selector or set the write interest. Called by the
+		 * selector thread.
+		 */
+		void register(final Selector s) {
+			try {
+				if (key == null) {
+					if (connected) {
+						key = socketChannel.register(s, SelectionKey.OP_READ
+								| SelectionKey.OP_WRITE, this);
+					}
+				} else if (key.isValid()) {
+					key.interestOps(SelectionKey.OP_READ
+							| SelectionKey.OP_WRITE);
+				}
+			} catch (final IOException ioe) {
+				failed(ioe);
+			}
+		}
+
+		/**
+		 * get the String representation of the channel.
+		 *
+		 * @see java.lang.Object#toString()
+		 */
+		public String toString() {
+			return "FramedTCPChannel (" + getRemoteAddress() + ")"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		/**
+		 * close the channel.
+		 *
+		 * @see ch.ethz.iks.r_osgi.channels.NetworkChannel#close()
+		 */
+		public void close() throws IOException {
+			synchronized (outLock) {
+				connected = false;
+				outLock.notifyAll();
+			}
+			socketChannel.close();
+		}
+
+		/**
+		 * the connection failed. Called by the selector thread.
+		 */
+		void failed(final IOException ioe) {
+			if (RemoteOSGiServiceImpl.DEBUG && connected
+					&& !(ioe instanceof EOFException)) {
+				RemoteOSGiServiceImpl.log.log(LogService.LOG_DEBUG,
+						"{Binary Channel} connection failed " + this, ioe); //$NON-NLS-1$
+			}
+			final boolean notify = connected;
+			try {
+				close();
+			} catch (final IOException e) {
+				// ignore
+			}
+			if (writeBuffer != null) {
+				releaseBuffer(writeBuffer);
+				writeBuffer = null;
+			}
+			if (readBuffer != null) {
+				releaseBuffer(readBuffer);
+				readBuffer = null;
+			}
+			incoming.clear();
+			if (notify && endpoint != null) {
+				// after the messages that have already been received
+				receiveQueue.execute(new Runnable() {
+					public void run() {
+						endpoint.receivedMessage(null);
+					}
+				});
+			}
+		}
+
+		/**
+		 * get the protocol that is implemented by the channel.
+		 *
+		 * @see ch.ethz.iks.r_osgi.channels.NetworkChannel#getProtocol()
+		 */
+		public String getProtocol() {
+			return PROTOCOL;
+		}
+
+		/**
+		 * get the remote address.
+		 *
+		 * @see ch.ethz.iks.r_osgi.channels.NetworkChannel#getRemoteAddress()
+		 */
+		public URI getRemoteAddress() {
+			return remoteEndpointAddress;
+		}
+
+		/**
+		 * get the local address.
+		 *
+		 * @see ch.ethz.iks.r_osgi.channels.NetworkChannel#getLocalAddress()
+		 */
+		public URI getLocalAddress() {
+			return localEndpointAddress;
+		}
+
+		/**
+		 * send a message through the channel. The message is serialized by the
+		 * calling thread and queued, the frames are written by the selector
+		 * thread.
+		 *
+		 * @param message
+		 *            the message.
+		 * @throws IOException
+		 *             in case of IO errors.
+		 */
+		public void sendMessage(final RemoteOSGiMessage message)
+				throws IOException {
+			if (RemoteOSGiServiceImpl.MSG_DEBUG) {
+				RemoteOSGiServiceImpl.log.log(LogService.LOG_DEBUG,
+						"{Binary Channel} sending " + message); //$NON-NLS-1$
+			}
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final short funcID = message.getFuncID();
+			final int xid = message.getXID();
+			bytes.write(funcID);
+			bytes.write(xid >>> 24);
+			bytes.write(xid >>> 16);
+			bytes.write(xid >>> 8);
+			bytes.write(xid);
+			final ObjectOutputStream out = TCPChannelFactory
+					.createObjectOutputStream(bytes);
+			message.sendBody(out);
+			out.close();
+			final byte[] data = bytes.toByteArray();
+
+			synchronized (outLock) {
+				while (connected && queuedBytes > MAX_QUEUED) {
+					try {
+						outLock.wait();
+					} catch (final InterruptedException ie) {
+						Thread.currentThread().interrupt();
+						throw new InterruptedIOException();
+					}
+				}
+				if (!connected) {
+					throw new IOException("Channel closed " + this); //$NON-NLS-1$
+				}
+				queue.add(new OutgoingMessage(nextMessageId++, funcID, data));
+				queuedBytes += data.length;
+			}
+			FramedTCPChannelFactory.this.register(this);
+		}
+
+		/**
+		 * write the queued frames. Called by the selector thread.
+		 *
+		 * @return true, if all queued frames have been written.
+		 * @throws IOException
+		 *             in case of IO errors.
+		 */
+		boolean write() throws IOException {
+			while (true) {
+				if (writeBuffer == null) {
+					writeBuffer = acquireBuffer();
+				} else if (writeBuffer.hasRemaining()) {
+					socketChannel.write(writeBuffer);
+					if (writeBuffer.hasRemaining()) {
+						return false;
+					}
+					writeBuffer.clear();
+				} else {
+					writeBuffer.clear();
+				}
+				if (!fill(writeBuffer)) {
+					releaseBuffer(writeBuffer);
+					writeBuffer = null;
+					return true;
+				}
+				writeBuffer.flip();
+			}
+		}
+
+		/**
+		 * fill the buffer with frames. While a bundle or service is delivered,
+		 * its frames alternate with the frames of a remote call or result
+		 * behind it.
+		 *
+		 * @param buffer
+		 *            the buffer.
+		 * @return false, if there was nothing to send.
+		 */
+		private boolean fill(final ByteBuffer buffer) {
+			boolean filled = false;
+			synchronized (outLock) {
+				if (!magicSent) {
+					buffer.putInt(MAGIC);
+					magicSent = true;
+					filled = true;
+				}
+				while (!queue.isEmpty()) {
+					final OutgoingMessage head = (OutgoingMessage) queue
+							.getFirst();
+					OutgoingMessage msg = head;
+					if (preferCall && isDelivery(head.funcID)) {
+						final OutgoingMessage call = getOvertakingCall();
+						if (call != null) {
+							msg = call;
+						}
+					}
+					final int n = Math.min(FRAGMENT_SIZE, msg.data.length
+							- msg.offset);
+					if (buffer.remaining() < HEADER_SIZE + n) {
+						break;
+					}
+					byte flags = 0;
+					if (msg.offset == 0) {
+						flags |= FIRST;
+					}
+					if (msg.offset + n == msg.data.length) {
+						flags |= LAST;
+					}
+					buffer.putInt(HEADER_SIZE - 4 + n);
+					buffer.putInt(msg.id);
+					buffer.put(flags);
+					buffer.put(msg.data, msg.offset, n);
+					msg.offset += n;
+					queuedBytes -= n;
+					if (msg.offset == msg.data.length) {
+						queue.remove(msg);
+					}
+					preferCall = msg == head;
+					filled = true;
+				}
+				outLock.notifyAll();
+			}
+			return filled;
+		}
+
+		/**
+		 * get the first remote call or result that can overtake the delivery
+		 * at the head of the queue. Called holding outLock.
+		 *
+		 * @return the call, or <code>null</code> if there is no call behind
+		 *         the deliveries at the head of the queue.
+		 */
+		private OutgoingMessage getOvertakingCall() {
+			final Iterator it = queue.iterator();
+			it.next();
+			while (it.hasNext()) {
+				final OutgoingMessage msg = (OutgoingMessage) it.next();
+				if (isCall(msg.funcID)) {
+					return msg;
+				}
+				if (!isDelivery(msg.funcID)) {
+					return null;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * read the available frames. Called by the selector thread.
+		 *
+		 * @throws IOException
+		 *             in case of IO errors.
+		 */
+		void read() throws IOException {
+			if (readBuffer == null) {
+				readBuffer = acquireBuffer();
+			}
+			if (socketChannel.read(readBuffer) < 0) {
+				throw new EOFException();
+			}
+			readBuffer.flip();
+			if (!magicReceived && readBuffer.remaining() >= 4) {
+				if (readBuffer.getInt() != MAGIC) {
+					throw new IOException("Not an R-OSGi binary channel " //$NON-NLS-1$
+							+ this);
+				}
+				magicReceived = true;
+			}
+			while (magicReceived && readBuffer.remaining() >= 4) {
+				final int length = readBuffer.getInt(readBuffer.position());
+				if (length < HEADER_SIZE - 4
+						|| length > BUFFER_SIZE - 4) {
+					throw new IOException("Invalid frame length " + length); //$NON-NLS-1$
+				}
+				if (readBuffer.remaining() < length + 4) {
+					break;
+				}
+				readBuffer.getInt();
+				final Integer id = Integer.valueOf(readBuffer.getInt());
+				final byte flags = readBuffer.get();
+				IncomingMessage msg = (IncomingMessage) incoming.get(id);
+				if ((flags & FIRST) != 0) {
+					msg = new IncomingMessage();
+					incoming.put(id, msg);
+				} else if (msg == null) {
+					throw new IOException("Unexpected frame of message " + id); //$NON-NLS-1$
+				}
+				msg.append(readBuffer, length - (HEADER_SIZE - 4));
+				if ((flags & LAST) != 0) {
+					incoming.remove(id);
+					received(msg.data, msg.length);
+				}
+			}
+			readBuffer.compact();
+			if (readBuffer.position() == 0) {
+				releaseBuffer(readBuffer);
+				readBuffer = null;
+			}
+		}
+
+		/**
+		 * a message has been received completely.
+		 *
+		 * @param data
+		 *            the message.
+		 * @param length
+		 *            the length of the message.
+		 * @throws IOException
+		 *             in case of an invalid message.
+		 */
+		private void received(final byte[] data, final int length)
+				throws IOException {
+			if (length < MESSAGE_HEADER_SIZE) {
+				throw new IOException("Invalid message length " + length); //$NON-NLS-1$
+			}
+			final short funcID = data[0];
+			final int xid = ((data[1] & 0xFF) << 24)
+					| ((data[2] & 0xFF) << 16) | ((data[3] & 0xFF) << 8)
+					| (data[4] & 0xFF);
+			receiveQueue.execute(new Runnable() {
+				public void run() {
+					final RemoteOSGiMessage msg;
+					try {
+						final ObjectInputStream in = TCPChannelFactory
+								.createObjectInputStream(new ByteArrayInputStream(
+										data, MESSAGE_HEADER_SIZE, length
+												- MESSAGE_HEADER_SIZE));
+						msg = RemoteOSGiMessage.parse(funcID, xid, in);
+					} catch (final Exception e) {
+						RemoteOSGiServiceImpl.log.log(LogService.LOG_ERROR,
+								"Could not read message of " //$NON-NLS-1$
+										+ FramedChannel.this, e);
+						return;
+					}
+					if (RemoteOSGiServiceImpl.MSG_DEBUG) {
+						RemoteOSGiServiceImpl.log.log(LogService.LOG_DEBUG,
+								"{Binary Channel} received " + msg); //$NON-NLS-1$
+					}
+					endpoint.receivedMessage(msg);
+				}
+			});
+		}
+	}
+
+}
@@ -0,0 +1,378 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package ch.ethz.iks.r_osgi.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.service.log.LogService;
+
+import ch.ethz.iks.r_osgi.messages.DeliverServiceMessage;
+
+/**
+ * Cache of the classes of generated proxy bundles. The classes only depend on
+ * the content of the {@link DeliverServiceMessage} (interfaces, smart proxy,
+ * injections and imports/exports), so proxy bundles for the same service
+ * interface imported from many peers, or imported again after a reconnect,
+ * are built from the same cached classes. The entries are keyed by a SHA-1
+ * hash of that content.
+ * <p>
+ * The cache holds at most <code>ch.ethz.iks.r_osgi.proxyCache.size</code>
+ * entries in memory (default 256, 0 disables the cache). If
+ * <code>ch.ethz.iks.r_osgi.proxyCache.persist</code> is set to
+ * <code>true</code>, the entries are also stored in the data area of the
+ * R-OSGi bundle and survive restarts.
+ * </p>
+ */
+final class ProxyBundleCache {
+
+	/**
+	 * the version of the generated proxy classes. Has to be changed whenever
+	 * the proxy generator generates different classes, so that persisted
+	 * entries are not used any more.
+	 */
+	private static final String GENERATOR_VERSION = "2"; //$NON-NLS-1$
+
+	/**
+	 * the maximum number of entries held in memory.
+	 */
+	private static final int SIZE = Integer.getInteger(
+			"ch.ethz.iks.r_osgi.proxyCache.size", 256).intValue(); //$NON-NLS-1$
+
+	/**
+	 * store the entries in the bundle data area?
+	 */
+	private static final boolean PERSIST = Boolean
+			.getBoolean("ch.ethz.iks.r_osgi.proxyCache.persist"); //$NON-NLS-1$
+
+	/**
+	 * the directory of the persisted entries in the bundle data area.
+	 */
+	private static final String CACHE_DIR = "proxies"; //$NON-NLS-1$
+
+	/**
+	 * key -&gt; Artifact, in access order.
+	 */
+	private final Map artifacts = new LinkedHashMap(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		protected boolean removeEldestEntry(final Map.Entry eldest) {
+			return size() > SIZE;
+		}
+	};
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong persistedHits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * the classes of a generated proxy bundle.
+	 */
+	static final class Artifact {
+
+		/**
+		 * the name of the proxy class, which is the bundle activator.
+		 */
+		final String activatorName;
+
+		/**
+		 * entry name -&gt; class bytes, in the order of the jar entries.
+		 */
+		final Map entries;
+
+		Artifact(final String activatorName, final Map entries) {
+			this.activatorName = activatorName;
+			this.entries = entries;
+		}
+	}
+
+	/**
+	 * get the key of the proxy classes for a service.
+	 *
+	 * @param deliv
+	 *            the deliver service message of the service.
+	 * @return the key.
+	 */
+	static String getKey(final DeliverServiceMessage deliv) {
+		return getKey(GENERATOR_VERSION, deliv);
+	}
+
+	/**
+	 * get the key of the proxy classes for a service, generated by the given
+	 * version of the proxy generator. The URI of the service is not part of
+	 * the key; it is passed to the proxy in the
+	 * {@link ProxyGenerator#SERVICE_URI_HEADER} header of the bundle.
+	 *
+	 * @param generatorVersion
+	 *            the version of the proxy generator.
+	 * @param deliv
+	 *            the deliver service message of the service.
+	 * @return the key.
+	 */
+	static String getKey(final String generatorVersion,
+			final DeliverServiceMessage deliv) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+			final DataOutputStream out = new DataOutputStream(
+					new DigestOutputStream(new ByteArrayOutputStream(), digest));
+			out.writeUTF(generatorVersion);
+			out.writeBoolean(RemoteOSGiServiceImpl.IS_JAVA5);
+			final String[] interfaceNames = deliv.getInterfaceNames();
+			out.writeInt(interfaceNames.length);
+			for (int i = 0; i < interfaceNames.length; i++) {
+				out.writeUTF(interfaceNames[i]);
+			}
+			writeBytes(out, deliv.getInterfaceClass());
+			writeString(out, deliv.getSmartProxyName());
+			writeBytes(out, deliv.getProxyClass());
+			final Map injections = deliv.getInjections();
+			final String[] names = (String[]) injections.keySet().toArray(
+					new String[injections.size()]);
+			Arrays.sort(names);
+			out.writeInt(names.length);
+			for (int i = 0; i < names.length; i++) {
+				out.writeUTF(names[i]);
+				writeBytes(out, (byte[]) injections.get(names[i]));
+			}
+			writeString(out, deliv.getImports());
+			writeString(out, deliv.getExports());
+			writeString(out, deliv.getOptionalImports());
+			out.flush();
+
+			final byte[] hash = digest.digest();
+			final StringBuffer buffer = new StringBuffer(hash.length * 2);
+			for (int i = 0; i < hash.length; i++) {
+				buffer.append(Character.forDigit((hash[i] >> 4) & 0xf, 16));
+				buffer.append(Character.forDigit(hash[i] & 0xf, 16));
+			}
+			return buffer.toString();
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e.getMessage());
+		} catch (final IOException e) {
+			// cannot happen, the stream writes to memory
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+
+	private static void writeString(final DataOutputStream out,
+			final String s) throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			out.writeUTF(s);
+		}
+	}
+
+	private static void writeBytes(final DataOutputStream out,
+			final byte[] b) throws IOException {
+		out.writeInt(b == null ? -1 : b.length);
+		if (b != null) {
+			out.write(b);
+		}
+	}
+
+	/**
+	 * get the proxy classes for a key.
+	 *
+	 * @param key
+	 *            the key.
+	 * @return the proxy classes, or <code>null</code> if they are not cached.
+	 */
+	Artifact get(final String key) {
+		Artifact artifact;
+		synchronized (artifacts) {
+			artifact = (Artifact) artifacts.get(key);
+		}
+		if (artifact != null) {
+			hits.incrementAndGet();
+			return artifact;
+		}
+		artifact = load(key);
+		if (artifact != null) {
+			persistedHits.incrementAndGet();
+			synchronized (artifacts) {
+				artifacts.put(key, artifact);
+			}
+			return artifact;
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * add the proxy classes for a key.
+	 *
+	 * @param key
+	 *            the key.
+	 * @param artifact
+	 *            the proxy classes.
+	 */
+	void put(final String key, final Artifact artifact) {
+		if (SIZE <= 0) {
+			return;
+		}
+		synchronized (artifacts) {
+			artifacts.put(key, artifact);
+		}
+		store(key, artifact);
+	}
+
+	/**
+	 * @return the number of lookups answered from memory.
+	 */
+	long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of lookups answered from the bundle data area.
+	 */
+	long getPersistedHits() {
+		return persistedHits.get();
+	}
+
+	/**
+	 * @return the number of lookups that required a proxy to be generated.
+	 */
+	long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * remove all entries from memory.
+	 */
+	void clear() {
+		synchronized (artifacts) {
+			artifacts.clear();
+		}
+	}
+
+	private static File getFile(final String key) {
+		if (!PERSIST || SIZE <= 0) {
+			return null;
+		}
+		final BundleContext context = RemoteOSGiActivator.getActivator()
+				.getContext();
+		final File dir = context == null ? null : context
+				.getDataFile(CACHE_DIR);
+		return dir == null ? null : new File(dir, key + ".jar"); //$NON-NLS-1$
+	}
+
+	private static Artifact load(final String key) {
+		final File file = getFile(key);
+		if (file == null || !file.exists()) {
+			return null;
+		}
+		JarInputStream in = null;
+		try {
+			in = new JarInputStream(new FileInputStream(file));
+			final String activatorName = in.getManifest().getMainAttributes()
+					.getValue("Bundle-Activator"); //$NON-NLS-1$
+			final Map entries = new LinkedHashMap();
+			final byte[] buffer = new byte[4096];
+			JarEntry entry;
+			while ((entry = in.getNextJarEntry()) != null) {
+				entries.put(entry.getName(), readFully(in, buffer));
+			}
+			return activatorName == null ? null : new Artifact(activatorName,
+					entries);
+		} catch (final IOException ioe) {
+			log("Could not read cached proxy " + file, ioe); //$NON-NLS-1$
+			return null;
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (final IOException ioe) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	private static byte[] readFully(final InputStream in, final byte[] buffer)
+			throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int read;
+		while ((read = in.read(buffer)) > -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	private static void store(final String key, final Artifact artifact) {
+		final File file = getFile(key);
+		if (file == null || file.exists()) {
+			return;
+		}
+		file.getParentFile().mkdirs();
+		final File tmp = new File(file.getParentFile(), key + ".tmp"); //$NON-NLS-1$
+		try {
+			final Manifest mf = new Manifest();
+			final Attributes attr = mf.getMainAttributes();
+			attr.putValue("Manifest-Version", "1.0"); //$NON-NLS-1$ //$NON-NLS-2$
+			attr.putValue("Bundle-Activator", artifact.activatorName); //$NON-NLS-1$
+			final JarOutputStream out = new JarOutputStream(
+					new FileOutputStream(tmp), mf);
+			try {
+				for (final Iterator it = artifact.entries.entrySet()
+						.iterator(); it.hasNext();) {
+					final Map.Entry entry = (Map.Entry) it.next();
+					out.putNextEntry(new JarEntry((String) entry.getKey()));
+					out.write((byte[]) entry.getValue());
+					out.closeEntry();
+				}
+			} finally {
+				out.close();
+			}
+			if (!tmp.renameTo(file)) {
+				tmp.delete();
+			}
+		} catch (final IOException ioe) {
+			tmp.delete();
+			log("Could not store cached proxy " + file, ioe); //$NON-NLS-1$
+		}
+	}
+
+	private static void log(final String message, final Throwable t) {
+		if (RemoteOSGiServiceImpl.log != null) {
+			RemoteOSGiServiceImpl.log.log(LogService.LOG_WARNING, message, t);
+		}
+	}
+
+	public String toString() {
+		return "ProxyBundleCache[hits=" + getHits() + ";persistedHits=" //$NON-NLS-1$ //$NON-NLS-2$
+				+ getPersistedHits() + ";misses=" + getMisses() + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+}
@@ -35,6 +35,8 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -88,9 +90,17 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 	private String implName;
 
 	/**
-	 * the service uri.
+	 * the manifest header of a proxy bundle that holds the service uri. The
+	 * generated proxy class reads the uri from the header when it is started,
+	 * so that the class does not depend on the service instance and can be
+	 * cached.
 	 */
-	private String uri;
+	static final String SERVICE_URI_HEADER = "R-OSGi-Service-URI"; //$NON-NLS-1$
+
+	/**
+	 * the generated proxy classes.
+	 */
+	static final ProxyBundleCache CACHE = new ProxyBundleCache();
 
 	/**
 	 * the ASM class writer.
@@ -155,12 +165,6 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 			"charValue", "byteValue", "shortValue", "intValue", "floatValue", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ 
 			"longValue", "doubleValue" }; //$NON-NLS-1$ //$NON-NLS-2$
 
-	/**
-	 * the character table for generating a signature from an IP address.
-	 */
-	private static final char[] CHAR_TABLE = new char[] { 'a', 'b', 'c', 'd',
-			'e', 'f', 'g', 'h', 'i', 'j' };
-
 	/**
 	 * remoting interface name.
 	 */
@@ -199,18 +203,15 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 	protected InputStream generateProxyBundle(final URI service,
 			final DeliverServiceMessage deliv) throws IOException {
 
-		uri = service.toString();
-		sourceID = generateSourceID(uri);
-		implemented = new HashSet();
-		injections = deliv.getInjections();
-		final byte[] bytes = deliv.getSmartProxyName() == null ? generateProxyClass(
-				deliv.getInterfaceNames(), deliv.getInterfaceClass())
-				: generateProxyClass(deliv.getInterfaceNames(),
-						deliv.getInterfaceClass(), deliv.getSmartProxyName(),
-						deliv.getProxyClass());
-
-		final String className = implName.replace('/', '.');
-		JarEntry jarEntry;
+		final String key = ProxyBundleCache.getKey(deliv);
+		ProxyBundleCache.Artifact artifact = CACHE.get(key);
+		if (artifact == null) {
+			artifact = generateProxyClasses(key, deliv);
+			CACHE.put(key, artifact);
+		} else if (RemoteOSGiServiceImpl.PROXY_DEBUG) {
+			RemoteOSGiServiceImpl.log.log(LogService.LOG_DEBUG,
+					"reusing proxy class " + artifact.activatorName); //$NON-NLS-1$
+		}
 
 		// generate Jar
 		final Manifest mf = new Manifest();
@@ -218,10 +219,11 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 		attr.putValue("Manifest-Version", "1.0"); //$NON-NLS-1$ //$NON-NLS-2$
 		attr.putValue("Bundle-ManifestVersion","2"); //$NON-NLS-1$ //$NON-NLS-2$
 		attr.putValue("Created-By", "R-OSGi Proxy Generator"); //$NON-NLS-1$ //$NON-NLS-2$
-		attr.putValue("Bundle-Activator", className); //$NON-NLS-1$
+		attr.putValue("Bundle-Activator", artifact.activatorName); //$NON-NLS-1$
 		attr.putValue("Bundle-Classpath", "."); //$NON-NLS-1$ //$NON-NLS-2$
 		attr.putValue(
 				"Bundle-SymbolicName", RemoteOSGiService.R_OSGi_PROXY_PREFIX + service.getHost()+"."+service.getPort()+"."+service.getFragment()); //$NON-NLS-1$ //$NON-NLS-2$
+		attr.putValue(SERVICE_URI_HEADER, service.toString());
 		attr.putValue(
 				"Import-Package", //$NON-NLS-1$
 				"org.osgi.framework, ch.ethz.iks.r_osgi, ch.ethz.iks.r_osgi.types, ch.ethz.iks.r_osgi.channels" //$NON-NLS-1$
@@ -235,20 +237,57 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 		final ByteArrayOutputStream bout = new ByteArrayOutputStream();
 		final JarOutputStream out = new JarOutputStream(bout, mf);
 
-		CRC32 crc = new CRC32();
-		crc.update(bytes, 0, bytes.length);
-		jarEntry = new JarEntry(implName + ".class"); //$NON-NLS-1$
-		jarEntry.setSize(bytes.length);
-		jarEntry.setCrc(crc.getValue());
+		for (final Iterator it = artifact.entries.entrySet().iterator(); it
+				.hasNext();) {
+			final Map.Entry entry = (Map.Entry) it.next();
+			final byte[] bytes = (byte[]) entry.getValue();
+			final CRC32 crc = new CRC32();
+			crc.update(bytes, 0, bytes.length);
+			final JarEntry jarEntry = new JarEntry((String) entry.getKey());
+			jarEntry.setSize(bytes.length);
+			jarEntry.setCrc(crc.getValue());
+
+			out.putNextEntry(jarEntry);
+			out.write(bytes, 0, bytes.length);
+			out.flush();
+			out.closeEntry();
+		}
 
-		out.putNextEntry(jarEntry);
-		out.write(bytes, 0, bytes.length);
 		out.flush();
-		out.closeEntry();
+		out.finish();
+		out.close();
+
+		return new ByteArrayInputStream(bout.toByteArray());
+	}
+
+	/**
+	 * generate the classes of a proxy bundle.
+	 * 
+	 * @param key
+	 *            the cache key of the classes.
+	 * @param deliv
+	 *            DeliverServiceMessage
+	 * @return the classes.
+	 * @throws IOException
+	 *             in case of proxy generation error
+	 */
+	private ProxyBundleCache.Artifact generateProxyClasses(final String key,
+			final DeliverServiceMessage deliv) throws IOException {
+		sourceID = "p" + key; //$NON-NLS-1$
+		implemented = new HashSet();
+		injections = deliv.getInjections();
+		final byte[] bytes = deliv.getSmartProxyName() == null ? generateProxyClass(
+				deliv.getInterfaceNames(), deliv.getInterfaceClass())
+				: generateProxyClass(deliv.getInterfaceNames(),
+						deliv.getInterfaceClass(), deliv.getSmartProxyName(),
+						deliv.getProxyClass());
+
+		final Map entries = new LinkedHashMap();
+		entries.put(implName + ".class", bytes); //$NON-NLS-1$
 
 		final String[] injectionNames = (String[]) injections.keySet().toArray(
 				new String[injections.size()]);
-		// write the class injections
+		// add the class injections
 		for (int i = 0; i < injectionNames.length; i++) {
 
 			String name = injectionNames[i];
@@ -275,33 +314,23 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 			} else {
 				rewritten = data;
 			}
-
-			crc = new CRC32();
-			crc.update(rewritten, 0, rewritten.length);
-			jarEntry = new JarEntry(name);
-			jarEntry.setSize(rewritten.length);
-			jarEntry.setCrc(crc.getValue());
-
-			out.putNextEntry(jarEntry);
-			out.write(rewritten, 0, rewritten.length);
-			out.flush();
-			out.closeEntry();
+			entries.put(name, rewritten);
 		}
 
-		out.flush();
-		out.finish();
-		out.close();
-
-		if (RemoteOSGiServiceImpl.PROXY_DEBUG) {
-			// final File file =
-			// RemoteOSGiActivator.context.getDataFile(fileName
-			// + "_" + sourceID + ".jar");
-
-			// RemoteOSGiServiceImpl.log.log(LogService.LOG_DEBUG,
-			// "Created Proxy Bundle " + file);
-		}
+		return new ProxyBundleCache.Artifact(implName.replace('/', '.'),
+				entries);
+	}
 
-		return new ByteArrayInputStream(bout.toByteArray());
+	/**
+	 * push the service uri on the stack.
+	 * 
+	 * @param method
+	 *            the method visitor.
+	 */
+	private void visitServiceURI(final MethodVisitor method) {
+		method.visitVarInsn(ALOAD, 0);
+		method.visitFieldInsn(GETFIELD, implName, "serviceURI", //$NON-NLS-1$
+				"Ljava/lang/String;"); //$NON-NLS-1$
 	}
 
 	/**
@@ -497,12 +526,29 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 			field = writer.visitField(ACC_PRIVATE, "endpoint", "L" + ENDPOINT_I //$NON-NLS-1$ //$NON-NLS-2$
 					+ ";", null, null); //$NON-NLS-1$
 			field.visitEnd();
+			writer.visitField(ACC_PRIVATE, "serviceURI", //$NON-NLS-1$
+					"Ljava/lang/String;", null, null).visitEnd(); //$NON-NLS-1$
 
 			{
 				method = writer.visitMethod(ACC_PUBLIC, "start", //$NON-NLS-1$
 						"(Lorg/osgi/framework/BundleContext;)V", null, //$NON-NLS-1$
 						new String[] { "java/lang/Exception" }); //$NON-NLS-1$
 				method.visitCode();
+				// serviceURI = (String) context.getBundle().getHeaders().get(SERVICE_URI_HEADER)
+				method.visitVarInsn(ALOAD, 0);
+				method.visitVarInsn(ALOAD, 1);
+				method.visitMethodInsn(INVOKEINTERFACE,
+						"org/osgi/framework/BundleContext", //$NON-NLS-1$
+						"getBundle", "()Lorg/osgi/framework/Bundle;"); //$NON-NLS-1$ //$NON-NLS-2$
+				method.visitMethodInsn(INVOKEINTERFACE,
+						"org/osgi/framework/Bundle", //$NON-NLS-1$
+						"getHeaders", "()Ljava/util/Dictionary;"); //$NON-NLS-1$ //$NON-NLS-2$
+				method.visitLdcInsn(SERVICE_URI_HEADER);
+				method.visitMethodInsn(INVOKEVIRTUAL, "java/util/Dictionary", //$NON-NLS-1$
+						"get", "(Ljava/lang/Object;)Ljava/lang/Object;"); //$NON-NLS-1$ //$NON-NLS-2$
+				method.visitTypeInsn(CHECKCAST, "java/lang/String"); //$NON-NLS-1$
+				method.visitFieldInsn(PUTFIELD, implName, "serviceURI", //$NON-NLS-1$
+						"Ljava/lang/String;"); //$NON-NLS-1$
 				method.visitVarInsn(ALOAD, 1);
 				method.visitVarInsn(ALOAD, 1);
 				method.visitLdcInsn(Remoting.class.getName());
@@ -518,7 +564,7 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 				method.visitVarInsn(ASTORE, 2);
 				method.visitVarInsn(ALOAD, 0);
 				method.visitVarInsn(ALOAD, 2);
-				method.visitLdcInsn(uri);
+				visitServiceURI(method);
 				method.visitMethodInsn(INVOKEINTERFACE, REMOTING_I,
 						"getEndpoint", "(Ljava/lang/String;)L" + ENDPOINT_I //$NON-NLS-1$ //$NON-NLS-2$
 								+ ";"); //$NON-NLS-1$
@@ -527,7 +573,7 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 				method.visitVarInsn(ALOAD, 0);
 				method.visitFieldInsn(GETFIELD, implName, "endpoint", "L" //$NON-NLS-1$ //$NON-NLS-2$
 						+ ENDPOINT_I + ";"); //$NON-NLS-1$
-				method.visitLdcInsn(uri);
+				visitServiceURI(method);
 				method.visitVarInsn(ALOAD, 1);
 
 				final int len = serviceInterfaceNames.length;
@@ -553,7 +599,7 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 				method.visitVarInsn(ALOAD, 0);
 				method.visitFieldInsn(GETFIELD, implName, "endpoint", "L" //$NON-NLS-1$ //$NON-NLS-2$
 						+ ENDPOINT_I + ";"); //$NON-NLS-1$
-				method.visitLdcInsn(uri);
+				visitServiceURI(method);
 				method.visitMethodInsn(INVOKEINTERFACE, ENDPOINT_I,
 						"getProperties", //$NON-NLS-1$
 						"(Ljava/lang/String;)Ljava/util/Dictionary;"); //$NON-NLS-1$
@@ -568,7 +614,7 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 				method.visitVarInsn(ALOAD, 0);
 				method.visitFieldInsn(GETFIELD, implName, "endpoint", "L" //$NON-NLS-1$ //$NON-NLS-2$
 						+ ENDPOINT_I + ";"); //$NON-NLS-1$
-				method.visitLdcInsn(uri);
+				visitServiceURI(method);
 				method.visitMethodInsn(INVOKEINTERFACE, ENDPOINT_I,
 						"getProperties", //$NON-NLS-1$
 						"(Ljava/lang/String;)Ljava/util/Dictionary;"); //$NON-NLS-1$
@@ -599,7 +645,7 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 				method.visitVarInsn(ALOAD, 0);
 				method.visitFieldInsn(GETFIELD, implName, "endpoint", "L" //$NON-NLS-1$ //$NON-NLS-2$
 						+ ENDPOINT_I + ";"); //$NON-NLS-1$
-				method.visitLdcInsn(uri);
+				visitServiceURI(method);
 				method.visitMethodInsn(INVOKEINTERFACE, ENDPOINT_I,
 						"getPresentationProperties", //$NON-NLS-1$
 						"(Ljava/lang/String;)Ljava/util/Dictionary;"); //$NON-NLS-1$
@@ -628,7 +674,7 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 				method.visitVarInsn(ALOAD, 0);
 				method.visitFieldInsn(GETFIELD, implName, "endpoint", "L" //$NON-NLS-1$//$NON-NLS-2$
 						+ ENDPOINT_I + ";"); //$NON-NLS-1$
-				method.visitLdcInsn(uri);
+				visitServiceURI(method);
 				method.visitMethodInsn(INVOKEINTERFACE, ENDPOINT_I,
 						"untrackRegistration", "(Ljava/lang/String;)V"); //$NON-NLS-1$ //$NON-NLS-2$
 				method.visitVarInsn(ALOAD, 0);
@@ -784,7 +830,7 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 			method.visitVarInsn(ALOAD, 0);
 			method.visitFieldInsn(GETFIELD, implName, "endpoint", "L" //$NON-NLS-1$ //$NON-NLS-2$
 					+ ENDPOINT_I + ";"); //$NON-NLS-1$
-			method.visitLdcInsn(uri);
+			visitServiceURI(method);
 			method.visitLdcInsn(name + desc);
 			if (args.length < 5) {
 				method.visitInsn(ICONST[args.length]);
@@ -1123,35 +1169,6 @@ class ProxyGenerator extends ClassVisitor implements Opcodes {
 
 	}
 
-	/**
-	 * generate a source id from IP or host name.
-	 * 
-	 * @param id
-	 *            id
-	 * @return sourceID
-	 */
-	private static String generateSourceID(final String id) {
-		final int pos1 = id.indexOf("://"); //$NON-NLS-1$
-		final char[] chars = id.substring(pos1 + 3).replace('/', '_')
-				.replace(':', '_').replace('-', '_').toCharArray();
-		final StringBuffer buffer = new StringBuffer();
-		for (int i = 0; i < chars.length; i++) {
-			if (chars[i] == '.') {
-				buffer.append('o');
-				continue;
-			}
-			if (chars[i] > 47 && chars[i] < 58) {
-				buffer.append(CHAR_TABLE[chars[i] - 48]);
-				continue;
-			}
-			if (chars[i] == '#') {
-				continue;
-			}
-			buffer.append(chars[i]);
-		}
-		return buffer.toString();
-	}
-
 	String checkRewrite(final String clazzName) {
 		if (smartProxyClassNameDashed == null) {
 			return clazzName;
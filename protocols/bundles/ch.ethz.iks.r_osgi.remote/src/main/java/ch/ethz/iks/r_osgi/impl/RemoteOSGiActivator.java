@@ -105,6 +105,17 @@ public final class RemoteOSGiActivator implements BundleActivator {
 					new TCPChannelFactory(), properties);
 			// TODO: add default transport supported intents
 		}
+
+		// register the binary tcp channel
+		if ("true" //$NON-NLS-1$
+				.equals(context
+						.getProperty(RemoteOSGiServiceImpl.REGISTER_BINARY_TCP_CHANNEL))) {
+			final Dictionary properties = new Hashtable();
+			properties.put(NetworkChannelFactory.PROTOCOL_PROPERTY,
+					FramedTCPChannelFactory.PROTOCOL);
+			context.registerService(NetworkChannelFactory.class.getName(),
+					new FramedTCPChannelFactory(), properties);
+		}
 	}
 
 	/**
@@ -150,9 +150,16 @@ final class RemoteOSGiServiceImpl implements RemoteOSGiService, Remoting {
 	static final String REGISTER_DEFAULT_TCP_CHANNEL = "ch.ethz.iks.r_osgi.registerDefaultChannel"; //$NON-NLS-1$
 
 	/**
-	 * register the default tcp channel? If not set to "false", the channel gets
+	 * register the binary tcp channel? Only if set to "true", the channel gets
 	 * registered.
 	 */
+	static final String REGISTER_BINARY_TCP_CHANNEL = "ch.ethz.iks.r_osgi.registerBinaryChannel"; //$NON-NLS-1$
+
+	/**
+	 * the maximum number of messages of an endpoint processed at the same
+	 * time. The messages of all endpoints are processed by the shared worker
+	 * threads, see {@link WorkQueue}.
+	 */
 	static final String THREADS_PER_ENDPOINT = "ch.ethz.iks.r_osgi.threadsPerEndpoint"; //$NON-NLS-1$
 
 	/**
@@ -193,7 +200,7 @@ final class RemoteOSGiServiceImpl implements RemoteOSGiService, Remoting {
 	private static final int BUFFER_SIZE = 2048;
 
 	/**
-	 * how many worker threads per endpoint?
+	 * how many messages per endpoint are processed at the same time?
 	 */
 	static final int MAX_THREADS_PER_ENDPOINT = Integer.getInteger(
 			THREADS_PER_ENDPOINT, 2).intValue();
@@ -993,6 +1000,16 @@ final class RemoteOSGiServiceImpl implements RemoteOSGiService, Remoting {
 		serviceDiscoveryHandlerTracker.close();
 		remoteServiceListenerTracker.close();
 		networkChannelFactoryTracker.close();
+		if (DEBUG) {
+			log.log(LogService.LOG_DEBUG, "WORKERS: completed=" //$NON-NLS-1$
+					+ WorkQueue.getTotalCompletedCount() + ", queued=" //$NON-NLS-1$
+					+ WorkQueue.getTotalDepth() + ", avgLatency=" //$NON-NLS-1$
+					+ WorkQueue.getTotalAverageLatency() / 1000
+					+ "us, maxLatency=" //$NON-NLS-1$
+					+ WorkQueue.getTotalMaxLatency() / 1000 + "us"); //$NON-NLS-1$
+			log.log(LogService.LOG_DEBUG, "PROXIES: " + ProxyGenerator.CACHE); //$NON-NLS-1$
+		}
+		WorkQueue.shutdown();
 	}
 
 	/**
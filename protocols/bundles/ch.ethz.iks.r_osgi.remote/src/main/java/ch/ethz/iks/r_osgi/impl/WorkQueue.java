@@ -0,0 +1,379 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package ch.ethz.iks.r_osgi.impl;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.osgi.service.log.LogService;
+
+/**
+ * Queue of tasks of a channel endpoint, run on the executor shared by all
+ * endpoints. At most <code>concurrency</code> tasks of the queue run at the
+ * same time and tasks are started in the order they were added, so a queue
+ * with a concurrency of one runs its tasks strictly in order. In addition, a
+ * task added as ordered does not start before the ordered task added before
+ * it has completed.
+ * <p>
+ * The shared executor is selected with the system property
+ * <code>ch.ethz.iks.r_osgi.workers</code>:
+ * <ul>
+ * <li><code>pool</code> (default): a pool of daemon threads that are created
+ * as needed and exit when idle. Tasks may block, e.g. in a remote call, so the
+ * pool is not bounded; the concurrency of the queues bounds the threads used
+ * by an endpoint.</li>
+ * <li><code>virtual</code>: a virtual thread per task. Falls back to
+ * <code>pool</code> if virtual threads are not available in the running VM.</li>
+ * </ul>
+ * </p>
+ */
+public final class WorkQueue {
+
+	/**
+	 * the property that selects the shared executor.
+	 */
+	static final String WORKERS_PROPERTY = "ch.ethz.iks.r_osgi.workers"; //$NON-NLS-1$
+
+	static final String POOL = "pool"; //$NON-NLS-1$
+
+	static final String VIRTUAL = "virtual"; //$NON-NLS-1$
+
+	/**
+	 * the number of tasks a queue runs before it yields its thread to the
+	 * queues of other endpoints.
+	 */
+	private static final int BATCH_SIZE = 32;
+
+	/**
+	 * the shared executor.
+	 */
+	private static ExecutorService executor;
+
+	// metrics of all queues
+	private static final AtomicInteger totalDepth = new AtomicInteger();
+	private static final AtomicLong totalCompleted = new AtomicLong();
+	private static final AtomicLong totalLatency = new AtomicLong();
+	private static final AtomicLong totalMaxLatency = new AtomicLong();
+
+	/**
+	 * the name of the queue.
+	 */
+	private final String name;
+
+	/**
+	 * the maximum number of tasks running at the same time.
+	 */
+	private final int concurrency;
+
+	/**
+	 * the queued tasks. Added without locking, taken holding the lock of the
+	 * queue.
+	 */
+	private final ConcurrentLinkedQueue tasks = new ConcurrentLinkedQueue();
+
+	/**
+	 * whether an ordered task is running. Guarded by <code>tasks</code>.
+	 */
+	private boolean orderedRunning;
+
+	/**
+	 * the number of queued tasks.
+	 */
+	private final AtomicInteger depth = new AtomicInteger();
+
+	/**
+	 * the number of drainers running on the shared executor.
+	 */
+	private final AtomicInteger active = new AtomicInteger();
+
+	// metrics of this queue
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong latency = new AtomicLong();
+	private final AtomicLong maxLatency = new AtomicLong();
+
+	/**
+	 * create a new queue.
+	 *
+	 * @param name
+	 *            the name of the queue.
+	 * @param concurrency
+	 *            the maximum number of tasks running at the same time.
+	 */
+	public WorkQueue(final String name, final int concurrency) {
+		this.name = name;
+		this.concurrency = Math.max(1, concurrency);
+	}
+
+	/**
+	 * add a task to the queue.
+	 *
+	 * @param r
+	 *            the task.
+	 */
+	public void execute(final Runnable r) {
+		execute(r, false);
+	}
+
+	/**
+	 * add a task to the queue.
+	 *
+	 * @param r
+	 *            the task.
+	 * @param ordered
+	 *            if true, the task starts after the ordered tasks added before
+	 *            it have completed.
+	 */
+	public void execute(final Runnable r, final boolean ordered) {
+		tasks.offer(new Task(r, ordered));
+		depth.incrementAndGet();
+		totalDepth.incrementAndGet();
+		schedule();
+	}
+
+	/**
+	 * start a drainer on the shared executor, if the queue has tasks and less
+	 * than <code>concurrency</code> drainers.
+	 */
+	private void schedule() {
+		while (!tasks.isEmpty()) {
+			final int a = active.get();
+			if (a >= concurrency) {
+				return;
+			}
+			if (active.compareAndSet(a, a + 1)) {
+				submit(new Drainer());
+				return;
+			}
+		}
+	}
+
+	private void submit(final Drainer drainer) {
+		try {
+			getExecutor().execute(drainer);
+		} catch (final RuntimeException e) {
+			// the executor has been shut down
+			active.decrementAndGet();
+			if (RemoteOSGiServiceImpl.log != null) {
+				RemoteOSGiServiceImpl.log.log(LogService.LOG_WARNING,
+						"Could not run tasks of " + name, e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * @return the number of queued tasks.
+	 */
+	public int getDepth() {
+		return depth.get();
+	}
+
+	/**
+	 * @return the number of tasks run.
+	 */
+	public long getCompletedCount() {
+		return completed.get();
+	}
+
+	/**
+	 * @return the average time tasks waited in the queue, in nanoseconds.
+	 */
+	public long getAverageLatency() {
+		final long c = completed.get();
+		return c == 0 ? 0 : latency.get() / c;
+	}
+
+	/**
+	 * @return the longest time a task waited in the queue, in nanoseconds.
+	 */
+	public long getMaxLatency() {
+		return maxLatency.get();
+	}
+
+	/**
+	 * @return the number of queued tasks of all queues.
+	 */
+	static int getTotalDepth() {
+		return totalDepth.get();
+	}
+
+	/**
+	 * @return the number of tasks run by all queues.
+	 */
+	static long getTotalCompletedCount() {
+		return totalCompleted.get();
+	}
+
+	/**
+	 * @return the average time tasks of all queues waited, in nanoseconds.
+	 */
+	static long getTotalAverageLatency() {
+		final long c = totalCompleted.get();
+		return c == 0 ? 0 : totalLatency.get() / c;
+	}
+
+	/**
+	 * @return the longest time a task of any queue waited, in nanoseconds.
+	 */
+	static long getTotalMaxLatency() {
+		return totalMaxLatency.get();
+	}
+
+	/**
+	 * get the shared executor, create it if necessary.
+	 *
+	 * @return the executor.
+	 */
+	static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			if (VIRTUAL.equalsIgnoreCase(System.getProperty(WORKERS_PROPERTY,
+					POOL))) {
+				try {
+					executor = (ExecutorService) Executors.class.getMethod(
+							"newVirtualThreadPerTaskExecutor", new Class[0]) //$NON-NLS-1$
+							.invoke(null, new Object[0]);
+				} catch (final Exception e) {
+					if (RemoteOSGiServiceImpl.log != null) {
+						RemoteOSGiServiceImpl.log.log(LogService.LOG_WARNING,
+								"Virtual threads not available, using thread pool"); //$NON-NLS-1$
+					}
+				}
+			}
+			if (executor == null) {
+				// threads exit when idle
+				executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60,
+						TimeUnit.SECONDS, new SynchronousQueue(),
+						new ThreadFactory() {
+							private final AtomicInteger count = new AtomicInteger();
+
+							public Thread newThread(final Runnable r) {
+								final Thread t = new Thread(r,
+										"r-OSGi ChannelWorkerThread" //$NON-NLS-1$
+												+ count.incrementAndGet());
+								t.setDaemon(true);
+								return t;
+							}
+						});
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * shut down the shared executor, if it has been created. Tasks already
+	 * queued are still run.
+	 */
+	static synchronized void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	private static void max(final AtomicLong max, final long value) {
+		long m = max.get();
+		while (value > m && !max.compareAndSet(m, value)) {
+			m = max.get();
+		}
+	}
+
+	public String toString() {
+		return "WorkQueue[" + name + ";depth=" + getDepth() //$NON-NLS-1$ //$NON-NLS-2$
+				+ ";completed=" + getCompletedCount() //$NON-NLS-1$
+				+ ";avgLatency=" + getAverageLatency() / 1000 //$NON-NLS-1$
+				+ "us;maxLatency=" + getMaxLatency() / 1000 + "us]"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * a queued task.
+	 */
+	private static final class Task {
+
+		final Runnable runnable;
+
+		final boolean ordered;
+
+		final long queued = System.nanoTime();
+
+		Task(final Runnable runnable, final boolean ordered) {
+			this.runnable = runnable;
+			this.ordered = ordered;
+		}
+	}
+
+	/**
+	 * runs the tasks of the queue on a thread of the shared executor.
+	 */
+	private final class Drainer implements Runnable {
+
+		public void run() {
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				final Task task;
+				synchronized (tasks) {
+					task = (Task) tasks.peek();
+					if (task != null && task.ordered && orderedRunning) {
+						// started again when the ordered task completes
+						active.decrementAndGet();
+						return;
+					}
+					if (task != null) {
+						tasks.poll();
+						if (task.ordered) {
+							orderedRunning = true;
+						}
+					}
+				}
+				if (task == null) {
+					active.decrementAndGet();
+					// a task might have been added after the poll
+					schedule();
+					return;
+				}
+				depth.decrementAndGet();
+				totalDepth.decrementAndGet();
+				final long waited = System.nanoTime() - task.queued;
+				latency.addAndGet(waited);
+				totalLatency.addAndGet(waited);
+				max(maxLatency, waited);
+				max(totalMaxLatency, waited);
+				try {
+					task.runnable.run();
+				} catch (final Throwable t) {
+					if (RemoteOSGiServiceImpl.log != null) {
+						RemoteOSGiServiceImpl.log.log(LogService.LOG_ERROR,
+								"Error in task of " + name, t); //$NON-NLS-1$
+					}
+				} finally {
+					completed.incrementAndGet();
+					totalCompleted.incrementAndGet();
+					if (task.ordered) {
+						synchronized (tasks) {
+							orderedRunning = false;
+						}
+						// the next ordered task might be waiting
+						schedule();
+					}
+				}
+			}
+			// let the queues of other endpoints run
+			submit(this);
+		}
+	}
+
+}
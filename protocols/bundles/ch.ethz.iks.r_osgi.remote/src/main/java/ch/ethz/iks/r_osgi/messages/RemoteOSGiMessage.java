@@ -194,6 +194,28 @@ public abstract class RemoteOSGiMessage {
 		input.readByte(); // version, currently unused
 		final short funcID = input.readByte();
 		final int xid = input.readInt();
+		return parse(funcID, xid, input);
+	}
+
+	/**
+	 * constructs the corresponding subtype of RemoteOSGiMessage from the body
+	 * of a network packet. Used by transports that transfer the header in
+	 * their own framing.
+	 * 
+	 * @param funcID
+	 *            the function ID of the message.
+	 * @param xid
+	 *            the transaction ID of the message.
+	 * @param input
+	 *            the ObjectInputStream providing the body of the message.
+	 * @return the RemoteOSGiMessage.
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 * @since 1.1
+	 */
+	public static RemoteOSGiMessage parse(final short funcID, final int xid,
+			final ObjectInputStream input) throws IOException,
+			ClassNotFoundException {
 		RemoteOSGiMessage msg;
 		switch (funcID) {
 		case LEASE:
@@ -263,6 +285,22 @@ public abstract class RemoteOSGiMessage {
 		}
 	}
 
+	/**
+	 * write only the body of the RemoteOSGiMessage to an output stream. Used by
+	 * transports that transfer the header in their own framing.
+	 * 
+	 * @param out
+	 *            the ObjectOutputStream.
+	 * @throws IOException
+	 *             in case of IO failures.
+	 * @since 1.1
+	 */
+	public final void sendBody(final ObjectOutputStream out)
+			throws IOException {
+		writeBody(out);
+		out.flush();
+	}
+
 	/**
 	 * write the body of a RemoteOSGiMessage.
 	 * 
@@ -62,6 +62,28 @@ public final class StreamRequestMessage extends RemoteOSGiMessage {
 	 */
 	public static final byte WRITE_ARRAY = 3;
 
+	/**
+	 * operation identifier for opening a read-ahead window on a stream. The
+	 * serving peer pushes the data of the stream as results of this request
+	 * until the initial credit of lenOrVal bytes is used up, and continues
+	 * when it is granted more credit.
+	 */
+	public static final byte READ_WINDOW = 4;
+
+	/**
+	 * operation identifier for granting lenOrVal bytes more credit to the
+	 * read-ahead window of a stream. A negative value closes the window. There
+	 * is no result for this operation.
+	 */
+	public static final byte CREDIT = 5;
+
+	/**
+	 * operation identifier for a write operation writing more than one byte at
+	 * once that is not waited for by the writer. Windowed writes to a stream
+	 * are performed in the order they were sent.
+	 */
+	public static final byte WRITE_ARRAY_WINDOWED = 6;
+
 	/**
 	 * stream ID of the target stream.
 	 */
@@ -123,10 +145,13 @@ public final class StreamRequestMessage extends RemoteOSGiMessage {
 			break;
 		case READ_ARRAY:
 		case WRITE:
+		case READ_WINDOW:
+		case CREDIT:
 			lenOrVal = input.readInt();
 			b = null;
 			break;
 		case WRITE_ARRAY:
+		case WRITE_ARRAY_WINDOWED:
 			lenOrVal = input.readInt();
 			b = new byte[lenOrVal];
 			int rem = lenOrVal;
@@ -158,7 +183,7 @@ public final class StreamRequestMessage extends RemoteOSGiMessage {
 		out.writeByte(op);
 		if (op != READ) {
 			out.writeInt(lenOrVal);
-			if (op == WRITE_ARRAY) {
+			if (op == WRITE_ARRAY || op == WRITE_ARRAY_WINDOWED) {
 				out.write(b);
 			}
 		}
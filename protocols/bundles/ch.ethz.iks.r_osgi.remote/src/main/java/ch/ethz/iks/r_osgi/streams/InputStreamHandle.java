@@ -48,6 +48,13 @@ public class InputStreamHandle implements Serializable {
 	 */
 	private final short streamID;
 
+	/**
+	 * the size of the read-ahead window the serving peer supports for this
+	 * stream, in bytes. Zero if the stream can only be read one request at a
+	 * time, which is also the value of handles sent by older peers.
+	 */
+	private final int windowSize;
+
 	/**
 	 * Create a new stream handle.
 	 * 
@@ -55,7 +62,20 @@ public class InputStreamHandle implements Serializable {
 	 *            the stream id.
 	 */
 	public InputStreamHandle(final short streamID) {
+		this(streamID, 0);
+	}
+
+	/**
+	 * Create a new stream handle.
+	 * 
+	 * @param streamID
+	 *            the stream id.
+	 * @param windowSize
+	 *            the size of the supported read-ahead window, or zero.
+	 */
+	public InputStreamHandle(final short streamID, final int windowSize) {
 		this.streamID = streamID;
+		this.windowSize = windowSize;
 	}
 
 	/**
@@ -67,4 +87,13 @@ public class InputStreamHandle implements Serializable {
 		return streamID;
 	}
 
+	/**
+	 * Get the size of the read-ahead window the serving peer supports.
+	 * 
+	 * @return the window size in bytes, or zero.
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
 }
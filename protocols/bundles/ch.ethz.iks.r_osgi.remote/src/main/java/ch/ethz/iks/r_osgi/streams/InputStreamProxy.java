@@ -30,11 +30,20 @@ package ch.ethz.iks.r_osgi.streams;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.LinkedList;
 
 import ch.ethz.iks.r_osgi.impl.ChannelEndpointImpl;
+import ch.ethz.iks.r_osgi.messages.StreamResultMessage;
 
 /**
  * Proxy object for input streams.
+ * <p>
+ * If both peers support it, the stream is read through a read-ahead window:
+ * the serving peer pushes the data of the stream without waiting for a request
+ * per read, as long as the data pushed but not yet read by this proxy does not
+ * exceed the window size. Otherwise every read is a request to the serving
+ * peer.
+ * </p>
  * 
  * @author Michael Duller, ETH Zurich
  */
@@ -50,6 +59,44 @@ public class InputStreamProxy extends InputStream {
 	 */
 	private final ChannelEndpointImpl endpoint;
 
+	/**
+	 * the size of the read-ahead window, zero if the stream is read one
+	 * request at a time.
+	 */
+	private final int windowSize;
+
+	/**
+	 * the XID of the request that opened the read-ahead window, zero if the
+	 * window has not been opened yet.
+	 */
+	private int windowXID;
+
+	/**
+	 * the chunks of data pushed by the serving peer that have not been read
+	 * completely yet.
+	 */
+	private final LinkedList chunks = new LinkedList();
+
+	/**
+	 * the offset of the unread data in the first chunk.
+	 */
+	private int chunkOffset;
+
+	/**
+	 * the number of bytes read since credit has last been granted.
+	 */
+	private int consumed;
+
+	/**
+	 * has the end of the stream been pushed?
+	 */
+	private boolean eof;
+
+	/**
+	 * the exception pushed by the serving peer.
+	 */
+	private IOException exception;
+
 	/**
 	 * Create a new input stream proxy.
 	 * 
@@ -60,8 +107,24 @@ public class InputStreamProxy extends InputStream {
 	 */
 	public InputStreamProxy(final short streamID,
 			final ChannelEndpointImpl endpoint) {
+		this(streamID, endpoint, 0);
+	}
+
+	/**
+	 * Create a new input stream proxy.
+	 * 
+	 * @param streamID
+	 *            the stream id.
+	 * @param endpoint
+	 *            the channel endpoint.
+	 * @param windowSize
+	 *            the size of the read-ahead window, or zero.
+	 */
+	public InputStreamProxy(final short streamID,
+			final ChannelEndpointImpl endpoint, final int windowSize) {
 		this.streamID = streamID;
 		this.endpoint = endpoint;
+		this.windowSize = windowSize;
 	}
 
 	/**
@@ -70,7 +133,11 @@ public class InputStreamProxy extends InputStream {
 	 * @see java.io.InputStream#read()
 	 */
 	public int read() throws IOException {
-		return endpoint.readStream(streamID);
+		if (windowSize <= 0) {
+			return endpoint.readStream(streamID);
+		}
+		final byte[] b = new byte[1];
+		return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
 	}
 
 	/**
@@ -80,7 +147,123 @@ public class InputStreamProxy extends InputStream {
 	 */
 	public int read(final byte[] b, final int off, final int len)
 			throws IOException {
-		return endpoint.readStream(streamID, b, off, len);
+		if (windowSize <= 0) {
+			return endpoint.readStream(streamID, b, off, len);
+		}
+		// handle special cases as defined in InputStream
+		if (b == null) {
+			throw new NullPointerException();
+		}
+		if ((off < 0) || (len < 0) || (len + off > b.length)) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+
+		int read = 0;
+		int credit = 0;
+		synchronized (this) {
+			if (windowXID == 0) {
+				windowXID = endpoint.openReadWindow(this, streamID, windowSize);
+			}
+			try {
+				while (chunks.isEmpty() && !eof && exception == null) {
+					wait(1000);
+					if (chunks.isEmpty() && !endpoint.isConnected()) {
+						throw new IOException("Channel is closed"); //$NON-NLS-1$
+					}
+				}
+			} catch (final InterruptedException ie) {
+				throw new IOException("Interrupted while reading stream " //$NON-NLS-1$
+						+ streamID);
+			}
+			if (chunks.isEmpty()) {
+				if (exception != null) {
+					throw exception;
+				}
+				return -1;
+			}
+			while (read < len && !chunks.isEmpty()) {
+				final byte[] chunk = (byte[]) chunks.getFirst();
+				final int n = Math.min(len - read, chunk.length - chunkOffset);
+				System.arraycopy(chunk, chunkOffset, b, off + read, n);
+				read += n;
+				chunkOffset += n;
+				if (chunkOffset == chunk.length) {
+					chunks.removeFirst();
+					chunkOffset = 0;
+				}
+			}
+			consumed += read;
+			// grant credit in batches of half a window
+			if (!eof && exception == null && consumed >= windowSize / 2) {
+				credit = consumed;
+				consumed = 0;
+			}
+		}
+		if (credit > 0) {
+			endpoint.sendStreamCredit(streamID, credit);
+		}
+		return read;
+	}
+
+	/**
+	 * Get the number of bytes that can be read without blocking.
+	 * 
+	 * @see java.io.InputStream#available()
+	 */
+	public synchronized int available() throws IOException {
+		int available = -chunkOffset;
+		for (int i = 0; i < chunks.size(); i++) {
+			available += ((byte[]) chunks.get(i)).length;
+		}
+		return Math.max(available, 0);
+	}
+
+	/**
+	 * Close the proxy. If the read-ahead window is open, the serving peer stops
+	 * pushing data.
+	 * 
+	 * @see java.io.InputStream#close()
+	 */
+	public void close() throws IOException {
+		final int xid;
+		synchronized (this) {
+			xid = (eof || exception != null) ? 0 : windowXID;
+			eof = true;
+			chunks.clear();
+		}
+		if (xid != 0) {
+			endpoint.closeReadWindow(xid, streamID);
+		}
+	}
+
+	/**
+	 * Called by the channel endpoint with the data pushed for the read-ahead
+	 * window.
+	 * 
+	 * @param msg
+	 *            the stream result message, or <code>null</code> if the
+	 *            channel has been closed.
+	 */
+	public synchronized void windowResult(final StreamResultMessage msg) {
+		if (msg == null) {
+			exception = new IOException("Channel is closed"); //$NON-NLS-1$
+		} else if (msg.causedException()) {
+			exception = msg.getException();
+		} else if (msg.getLen() < 0) {
+			eof = true;
+		} else if (msg.getLen() > 0 && !eof) {
+			byte[] data = msg.getData();
+			if (data.length != msg.getLen()) {
+				final byte[] b = new byte[msg.getLen()];
+				System.arraycopy(data, 0, b, 0, b.length);
+				data = b;
+			}
+			chunks.add(data);
+		}
+		notifyAll();
 	}
 
 }
@@ -47,6 +47,14 @@ public final class OutputStreamHandle implements Serializable {
 	 */
 	private final short streamID;
 
+	/**
+	 * the number of written bytes the serving peer accepts without
+	 * acknowledging them one by one. Zero if every write has to be
+	 * acknowledged before the next one, which is also the value of handles
+	 * sent by older peers.
+	 */
+	private final int windowSize;
+
 	/**
 	 * create a new output stream handle.
 	 * 
@@ -54,7 +62,20 @@ public final class OutputStreamHandle implements Serializable {
 	 *            the stream ID.
 	 */
 	public OutputStreamHandle(final short streamID) {
+		this(streamID, 0);
+	}
+
+	/**
+	 * create a new output stream handle.
+	 * 
+	 * @param streamID
+	 *            the stream ID.
+	 * @param windowSize
+	 *            the size of the supported write window, or zero.
+	 */
+	public OutputStreamHandle(final short streamID, final int windowSize) {
 		this.streamID = streamID;
+		this.windowSize = windowSize;
 	}
 
 	/**
@@ -66,4 +87,13 @@ public final class OutputStreamHandle implements Serializable {
 		return streamID;
 	}
 
+	/**
+	 * get the size of the write window the serving peer supports.
+	 * 
+	 * @return the window size in bytes, or zero.
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
 }
@@ -32,9 +32,18 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 import ch.ethz.iks.r_osgi.impl.ChannelEndpointImpl;
+import ch.ethz.iks.r_osgi.messages.StreamResultMessage;
 
 /**
- * Output stream proxy.
+ * Proxy object for output streams.
+ * <p>
+ * If both peers support it, writes are not waited for one by one: the proxy
+ * keeps sending as long as the number of bytes written but not yet
+ * acknowledged by the serving peer does not exceed the window size. Failed
+ * writes are reported by the next write, <code>flush</code> or
+ * <code>close</code>. Otherwise every write waits for the serving peer to
+ * perform it.
+ * </p>
  * 
  * @author Michael Duller, ETH Zurich.
  */
@@ -50,6 +59,26 @@ public class OutputStreamProxy extends OutputStream {
 	 */
 	private final ChannelEndpointImpl endpoint;
 
+	/**
+	 * the size of the write window, zero if every write is waited for.
+	 */
+	private final int windowSize;
+
+	/**
+	 * the number of bytes written but not yet acknowledged.
+	 */
+	private int outstanding;
+
+	/**
+	 * the exception of a failed windowed write.
+	 */
+	private IOException exception;
+
+	/**
+	 * serializes windowed writes so that they are sent in order.
+	 */
+	private final Object sendLock = new Object();
+
 	/**
 	 * create a new output stream proxy.
 	 * 
@@ -60,8 +89,24 @@ public class OutputStreamProxy extends OutputStream {
 	 */
 	public OutputStreamProxy(final short streamID,
 			final ChannelEndpointImpl endpoint) {
+		this(streamID, endpoint, 0);
+	}
+
+	/**
+	 * create a new output stream proxy.
+	 * 
+	 * @param streamID
+	 *            the stream ID.
+	 * @param endpoint
+	 *            the endpoint.
+	 * @param windowSize
+	 *            the size of the write window, or zero.
+	 */
+	public OutputStreamProxy(final short streamID,
+			final ChannelEndpointImpl endpoint, final int windowSize) {
 		this.streamID = streamID;
 		this.endpoint = endpoint;
+		this.windowSize = windowSize;
 	}
 
 	/**
@@ -73,7 +118,11 @@ public class OutputStreamProxy extends OutputStream {
 	 *             in case of IO failures.
 	 */
 	public void write(final int b) throws IOException {
-		endpoint.writeStream(streamID, b);
+		if (windowSize <= 0) {
+			endpoint.writeStream(streamID, b);
+		} else {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
 	}
 
 	/**
@@ -88,7 +137,96 @@ public class OutputStreamProxy extends OutputStream {
 	 */
 	public void write(final byte[] b, final int off, final int len)
 			throws IOException {
-		endpoint.writeStream(streamID, b, off, len);
+		if (windowSize <= 0) {
+			endpoint.writeStream(streamID, b, off, len);
+			return;
+		}
+		// handle special cases as defined in OutputStream
+		if (b == null) {
+			throw new NullPointerException();
+		}
+		if ((off < 0) || (len < 0) || (len + off > b.length)) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return;
+		}
+		synchronized (sendLock) {
+			synchronized (this) {
+				// a single write larger than the window is sent on its own
+				waitForOutstanding(Math.max(windowSize - len, 0));
+				outstanding += len;
+			}
+			endpoint.writeStreamWindowed(this, streamID, b, off, len);
+		}
+	}
+
+	/**
+	 * wait until all windowed writes have been performed by the serving peer.
+	 * 
+	 * @throws IOException
+	 *             if a windowed write failed.
+	 */
+	public void flush() throws IOException {
+		if (windowSize > 0) {
+			synchronized (this) {
+				waitForOutstanding(0);
+			}
+		}
+	}
+
+	/**
+	 * wait until all windowed writes have been performed by the serving peer.
+	 * The stream on the serving peer is not closed.
+	 * 
+	 * @throws IOException
+	 *             if a windowed write failed.
+	 */
+	public void close() throws IOException {
+		flush();
+	}
+
+	/**
+	 * wait until at most the given number of bytes are outstanding. Must be
+	 * called holding the lock of this proxy.
+	 */
+	private void waitForOutstanding(final int max) throws IOException {
+		try {
+			while (outstanding > max && exception == null) {
+				wait(1000);
+				if (outstanding > max && !endpoint.isConnected()) {
+					throw new IOException("Channel is closed"); //$NON-NLS-1$
+				}
+			}
+		} catch (final InterruptedException ie) {
+			throw new IOException("Interrupted while writing stream " //$NON-NLS-1$
+					+ streamID);
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	/**
+	 * Called by the channel endpoint with the result of a windowed write.
+	 * 
+	 * @param msg
+	 *            the stream result message, or <code>null</code> if the
+	 *            channel has been closed.
+	 * @param len
+	 *            the number of bytes of the write.
+	 */
+	public synchronized void windowResult(final StreamResultMessage msg,
+			final int len) {
+		outstanding -= len;
+		if (exception == null) {
+			if (msg == null) {
+				exception = new IOException("Channel is closed"); //$NON-NLS-1$
+			} else if (msg.causedException()) {
+				exception = msg.getException();
+			}
+		}
+		notifyAll();
 	}
 
 }
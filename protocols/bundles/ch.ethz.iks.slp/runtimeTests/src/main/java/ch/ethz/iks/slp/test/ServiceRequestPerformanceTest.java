@@ -0,0 +1,107 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *     Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package ch.ethz.iks.slp.test;
+
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+import ch.ethz.iks.slp.ServiceLocationEnumeration;
+import ch.ethz.iks.slp.ServiceType;
+import ch.ethz.iks.slp.ServiceURL;
+
+/**
+ * Measures the latency of service and attribute requests to the daemon
+ * against the number of registered services. Only one of the registered
+ * services has the requested type, so the latency should not grow with the
+ * number of registrations. Not part of the default test run, it is run if
+ * <code>net.slp.tests.performance</code> is set to <code>true</code>.
+ */
+public class ServiceRequestPerformanceTest extends TestCase {
+
+	private static final String HOST = System.getProperty("net.slp.tests.host", "gantenbein");
+
+	private static final int[] REGISTRATIONS = { 10, 1000, 5000 };
+
+	private static final int REQUESTS = 50;
+
+	private final List registered = new ArrayList();
+
+	private ServiceURL target;
+
+	public void setUp() throws Exception {
+		target = new ServiceURL("service:perftest:target://" + HOST + ":1", 10800);
+		Dictionary properties = new Hashtable();
+		properties.put("index", "target");
+		TestActivator.advertiser.register(target, properties);
+	}
+
+	public void tearDown() throws Exception {
+		TestActivator.advertiser.deregister(target);
+		for (Iterator iter = registered.iterator(); iter.hasNext();) {
+			TestActivator.advertiser.deregister((ServiceURL) iter.next());
+		}
+		registered.clear();
+	}
+
+	public void testRequestLatency() throws Exception {
+		final ServiceType type = new ServiceType("service:perftest:target");
+		final ServiceType abstractType = new ServiceType("service:perftest");
+		for (int r = 0; r < REGISTRATIONS.length; r++) {
+			// other services, of other concrete types of the same abstract type
+			// and of other abstract types
+			while (registered.size() < REGISTRATIONS[r]) {
+				final int i = registered.size();
+				final ServiceURL url = new ServiceURL((i % 2 == 0 ? "service:perftest:other" + i : "service:other" + i)
+						+ "://" + HOST + ":" + (i + 2), 10800);
+				Dictionary properties = new Hashtable();
+				properties.put("index", String.valueOf(i));
+				TestActivator.advertiser.register(url, properties);
+				registered.add(url);
+			}
+
+			final long srvStart = System.nanoTime();
+			for (int i = 0; i < REQUESTS; i++) {
+				assertEquals(1, count(TestActivator.locator.findServices(type, null, "(index=target)")));
+			}
+			final long srvLatency = (System.nanoTime() - srvStart) / REQUESTS;
+
+			final long attrStart = System.nanoTime();
+			for (int i = 0; i < REQUESTS; i++) {
+				assertEquals(1, count(TestActivator.locator.findAttributes(type, null, null)));
+			}
+			final long attrLatency = (System.nanoTime() - attrStart) / REQUESTS;
+
+			final long abstractStart = System.nanoTime();
+			for (int i = 0; i < REQUESTS; i++) {
+				assertEquals(1, count(TestActivator.locator.findServices(abstractType, null, "(index=target)")));
+			}
+			final long abstractLatency = (System.nanoTime() - abstractStart) / REQUESTS;
+
+			System.out.println("registrations=" + (REGISTRATIONS[r] + 1) + " SrvRqst=" + srvLatency / 1000
+					+ "us AttrRqst=" + attrLatency / 1000 + "us SrvRqst(abstract)=" + abstractLatency / 1000 + "us");
+		}
+	}
+
+	private static int count(ServiceLocationEnumeration e) throws Exception {
+		int count = 0;
+		while (e.hasMoreElements()) {
+			e.next();
+			count++;
+		}
+		return count;
+	}
+}
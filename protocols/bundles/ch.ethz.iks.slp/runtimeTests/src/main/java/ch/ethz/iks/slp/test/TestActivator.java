@@ -95,6 +95,10 @@ public class TestActivator implements BundleActivator {
 		// add the actual tests to the test suite
 		Collection collection = new ArrayList();
 		collection.add(SelfDiscoveryTest.class);
+		// the benchmark registers thousands of services, run it only on request
+		if (Boolean.getBoolean("net.slp.tests.performance")) {
+			collection.add(ServiceRequestPerformanceTest.class);
+		}
 		for (Iterator iterator = collection.iterator(); iterator.hasNext();) {
 			Class clazz = (Class) iterator.next();
 			// run all methods starting with "test*"
@@ -24,10 +24,8 @@ import java.net.Socket;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -52,11 +50,9 @@ public final class SLPDaemonImpl implements SLPDaemon {
 	private boolean running = true;
 
 	/**
-	 * Map of registered services:
-	 * 
-	 * String scope -> List of ServiceURLs services.
+	 * registered services, indexed by scope and service type.
 	 */
-	private Map registeredServices = new HashMap();
+	private final ServiceStore registeredServices = new ServiceStore();
 
 	/**
 	 * Sorted set for disposal of services which lifetimes have expired:
@@ -93,9 +89,7 @@ public final class SLPDaemonImpl implements SLPDaemon {
 		for (Iterator scopeIter = reg.scopeList.iterator(); scopeIter.hasNext();) {
 			String scope = (String) scopeIter.next();
 			scope = scope.toLowerCase();
-			synchronized (registeredServices) {
-				SLPUtils.addValue(registeredServices, scope, service);
-			}
+			registeredServices.add(scope, service);
 			if (reg.url.getLifetime() > ServiceURL.LIFETIME_PERMANENT) {
 				synchronized (serviceDisposalQueue) {
 					long next = System.currentTimeMillis()
@@ -175,10 +169,10 @@ public final class SLPDaemonImpl implements SLPDaemon {
 	private void deregisterService(final ServiceDeregistration dereg)
 			throws ServiceLocationException {
 
-		final String[] scopes = (String[]) registeredServices.keySet().toArray(
-				new String[registeredServices.size()]);
+		final String[] scopes = registeredServices.getScopes();
 		for (int i = 0; i < scopes.length; i++) {
-			final List tmp = (List) registeredServices.get(scopes[i]);
+			final List tmp = registeredServices.getServices(scopes[i],
+					dereg.url);
 			final Service[] services = (Service[]) tmp.toArray(new Service[tmp
 					.size()]);
 
@@ -213,10 +207,7 @@ public final class SLPDaemonImpl implements SLPDaemon {
 							}
 						}
 					}
-					synchronized (registeredServices) {
-						SLPUtils.removeValue(registeredServices, scopes[i],
-								services[j]);
-					}
+					registeredServices.remove(scopes[i], services[j]);
 					break;
 				}
 			}
@@ -253,21 +244,15 @@ public final class SLPDaemonImpl implements SLPDaemon {
 			List results = new ArrayList();
 			for (Iterator scopes = req.scopeList.iterator(); scopes.hasNext();) {
 				String scope = (String) scopes.next();
-				List services = (List) registeredServices.get(scope.toLowerCase());
-				if (services == null) {
-					continue;
-				}
+				// only the services of a matching type are candidates
+				List services = registeredServices.getServices(scope,
+						req.serviceType);
 
 				for (Iterator srvs = services.iterator(); srvs.hasNext();) {
 					Service service = (Service) srvs.next();
-					if (service.url.getServiceType().matches(req.serviceType)) {
-						if (req.predicate == null) {
-							results.add(service.url);
-							continue;
-						}
-						if (req.predicate.match(service.attributes)) {
-							results.add(service.url);
-						}
+					if (req.predicate == null
+							|| req.predicate.match(service.attributes)) {
+						results.add(service.url);
 					}
 				}
 			}
@@ -296,18 +281,22 @@ public final class SLPDaemonImpl implements SLPDaemon {
 			for (Iterator scopes = attreq.scopeList.iterator(); scopes
 					.hasNext();) {
 				String scope = (String) scopes.next();
-				List services = (List) registeredServices.get(scope.toLowerCase());
-				if (services == null) {
-					continue;
-				}
 				// the request can either be for a ServiceURL or a ServiceType
 				Object reqService;
 				boolean fullurl = false;
+				List services;
 				if (attreq.url.indexOf("//") == -1) {
 					reqService = new ServiceType(attreq.url);
+					services = registeredServices.getServices(scope,
+							(ServiceType) reqService);
 				} else {
 					fullurl = true;
 					reqService = new ServiceURL(attreq.url, 0);
+					services = registeredServices.getServices(scope,
+							(ServiceURL) reqService);
+				}
+				if (services.isEmpty()) {
+					continue;
 				}
 
 				// if spi is sent, the request must be for a full url and
@@ -342,14 +331,9 @@ public final class SLPDaemonImpl implements SLPDaemon {
 
 				// iterate over the registered services
 				String scope = (String) scopeIter.next();
-				List services = ((List) registeredServices
-						.get(scope.toLowerCase()));
-				if (services == null) {
-					continue;
-				}
-				for (Iterator iter = services.iterator(); iter.hasNext();) {
-					Service service = (Service) iter.next();
-					ServiceType type = service.url.getServiceType();
+				List types = registeredServices.getServiceTypes(scope);
+				for (Iterator iter = types.iterator(); iter.hasNext();) {
+					ServiceType type = (ServiceType) iter.next();
 					if (streq.namingAuthority.equals("*")
 							|| streq.namingAuthority.equals("")
 							|| type.getNamingAuthority().equals(
@@ -407,8 +391,8 @@ public final class SLPDaemonImpl implements SLPDaemon {
 		// so find all services within the scopes of the new DA:
 		for (Iterator iter = advert.scopeList.iterator(); iter.hasNext();) {
 			String scope = (String) iter.next();
-			List services = (List) registeredServices.get(scope.toLowerCase());
-			if (services != null) {
+			List services = registeredServices.getServices(scope);
+			if (!services.isEmpty()) {
 				for (Iterator serviceIter = services.iterator(); serviceIter
 						.hasNext();) {
 					// and try to register it with the new DA
@@ -0,0 +1,250 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package ch.ethz.iks.slp.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ch.ethz.iks.slp.ServiceType;
+import ch.ethz.iks.slp.ServiceURL;
+
+/**
+ * the services registered with the daemon, indexed by scope and within a
+ * scope by service type, so that requests only look at the services of the
+ * requested type. Reads do not lock, the service arrays of the index are
+ * replaced on every change.
+ */
+final class ServiceStore {
+
+	/**
+	 * String scope (lower case) -> Scope.
+	 */
+	private final Map scopes = new ConcurrentHashMap();
+
+	/**
+	 * the services of a scope.
+	 */
+	private static final class Scope {
+
+		/**
+		 * ServiceType type -> Service[] services of this type.
+		 */
+		final Map byType = new ConcurrentHashMap();
+
+		/**
+		 * String abstract type name -> Service[] services of a concrete type
+		 * of this abstract type.
+		 */
+		final Map byAbstractType = new ConcurrentHashMap();
+	}
+
+	/**
+	 * add a service to a scope, unless an equal service is already
+	 * registered in the scope.
+	 *
+	 * @param scope
+	 *            the scope.
+	 * @param service
+	 *            the service.
+	 */
+	synchronized void add(final String scope, final Service service) {
+		final String key = scope.toLowerCase();
+		Scope s = (Scope) scopes.get(key);
+		if (s == null) {
+			s = new Scope();
+			scopes.put(key, s);
+		}
+		final ServiceType type = service.url.getServiceType();
+		if (!add(s.byType, type, service)) {
+			return;
+		}
+		if (type.isAbstractType()) {
+			add(s.byAbstractType, type.getAbstractTypeName(), service);
+		}
+	}
+
+	/**
+	 * remove a service from a scope.
+	 *
+	 * @param scope
+	 *            the scope.
+	 * @param service
+	 *            the service.
+	 */
+	synchronized void remove(final String scope, final Service service) {
+		final String key = scope.toLowerCase();
+		final Scope s = (Scope) scopes.get(key);
+		if (s == null) {
+			return;
+		}
+		final ServiceType type = service.url.getServiceType();
+		remove(s.byType, type, service);
+		if (type.isAbstractType()) {
+			remove(s.byAbstractType, type.getAbstractTypeName(), service);
+		}
+		if (s.byType.isEmpty()) {
+			scopes.remove(key);
+		}
+	}
+
+	/**
+	 * get the scopes that have services.
+	 *
+	 * @return the scopes.
+	 */
+	String[] getScopes() {
+		return (String[]) scopes.keySet().toArray(new String[0]);
+	}
+
+	/**
+	 * get all services of a scope.
+	 *
+	 * @param scope
+	 *            the scope.
+	 * @return the services.
+	 */
+	List getServices(final String scope) {
+		final Scope s = (Scope) scopes.get(scope.toLowerCase());
+		if (s == null) {
+			return Collections.EMPTY_LIST;
+		}
+		final List result = new ArrayList();
+		for (Iterator iter = s.byType.values().iterator(); iter.hasNext();) {
+			result.addAll(Arrays.asList((Service[]) iter.next()));
+		}
+		return result;
+	}
+
+	/**
+	 * get the services of a scope whose service type matches a requested
+	 * type, as by <code>ServiceType.matches</code>: services of an equal type
+	 * and, if the requested type is the name of an abstract type, the services
+	 * of the concrete types of that abstract type.
+	 *
+	 * @param scope
+	 *            the scope.
+	 * @param type
+	 *            the requested type.
+	 * @return the services.
+	 */
+	List getServices(final String scope, final ServiceType type) {
+		final Scope s = (Scope) scopes.get(scope.toLowerCase());
+		if (s == null) {
+			return Collections.EMPTY_LIST;
+		}
+		final Service[] equal = (Service[]) s.byType.get(type);
+		final Service[] concrete = (Service[]) s.byAbstractType.get(type
+				.toString());
+		if (concrete == null) {
+			return equal == null ? Collections.EMPTY_LIST : Arrays
+					.asList(equal);
+		}
+		if (equal == null) {
+			return Arrays.asList(concrete);
+		}
+		final List result = new ArrayList(equal.length + concrete.length);
+		result.addAll(Arrays.asList(equal));
+		result.addAll(Arrays.asList(concrete));
+		return result;
+	}
+
+	/**
+	 * get the services of a scope with a service URL equal to the given one.
+	 *
+	 * @param scope
+	 *            the scope.
+	 * @param url
+	 *            the service URL.
+	 * @return the services.
+	 */
+	List getServices(final String scope, final ServiceURL url) {
+		final Scope s = (Scope) scopes.get(scope.toLowerCase());
+		if (s == null) {
+			return Collections.EMPTY_LIST;
+		}
+		final Service[] services = (Service[]) s.byType.get(url
+				.getServiceType());
+		if (services == null) {
+			return Collections.EMPTY_LIST;
+		}
+		final List result = new ArrayList(1);
+		for (int i = 0; i < services.length; i++) {
+			if (url.equals(services[i].url)) {
+				result.add(services[i]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * get the service types of the services of a scope.
+	 *
+	 * @param scope
+	 *            the scope.
+	 * @return the service types.
+	 */
+	List getServiceTypes(final String scope) {
+		final Scope s = (Scope) scopes.get(scope.toLowerCase());
+		if (s == null) {
+			return Collections.EMPTY_LIST;
+		}
+		return new ArrayList(s.byType.keySet());
+	}
+
+	private static boolean add(final Map index, final Object key,
+			final Service service) {
+		final Service[] services = (Service[]) index.get(key);
+		if (services == null) {
+			index.put(key, new Service[] { service });
+			return true;
+		}
+		for (int i = 0; i < services.length; i++) {
+			if (services[i].equals(service)) {
+				return false;
+			}
+		}
+		final Service[] newServices = new Service[services.length + 1];
+		System.arraycopy(services, 0, newServices, 0, services.length);
+		newServices[services.length] = service;
+		index.put(key, newServices);
+		return true;
+	}
+
+	private static void remove(final Map index, final Object key,
+			final Service service) {
+		final Service[] services = (Service[]) index.get(key);
+		if (services == null) {
+			return;
+		}
+		for (int i = 0; i < services.length; i++) {
+			if (services[i].equals(service)) {
+				if (services.length == 1) {
+					index.remove(key);
+				} else {
+					final Service[] newServices = new Service[services.length - 1];
+					System.arraycopy(services, 0, newServices, 0, i);
+					System.arraycopy(services, i + 1, newServices, i,
+							services.length - i - 1);
+					index.put(key, newServices);
+				}
+				return;
+			}
+		}
+	}
+
+}
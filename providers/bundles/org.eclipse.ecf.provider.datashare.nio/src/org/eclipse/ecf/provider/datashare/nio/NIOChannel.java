@@ -14,21 +14,23 @@ package org.eclipse.ecf.provider.datashare.nio;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.ServerSocket;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.Assert;
@@ -80,6 +82,34 @@ import org.eclipse.ecf.datashare.events.IChannelMessageEvent;
  */
 public abstract class NIOChannel implements IChannel {
 
+	/**
+	 * The initial size of a connection's read buffer.
+	 */
+	private static final int READ_BUFFER_SIZE = 8192;
+
+	/**
+	 * The maximum number of queued messages written to a socket with one
+	 * gathering write.
+	 */
+	private static final int MAX_GATHER = 64;
+
+	/**
+	 * The maximum length of a message received from a remote peer. A peer
+	 * announcing a larger message is disconnected, as would a peer sending that
+	 * much data that does not form a message.
+	 */
+	private static final int MAX_MESSAGE_SIZE = Integer.parseInt(System
+			.getProperty(
+					"org.eclipse.ecf.provider.datashare.nio.maxMessageSize", //$NON-NLS-1$
+					"67108864")); //$NON-NLS-1$
+
+	/**
+	 * The serialized form of an empty byte[]. Every message is sent as a
+	 * serialized byte[], that is, this header with the length of the array in
+	 * its last four bytes, followed by the contents of the array.
+	 */
+	private static final byte[] MESSAGE_HEADER = createMessageHeader();
+
 	private NIODatashareContainer datashareContainer;
 
 	/**
@@ -114,9 +144,29 @@ public abstract class NIOChannel implements IChannel {
 	private Map connectedSockets;
 
 	/**
-	 * A list of sockets that is waiting to handshake with remote peers.
+	 * A map of <code>SocketChannel</code>s to the <code>ID</code>s of the
+	 * peers they are connected with, the reverse of {@link #connectedSockets}.
+	 * Both maps are guarded by <code>connectedSockets</code>.
+	 */
+	private Map socketIds;
+
+	/**
+	 * The selector that the server socket and all sockets of this channel are
+	 * registered with.
 	 */
-	private List pendingSockets;
+	private Selector selector;
+
+	/**
+	 * A map of <code>SocketChannel</code>s to their <code>Connection</code>s.
+	 * Only used by the processing thread.
+	 */
+	private Map connections;
+
+	/**
+	 * A queue of connections that have been established with remote peers and
+	 * need to be registered with the selector.
+	 */
+	private LinkedList pendingConnections;
 
 	/**
 	 * A queue of messages that needs to be sent to remote clients.
@@ -186,8 +236,19 @@ public abstract class NIOChannel implements IChannel {
 
 		localPort = serverSocketChannel.socket().getLocalPort();
 
+		try {
+			selector = Selector.open();
+			serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			Util.closeChannel(serverSocketChannel);
+			throw new ECFException(new Status(IStatus.ERROR, Util.PLUGIN_ID,
+					"Could not open selector", e)); //$NON-NLS-1$
+		}
+
 		connectedSockets = new HashMap();
-		pendingSockets = new ArrayList();
+		socketIds = new HashMap();
+		connections = new HashMap();
+		pendingConnections = new LinkedList();
 		messages = new LinkedList();
 
 		processingThread = new Thread(new ProcessingRunnable(), getClass()
@@ -279,207 +340,415 @@ public abstract class NIOChannel implements IChannel {
 		return 0;
 	}
 
+	private static byte[] createMessageHeader() {
+		try {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			ObjectOutputStream oos = new ObjectOutputStream(baos);
+			oos.writeObject(new byte[0]);
+			oos.flush();
+			return baos.toByteArray();
+		} catch (IOException e) {
+			// not possible with a ByteArrayOutputStream
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the length of the serialized byte[] that starts at the given
+	 * offset of the data.
+	 * 
+	 * @param data
+	 *            the data read from a socket
+	 * @param offset
+	 *            the offset of the message
+	 * @param length
+	 *            the number of bytes read from the offset onwards
+	 * @return the length of the message including its header,
+	 *         <code>-1</code> if only a part of the message has been read
+	 *         so far, or <code>0</code> if the data does not start with a
+	 *         serialized byte[]
+	 * @throws IOException
+	 *             if the message is longer than {@link #MAX_MESSAGE_SIZE}
+	 */
+	private static int getMessageLength(byte[] data, int offset, int length)
+			throws IOException {
+		int lengthOffset = MESSAGE_HEADER.length - 4;
+		int prefix = Math.min(length, lengthOffset);
+		for (int i = 0; i < prefix; i++) {
+			if (data[offset + i] != MESSAGE_HEADER[i]) {
+				return 0;
+			}
+		}
+		if (length < MESSAGE_HEADER.length) {
+			return -1;
+		}
+		int dataLength = getDataLength(data, offset);
+		if (dataLength < 0) {
+			return 0;
+		}
+		if (dataLength > MAX_MESSAGE_SIZE) {
+			throw new IOException("Message of " + dataLength //$NON-NLS-1$
+					+ " bytes exceeds the maximum of " + MAX_MESSAGE_SIZE); //$NON-NLS-1$
+		}
+		int messageLength = MESSAGE_HEADER.length + dataLength;
+		return length < messageLength ? -1 : messageLength;
+	}
+
 	/**
-	 * Sends any pending messages we may have queued up.
+	 * Returns the length of the array of the serialized byte[] that starts at
+	 * the given offset of the data.
+	 */
+	private static int getDataLength(byte[] data, int offset) {
+		int i = offset + MESSAGE_HEADER.length - 4;
+		return ((data[i] & 0xff) << 24) | ((data[i + 1] & 0xff) << 16)
+				| ((data[i + 2] & 0xff) << 8) | (data[i + 3] & 0xff);
+	}
+
+	/**
+	 * Moves the messages for connected peers from the queue of pending
+	 * messages to the write queues of their connections and writes as much of
+	 * them as the sockets will accept.
 	 */
 	private void sendPendingMessages() {
-		Collection deadSockets = null;
-		Collection processedMessages = null;
+		Collection touched = null;
 
-		for (Iterator it = messages.iterator(); it.hasNext();) {
-			ChannelMessage message = (ChannelMessage) it.next();
-			ID id = message.getId();
-			SocketChannel channel = (SocketChannel) connectedSockets.get(id);
-			// check if we have a socket for the target of this message
-			if (channel != null) {
-				byte[] data = message.getData();
+		synchronized (messages) {
+			for (Iterator it = messages.iterator(); it.hasNext();) {
+				ChannelMessage message = (ChannelMessage) it.next();
+				Connection connection = getConnection(message.getId());
+				// check if we have a socket for the target of this message
+				if (connection != null) {
+					connection.writeQueue.add(ByteBuffer.wrap(message
+							.getData()));
+					if (touched == null) {
+						touched = new LinkedHashSet();
+					}
+					touched.add(connection);
+					it.remove();
+				}
+			}
+		}
 
+		if (touched != null) {
+			for (Iterator it = touched.iterator(); it.hasNext();) {
+				Connection connection = (Connection) it.next();
 				try {
-					// flush the data directly with regular IO, this method
-					// saves us the extra work of having to constantly flip and
-					// clear a ByteBuffer and in a way ensures the message is
-					// sent in one piece instead of chunks
-					channel.configureBlocking(true);
-					channel.socket().getOutputStream().write(data);
-					channel.socket().getOutputStream().flush();
-					// turn off blocking
-					channel.configureBlocking(false);
+					write(connection);
 				} catch (IOException e) {
 					log(new Status(IStatus.ERROR, Util.PLUGIN_ID,
 							"Error occurred while sending message", e)); //$NON-NLS-1$
-					if (deadSockets == null) {
-						deadSockets = new HashSet();
-					}
-					deadSockets.add(id);
+					close(connection);
 				}
+			}
+		}
+	}
 
-				if (processedMessages == null) {
-					processedMessages = new LinkedList();
-				}
-				// store the processed message
-				processedMessages.add(message);
+	/**
+	 * Returns the registered connection to the specified peer.
+	 * 
+	 * @param peerId
+	 *            the id of the peer
+	 * @return the connection, or <code>null</code> if there is no connection
+	 *         to the peer or it has not been registered with the selector
+	 */
+	private Connection getConnection(ID peerId) {
+		SocketChannel socketChannel;
+		synchronized (connectedSockets) {
+			socketChannel = (SocketChannel) connectedSockets.get(peerId);
+		}
+		return socketChannel == null ? null : (Connection) connections
+				.get(socketChannel);
+	}
+
+	/**
+	 * Writes as many of the connection's queued messages as the socket will
+	 * accept without blocking, and registers interest in the socket becoming
+	 * writable if there are messages left.
+	 * 
+	 * @param connection
+	 *            the connection to write to
+	 * @throws IOException
+	 *             if an error occurred while writing to the socket
+	 */
+	private void write(Connection connection) throws IOException {
+		LinkedList writeQueue = connection.writeQueue;
+		while (!writeQueue.isEmpty()) {
+			int count = Math.min(writeQueue.size(), MAX_GATHER);
+			ByteBuffer[] buffers = (ByteBuffer[]) writeQueue.subList(0, count)
+					.toArray(new ByteBuffer[count]);
+			connection.socketChannel.write(buffers);
+			while (!writeQueue.isEmpty()
+					&& !((ByteBuffer) writeQueue.getFirst()).hasRemaining()) {
+				writeQueue.removeFirst();
+			}
+			if (buffers[count - 1].hasRemaining()) {
+				// the socket's send buffer is full
+				break;
+			}
+		}
+
+		SelectionKey key = connection.key;
+		if (key != null && key.isValid()) {
+			int ops = key.interestOps();
+			if (writeQueue.isEmpty()) {
+				key.interestOps(ops & ~SelectionKey.OP_WRITE);
+			} else {
+				key.interestOps(ops | SelectionKey.OP_WRITE);
 			}
 		}
+	}
 
-		// remove all messages that have been processed
-		if (processedMessages != null) {
-			messages.removeAll(processedMessages);
+	/**
+	 * Registers the connections that have been established with remote peers
+	 * since the last iteration of the processing thread.
+	 */
+	private void registerPendingConnections() {
+		while (true) {
+			Connection connection;
+			synchronized (pendingConnections) {
+				if (pendingConnections.isEmpty()) {
+					return;
+				}
+				connection = (Connection) pendingConnections.removeFirst();
+			}
+			register(connection);
 		}
+	}
 
-		if (deadSockets != null) {
-			for (Iterator it = deadSockets.iterator(); it.hasNext();) {
-				ID id = (ID) it.next();
-				SocketChannel channel = (SocketChannel) connectedSockets
-						.remove(id);
-				Util.closeChannel(channel);
+	/**
+	 * Registers the connection's socket with the selector for reading, and
+	 * processes any data that has already been read from it.
+	 * 
+	 * @param connection
+	 *            the connection to register
+	 */
+	private void register(Connection connection) {
+		try {
+			connection.key = connection.socketChannel.register(selector,
+					SelectionKey.OP_READ, connection);
+			connections.put(connection.socketChannel, connection);
+			if (connection.readLength != 0) {
+				processReadData(connection);
 			}
+		} catch (IOException e) {
+			log(new Status(IStatus.ERROR, Util.PLUGIN_ID,
+					"An IO error occurred", e)); //$NON-NLS-1$
+			close(connection);
 		}
 	}
 
 	/**
-	 * Reads in any incoming messages from remote clients.
+	 * Accepts pending incoming connections. The handshake with the remote peer
+	 * is performed once it has sent its id.
 	 * 
-	 * @param buffer
-	 *            the buffer to use for reading the socket
 	 * @throws IOException
-	 *             if an error occurs while reading from the socket
+	 *             if an error occurred while accepting a connection
+	 */
+	private void accept() throws IOException {
+		SocketChannel socketChannel = serverSocketChannel.accept();
+		while (socketChannel != null) {
+			socketChannel.configureBlocking(false);
+			register(new Connection(socketChannel, null));
+			socketChannel = serverSocketChannel.accept();
+		}
+	}
+
+	/**
+	 * Processes the keys selected by the last select operation.
 	 */
-	private void processIncomingMessages(ByteBuffer buffer) throws IOException {
-		Collection deadSockets = null;
+	private void processSelectedKeys() throws IOException {
+		for (Iterator it = selector.selectedKeys().iterator(); it.hasNext();) {
+			SelectionKey key = (SelectionKey) it.next();
+			it.remove();
+
+			if (!key.isValid()) {
+				continue;
+			}
 
-		for (Iterator it = connectedSockets.entrySet().iterator(); it.hasNext();) {
-			Map.Entry entry = (Map.Entry) it.next();
-			SocketChannel socketChannel = (SocketChannel) entry.getValue();
+			if (key.isAcceptable()) {
+				accept();
+				continue;
+			}
 
+			Connection connection = (Connection) key.attachment();
 			try {
-				if (!processIncomingMessages(socketChannel, buffer)) {
-					if (deadSockets == null) {
-						deadSockets = new HashSet();
-					}
-					deadSockets.add(entry.getKey());
+				if (key.isReadable()) {
+					read(connection);
+				}
+				if (key.isValid() && key.isWritable()) {
+					write(connection);
 				}
 			} catch (IOException e) {
 				log(new Status(IStatus.ERROR, Util.PLUGIN_ID,
-						"Error occurred while sending message", e)); //$NON-NLS-1$
-				if (deadSockets == null) {
-					deadSockets = new HashSet();
-				}
-				deadSockets.add(entry.getKey());
+						"An IO error occurred", e)); //$NON-NLS-1$
+				close(connection);
 			}
 		}
+	}
 
-		if (deadSockets != null) {
-			for (Iterator it = deadSockets.iterator(); it.hasNext();) {
-				ID id = (ID) it.next();
-				SocketChannel channel = (SocketChannel) connectedSockets
-						.remove(id);
-				Util.closeChannel(channel);
-			}
+	/**
+	 * Reads the available data of the connection's socket into its read
+	 * buffer and processes the messages that have been read completely.
+	 * 
+	 * @param connection
+	 *            the connection to read from
+	 * @throws IOException
+	 *             if an error occurred while reading from the socket
+	 */
+	private void read(Connection connection) throws IOException {
+		connection.ensureCapacity(1);
+		int read = connection.socketChannel.read(ByteBuffer.wrap(
+				connection.readData, connection.readLength,
+				connection.readData.length - connection.readLength));
+		if (read == -1) {
+			// the remote peer has closed the socket
+			close(connection);
+		} else if (read > 0) {
+			connection.readLength += read;
+			processReadData(connection);
 		}
 	}
 
 	/**
-	 * Processes any incoming messages from the specified channel by reading it
-	 * into the specified buffer and returns whether the channel has reached
-	 * end-of-stream.
+	 * Processes the data that has been read from the connection's socket,
+	 * performing the handshake if it has not been done and firing events for
+	 * the messages that have been read completely. Any trailing partial
+	 * message is kept until the rest of it has been read.
 	 * 
-	 * @param socketChannel
-	 *            the channel to read messages from
-	 * @param buffer
-	 *            the buffer to use to read the messages into
-	 * @return <code>true</code> if the channel is still active,
-	 *         <code>false</code> has reached end-of-stream
+	 * @param connection
+	 *            the connection whose data should be processed
 	 * @throws IOException
-	 *             if an error occurred while trying to read from the channel
+	 *             if an error occurred while performing the handshake, or a
+	 *             message exceeds the maximum message size
 	 */
-	private boolean processIncomingMessages(SocketChannel socketChannel,
-			ByteBuffer buffer) throws IOException {
-		ChannelData channelData = Util.read(socketChannel, buffer);
-		byte[] message = channelData.getData();
+	private void processReadData(Connection connection) throws IOException {
+		if (connection.peerId == null && !handshake(connection)) {
+			return;
+		}
+
+		byte[] data = connection.readData;
+		int offset = 0;
+		while (offset < connection.readLength) {
+			int remaining = connection.readLength - offset;
+			int length = getMessageLength(data, offset, remaining);
+			if (length == -1) {
+				// make room for the rest of the message
+				if (remaining >= MESSAGE_HEADER.length) {
+					connection.ensureCapacity(MESSAGE_HEADER.length
+							+ getDataLength(data, offset) - remaining);
+				}
+				break;
+			} else if (length == 0) {
+				// not a plain serialized byte[], deserialize it
+				length = deserializeMessage(connection, offset, remaining);
+				if (length == -1) {
+					break;
+				}
+			} else {
+				byte[] message = new byte[length - MESSAGE_HEADER.length];
+				System.arraycopy(data, offset + MESSAGE_HEADER.length, message,
+						0, message.length);
+				fireMessageEvent(connection.socketChannel, message);
+			}
+			offset += length;
+		}
+		connection.consume(offset);
+	}
 
-		if (message != null) {
-			processIncomingMessage(socketChannel, message);
+	/**
+	 * Deserializes a message that was not written as a plain serialized
+	 * byte[] and fires an event for it.
+	 * 
+	 * @return the number of bytes of the message, or <code>-1</code> if only
+	 *         a part of the message has been read so far
+	 */
+	private int deserializeMessage(Connection connection, int offset,
+			int length) {
+		ByteArrayInputStream bais = new ByteArrayInputStream(
+				connection.readData, offset, length);
+		try {
+			Object object = new ObjectInputStream(bais).readObject();
+			if (object instanceof byte[]) {
+				fireMessageEvent(connection.socketChannel, (byte[]) object);
+			}
+			return length - bais.available();
+		} catch (EOFException e) {
+			return -1;
+		} catch (IOException e) {
+			log(new Status(IStatus.ERROR, Util.PLUGIN_ID,
+					"Could not deserialize", e)); //$NON-NLS-1$
+		} catch (ClassNotFoundException e) {
+			log(new Status(IStatus.ERROR, Util.PLUGIN_ID,
+					"Could not deserialize", e)); //$NON-NLS-1$
 		}
-		return channelData.isOpen();
+		// discard the data, the stream cannot be recovered
+		return length;
 	}
 
 	/**
-	 * Processes the message that has been received from the specified channel.
+	 * Fires a message event for a message that was received to this channel's
+	 * listener if there is one attached.
 	 * 
 	 * @param socketChannel
-	 *            the channel that the message was from
+	 *            the socket that the message was read from
 	 * @param message
-	 *            the message that was received
+	 *            the message that has been received
 	 */
-	void processIncomingMessage(SocketChannel socketChannel, byte[] message) {
-		// we read something, need to notify
+	private void fireMessageEvent(SocketChannel socketChannel, byte[] message) {
 		IChannelListener listener = getListener();
 		if (listener != null) {
-			// we have a listener, convert our data and then notify
-			byte[][] messages = convert(message);
-			if (messages != null) {
-				fireMessageEvents(listener, socketChannel, messages);
+			IChannelEvent event = createMessageEvent(socketChannel, message);
+			if (event != null) {
+				fireChannelEvent(listener, event);
 			}
 		}
 	}
 
 	/**
-	 * Converts the data that has been read from the socket into separate byte[]
-	 * instances.
+	 * Closes the connection's socket and forgets about the connection.
 	 * 
-	 * @param message
-	 *            the data read from the socket
-	 * @return a byte[][] containing the individual messages
+	 * @param connection
+	 *            the connection to close
 	 */
-	private byte[][] convert(byte[] message) {
-		try {
-			// back the read in data with a ByteArrayInputStream
-			ByteArrayInputStream bais = new ByteArrayInputStream(message);
-			// instantiate an ObjectInputStream and read the individual
-			// byte[]
-			byte[] bytes = (byte[]) new ObjectInputStream(bais).readObject();
-
-			if (bais.available() == 0) {
-				return new byte[][] { bytes };
-			}
-
-			Collection c = new ArrayList();
-			c.add(bytes);
+	private void close(Connection connection) {
+		Util.closeChannel(connection.socketChannel);
+		connections.remove(connection.socketChannel);
+		removeSocket(connection.socketChannel);
+	}
 
-			while (bais.available() != 0) {
-				// instantiate an ObjectInputStream and read the individual
-				// byte[]
-				bytes = (byte[]) new ObjectInputStream(bais).readObject();
-				// store it
-				c.add(bytes);
+	/**
+	 * Stores the specified ID with its corresponding socket in both directions
+	 * of the index. A socket previously stored for the ID is no longer
+	 * associated with it.
+	 * 
+	 * @param peerId
+	 *            the id of the peer that the socket is connected with
+	 * @param socketChannel
+	 *            the socket channel to be stored
+	 */
+	private void putSocket(ID peerId, SocketChannel socketChannel) {
+		synchronized (connectedSockets) {
+			SocketChannel previous = (SocketChannel) connectedSockets.put(
+					peerId, socketChannel);
+			if (previous != null && previous != socketChannel) {
+				socketIds.remove(previous);
 			}
-
-			// return all the individual byte[]s
-			return (byte[][]) c.toArray(new byte[c.size()][]);
-		} catch (IOException e) {
-			return null;
-		} catch (ClassNotFoundException e) {
-			return null;
+			socketIds.put(socketChannel, peerId);
 		}
 	}
 
 	/**
-	 * Fires message events to the specified listener for each of the message
-	 * that was received.
+	 * Removes the specified socket and the ID of its peer from both directions
+	 * of the index.
 	 * 
-	 * @param listener
-	 *            the listener to notify
 	 * @param socketChannel
-	 *            the socket that the message was read from
-	 * @param messages
-	 *            the messages that have been received
+	 *            the socket channel to be removed
 	 */
-	private void fireMessageEvents(IChannelListener listener,
-			SocketChannel socketChannel, byte[][] messages) {
-		for (int i = 0; i < messages.length; i++) {
-			IChannelEvent event = createMessageEvent(socketChannel, messages[i]);
-			if (event != null) {
-				fireChannelEvent(listener, event);
+	private void removeSocket(SocketChannel socketChannel) {
+		synchronized (connectedSockets) {
+			ID peerId = (ID) socketIds.remove(socketChannel);
+			if (peerId != null && connectedSockets.get(peerId) == socketChannel) {
+				connectedSockets.remove(peerId);
 			}
 		}
 	}
@@ -523,35 +792,37 @@ public abstract class NIOChannel implements IChannel {
 	 */
 	private IChannelEvent createMessageEvent(SocketChannel channel,
 			final byte[] data) {
-		// search for the id of the corresponding channel
-		for (Iterator it = connectedSockets.entrySet().iterator(); it.hasNext();) {
-			Map.Entry entry = (Map.Entry) it.next();
-			if (channel == entry.getValue()) {
-				final ID fromId = (ID) entry.getKey();
-
-				return new IChannelMessageEvent() {
-					public byte[] getData() {
-						return data;
-					}
+		// look up the id of the corresponding channel
+		ID peerId;
+		synchronized (connectedSockets) {
+			peerId = (ID) socketIds.get(channel);
+		}
 
-					public ID getFromContainerID() {
-						return fromId;
-					}
+		if (peerId != null) {
+			final ID fromId = peerId;
 
-					public ID getChannelID() {
-						return id;
-					}
+			return new IChannelMessageEvent() {
+				public byte[] getData() {
+					return data;
+				}
 
-					public String toString() {
-						StringBuffer buffer = new StringBuffer();
-						buffer.append("IChannelMessageEvent["); //$NON-NLS-1$
-						buffer.append("container=").append(fromId); //$NON-NLS-1$
-						buffer.append(",channel=").append(id); //$NON-NLS-1$
-						buffer.append(",data=").append(data).append(']'); //$NON-NLS-1$
-						return buffer.toString();
-					}
-				};
-			}
+				public ID getFromContainerID() {
+					return fromId;
+				}
+
+				public ID getChannelID() {
+					return id;
+				}
+
+				public String toString() {
+					StringBuffer buffer = new StringBuffer();
+					buffer.append("IChannelMessageEvent["); //$NON-NLS-1$
+					buffer.append("container=").append(fromId); //$NON-NLS-1$
+					buffer.append(",channel=").append(id); //$NON-NLS-1$
+					buffer.append(",data=").append(data).append(']'); //$NON-NLS-1$
+					return buffer.toString();
+				}
+			};
 		}
 		return null;
 	}
@@ -566,7 +837,37 @@ public abstract class NIOChannel implements IChannel {
 	 *            the socket channel to be stored
 	 */
 	void put(ID id, SocketChannel socketChannel) {
-		connectedSockets.put(id, socketChannel);
+		put(id, socketChannel, null);
+	}
+
+	/**
+	 * Stores the specified ID with its corresponding socket into this channel.
+	 * The socket will now be actively used for reading and sending messages.
+	 * 
+	 * @param id
+	 *            the target that the socket is connected with
+	 * @param socketChannel
+	 *            the non-blocking socket channel to be stored
+	 * @param received
+	 *            data that has already been read from the socket after the
+	 *            handshake, may be <code>null</code>
+	 */
+	void put(ID id, SocketChannel socketChannel, byte[] received) {
+		Connection connection = new Connection(socketChannel, id);
+		if (received != null) {
+			if (received.length > READ_BUFFER_SIZE) {
+				connection.readData = new byte[received.length];
+			}
+			System.arraycopy(received, 0, connection.readData, 0,
+					received.length);
+			connection.readLength = received.length;
+		}
+
+		putSocket(id, socketChannel);
+		synchronized (pendingConnections) {
+			pendingConnections.add(connection);
+		}
+		selector.wakeup();
 	}
 
 	/**
@@ -608,60 +909,48 @@ public abstract class NIOChannel implements IChannel {
 	// }
 
 	/**
-	 * Performs a handshake with a remote peer via the provided socket channel
-	 * and returns whether <code>true</code> if no further attempts are
-	 * required. Note that <code>true</code> does not indicate that the
-	 * handshake has been successful.
-	 * <p>
-	 * For example, if the remote peer has closed this channel then
-	 * <code>true</code> would be returned as no further attempts should be
-	 * attempted.
-	 * </p>
+	 * Performs a handshake with a remote peer that has connected to this
+	 * channel's server socket and returns whether it has been completed. The
+	 * peer sends its id, and is answered with the id of this channel and the id
+	 * of the owner container.
 	 * 
-	 * @param socketChannel
-	 *            the channel to use to handshake with the remote peer
-	 * @param buffer
-	 *            the buffer to use for reading and writing data from the
-	 *            channel
-	 * @return <code>true</code> if no further handshake attempts are required,
-	 *         <code>false</code> otherwise
-	 * @throws ClassNotFoundException
-	 *             if deserialization failed during the handshake
+	 * @param connection
+	 *            the connection to handshake with, its read buffer holds the
+	 *            data read so far
+	 * @return <code>true</code> if the handshake has been completed,
+	 *         <code>false</code> if the id of the peer has not been read
+	 *         completely yet or the handshake failed
 	 * @throws IOException
 	 *             if an IO error occurred while performing the handshake
 	 */
-	private boolean handshake(SocketChannel socketChannel, ByteBuffer buffer)
-			throws ClassNotFoundException, IOException {
-		ChannelData data = Util.read(socketChannel, buffer);
-		if (!data.isOpen()) {
-			// this channel is dead, close it
-			Util.closeChannel(socketChannel);
-			return true;
+	private boolean handshake(Connection connection) throws IOException {
+		ByteArrayInputStream bais = new ByteArrayInputStream(
+				connection.readData, 0, connection.readLength);
+		Object object;
+		try {
+			object = new ObjectInputStream(bais).readObject();
+		} catch (EOFException e) {
+			// wait for the rest of the id
+			return false;
+		} catch (ClassNotFoundException e) {
+			log(new Status(IStatus.ERROR, Util.PLUGIN_ID,
+					"Could not deserialize", e)); //$NON-NLS-1$
+			close(connection);
+			return false;
 		}
 
-		byte[] bytes = data.getData();
-		if (bytes == null) {
+		if (!(object instanceof ID)) {
+			close(connection);
 			return false;
 		}
 
-		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(
-				bytes));
-		Object object = ois.readObject();
-
-		if (object instanceof ID) {
-			socketChannel.configureBlocking(true);
-			byte[] one = Util.serialize(id);
-			byte[] two = Util.serialize(containerId);
-			bytes = new byte[one.length + two.length];
-			System.arraycopy(one, 0, bytes, 0, one.length);
-			System.arraycopy(two, 0, bytes, one.length, two.length);
+		connection.consume(connection.readLength - bais.available());
+		connection.peerId = (ID) object;
+		connection.writeQueue.add(ByteBuffer.wrap(Util.serialize(id)));
+		connection.writeQueue.add(ByteBuffer.wrap(Util.serialize(containerId)));
+		write(connection);
 
-			socketChannel.socket().getOutputStream().write(bytes);
-			socketChannel.socket().getOutputStream().flush();
-
-			socketChannel.configureBlocking(false);
-			put((ID) object, socketChannel);
-		}
+		putSocket(connection.peerId, connection.socketChannel);
 		return true;
 	}
 
@@ -725,7 +1014,11 @@ public abstract class NIOChannel implements IChannel {
 		Assert.isNotNull(message, "Message cannot be null"); //$NON-NLS-1$
 
 		// check if we already have a socket for this receiver
-		if (!connectedSockets.containsKey(receiver)) {
+		boolean connected;
+		synchronized (connectedSockets) {
+			connected = connectedSockets.containsKey(receiver);
+		}
+		if (!connected) {
 			// send a request to the receiver for establishing a socket
 			// connection
 			sendRequest(receiver);
@@ -735,6 +1028,8 @@ public abstract class NIOChannel implements IChannel {
 			// enqueue the message for processing
 			messages.add(new ChannelMessage(receiver, message));
 		}
+		// let the processing thread send it
+		selector.wakeup();
 	}
 
 	/**
@@ -765,6 +1060,7 @@ public abstract class NIOChannel implements IChannel {
 			}
 
 			connectedSockets.clear();
+			socketIds.clear();
 		}
 
 		datashareContainer.fireChannelContainerDeactivatedEvent(id);
@@ -794,53 +1090,124 @@ public abstract class NIOChannel implements IChannel {
 	private final class ProcessingRunnable implements Runnable {
 
 		public void run() {
-			ByteBuffer buffer = ByteBuffer.allocate(1024);
-			while (true) {
-				try {
-					Thread.sleep(50);
+			try {
+				while (!Thread.currentThread().isInterrupted()) {
+					try {
+						selector.select();
 
-					if (Thread.currentThread().isInterrupted()) {
+						registerPendingConnections();
+
+						processSelectedKeys();
+
+						// check if we have pending messages to send
+						sendPendingMessages();
+					} catch (ClosedSelectorException e) {
 						return;
+					} catch (IOException e) {
+						log(new Status(IStatus.ERROR, Util.PLUGIN_ID,
+								"An IO error occurred", e)); //$NON-NLS-1$
+					} catch (RuntimeException e) {
+						log(new Status(IStatus.ERROR, Util.PLUGIN_ID,
+								"A runtime error occurred", e)); //$NON-NLS-1$
 					}
+				}
+			} finally {
+				closeConnections();
+				try {
+					selector.close();
+				} catch (IOException e) {
+					// ignored
+				}
+			}
+		}
 
-					// perform handshaking for any pending sockets
-					for (int i = 0; i < pendingSockets.size(); i++) {
-						SocketChannel channel = (SocketChannel) pendingSockets
-								.get(i);
-						if (handshake(channel, buffer)) {
-							// remove if handled
-							pendingSockets.remove(i);
-							i--;
-						}
-					}
+		/**
+		 * Closes the sockets of all connections, including those of accepted
+		 * connections whose handshake has not been completed yet and of
+		 * connections that have not been registered yet.
+		 */
+		private void closeConnections() {
+			for (Iterator it = connections.keySet().iterator(); it.hasNext();) {
+				Util.closeChannel((SocketChannel) it.next());
+			}
+			connections.clear();
+			synchronized (pendingConnections) {
+				for (Iterator it = pendingConnections.iterator(); it.hasNext();) {
+					Util.closeChannel(((Connection) it.next()).socketChannel);
+				}
+				pendingConnections.clear();
+			}
+		}
+	}
 
-					processIncomingMessages(buffer);
+	/**
+	 * The state of a socket connection with a remote peer. Only used by the
+	 * processing thread once it has been registered with the selector.
+	 */
+	private final class Connection {
 
-					// check if we have pending messages to send
-					synchronized (messages) {
-						if (!messages.isEmpty()) {
-							sendPendingMessages();
-						}
-					}
+		final SocketChannel socketChannel;
 
-					SocketChannel socketChannel = serverSocketChannel.accept();
-					if (socketChannel != null) {
-						socketChannel.configureBlocking(false);
-						pendingSockets.add(socketChannel);
-					}
-				} catch (InterruptedException e) {
-					Thread.interrupted();
-					return;
-				} catch (ClassNotFoundException e) {
-					log(new Status(IStatus.ERROR, Util.PLUGIN_ID,
-							"Could not deserialize", e)); //$NON-NLS-1$
-				} catch (IOException e) {
-					log(new Status(IStatus.ERROR, Util.PLUGIN_ID,
-							"An IO error occurred", e)); //$NON-NLS-1$
-				} catch (RuntimeException e) {
-					log(new Status(IStatus.ERROR, Util.PLUGIN_ID,
-							"A runtime error occurred", e)); //$NON-NLS-1$
-				}
+		/**
+		 * The id of the remote peer, <code>null</code> until the handshake
+		 * has been completed.
+		 */
+		ID peerId;
+
+		SelectionKey key;
+
+		/**
+		 * The data read from the socket that has not been processed yet.
+		 */
+		byte[] readData = new byte[READ_BUFFER_SIZE];
+
+		int readLength;
+
+		/**
+		 * A queue of <code>ByteBuffer</code>s to write to the socket.
+		 */
+		final LinkedList writeQueue = new LinkedList();
+
+		Connection(SocketChannel socketChannel, ID peerId) {
+			this.socketChannel = socketChannel;
+			this.peerId = peerId;
+		}
+
+		/**
+		 * Makes sure that the read buffer has room for the given number of
+		 * bytes after the data that has been read so far.
+		 * 
+		 * @throws IOException
+		 *             if the buffer would have to grow beyond the maximum
+		 *             message size
+		 */
+		void ensureCapacity(int length) throws IOException {
+			int limit = MESSAGE_HEADER.length + MAX_MESSAGE_SIZE;
+			long required = (long) readLength + length;
+			if (required > limit) {
+				throw new IOException("Read buffer of " + required //$NON-NLS-1$
+						+ " bytes exceeds the maximum message size of " //$NON-NLS-1$
+						+ MAX_MESSAGE_SIZE);
+			}
+			if (required > readData.length) {
+				byte[] temp = new byte[(int) Math.min(limit, Math.max(
+						required, readData.length * 2L))];
+				System.arraycopy(readData, 0, temp, 0, readLength);
+				readData = temp;
+			}
+		}
+
+		/**
+		 * Removes the given number of processed bytes from the start of the
+		 * read buffer.
+		 */
+		void consume(int length) {
+			readLength -= length;
+			if (readLength == 0 && readData.length > READ_BUFFER_SIZE) {
+				// don't hold on to the buffer of a large message
+				readData = new byte[READ_BUFFER_SIZE];
+			} else if (length != 0 && readLength != 0) {
+				System.arraycopy(readData, length, readData, 0, readLength);
 			}
 		}
 	}
@@ -850,20 +1217,25 @@ public abstract class NIOChannel implements IChannel {
 		private ID fromId;
 		private byte[] data;
 
-		ChannelMessage(ID fromId, byte[] data) throws ECFException {
+		ChannelMessage(ID fromId, byte[] data) {
 			this.fromId = fromId;
 			this.data = convert(data);
 		}
 
-		private byte[] convert(byte[] data) throws ECFException {
-			try {
-				ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				ObjectOutputStream oos = new ObjectOutputStream(baos);
-				oos.writeObject(data);
-				return baos.toByteArray();
-			} catch (IOException e) {
-				throw new ECFException(e);
-			}
+		/**
+		 * Returns the serialized form of the data, which is the same as what
+		 * an ObjectOutputStream would write for it.
+		 */
+		private byte[] convert(byte[] data) {
+			byte[] bytes = new byte[MESSAGE_HEADER.length + data.length];
+			int lengthOffset = MESSAGE_HEADER.length - 4;
+			System.arraycopy(MESSAGE_HEADER, 0, bytes, 0, lengthOffset);
+			bytes[lengthOffset] = (byte) (data.length >>> 24);
+			bytes[lengthOffset + 1] = (byte) (data.length >>> 16);
+			bytes[lengthOffset + 2] = (byte) (data.length >>> 8);
+			bytes[lengthOffset + 3] = (byte) data.length;
+			System.arraycopy(data, 0, bytes, MESSAGE_HEADER.length, data.length);
+			return bytes;
 		}
 
 		public ID getId() {
@@ -413,23 +413,22 @@ public abstract class NIODatashareContainer implements IChannelContainerAdapter
 				// next id is the id of the remote user
 				ID peerId = (ID) ois.readObject();
 
-				// store the peer id and the corresponding socket in the
-				// retrieved NIO channel
-				NIOChannel datashare = (NIOChannel) channel;
-				datashare.put(peerId, socketChannel);
-
 				// check if we have any bytes left to read
+				byte[] received = null;
 				int available = bais.available();
 				if (available != 0) {
 					// if there are extra bytes that means this is data that
 					// the sender has sent to us, we must process these messages
-					byte[] received = new byte[available];
+					received = new byte[available];
 					// copy the remaining information
 					System.arraycopy(message, message.length - available,
 							received, 0, available);
-					// process the received data
-					datashare.processIncomingMessage(socketChannel, received);
 				}
+
+				// store the peer id and the corresponding socket in the
+				// retrieved NIO channel, which will process the received data
+				NIOChannel datashare = (NIOChannel) channel;
+				datashare.put(peerId, socketChannel, received);
 			}
 		}
 	}
@@ -0,0 +1,163 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.provider.remoteservice.generic;
+
+/**
+ * Requests waiting for a response, keyed by request id.  The map is split into
+ * stripes, each an open addressing hash table of primitive long keys guarded by
+ * its own lock, so that lookup, insert and removal are constant time and calls
+ * on different stripes do not contend.
+ */
+final class PendingRequestMap {
+
+	private static final int STRIPES = 16;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final Stripe[] stripes = new Stripe[STRIPES];
+
+	PendingRequestMap() {
+		for (int i = 0; i < STRIPES; i++)
+			stripes[i] = new Stripe();
+	}
+
+	private static int hash(long key) {
+		// mix bits, since request ids are sequential
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private Stripe stripe(int hash) {
+		return stripes[hash & (STRIPES - 1)];
+	}
+
+	void put(Request request) {
+		final long key = request.getRequestId();
+		final int hash = hash(key);
+		stripe(hash).put(key, hash >>> 4, request);
+	}
+
+	Request get(long requestId) {
+		final int hash = hash(requestId);
+		return stripe(hash).get(requestId, hash >>> 4);
+	}
+
+	Request remove(long requestId) {
+		final int hash = hash(requestId);
+		return stripe(hash).remove(requestId, hash >>> 4);
+	}
+
+	int size() {
+		int result = 0;
+		for (int i = 0; i < STRIPES; i++)
+			result += stripes[i].size();
+		return result;
+	}
+
+	void clear() {
+		for (int i = 0; i < STRIPES; i++)
+			stripes[i].clear();
+	}
+
+	/**
+	 * Linear probing table.  Removal shifts following entries back, so no
+	 * tombstones are needed.
+	 */
+	private static final class Stripe {
+		private long[] keys = new long[INITIAL_CAPACITY];
+		private Request[] values = new Request[INITIAL_CAPACITY];
+		private int size = 0;
+
+		synchronized void put(long key, int hash, Request value) {
+			if (2 * (size + 1) > values.length)
+				resize(2 * values.length);
+			final int mask = values.length - 1;
+			int i = hash & mask;
+			while (values[i] != null) {
+				if (keys[i] == key) {
+					values[i] = value;
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			values[i] = value;
+			size++;
+		}
+
+		synchronized Request get(long key, int hash) {
+			final int mask = values.length - 1;
+			for (int i = hash & mask; values[i] != null; i = (i + 1) & mask)
+				if (keys[i] == key)
+					return values[i];
+			return null;
+		}
+
+		synchronized Request remove(long key, int hash) {
+			final int mask = values.length - 1;
+			int i = hash & mask;
+			while (values[i] != null && keys[i] != key)
+				i = (i + 1) & mask;
+			final Request result = values[i];
+			if (result == null)
+				return null;
+			values[i] = null;
+			size--;
+			// Shift back following entries of the same cluster
+			int j = i;
+			for (;;) {
+				j = (j + 1) & mask;
+				if (values[j] == null)
+					break;
+				final int home = (hash(keys[j]) >>> 4) & mask;
+				// Move entry j to the free slot i if its home is not in (i, j]
+				if ((j > i) ? (home <= i || home > j) : (home <= i && home > j)) {
+					keys[i] = keys[j];
+					values[i] = values[j];
+					values[j] = null;
+					i = j;
+				}
+			}
+			if (values.length > INITIAL_CAPACITY && 8 * size < values.length)
+				resize(values.length / 2);
+			return result;
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		synchronized void clear() {
+			keys = new long[INITIAL_CAPACITY];
+			values = new Request[INITIAL_CAPACITY];
+			size = 0;
+		}
+
+		private void resize(int capacity) {
+			final long[] oldKeys = keys;
+			final Request[] oldValues = values;
+			keys = new long[capacity];
+			values = new Request[capacity];
+			final int mask = capacity - 1;
+			for (int k = 0; k < oldValues.length; k++) {
+				if (oldValues[k] != null) {
+					int i = (hash(oldKeys[k]) >>> 4) & mask;
+					while (values[i] != null)
+						i = (i + 1) & mask;
+					keys[i] = oldKeys[k];
+					values[i] = oldValues[k];
+				}
+			}
+		}
+	}
+}
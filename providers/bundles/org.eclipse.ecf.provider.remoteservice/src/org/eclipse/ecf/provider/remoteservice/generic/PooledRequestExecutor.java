@@ -0,0 +1,227 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.provider.remoteservice.generic;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.equinox.concurrent.future.*;
+
+/**
+ * Executor for inbound remote service requests that runs requests on a bounded
+ * pool of worker threads, and queues at most a fixed number of requests waiting
+ * for a worker.  When the queue is full {@link #execute(IProgressRunnable, IProgressMonitor)}
+ * throws {@link RejectedExecutionException}, and the request is answered with
+ * that exception.
+ * <p>
+ * The executor is used for all requests of a container when the
+ * <code>org.eclipse.ecf.provider.remoteservice.executorType</code> system property
+ * is set to <code>pool</code>, and for the requests of a single registration when
+ * the registration has the {@link #POOL_SIZE_PROP} or {@link #QUEUE_SIZE_PROP}
+ * service property.
+ *
+ * @since 4.7
+ */
+public class PooledRequestExecutor extends AbstractExecutor {
+
+	/**
+	 * Service property giving the number of worker threads for the requests of a
+	 * remote service registration.  Value may be an Integer or a String.
+	 */
+	public static final String POOL_SIZE_PROP = "ecf.rsvc.executor.poolsize"; //$NON-NLS-1$
+
+	/**
+	 * Service property giving the maximum number of requests of a remote service
+	 * registration waiting for a worker thread.  Value may be an Integer or a
+	 * String.
+	 */
+	public static final String QUEUE_SIZE_PROP = "ecf.rsvc.executor.queuesize"; //$NON-NLS-1$
+
+	public static final int DEFAULT_POOL_SIZE = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.remoteservice.executor.poolsize", String.valueOf(2 * Runtime.getRuntime().availableProcessors()))); //$NON-NLS-1$
+
+	public static final int DEFAULT_QUEUE_SIZE = Integer.parseInt(System.getProperty("org.eclipse.ecf.provider.remoteservice.executor.queuesize", "1000")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final long KEEP_ALIVE = 60000;
+
+	private final String name;
+	private final int queueSize;
+	private final ThreadPoolExecutor pool;
+
+	private final AtomicLong completedCount = new AtomicLong();
+	private final AtomicLong rejectedCount = new AtomicLong();
+	private final AtomicLong totalExecutionTime = new AtomicLong();
+	private final AtomicLong maxExecutionTime = new AtomicLong();
+
+	public PooledRequestExecutor(final String name, int poolSize, int queueSize) {
+		if (poolSize < 1)
+			throw new IllegalArgumentException("poolSize must be > 0"); //$NON-NLS-1$
+		if (queueSize < 0)
+			throw new IllegalArgumentException("queueSize must be >= 0"); //$NON-NLS-1$
+		this.name = name;
+		this.queueSize = queueSize;
+		final BlockingQueue<Runnable> queue = (queueSize == 0) ? new SynchronousQueue<Runnable>() : new ArrayBlockingQueue<Runnable>(queueSize);
+		this.pool = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE, TimeUnit.MILLISECONDS, queue, new ThreadFactory() {
+			private final AtomicInteger threadCount = new AtomicInteger();
+
+			public Thread newThread(Runnable r) {
+				final Thread t = new Thread(r, name + " - " + threadCount.incrementAndGet()); //$NON-NLS-1$
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		this.pool.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Create an executor for the requests of the given registration, if the
+	 * registration has the {@link #POOL_SIZE_PROP} or {@link #QUEUE_SIZE_PROP}
+	 * service property.
+	 *
+	 * @param registration the registration.  Must not be <code>null</code>.
+	 * @return PooledRequestExecutor the executor, or <code>null</code> if the
+	 * registration does not configure one
+	 */
+	static PooledRequestExecutor createFor(RemoteServiceRegistrationImpl registration) {
+		final Object poolSize = registration.getProperty(POOL_SIZE_PROP);
+		final Object queueSize = registration.getProperty(QUEUE_SIZE_PROP);
+		if (poolSize == null && queueSize == null)
+			return null;
+		return new PooledRequestExecutor("Remote Request Handler - " + registration.getID(), getIntValue(poolSize, DEFAULT_POOL_SIZE), getIntValue(queueSize, DEFAULT_QUEUE_SIZE)); //$NON-NLS-1$
+	}
+
+	private static int getIntValue(Object value, int defaultValue) {
+		if (value instanceof Number)
+			return ((Number) value).intValue();
+		if (value instanceof String)
+			try {
+				return Integer.parseInt(((String) value).trim());
+			} catch (final NumberFormatException e) {
+				// use default
+			}
+		return defaultValue;
+	}
+
+	protected AbstractFuture<?> createFuture(IProgressMonitor monitor) {
+		return new SingleOperationFuture(monitor);
+	}
+
+	/**
+	 * @throws RejectedExecutionException if the request queue is full, or the
+	 * executor has been disposed
+	 */
+	@SuppressWarnings("unchecked")
+	public <ResultType> IFuture<ResultType> execute(final IProgressRunnable<? extends ResultType> runnable, IProgressMonitor monitor) throws RejectedExecutionException {
+		final AbstractFuture sof = createFuture(monitor);
+		try {
+			pool.execute(new Runnable() {
+				public void run() {
+					final long start = System.nanoTime();
+					try {
+						sof.runWithProgress(runnable);
+					} finally {
+						recordExecution(System.nanoTime() - start);
+					}
+				}
+			});
+		} catch (final RejectedExecutionException e) {
+			rejectedCount.incrementAndGet();
+			if (pool.isShutdown())
+				throw new RejectedExecutionException(name + " is disposed"); //$NON-NLS-1$
+			throw new RejectedExecutionException(name + " is busy: " + getActiveCount() + " requests executing, " + getQueueDepth() + " requests queued (queueSize=" + queueSize + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+		return sof;
+	}
+
+	void recordExecution(long time) {
+		completedCount.incrementAndGet();
+		totalExecutionTime.addAndGet(time);
+		long max = maxExecutionTime.get();
+		while (time > max && !maxExecutionTime.compareAndSet(max, time))
+			max = maxExecutionTime.get();
+	}
+
+	/**
+	 * @return int the maximum number of worker threads
+	 */
+	public int getPoolSize() {
+		return pool.getMaximumPoolSize();
+	}
+
+	/**
+	 * @return int the maximum number of queued requests
+	 */
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	/**
+	 * @return int the number of requests waiting for a worker thread
+	 */
+	public int getQueueDepth() {
+		return pool.getQueue().size();
+	}
+
+	/**
+	 * @return int the number of requests currently executing
+	 */
+	public int getActiveCount() {
+		return pool.getActiveCount();
+	}
+
+	/**
+	 * @return long the number of requests executed
+	 */
+	public long getCompletedCount() {
+		return completedCount.get();
+	}
+
+	/**
+	 * @return long the number of requests rejected
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	/**
+	 * @return long the total execution time of executed requests, in nanoseconds
+	 */
+	public long getTotalExecutionTime() {
+		return totalExecutionTime.get();
+	}
+
+	/**
+	 * @return long the longest execution time of a request, in nanoseconds
+	 */
+	public long getMaxExecutionTime() {
+		return maxExecutionTime.get();
+	}
+
+	/**
+	 * Reject any further requests.  Requests already queued are still executed.
+	 */
+	public void dispose() {
+		pool.shutdown();
+	}
+
+	public String toString() {
+		StringBuffer buf = new StringBuffer("PooledRequestExecutor["); //$NON-NLS-1$
+		buf.append("name=").append(name); //$NON-NLS-1$
+		buf.append(";poolSize=").append(getPoolSize()); //$NON-NLS-1$
+		buf.append(";queueDepth=").append(getQueueDepth()); //$NON-NLS-1$
+		buf.append(";active=").append(getActiveCount()); //$NON-NLS-1$
+		buf.append(";completed=").append(getCompletedCount()); //$NON-NLS-1$
+		buf.append(";rejected=").append(getRejectedCount()).append("]"); //$NON-NLS-1$ //$NON-NLS-2$
+		return buf.toString();
+	}
+}
@@ -13,9 +13,9 @@ package org.eclipse.ecf.provider.remoteservice.generic;
 
 import java.io.*;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.security.*;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 import org.eclipse.core.runtime.*;
 import org.eclipse.ecf.core.ContainerConnectException;
 import org.eclipse.ecf.core.events.*;
@@ -26,7 +26,6 @@ import org.eclipse.ecf.core.sharedobject.*;
 import org.eclipse.ecf.core.sharedobject.events.ISharedObjectActivatedEvent;
 import org.eclipse.ecf.core.status.SerializableStatus;
 import org.eclipse.ecf.core.util.*;
-import org.eclipse.ecf.core.util.reflection.ClassUtil;
 import org.eclipse.ecf.internal.provider.remoteservice.Activator;
 import org.eclipse.ecf.internal.provider.remoteservice.IRemoteServiceProviderDebugOptions;
 import org.eclipse.ecf.remoteservice.*;
@@ -81,10 +80,23 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 	protected int addRegistrationRequestTimeout = ADD_REGISTRATION_REQUEST_TIMEOUT;
 	/**
 	 * List of invocation requests...instances of Request
+	 * @deprecated no longer used.  Pending requests are kept in a map keyed by request id,
+	 * see {@link #addRequest(Request)}, {@link #getRequest(long)} and {@link #removeRequest(Request)}
 	 */
 	@SuppressWarnings("unchecked")
 	protected List requests = Collections.synchronizedList(new ArrayList());
 
+	/**
+	 * Invocation requests waiting for a response
+	 */
+	private final PendingRequestMap pendingRequests = new PendingRequestMap();
+
+	private final RequestTimeoutWheel.Handler requestTimeoutHandler = new RequestTimeoutWheel.Handler() {
+		public void handleTimeout(long requestId) {
+			handleRequestTimeout(requestId);
+		}
+	};
+
 	/**
 	 * Connect context to be used for connect.
 	 * @since 3.0
@@ -489,9 +501,10 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 		synchronized (addRegistrationRequests) {
 			addRegistrationRequests.clear();
 		}
-		synchronized (requests) {
-			requests.clear();
-		}
+		pendingRequests.clear();
+		if (requestExecutor instanceof PooledRequestExecutor)
+			((PooledRequestExecutor) requestExecutor).dispose();
+		requestExecutor = null;
 		synchronized (pendingUpdateContainers) {
 			pendingUpdateContainers.clear();
 		}
@@ -553,14 +566,14 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 	private void addReferencesFromRemoteRegistrys(ID[] idFilter, String clazz, IRemoteFilter remoteFilter, List referencesFound) {
 		// If no idFilter, then we add all known references from all remote registrys
 		if (idFilter == null) {
+			final Object[] registrys;
 			synchronized (remoteRegistrys) {
-				@SuppressWarnings("unchecked")
-				final ArrayList registrys = new ArrayList(remoteRegistrys.values());
-				for (final Iterator i = registrys.iterator(); i.hasNext();) {
-					final RemoteServiceRegistryImpl registry = (RemoteServiceRegistryImpl) i.next();
-					// Add IRemoteServiceReferences from each remote registry
-					addReferencesFromRegistry(clazz, remoteFilter, registry, referencesFound);
-				}
+				registrys = remoteRegistrys.values().toArray();
+			}
+			// Registry lookups do not need the lock
+			for (int i = 0; i < registrys.length; i++) {
+				// Add IRemoteServiceReferences from each remote registry
+				addReferencesFromRegistry(clazz, remoteFilter, (RemoteServiceRegistryImpl) registrys[i], referencesFound);
 			}
 			// Otherwise there is a filter
 		} else {
@@ -570,11 +583,9 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 				if (targetContainerID == null)
 					continue;
 				sendRegistryUpdateRequestAndWait(targetContainerID);
-				synchronized (remoteRegistrys) {
-					RemoteServiceRegistryImpl remoteRegistryForContainer = (RemoteServiceRegistryImpl) remoteRegistrys.get(targetContainerID);
-					if (remoteRegistryForContainer != null)
-						addReferencesFromRegistry(clazz, remoteFilter, remoteRegistryForContainer, referencesFound);
-				}
+				RemoteServiceRegistryImpl remoteRegistryForContainer = (RemoteServiceRegistryImpl) remoteRegistrys.get(targetContainerID);
+				if (remoteRegistryForContainer != null)
+					addReferencesFromRegistry(clazz, remoteFilter, remoteRegistryForContainer, referencesFound);
 			}
 		}
 	}
@@ -582,10 +593,8 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 	private void addReferencesFromLocalRegistry(ID[] idFilter, String clazz, IRemoteFilter remoteFilter, List referencesFound) {
 		ID localContainerID = getLocalContainerID();
 		if (idFilter == null || Arrays.asList(idFilter).contains(localContainerID)) {
-			synchronized (localRegistry) {
-				// Add any from local registry
-				addReferencesFromRegistry(clazz, remoteFilter, localRegistry, referencesFound);
-			}
+			// Add any from local registry
+			addReferencesFromRegistry(clazz, remoteFilter, localRegistry, referencesFound);
 		}
 	}
 
@@ -944,25 +953,21 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 		try {
 			// First send request
 			final Request request = sendCallRequest(registration, call);
-			long requestId = request.getRequestId();
-			// Then get the specified timeout and calculate when we should
-			// timeout in real time
-			final long timeout = call.getTimeout() + System.currentTimeMillis();
-			// Now loop until timeout time has elapsed
-			while ((timeout - System.currentTimeMillis()) > 0 && !doneWaiting) {
-				synchronized (request) {
-					if (request.isDone()) {
-						doneWaiting = true;
-						response = request.getResponse();
-						if (response == null)
-							throw new ECFException("Invalid response for requestId=" + requestId); //$NON-NLS-1$
-					} else {
-						request.wait(RESPONSE_WAIT_INTERVAL);
-					}
-				}
+			// Wait until handleCallResponse completes the request's future, or timeout
+			try {
+				response = request.getFuture().get(call.getTimeout(), java.util.concurrent.TimeUnit.MILLISECONDS);
+				doneWaiting = true;
+			} catch (final java.util.concurrent.TimeoutException e) {
+				// Timed out below
+			} catch (final java.util.concurrent.ExecutionException e) {
+				// Timed out by handleRequestTimeout
 			}
-			if (!doneWaiting)
+			if (!doneWaiting) {
+				removeRequest(request);
 				throw new ServiceException("Request timed out after " + Long.toString(call.getTimeout()) + "ms", ServiceException.REMOTE, new TimeoutException(call.getTimeout())); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			if (response == null)
+				throw new ECFException("Invalid response for requestId=" + request.getRequestId()); //$NON-NLS-1$
 		} catch (final IOException e) {
 			log(CALL_REQUEST_ERROR_CODE, CALL_REQUEST_ERROR_MESSAGE, e);
 			throw new ECFException("Error sending request", e); //$NON-NLS-1$
@@ -1106,8 +1111,6 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 
 	private static final int REQUEST_NOT_FOUND_ERROR_CODE = 211;
 
-	private static final long RESPONSE_WAIT_INTERVAL = 500;
-
 	private static final String ADD_REGISTRATION = "handleAddRegistration"; //$NON-NLS-1$
 
 	private static final String ADD_REGISTRATIONS = "handleAddRegistrations"; //$NON-NLS-1$
@@ -1334,9 +1337,7 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 					addRemoteRegistry(registry);
 				}
 				for (int i = 0; i < registrations.length; i++) {
-					RemoteServiceRegistrationImpl[] regs = registry.getRegistrations();
-					List regList = Arrays.asList(regs);
-					if (!regList.contains(registrations[i])) {
+					if (registry.findRegistrationForRemoteServiceId(registrations[i].getID()) == null) {
 						addedRegistrations.add(registrations[i]);
 						registry.publishService(registrations[i]);
 					}
@@ -1372,9 +1373,7 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 				addRemoteRegistry(registry);
 			}
 			// publish service in this registry. At this point it's ready to go
-			RemoteServiceRegistrationImpl[] regs = registry.getRegistrations();
-			List regList = Arrays.asList(regs);
-			if (!regList.contains(registration)) {
+			if (registry.findRegistrationForRemoteServiceId(registration.getID()) == null) {
 				added = true;
 				registry.publishService(registration);
 			}
@@ -1563,7 +1562,11 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 
 	}
 
-	private IExecutor getRequestExecutor(Request request) {
+	private IExecutor getRequestExecutor(Request request, RemoteServiceRegistrationImpl localRegistration) {
+		// Registration may have its own executor
+		final IExecutor registrationExecutor = localRegistration.getRequestExecutor();
+		if (registrationExecutor != null)
+			return registrationExecutor;
 		if (requestExecutor == null) {
 			requestExecutor = createRequestExecutor(request);
 		}
@@ -1591,6 +1594,8 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 					return "Remote Request Handler - " + request.getCall().getMethod() + ":" + request.getRequestId(); //$NON-NLS-1$ //$NON-NLS-2$
 				}
 			};
+		} else if (DEFAULT_EXECUTOR_TYPE.equals("pool")) { //$NON-NLS-1$
+			executor = new PooledRequestExecutor("Remote Request Handler", PooledRequestExecutor.DEFAULT_POOL_SIZE, PooledRequestExecutor.DEFAULT_QUEUE_SIZE); //$NON-NLS-1$
 		}
 		return executor;
 	}
@@ -1602,12 +1607,12 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 		Object[] callArgs = call.getParameters();
 		Object[] args = (callArgs == null) ? SharedObjectMsg.nullArgs : callArgs;
 		Object service = reg.getService();
-		// Find appropriate method on service
-		final Method method = ClassUtil.getMethod(service.getClass(), call.getMethod(), SharedObjectMsg.getTypesForParameters(args));
+		// Find appropriate method on service, resolved on first call
+		final RemoteMethodCache.CachedMethod method = reg.getMethodCache().getMethod(service.getClass(), call.getMethod(), args);
 		// Actually invoke method on service object
 		Object result = method.invoke(service, args);
 		if (result != null) {
-			Class returnType = method.getReturnType();
+			Class returnType = method.getMethod().getReturnType();
 			// provider must expose osgi.async property and must be async return type
 			if (AsyncUtil.isOSGIAsync(reg.getReference()) && AsyncReturnUtil.isAsyncType(returnType))
 				return AsyncReturnUtil.convertAsyncToReturn(result, returnType, call.getTimeout());
@@ -1659,7 +1664,15 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 			}
 		};
 		// Now actually execute the runnable asynchronously using the executor
-		executor.execute(runnable, new NullProgressMonitor());
+		try {
+			executor.execute(runnable, new NullProgressMonitor());
+		} catch (RejectedExecutionException e) {
+			// Executor is busy, so answer request with the rejection
+			if (respond)
+				sendErrorResponse(responseTarget, request.getRequestId(), "executeRequest", e); //$NON-NLS-1$
+			else
+				logRemoteCallException("Remote request rejected.  Remote request=" + request, e); //$NON-NLS-1$
+		}
 	}
 
 	private void sendErrorResponse(ID responseTarget, long requestId, String message, Throwable e) {
@@ -1700,7 +1713,7 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 			return;
 		}
 
-		IExecutor executor = getRequestExecutor(request);
+		IExecutor executor = getRequestExecutor(request, localRegistration);
 		if (executor == null) {
 			sendErrorResponse(responseTarget, request.getRequestId(), "handleCallRequest", new NullPointerException("request executor is not available and so no requests can be processed")); //$NON-NLS-1$ //$NON-NLS-2$
 			return;
@@ -1732,7 +1745,7 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 			return;
 		}
 
-		IExecutor executor = getRequestExecutor(request);
+		IExecutor executor = getRequestExecutor(request, localRegistration);
 		if (executor == null) {
 			sendErrorResponse(responseTarget, request.getRequestId(), "handleCallRequest", new NullPointerException("request executor is not available and so no requests can be processed")); //$NON-NLS-1$ //$NON-NLS-2$
 			return;
@@ -1799,7 +1812,9 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 			log(REQUEST_NOT_FOUND_ERROR_CODE, REQUEST_NOT_FOUND_ERROR_MESSAGE, new NullPointerException());
 			return;
 		}
-		removeRequest(request);
+		// Request may have timed out concurrently
+		if (!removeRequest(request))
+			return;
 		final IRemoteCallListener listener = request.getListener();
 		if (listener != null) {
 			fireCallCompleteEvent(listener, request.getRequestId(), response.getResponse(), response.hadException(), response.getException());
@@ -1808,8 +1823,8 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 		synchronized (request) {
 			request.setResponse(response);
 			request.setDone(true);
-			request.notify();
 		}
+		request.getFuture().complete(response);
 	}
 
 	/**
@@ -1830,7 +1845,9 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 			log(REQUEST_NOT_FOUND_ERROR_CODE, REQUEST_NOT_FOUND_ERROR_MESSAGE, new NullPointerException());
 			return;
 		}
-		removeRequest(request);
+		// Request may have timed out concurrently
+		if (!removeRequest(request))
+			return;
 		final IRemoteCallListener listener = request.getListener();
 		if (listener != null) {
 			fireCallCompleteEvent(listener, request.getRequestId(), response.getResponse(), response.hadException(), response.getException());
@@ -1839,8 +1856,8 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 		synchronized (request) {
 			request.setResponse(response);
 			request.setDone(true);
-			request.notify();
 		}
+		request.getFuture().complete(response);
 	}
 
 	protected Request sendFireRequest(RemoteServiceRegistrationImpl remoteRegistration, IRemoteCall call) throws ECFException {
@@ -1877,7 +1894,7 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 			return;
 		}
 
-		IExecutor executor = getRequestExecutor(request);
+		IExecutor executor = getRequestExecutor(request, localRegistration);
 		if (executor == null) {
 			sendErrorResponse(responseTarget, request.getRequestId(), "handleFireRequest", new NullPointerException("request executor is not available and so no requests can be processed")); //$NON-NLS-1$ //$NON-NLS-2$
 			return;
@@ -2071,11 +2088,12 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 	 * @return true if added, false if not added
 	 * @since 3.2
 	 */
-	@SuppressWarnings("unchecked")
 	protected boolean addRequest(Request request) {
-		synchronized (requests) {
-			return requests.add(request);
-		}
+		pendingRequests.put(request);
+		final long timeout = request.getCall().getTimeout();
+		if (timeout > 0)
+			request.timeout = RequestTimeoutWheel.getDefault().schedule(requestTimeoutHandler, request.getRequestId(), timeout);
+		return true;
 	}
 
 	/**
@@ -2084,16 +2102,7 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 	 * @since 3.2
 	 */
 	protected Request getRequest(long requestId) {
-		synchronized (requests) {
-			for (final Iterator i = requests.iterator(); i.hasNext();) {
-				final Request req = (Request) i.next();
-				final long reqId = req.getRequestId();
-				if (reqId == requestId) {
-					return req;
-				}
-			}
-		}
-		return null;
+		return pendingRequests.get(requestId);
 	}
 
 	/**
@@ -2102,9 +2111,33 @@ public class RegistrySharedObject extends BaseSharedObject implements IRemoteSer
 	 * @since 3.2
 	 */
 	protected boolean removeRequest(Request request) {
-		synchronized (requests) {
-			return requests.remove(request);
-		}
+		if (pendingRequests.remove(request.getRequestId()) == null)
+			return false;
+		final RequestTimeoutWheel.Timeout timeout = request.timeout;
+		if (timeout != null)
+			timeout.cancel();
+		return true;
+	}
+
+	/**
+	 * Called when the timeout of a request added with {@link #addRequest(Request)}
+	 * has elapsed.  If the request is still waiting for a response it is removed,
+	 * and a listener of the request is sent a call complete event with a timeout
+	 * exception.
+	 *
+	 * @param requestId the request id
+	 * @since 4.7
+	 */
+	protected void handleRequestTimeout(long requestId) {
+		final Request request = getRequest(requestId);
+		if (request == null || !removeRequest(request))
+			return;
+		final IRemoteCallListener listener = request.getListener();
+		if (listener != null) {
+			final RemoteCallImpl call = request.getCall();
+			fireCallCompleteEvent(listener, requestId, null, true, new java.util.concurrent.TimeoutException("Timeout calling remote service method=" + call.getMethod() + " timeout=" + call.getTimeout())); //$NON-NLS-1$ //$NON-NLS-2$
+		} else
+			request.getFuture().completeExceptionally(new java.util.concurrent.TimeoutException("Timeout calling remote service method=" + request.getCall().getMethod())); //$NON-NLS-1$
 	}
 
 	protected void logException(int code, String message, Throwable e) {
@@ -0,0 +1,198 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.provider.remoteservice.generic;
+
+import java.lang.invoke.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.ecf.core.sharedobject.SharedObjectMsg;
+import org.eclipse.ecf.core.util.reflection.ClassUtil;
+
+/**
+ * Methods of a registration's service resolved for remote calls, keyed by method
+ * name and the classes of the call arguments.  A cache hit needs no reflection
+ * and no allocation.  Public methods of public classes are invoked through a
+ * {@link MethodHandle}, others through {@link Method#invoke(Object, Object...)}.
+ */
+final class RemoteMethodCache {
+
+	/**
+	 * Maximum number of argument class signatures cached per method name.
+	 */
+	private static final int MAX_SIGNATURES = 16;
+
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+	private static final MethodHandle WRAP_TARGET_EXCEPTION;
+
+	static {
+		try {
+			WRAP_TARGET_EXCEPTION = MethodHandles.lookup().findStatic(RemoteMethodCache.class, "wrapTargetException", MethodType.methodType(Object.class, Throwable.class)); //$NON-NLS-1$
+		} catch (final ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * Carries an exception thrown by the invoked method, so that it can be told
+	 * apart from exceptions thrown while adapting the arguments.
+	 */
+	private static final class TargetException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		TargetException(Throwable cause) {
+			super(null, cause, false, false);
+		}
+	}
+
+	static Object wrapTargetException(Throwable t) {
+		throw new TargetException(t);
+	}
+
+	static final class CachedMethod {
+		private final Class[] argTypes;
+		private final Method method;
+		private final MethodHandle handle;
+
+		CachedMethod(Class[] argTypes, Method method) {
+			this.argTypes = argTypes;
+			this.method = method;
+			MethodHandle h = null;
+			try {
+				MethodHandle target = MethodHandles.publicLookup().unreflect(method);
+				// Exceptions of the method itself are wrapped in TargetException
+				final MethodHandle wrap = MethodHandles.dropArguments(WRAP_TARGET_EXCEPTION.asType(MethodType.methodType(target.type().returnType(), Throwable.class)), 1, target.type().parameterList());
+				target = MethodHandles.catchException(target, Throwable.class, wrap);
+				h = target.asSpreader(Object[].class, argTypes.length).asType(INVOKER_TYPE);
+			} catch (final IllegalAccessException e) {
+				// not accessible through a method handle, use reflection
+			}
+			this.handle = h;
+		}
+
+		boolean matches(Object[] args) {
+			if (args.length != argTypes.length)
+				return false;
+			for (int i = 0; i < args.length; i++) {
+				final Class c = (args[i] == null) ? null : args[i].getClass();
+				if (c != argTypes[i])
+					return false;
+			}
+			return true;
+		}
+
+		Method getMethod() {
+			return method;
+		}
+
+		/**
+		 * Invoke the method, with the exceptions of {@link Method#invoke(Object, Object...)}.
+		 *
+		 * @throws InvocationTargetException if the method threw an exception
+		 * @throws IllegalArgumentException if the arguments do not fit the method's parameters
+		 * (e.g. <code>null</code> for a primitive parameter)
+		 * @throws Exception if the method could not be invoked
+		 */
+		Object invoke(Object service, Object[] args) throws Exception {
+			if (handle == null)
+				return method.invoke(service, args);
+			try {
+				return (Object) handle.invokeExact(service, args);
+			} catch (final TargetException e) {
+				throw new InvocationTargetException(e.getCause());
+			} catch (final ClassCastException | NullPointerException | WrongMethodTypeException e) {
+				// Thrown while adapting the arguments, before the method was called
+				final IllegalArgumentException iae = new IllegalArgumentException("argument type mismatch for method " + method.getName()); //$NON-NLS-1$
+				iae.initCause(e);
+				throw iae;
+			} catch (final Exception e) {
+				throw e;
+			} catch (final Error e) {
+				throw e;
+			} catch (final Throwable t) {
+				throw new InvocationTargetException(t);
+			}
+		}
+	}
+
+	private final ConcurrentHashMap<String, CachedMethod[]> methods = new ConcurrentHashMap<String, CachedMethod[]>();
+
+	private volatile boolean disposed = false;
+
+	private final LongAdder hits = new LongAdder();
+
+	/**
+	 * @param serviceClass class of the service object
+	 * @param methodName name of the method to call
+	 * @param args the call arguments.  Must not be <code>null</code>.
+	 * @return CachedMethod the method to call.  Will not be <code>null</code>.
+	 * @throws NoSuchMethodException if no method matches name and arguments
+	 */
+	CachedMethod getMethod(Class serviceClass, String methodName, Object[] args) throws NoSuchMethodException {
+		CachedMethod[] cached = methods.get(methodName);
+		if (cached != null)
+			for (int i = 0; i < cached.length; i++)
+				if (cached[i].matches(args)) {
+					hits.increment();
+					return cached[i];
+				}
+		final Class[] argTypes = SharedObjectMsg.getTypesForParameters(args);
+		final CachedMethod result = new CachedMethod(argTypes, ClassUtil.getMethod(serviceClass, methodName, argTypes));
+		if (disposed)
+			return result;
+		synchronized (methods) {
+			cached = methods.get(methodName);
+			if (cached == null)
+				methods.put(methodName, new CachedMethod[] {result});
+			else if (cached.length < MAX_SIGNATURES) {
+				final CachedMethod[] newCached = new CachedMethod[cached.length + 1];
+				System.arraycopy(cached, 0, newCached, 0, cached.length);
+				newCached[cached.length] = result;
+				methods.put(methodName, newCached);
+			}
+			if (disposed)
+				methods.clear();
+		}
+		return result;
+	}
+
+	/**
+	 * @return int the number of cached method signatures
+	 */
+	int size() {
+		int result = 0;
+		for (final CachedMethod[] cached : methods.values())
+			result += cached.length;
+		return result;
+	}
+
+	/**
+	 * @return long the number of calls of {@link #getMethod(Class, String, Object[])}
+	 * answered from the cache
+	 */
+	long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Clear the cache, and stop caching.
+	 */
+	void dispose() {
+		synchronized (methods) {
+			disposed = true;
+			methods.clear();
+		}
+	}
+}
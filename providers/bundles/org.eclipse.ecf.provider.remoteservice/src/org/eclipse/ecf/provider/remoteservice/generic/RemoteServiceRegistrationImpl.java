@@ -56,6 +56,8 @@ public class RemoteServiceRegistrationImpl implements IRemoteServiceRegistration
 
 	protected transient RegistrySharedObject sharedObject = null;
 
+	private transient RemoteServiceRegistryImpl registry = null;
+
 	/**
 	 * @since 3.0
 	 */
@@ -82,6 +84,7 @@ public class RemoteServiceRegistrationImpl implements IRemoteServiceRegistration
 
 	public void publish(RegistrySharedObject sharedObject1, RemoteServiceRegistryImpl registry, Object svc, String[] clzzes, Dictionary props) {
 		this.sharedObject = sharedObject1;
+		this.registry = registry;
 		this.service = svc;
 		this.clazzes = clzzes;
 		this.reference = new RemoteServiceReferenceImpl(this);
@@ -125,6 +128,9 @@ public class RemoteServiceRegistrationImpl implements IRemoteServiceRegistration
 			}
 			this.properties = createProperties(properties);
 		}
+		// Indexed properties may have changed
+		if (registry != null)
+			registry.updateProperties(this);
 
 		// XXX Need to notify that registration modified
 	}
@@ -134,6 +140,12 @@ public class RemoteServiceRegistrationImpl implements IRemoteServiceRegistration
 			sharedObject.sendUnregister(this);
 		}
 		this.classLoader = null;
+		getMethodCache().dispose();
+		synchronized (this) {
+			if (requestExecutor != null)
+				requestExecutor.dispose();
+			requestExecutorCreated = true;
+		}
 	}
 
 	/**
@@ -449,6 +461,59 @@ public class RemoteServiceRegistrationImpl implements IRemoteServiceRegistration
 
 	private transient ClassLoader classLoader = RemoteServiceRegistrationImpl.class.getClassLoader();
 
+	private transient RemoteMethodCache methodCache;
+
+	/**
+	 * @return RemoteMethodCache the methods of this registration's service resolved
+	 * for remote calls.  Disposed when the registration is unregistered.
+	 */
+	synchronized RemoteMethodCache getMethodCache() {
+		if (methodCache == null)
+			methodCache = new RemoteMethodCache();
+		return methodCache;
+	}
+
+	/**
+	 * @return int the number of method signatures of this registration's service
+	 * resolved and cached for remote calls.  0 once unregistered.
+	 * @since 4.7
+	 */
+	protected int getCachedMethodCount() {
+		return getMethodCache().size();
+	}
+
+	/**
+	 * @return long the number of remote calls to this registration whose method was
+	 * found in the method cache
+	 * @since 4.7
+	 */
+	protected long getMethodCacheHitCount() {
+		return getMethodCache().getHitCount();
+	}
+
+	private transient PooledRequestExecutor requestExecutor;
+
+	private transient boolean requestExecutorCreated;
+
+	/**
+	 * Get the executor for remote calls to this registration, configured by the
+	 * {@link PooledRequestExecutor#POOL_SIZE_PROP} and
+	 * {@link PooledRequestExecutor#QUEUE_SIZE_PROP} service properties.  The
+	 * executor is created on first use, so changes to these properties after
+	 * the first remote call have no effect.
+	 *
+	 * @return PooledRequestExecutor the executor for this registration, or
+	 * <code>null</code> if this registration does not configure one
+	 * @since 4.7
+	 */
+	public synchronized PooledRequestExecutor getRequestExecutor() {
+		if (!requestExecutorCreated) {
+			requestExecutor = PooledRequestExecutor.createFor(this);
+			requestExecutorCreated = true;
+		}
+		return requestExecutor;
+	}
+
 	/**
 	 * @since 4.5
 	 */
@@ -13,6 +13,7 @@ package org.eclipse.ecf.provider.remoteservice.generic;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.ecf.core.identity.ID;
 import org.eclipse.ecf.core.identity.IDFactory;
 import org.eclipse.ecf.remoteservice.*;
@@ -65,8 +66,60 @@ public class RemoteServiceRegistryImpl implements Serializable {
 		this.containerID = containerID;
 	}
 
+	/**
+	 * Registrations by service id (Long), maintained by publish/unpublish.  Not
+	 * serialized, so rebuilt on first use after deserialization.
+	 */
+	private transient HashMap registrationsByServiceId;
+
+	/**
+	 * Index used by lookups, or <code>null</code> if not built yet.  Updated on
+	 * publish and unpublish, and read by lookups without locking.
+	 */
+	private transient volatile LookupIndex lookupIndex;
+
+	@SuppressWarnings("unchecked")
+	private HashMap getRegistrationsByServiceId() {
+		if (registrationsByServiceId == null) {
+			registrationsByServiceId = new HashMap(Math.max(16, 2 * allPublishedServices.size()));
+			for (final Iterator i = allPublishedServices.iterator(); i.hasNext();) {
+				final RemoteServiceRegistrationImpl reg = (RemoteServiceRegistrationImpl) i.next();
+				final Long serviceId = Long.valueOf(reg.getServiceId());
+				if (!registrationsByServiceId.containsKey(serviceId))
+					registrationsByServiceId.put(serviceId, reg);
+			}
+		}
+		return registrationsByServiceId;
+	}
+
+	private LookupIndex getLookupIndex() {
+		LookupIndex index = lookupIndex;
+		if (index == null) {
+			synchronized (this) {
+				index = lookupIndex;
+				if (index == null) {
+					index = new LookupIndex();
+					for (final Iterator i = allPublishedServices.iterator(); i.hasNext();)
+						index.add((RemoteServiceRegistrationImpl) i.next());
+					lookupIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Update the lookup index after the properties of a registration changed.
+	 * @param serviceReg the registration
+	 */
+	synchronized void updateProperties(RemoteServiceRegistrationImpl serviceReg) {
+		final LookupIndex index = lookupIndex;
+		if (index != null)
+			index.updateRanking(serviceReg);
+	}
+
 	@SuppressWarnings("unchecked")
-	public void publishService(RemoteServiceRegistrationImpl serviceReg) {
+	public synchronized void publishService(RemoteServiceRegistrationImpl serviceReg) {
 
 		// Add the ServiceRegistration to the list of Services published by
 		// Class Name.
@@ -88,9 +141,17 @@ public class RemoteServiceRegistryImpl implements Serializable {
 
 		// Add the ServiceRegistration to the list of all published Services.
 		allPublishedServices.add(serviceReg);
+
+		final HashMap byServiceId = getRegistrationsByServiceId();
+		final Long serviceId = Long.valueOf(serviceReg.getServiceId());
+		if (!byServiceId.containsKey(serviceId))
+			byServiceId.put(serviceId, serviceReg);
+		final LookupIndex index = lookupIndex;
+		if (index != null)
+			index.add(serviceReg);
 	}
 
-	public void unpublishService(RemoteServiceRegistrationImpl serviceReg) {
+	public synchronized void unpublishService(RemoteServiceRegistrationImpl serviceReg) {
 
 		// Remove the ServiceRegistration from the list of Services published by
 		// Class Name.
@@ -107,93 +168,109 @@ public class RemoteServiceRegistryImpl implements Serializable {
 
 		// Remove the ServiceRegistration from the list of all published
 		// Services.
-		allPublishedServices.remove(serviceReg);
+		final boolean removed = removeRegistration(serviceReg);
+
+		final HashMap byServiceId = getRegistrationsByServiceId();
+		final Long serviceId = Long.valueOf(serviceReg.getServiceId());
+		if (serviceReg.equals(byServiceId.get(serviceId)))
+			byServiceId.remove(serviceId);
+		final LookupIndex index = lookupIndex;
+		if (index != null && removed)
+			index.remove(serviceReg);
+	}
 
+	private boolean removeRegistration(RemoteServiceRegistrationImpl serviceReg) {
+		// Usually the published instance, found without calling equals
+		for (int i = allPublishedServices.size() - 1; i >= 0; i--) {
+			if (allPublishedServices.get(i) == serviceReg) {
+				allPublishedServices.remove(i);
+				return true;
+			}
+		}
+		return allPublishedServices.remove(serviceReg);
 	}
 
-	public void unpublishServices() {
+	public synchronized void unpublishServices() {
 		publishedServicesByClass.clear();
 		allPublishedServices.clear();
+		registrationsByServiceId = null;
+		lookupIndex = null;
 	}
 
-	@SuppressWarnings("unchecked")
 	public IRemoteServiceReference[] lookupServiceReferences(String clazz, IRemoteFilter filter) {
-		int size;
-		ArrayList references;
-		ArrayList serviceRegs;
-		if (clazz == null) {
-			serviceRegs = allPublishedServices;
-		} else {
-			/* services registered under the class name */
-			serviceRegs = (ArrayList) publishedServicesByClass.get(clazz);
+		final LookupIndex index = getLookupIndex();
+		// Use the property indexes if the filter requires a value of an indexed
+		// property.  All registrations are only taken if no index applies
+		final RemoteServiceRegistrationImpl[] indexed = (filter == null) ? null : index.lookup(filter.toString());
+		RemoteServiceRegistrationImpl[] serviceRegs;
+		boolean checkClass = false;
+		if (clazz == null)
+			serviceRegs = (indexed != null) ? indexed : index.all.get();
+		else {
+			serviceRegs = LookupIndex.get(index.byClass, clazz);
+			if (serviceRegs != null && indexed != null && indexed.length < serviceRegs.length) {
+				serviceRegs = indexed;
+				checkClass = true;
+			}
 		}
 
-		if (serviceRegs == null) {
+		if (serviceRegs == null || serviceRegs.length == 0) {
 			return (null);
 		}
 
-		size = serviceRegs.size();
-
-		if (size == 0) {
-			return (null);
-		}
-
-		references = new ArrayList(size);
+		final int size = serviceRegs.length;
+		final RemoteServiceReferenceImpl[] references = new RemoteServiceReferenceImpl[size];
+		int count = 0;
 		for (int i = 0; i < size; i++) {
-			final IRemoteServiceRegistration registration = (IRemoteServiceRegistration) serviceRegs.get(i);
-
-			final IRemoteServiceReference reference = registration.getReference();
+			final RemoteServiceReferenceImpl reference = (RemoteServiceReferenceImpl) serviceRegs[i].getReference();
+			if (checkClass && !hasClass(reference, clazz))
+				continue;
 			if ((filter == null) || filter.match(reference)) {
-				references.add(reference);
+				references[count++] = reference;
 			}
 		}
 
-		if (references.size() == 0) {
+		if (count == 0) {
 			return null;
 		}
 
-		return (IRemoteServiceReference[]) references.toArray(new RemoteServiceReferenceImpl[references.size()]);
+		if (count == size)
+			return references;
+		final RemoteServiceReferenceImpl[] result = new RemoteServiceReferenceImpl[count];
+		System.arraycopy(references, 0, result, 0, count);
+		return result;
+	}
 
+	private static boolean hasClass(IRemoteServiceReference reference, String clazz) {
+		final String[] clazzes = (String[]) reference.getProperty(REMOTEOBJECTCLASS);
+		for (int i = 0; i < clazzes.length; i++)
+			if (clazz.equals(clazzes[i]))
+				return true;
+		return false;
 	}
 
-	@SuppressWarnings("unchecked")
 	public IRemoteServiceReference[] lookupServiceReferences() {
-		int size;
-		ArrayList references;
-		size = allPublishedServices.size();
+		final RemoteServiceRegistrationImpl[] regs = getLookupIndex().all.get();
+		final int size = regs.length;
 
 		if (size == 0) {
 			return (null);
 		}
 
-		references = new ArrayList(size);
+		final RemoteServiceReferenceImpl[] references = new RemoteServiceReferenceImpl[size];
 		for (int i = 0; i < size; i++) {
-			final IRemoteServiceRegistration registration = (IRemoteServiceRegistration) allPublishedServices.get(i);
-
-			final IRemoteServiceReference reference = registration.getReference();
-			references.add(reference);
+			references[i] = (RemoteServiceReferenceImpl) regs[i].getReference();
 		}
-
-		if (references.size() == 0) {
-			return null;
-		}
-
-		return (IRemoteServiceReference[]) references.toArray(new RemoteServiceReferenceImpl[references.size()]);
+		return references;
 	}
 
 	@SuppressWarnings("unchecked")
-	protected RemoteServiceRegistrationImpl[] getRegistrations() {
+	protected synchronized RemoteServiceRegistrationImpl[] getRegistrations() {
 		return (RemoteServiceRegistrationImpl[]) allPublishedServices.toArray(new RemoteServiceRegistrationImpl[allPublishedServices.size()]);
 	}
 
-	protected RemoteServiceRegistrationImpl findRegistrationForServiceId(long serviceId) {
-		for (final Iterator i = allPublishedServices.iterator(); i.hasNext();) {
-			final RemoteServiceRegistrationImpl reg = (RemoteServiceRegistrationImpl) i.next();
-			if (serviceId == reg.getServiceId()) {
-				return reg;
-			}
-		}
-		return null;
+	protected synchronized RemoteServiceRegistrationImpl findRegistrationForServiceId(long serviceId) {
+		return (RemoteServiceRegistrationImpl) getRegistrationsByServiceId().get(Long.valueOf(serviceId));
 	}
 
 	/**
@@ -201,16 +278,20 @@ public class RemoteServiceRegistryImpl implements Serializable {
 	 * @return RemoteServiceRegistrationImpl a registration instance for given remoteServiceID
 	 * @since 3.0
 	 */
-	protected RemoteServiceRegistrationImpl findRegistrationForRemoteServiceId(IRemoteServiceID remoteServiceID) {
+	protected synchronized RemoteServiceRegistrationImpl findRegistrationForRemoteServiceId(IRemoteServiceID remoteServiceID) {
+		final RemoteServiceRegistrationImpl reg = findRegistrationForServiceId(remoteServiceID.getContainerRelativeID());
+		if (reg != null && remoteServiceID.equals(reg.getID()))
+			return reg;
+		// Not found by service id, so check all
 		for (final Iterator i = allPublishedServices.iterator(); i.hasNext();) {
-			final RemoteServiceRegistrationImpl reg = (RemoteServiceRegistrationImpl) i.next();
-			if (remoteServiceID.equals(reg.getID()))
-				return reg;
+			final RemoteServiceRegistrationImpl r = (RemoteServiceRegistrationImpl) i.next();
+			if (remoteServiceID.equals(r.getID()))
+				return r;
 		}
 		return null;
 	}
 
-	public String toString() {
+	public synchronized String toString() {
 		final StringBuffer buf = new StringBuffer("RemoteServiceRegistryImpl["); //$NON-NLS-1$
 		buf.append("all=").append(allPublishedServices).append(";").append("byclass=").append(publishedServicesByClass).append("]"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 		return buf.toString();
@@ -225,4 +306,240 @@ public class RemoteServiceRegistryImpl implements Serializable {
 		return (IRemoteServiceID) IDFactory.getDefault().createID(IDFactory.getDefault().getNamespaceByName(RemoteServiceNamespace.NAME), new Object[] {getContainerID(), new Long(serviceid)});
 	}
 
+	/**
+	 * Registrations of one index key.  Changed under the registry lock, and read
+	 * through an array snapshot that is taken again after a change.
+	 */
+	private static final class IndexEntry {
+		// Insertion ordered, with constant time removal
+		private final LinkedHashSet regs = new LinkedHashSet(4);
+		private volatile RemoteServiceRegistrationImpl[] snapshot;
+
+		@SuppressWarnings("unchecked")
+		synchronized void add(RemoteServiceRegistrationImpl reg) {
+			regs.add(reg);
+			snapshot = null;
+		}
+
+		/**
+		 * @return boolean true if the entry is empty after the removal
+		 */
+		synchronized boolean remove(RemoteServiceRegistrationImpl reg) {
+			if (regs.remove(reg))
+				snapshot = null;
+			return regs.isEmpty();
+		}
+
+		RemoteServiceRegistrationImpl[] get() {
+			RemoteServiceRegistrationImpl[] result = snapshot;
+			if (result == null) {
+				synchronized (this) {
+					result = snapshot;
+					if (result == null) {
+						result = (RemoteServiceRegistrationImpl[]) regs.toArray(new RemoteServiceRegistrationImpl[regs.size()]);
+						snapshot = result;
+					}
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Registrations indexed by class name and by the values of the
+	 * {@link #REMOTESERVICE_ID} and {@link #REMOTESERVICE_RANKING} properties.
+	 * Publish and unpublish change only the entries of the registration's keys.
+	 */
+	private static final class LookupIndex {
+		private static final RemoteServiceRegistrationImpl[] EMPTY = new RemoteServiceRegistrationImpl[0];
+
+		final IndexEntry all = new IndexEntry();
+		// String class name -> IndexEntry
+		final Map byClass = new ConcurrentHashMap();
+		// Long property value -> IndexEntry
+		private final Map byServiceId = new ConcurrentHashMap();
+		private final Map byRanking = new ConcurrentHashMap();
+		// Registrations with a ranking that is not a number
+		private final IndexEntry otherRanking = new IndexEntry();
+		// RemoteServiceRegistrationImpl -> indexed ranking value, so that a
+		// registration is removed from the entry it was added to
+		private final Map rankings = new HashMap();
+
+		void add(RemoteServiceRegistrationImpl reg) {
+			all.add(reg);
+			final String[] clazzes = (String[]) reg.getProperty(REMOTEOBJECTCLASS);
+			for (int i = 0; i < clazzes.length; i++)
+				addTo(byClass, clazzes[i], reg);
+			addTo(byServiceId, Long.valueOf(reg.getServiceId()), reg);
+			addRanking(reg);
+		}
+
+		void remove(RemoteServiceRegistrationImpl reg) {
+			all.remove(reg);
+			final String[] clazzes = (String[]) reg.getProperty(REMOTEOBJECTCLASS);
+			for (int i = 0; i < clazzes.length; i++)
+				removeFrom(byClass, clazzes[i], reg);
+			removeFrom(byServiceId, Long.valueOf(reg.getServiceId()), reg);
+			removeRanking(reg);
+		}
+
+		void updateRanking(RemoteServiceRegistrationImpl reg) {
+			if (rankings.containsKey(reg)) {
+				removeRanking(reg);
+				addRanking(reg);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void addRanking(RemoteServiceRegistrationImpl reg) {
+			final Object ranking = reg.getProperty(REMOTESERVICE_RANKING);
+			rankings.put(reg, ranking);
+			if (ranking == null)
+				return;
+			final Long key = toLong(ranking);
+			if (key == null)
+				otherRanking.add(reg);
+			else
+				addTo(byRanking, key, reg);
+		}
+
+		private void removeRanking(RemoteServiceRegistrationImpl reg) {
+			final Object ranking = rankings.remove(reg);
+			if (ranking == null)
+				return;
+			final Long key = toLong(ranking);
+			if (key == null)
+				otherRanking.remove(reg);
+			else
+				removeFrom(byRanking, key, reg);
+		}
+
+		@SuppressWarnings("unchecked")
+		private static void addTo(Map map, Object key, RemoteServiceRegistrationImpl reg) {
+			IndexEntry entry = (IndexEntry) map.get(key);
+			if (entry == null) {
+				entry = new IndexEntry();
+				map.put(key, entry);
+			}
+			entry.add(reg);
+		}
+
+		private static void removeFrom(Map map, Object key, RemoteServiceRegistrationImpl reg) {
+			final IndexEntry entry = (IndexEntry) map.get(key);
+			if (entry != null && entry.remove(reg))
+				map.remove(key);
+		}
+
+		static RemoteServiceRegistrationImpl[] get(Map map, Object key) {
+			final IndexEntry entry = (IndexEntry) map.get(key);
+			return (entry == null) ? null : entry.get();
+		}
+
+		private static Long toLong(Object value) {
+			if (value instanceof Number)
+				return Long.valueOf(((Number) value).longValue());
+			if (value instanceof String)
+				try {
+					return Long.valueOf(((String) value).trim());
+				} catch (final NumberFormatException e) {
+					// not a number
+				}
+			return null;
+		}
+
+		/**
+		 * @param filter filter string
+		 * @return RemoteServiceRegistrationImpl[] registrations that may match the filter,
+		 * found through the smallest applicable index.  <code>null</code> if no index applies.
+		 */
+		RemoteServiceRegistrationImpl[] lookup(String filter) {
+			final String[] values = new String[3];
+			if (!getEqualityValues(filter, values))
+				return null;
+			RemoteServiceRegistrationImpl[] result = null;
+			if (values[0] != null)
+				result = choose(result, get(byClass, values[0]));
+			Long key;
+			if (values[1] != null && (key = toLong(values[1])) != null)
+				result = choose(result, get(byServiceId, key));
+			if (values[2] != null && (key = toLong(values[2])) != null) {
+				RemoteServiceRegistrationImpl[] ranked = get(byRanking, key);
+				final RemoteServiceRegistrationImpl[] others = otherRanking.get();
+				if (others.length > 0) {
+					ranked = (ranked == null) ? EMPTY : ranked;
+					final RemoteServiceRegistrationImpl[] r = new RemoteServiceRegistrationImpl[ranked.length + others.length];
+					System.arraycopy(ranked, 0, r, 0, ranked.length);
+					System.arraycopy(others, 0, r, ranked.length, others.length);
+					ranked = r;
+				}
+				result = choose(result, ranked);
+			}
+			return result;
+		}
+
+		private static RemoteServiceRegistrationImpl[] choose(RemoteServiceRegistrationImpl[] current, RemoteServiceRegistrationImpl[] candidate) {
+			if (candidate == null)
+				candidate = EMPTY;
+			return (current == null || candidate.length < current.length) ? candidate : current;
+		}
+
+		/**
+		 * Find the values required for the objectClass, service id and ranking
+		 * properties by a filter that is a single equality item, or a conjunction
+		 * with equality items, e.g. <code>(&amp;(ecf.rsvc.id=5)(foo=bar))</code>.
+		 * @return boolean true if any value was found
+		 */
+		private static boolean getEqualityValues(String filter, String[] values) {
+			if (filter == null || !filter.startsWith("(")) //$NON-NLS-1$
+				return false;
+			if (!filter.startsWith("(&")) //$NON-NLS-1$
+				return getEqualityValue(filter, 0, filter.length(), values);
+			boolean found = false;
+			int i = 2;
+			final int end = filter.length() - 1;
+			while (i < end && filter.charAt(i) == '(') {
+				// Find end of this operand
+				int depth = 0;
+				int j = i;
+				for (; j < end; j++) {
+					final char c = filter.charAt(j);
+					if (c == '\\')
+						j++;
+					else if (c == '(')
+						depth++;
+					else if (c == ')' && --depth == 0)
+						break;
+				}
+				if (j >= end)
+					break;
+				found |= getEqualityValue(filter, i, j + 1, values);
+				i = j + 1;
+			}
+			return found;
+		}
+
+		private static boolean getEqualityValue(String filter, int start, int end, String[] values) {
+			// Simple item only: no nested operands, escapes, or wildcards
+			if (end - start < 4 || filter.charAt(end - 1) != ')')
+				return false;
+			final String item = filter.substring(start + 1, end - 1);
+			if (item.indexOf('(') >= 0 || item.indexOf('\\') >= 0 || item.indexOf('*') >= 0)
+				return false;
+			final int eq = item.indexOf('=');
+			if (eq < 1 || "~<>".indexOf(item.charAt(eq - 1)) >= 0) //$NON-NLS-1$
+				return false;
+			final String attr = item.substring(0, eq).trim();
+			final String value = item.substring(eq + 1);
+			if (attr.equalsIgnoreCase(REMOTEOBJECTCLASS))
+				values[0] = value;
+			else if (attr.equalsIgnoreCase(REMOTESERVICE_ID))
+				values[1] = value;
+			else if (attr.equalsIgnoreCase(REMOTESERVICE_RANKING))
+				values[2] = value;
+			else
+				return false;
+			return true;
+		}
+	}
+
 }
@@ -12,6 +12,7 @@
 package org.eclipse.ecf.provider.remoteservice.generic;
 
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
 import org.eclipse.ecf.core.identity.ID;
 import org.eclipse.ecf.remoteservice.IRemoteCallListener;
 
@@ -35,6 +36,13 @@ public class Request implements Serializable {
 
 	transient IRemoteCallListener listener = null;
 
+	// Completed with the response, or exceptionally when the request times out.
+	// Only used in the container that sent the request
+	private transient CompletableFuture<Response> future;
+
+	// Scheduled timeout, cancelled when the request is removed
+	transient volatile RequestTimeoutWheel.Timeout timeout;
+
 	private synchronized static long getNextRequestId() {
 		long result = nextRequestId;
 		nextRequestId = (nextRequestId == Long.MAX_VALUE) ? 0L : nextRequestId + 1;
@@ -85,6 +93,16 @@ public class Request implements Serializable {
 		this.done = val;
 	}
 
+	/**
+	 * @return CompletableFuture the future completed with the response of this request
+	 * @since 4.7
+	 */
+	protected synchronized CompletableFuture<Response> getFuture() {
+		if (future == null)
+			future = new CompletableFuture<Response>();
+		return future;
+	}
+
 	protected IRemoteCallListener getListener() {
 		return listener;
 	}
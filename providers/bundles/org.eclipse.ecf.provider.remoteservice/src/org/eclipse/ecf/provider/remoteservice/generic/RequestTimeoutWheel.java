@@ -0,0 +1,214 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.provider.remoteservice.generic;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.ecf.internal.provider.remoteservice.Activator;
+
+/**
+ * Hashed timer wheel for remote call timeouts.  Scheduling and cancelling are
+ * constant time, and a single daemon thread (running only while timeouts are
+ * pending) advances the wheel every {@link #TICK} ms.  A timeout never expires
+ * before its deadline, and at most one tick after it.
+ * <p>
+ * Expired timeouts are handed to their handlers on a pool of daemon threads, so
+ * a slow handler does not delay the timeouts of other containers.
+ */
+final class RequestTimeoutWheel {
+
+	interface Handler {
+		void handleTimeout(long requestId);
+	}
+
+	/**
+	 * A scheduled timeout.
+	 */
+	final class Timeout {
+		final Handler handler;
+		final long requestId;
+		final int slot;
+		long rounds;
+		// Links in the slot's list.  Both null and not the slot head once removed
+		Timeout prev;
+		Timeout next;
+
+		Timeout(Handler handler, long requestId, int slot, long rounds) {
+			this.handler = handler;
+			this.requestId = requestId;
+			this.slot = slot;
+			this.rounds = rounds;
+		}
+
+		/**
+		 * Remove this timeout from the wheel, if it has not expired yet.
+		 */
+		void cancel() {
+			synchronized (RequestTimeoutWheel.this) {
+				if (prev == null && slots[slot] != this)
+					return;
+				unlink(this);
+				count--;
+			}
+		}
+	}
+
+	static final long TICK = Long.parseLong(System.getProperty("org.eclipse.ecf.provider.remoteservice.timeouttick", "50")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final int SLOTS = 512;
+
+	private static final RequestTimeoutWheel INSTANCE = new RequestTimeoutWheel();
+
+	final Timeout[] slots = new Timeout[SLOTS];
+	// Next tick to process, and time of tick 0.  Tick n is processed at
+	// startTime + (n + 1) * TICK
+	private long nextTick;
+	private long startTime;
+	int count;
+	private Thread thread;
+	private ExecutorService handlerExecutor;
+
+	static RequestTimeoutWheel getDefault() {
+		return INSTANCE;
+	}
+
+	private RequestTimeoutWheel() {
+		// singleton
+	}
+
+	/**
+	 * Call handler with the given request id once timeout ms have elapsed.
+	 *
+	 * @return Timeout the scheduled timeout, to be cancelled when the response arrives
+	 */
+	synchronized Timeout schedule(Handler handler, long requestId, long timeout) {
+		final long now = System.currentTimeMillis();
+		if (thread == null) {
+			startTime = now;
+			nextTick = 0;
+			thread = new Thread(new Runnable() {
+				public void run() {
+					runWheel();
+				}
+			}, "ECF Remote Call Timeouts"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			thread.start();
+		}
+		// First tick whose processing time is at or after the deadline: the
+		// deadline's tick from startTime rounded up, less one as a tick is
+		// processed at its end
+		final long deadline = now + Math.max(1, timeout);
+		final long tick = Math.max(nextTick, (deadline - startTime + TICK - 1) / TICK - 1);
+		final int slot = (int) (tick & (SLOTS - 1));
+		final Timeout entry = new Timeout(handler, requestId, slot, (tick - nextTick) / SLOTS);
+		entry.next = slots[slot];
+		if (entry.next != null)
+			entry.next.prev = entry;
+		slots[slot] = entry;
+		count++;
+		return entry;
+	}
+
+	void unlink(Timeout entry) {
+		if (entry.prev != null)
+			entry.prev.next = entry.next;
+		else
+			slots[entry.slot] = entry.next;
+		if (entry.next != null)
+			entry.next.prev = entry.prev;
+		entry.prev = null;
+		entry.next = null;
+	}
+
+	void runWheel() {
+		for (;;) {
+			// Map<Handler,Timeout> expired timeouts by handler, linked through next
+			final Map<Handler, Timeout> expired = new IdentityHashMap<Handler, Timeout>();
+			synchronized (this) {
+				if (count == 0) {
+					thread = null;
+					return;
+				}
+				final long tickTime = startTime + (nextTick + 1) * TICK;
+				final long now = System.currentTimeMillis();
+				if (now < tickTime) {
+					try {
+						wait(tickTime - now);
+					} catch (final InterruptedException e) {
+						thread = null;
+						return;
+					}
+					continue;
+				}
+				// Take expired entries from slot, and count down the rest
+				Timeout e = slots[(int) (nextTick & (SLOTS - 1))];
+				while (e != null) {
+					final Timeout next = e.next;
+					if (e.rounds == 0) {
+						unlink(e);
+						count--;
+						e.next = expired.put(e.handler, e);
+					} else
+						e.rounds--;
+					e = next;
+				}
+				nextTick++;
+			}
+			for (final Iterator<Timeout> i = expired.values().iterator(); i.hasNext();)
+				dispatch(i.next());
+		}
+	}
+
+	private void dispatch(final Timeout timeouts) {
+		final Runnable runnable = new Runnable() {
+			public void run() {
+				for (Timeout e = timeouts; e != null; e = e.next) {
+					try {
+						e.handler.handleTimeout(e.requestId);
+					} catch (final Throwable t) {
+						log("Exception handling timeout of requestId=" + e.requestId, t); //$NON-NLS-1$
+					}
+				}
+			}
+		};
+		try {
+			getHandlerExecutor().execute(runnable);
+		} catch (final RejectedExecutionException e) {
+			log("Timeout handler rejected", e); //$NON-NLS-1$
+		}
+	}
+
+	private synchronized Executor getHandlerExecutor() {
+		if (handlerExecutor == null) {
+			final AtomicInteger threadCount = new AtomicInteger();
+			// Threads exit when idle
+			handlerExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					final Thread t = new Thread(r, "ECF Remote Call Timeout Handler-" + threadCount.incrementAndGet()); //$NON-NLS-1$
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return handlerExecutor;
+	}
+
+	private static void log(String message, Throwable t) {
+		Activator.getDefault().log(new Status(IStatus.ERROR, Activator.PLUGIN_ID, IStatus.ERROR, message, t));
+	}
+}
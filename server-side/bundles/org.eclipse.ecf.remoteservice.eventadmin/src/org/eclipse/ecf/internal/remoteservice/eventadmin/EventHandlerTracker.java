@@ -14,15 +14,15 @@
 package org.eclipse.ecf.internal.remoteservice.eventadmin;
 
 import java.security.Permission;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.osgi.framework.eventmgr.EventDispatcher;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.Filter;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
@@ -30,26 +30,28 @@ import org.osgi.service.log.LogService;
 import org.osgi.util.tracker.ServiceTracker;
 
 public class EventHandlerTracker extends ServiceTracker implements EventDispatcher{
+	/**
+	 * The event action for dispatching an event to the handlers returned by
+	 * {@link #getHandlers(Event)}, whose filters need not be matched again.
+	 */
+	public static final int FILTERED_EVENT = 1;
+
 	private final LogService log;
-	// * List<EventHandlerWrapper> of all handlers with topic of "*"
-	private final List globalWildcard;
-	// Map<String,List<EventHandlerWrapper>> key is topic prefix of partial
-	// wildcard
-	private final Map partialWildcard;
-	// Map<String,List<EventHandlerWrapper>> key is topic name
-	private final Map topicName;
+	// TopicTrie of EventHandlerWrapper by topic name, partial wildcard and "*"
+	private final TopicTrie topics;
+	// compiled filters shared by the handlers
+	private final FilterCache filters;
 
 	public EventHandlerTracker(BundleContext context, LogService log) {
 		super(context, EventHandler.class.getName(), null);
 		this.log = log;
-		globalWildcard = new ArrayList();
-		partialWildcard = new HashMap();
-		topicName = new HashMap();
+		topics = new TopicTrie();
+		filters = new FilterCache(context);
 	}
 
 	public Object addingService(ServiceReference reference) {
 		EventHandlerWrapper wrapper = new EventHandlerWrapper(reference,
-				context, log);
+				context, log, filters);
 		synchronized (this) {
 			if (wrapper.init()) {
 				bucket(wrapper);
@@ -76,95 +78,38 @@ public class EventHandlerTracker extends ServiceTracker implements EventDispatch
 		synchronized (this) {
 			unbucket(wrapper);
 		}
+		wrapper.releaseFilter();
 		wrapper.flush(); // needs to be called outside sync region
 	}
 
 	/**
-	 * Place the wrapper into the appropriate buckets. This is a performance
+	 * Place the wrapper into the topic trie. This is a performance
 	 * optimization for event delivery.
 	 * 
 	 * @param wrapper
-	 *            The wrapper to place in buckets.
+	 *            The wrapper to place in the trie.
 	 * @GuardedBy this
 	 */
 	private void bucket(EventHandlerWrapper wrapper) {
-		final String[] topics = wrapper.getTopics();
-		final int length = (topics == null) ? 0 : topics.length;
+		final String[] wrapperTopics = wrapper.getTopics();
+		final int length = (wrapperTopics == null) ? 0 : wrapperTopics.length;
 		for (int i = 0; i < length; i++) {
-			String topic = topics[i];
-			// global wildcard
-			if (topic.equals("*")) { //$NON-NLS-1$
-				globalWildcard.add(wrapper);
-			}
-			// partial wildcard
-			else if (topic.endsWith("/*")) { //$NON-NLS-1$
-				String key = topic.substring(0, topic.length() - 2); // Strip
-																		// off
-																		// "/*"
-																		// from
-																		// the
-																		// end
-				List wrappers = (List) partialWildcard.get(key);
-				if (wrappers == null) {
-					wrappers = new ArrayList();
-					partialWildcard.put(key, wrappers);
-				}
-				wrappers.add(wrapper);
-			}
-			// simple topic name
-			else {
-				List wrappers = (List) topicName.get(topic);
-				if (wrappers == null) {
-					wrappers = new ArrayList();
-					topicName.put(topic, wrappers);
-				}
-				wrappers.add(wrapper);
-			}
+			topics.add(wrapperTopics[i], wrapper);
 		}
 	}
 
 	/**
-	 * Remove the wrapper from the buckets.
+	 * Remove the wrapper from the topic trie.
 	 * 
 	 * @param wrapper
-	 *            The wrapper to remove from the buckets.
+	 *            The wrapper to remove from the trie.
 	 * @GuardedBy this
 	 */
 	private void unbucket(EventHandlerWrapper wrapper) {
-		final String[] topics = wrapper.getTopics();
-		final int length = (topics == null) ? 0 : topics.length;
+		final String[] wrapperTopics = wrapper.getTopics();
+		final int length = (wrapperTopics == null) ? 0 : wrapperTopics.length;
 		for (int i = 0; i < length; i++) {
-			String topic = topics[i];
-			// global wilcard
-			if (topic.equals("*")) { //$NON-NLS-1$
-				globalWildcard.remove(wrapper);
-			}
-			// partial wildcard
-			else if (topic.endsWith("/*")) { //$NON-NLS-1$
-				String key = topic.substring(0, topic.length() - 2); // Strip
-																		// off
-																		// "/*"
-																		// from
-																		// the
-																		// end
-				List wrappers = (List) partialWildcard.get(key);
-				if (wrappers != null) {
-					wrappers.remove(wrapper);
-					if (wrappers.size() == 0) {
-						partialWildcard.remove(key);
-					}
-				}
-			}
-			// simple topic name
-			else {
-				List wrappers = (List) topicName.get(topic);
-				if (wrappers != null) {
-					wrappers.remove(wrapper);
-					if (wrappers.size() == 0) {
-						topicName.remove(topic);
-					}
-				}
-			}
+			topics.remove(wrapperTopics[i], wrapper);
 		}
 	}
 
@@ -178,41 +123,46 @@ public class EventHandlerTracker extends ServiceTracker implements EventDispatch
 	public synchronized Set getHandlers(final String topic) {
 		// Use a set to remove duplicates
 		Set handlers = new HashSet();
+		topics.match(topic, handlers);
+		return handlers;
+	}
 
-		// Add the "*" handlers
-		handlers.addAll(globalWildcard);
-
-		// Add the handlers with partial matches
-		if (partialWildcard.size() > 0) {
-			int index = topic.length();
-			while (index >= 0) {
-				String subTopic = topic.substring(0, index); // First subtopic
-																// is the
-																// complete
-																// topic.
-				List wrappers = (List) partialWildcard.get(subTopic);
-				if (wrappers != null) {
-					handlers.addAll(wrappers);
-				}
-				// Strip the last level from the topic. For example,
-				// org/osgi/framework becomes org/osgi.
-				// Wildcard topics are inserted into the map with the "/*"
-				// stripped off.
-				index = subTopic.lastIndexOf('/');
+	/**
+	 * Return the set of handlers which subscribe to the event topic and whose
+	 * filter matches the event. The filters are evaluated only for the
+	 * handlers subscribed to the topic, and a filter shared by several
+	 * handlers is evaluated once.
+	 * 
+	 * @param event
+	 *            the event
+	 * @return a set of handlers
+	 */
+	public Set getHandlers(final Event event) {
+		Set handlers = getHandlers(event.getTopic());
+		// Map<Filter,Boolean> of the filters evaluated for this event
+		Map matches = null;
+		for (Iterator i = handlers.iterator(); i.hasNext();) {
+			Filter filter = ((EventHandlerWrapper) i.next()).getFilter();
+			if (filter == null) {
+				continue;
+			}
+			if (matches == null) {
+				matches = new IdentityHashMap();
+			}
+			Boolean match = (Boolean) matches.get(filter);
+			if (match == null) {
+				match = Boolean.valueOf(event.matches(filter));
+				matches.put(filter, match);
+			}
+			if (!match.booleanValue()) {
+				i.remove();
 			}
 		}
-
-		// Add the handlers for matching topic names
-		List wrappers = (List) topicName.get(topic);
-		if (wrappers != null) {
-			handlers.addAll(wrappers);
-		}
-
 		return handlers;
 	}
 
 	public void dispatchEvent(Object eventListener, Object listenerObject, int eventAction, Object eventObject) {
-		((EventHandlerWrapper) eventListener).handleEvent((Event) eventObject, (Permission) listenerObject);
+		((EventHandlerWrapper) eventListener).handleEvent((Event) eventObject, (Permission) listenerObject, eventAction == FILTERED_EVENT);
 	}
 
 }
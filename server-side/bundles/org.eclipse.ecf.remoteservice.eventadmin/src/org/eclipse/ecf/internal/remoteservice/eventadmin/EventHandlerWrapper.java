@@ -34,9 +34,11 @@ public class EventHandlerWrapper {
 	private final ServiceReference reference;
 	private final LogService log;
 	private final BundleContext context;
+	private final FilterCache filterCache;
 	private EventHandler handler;
 	private String[] topics;
 	private Filter filter;
+	private String filterString;
 
 	/**
 	 * Create an EventHandlerWrapper.
@@ -50,9 +52,28 @@ public class EventHandlerWrapper {
 	 */
 	public EventHandlerWrapper(ServiceReference reference,
 			BundleContext context, LogService log) {
+		this(reference, context, log, null);
+	}
+
+	/**
+	 * Create an EventHandlerWrapper.
+	 * 
+	 * @param reference
+	 *            Reference to the EventHandler
+	 * @param context
+	 *            Bundle Context of the Event Admin bundle
+	 * @param log
+	 *            LogService object for logging
+	 * @param filterCache
+	 *            Cache of compiled filters. May be <code>null</code>, in
+	 *            which case the filter is compiled by this wrapper.
+	 */
+	public EventHandlerWrapper(ServiceReference reference,
+			BundleContext context, LogService log, FilterCache filterCache) {
 		this.reference = reference;
 		this.context = context;
 		this.log = log;
+		this.filterCache = filterCache;
 	}
 
 	/**
@@ -62,8 +83,8 @@ public class EventHandlerWrapper {
 	 *         not be called
 	 */
 	public synchronized boolean init() {
+		releaseFilter();
 		topics = null;
-		filter = null;
 
 		// Get topic names
 		Object o = reference.getProperty(EventConstants.EVENT_TOPIC);
@@ -81,7 +102,9 @@ public class EventHandlerWrapper {
 		o = reference.getProperty(EventConstants.EVENT_FILTER);
 		if (o instanceof String) {
 			try {
-				filter = context.createFilter((String) o);
+				filter = (filterCache == null) ? context.createFilter((String) o)
+						: filterCache.get((String) o);
+				filterString = (String) o;
 			} catch (InvalidSyntaxException e) {
 				log.log(LogService.LOG_ERROR, "Invalid handler filter "+o, e);
 				return false;
@@ -91,6 +114,18 @@ public class EventHandlerWrapper {
 		return true;
 	}
 
+	/**
+	 * Release the filter to the filter cache. Called when the handler is
+	 * removed.
+	 */
+	public synchronized void releaseFilter() {
+		if (filterString != null && filterCache != null) {
+			filterCache.release(filterString);
+		}
+		filter = null;
+		filterString = null;
+	}
+
 	/**
 	 * Flush the handler service if it has been obtained.
 	 */
@@ -149,9 +184,9 @@ public class EventHandlerWrapper {
 	/**
 	 * Get the filter object
 	 * 
-	 * @return The handler's filter
+	 * @return The handler's filter, or <code>null</code> if it has none
 	 */
-	private synchronized Filter getFilter() {
+	synchronized Filter getFilter() {
 		return filter;
 	}
 
@@ -165,6 +200,22 @@ public class EventHandlerWrapper {
 	 *            The permission to be checked
 	 */
 	public void handleEvent(Event event, Permission perm) {
+		handleEvent(event, perm, false);
+	}
+
+	/**
+	 * Dispatch event to handler. Perform final tests before actually calling
+	 * the handler.
+	 * 
+	 * @param event
+	 *            The event to dispatch
+	 * @param perm
+	 *            The permission to be checked
+	 * @param filtered
+	 *            <code>true</code> if the handler's filter has already been
+	 *            matched against the event
+	 */
+	public void handleEvent(Event event, Permission perm, boolean filtered) {
 		Bundle bundle = reference.getBundle();
 		// is service unregistered?
 		if (bundle == null) {
@@ -172,9 +223,11 @@ public class EventHandlerWrapper {
 		}
 
 		// filter match
-		Filter eventFilter = getFilter();
-		if ((eventFilter != null) && !event.matches(eventFilter)) {
-			return;
+		if (!filtered) {
+			Filter eventFilter = getFilter();
+			if ((eventFilter != null) && !event.matches(eventFilter)) {
+				return;
+			}
 		}
 
 		// permission check
@@ -0,0 +1,87 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.internal.remoteservice.eventadmin;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Filter;
+import org.osgi.framework.InvalidSyntaxException;
+
+/**
+ * Cache of the compiled event filters of handlers. Handlers with the same
+ * filter string share one {@link Filter}, so that a filter is compiled once,
+ * and can be evaluated once per event. A filter is removed when the last
+ * handler using it releases it.
+ */
+public class FilterCache {
+	private final BundleContext context;
+	// Map<String,Entry> key is filter string
+	private final Map filters = new HashMap();
+
+	public FilterCache(BundleContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * Get the compiled filter for a filter string. Each successful call must
+	 * be followed by a call to {@link #release(String)}.
+	 *
+	 * @param filterString
+	 *            the filter string
+	 * @return the compiled filter
+	 * @throws InvalidSyntaxException
+	 *             if filterString is not a valid filter
+	 */
+	public synchronized Filter get(String filterString)
+			throws InvalidSyntaxException {
+		Entry entry = (Entry) filters.get(filterString);
+		if (entry == null) {
+			entry = new Entry(context.createFilter(filterString));
+			filters.put(filterString, entry);
+		}
+		entry.count++;
+		return entry.filter;
+	}
+
+	/**
+	 * Release a filter obtained from {@link #get(String)}.
+	 *
+	 * @param filterString
+	 *            the filter string
+	 */
+	public synchronized void release(String filterString) {
+		final Entry entry = (Entry) filters.get(filterString);
+		if (entry != null && --entry.count == 0) {
+			filters.remove(filterString);
+		}
+	}
+
+	/**
+	 * @return the number of cached filters
+	 */
+	public synchronized int size() {
+		return filters.size();
+	}
+
+	private static class Entry {
+		final Filter filter;
+		int count;
+
+		Entry(Filter filter) {
+			this.filter = filter;
+		}
+	}
+}
@@ -0,0 +1,229 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.internal.remoteservice.eventadmin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of subscriptions by topic, with one node per topic level. A
+ * subscription to a topic name is kept in the node of the topic, a
+ * subscription to a partial wildcard like <code>org/osgi/*</code> in the node
+ * of <code>org/osgi</code>, and a subscription to <code>*</code> in the root.
+ * Matching a topic visits one node per level of the topic.
+ * <p>
+ * This class is not synchronized.
+ */
+public class TopicTrie {
+
+	private final Node root = new Node();
+
+	private int size;
+
+	/**
+	 * Add a subscription.
+	 *
+	 * @param topic
+	 *            the topic name, partial wildcard or <code>*</code>
+	 * @param subscriber
+	 *            the subscriber
+	 */
+	public void add(String topic, Object subscriber) {
+		if (topic.equals("*")) { //$NON-NLS-1$
+			root.add(true, subscriber);
+		} else if (topic.endsWith("/*")) { //$NON-NLS-1$
+			getNode(topic.substring(0, topic.length() - 2), true).add(true,
+					subscriber);
+		} else {
+			getNode(topic, true).add(false, subscriber);
+		}
+		size++;
+	}
+
+	/**
+	 * Remove a subscription added with {@link #add(String, Object)}.
+	 *
+	 * @param topic
+	 *            the topic name, partial wildcard or <code>*</code>
+	 * @param subscriber
+	 *            the subscriber
+	 * @return true if the subscription has been removed
+	 */
+	public boolean remove(String topic, Object subscriber) {
+		boolean wildcard = true;
+		String name = null;
+		if (topic.endsWith("/*")) { //$NON-NLS-1$
+			name = topic.substring(0, topic.length() - 2);
+		} else if (!topic.equals("*")) { //$NON-NLS-1$
+			name = topic;
+			wildcard = false;
+		}
+		final boolean removed = (name == null) ? root.remove(true, subscriber)
+				: remove(root, name, 0, wildcard, subscriber);
+		if (removed) {
+			size--;
+		}
+		return removed;
+	}
+
+	/**
+	 * Remove the subscription from the node of name, and the nodes left
+	 * empty.
+	 */
+	private boolean remove(Node node, String name, int start, boolean wildcard,
+			Object subscriber) {
+		final int end = levelEnd(name, start);
+		final String level = name.substring(start, end);
+		final Node child = node.getChild(level);
+		if (child == null) {
+			return false;
+		}
+		final boolean removed = (end == name.length()) ? child.remove(
+				wildcard, subscriber) : remove(child, name, end + 1, wildcard,
+				subscriber);
+		if (removed && child.isEmpty()) {
+			node.children.remove(level);
+		}
+		return removed;
+	}
+
+	/**
+	 * Add the subscribers that match a topic to a collection. A partial
+	 * wildcard <code>org/osgi/*</code> matches the topics below
+	 * <code>org/osgi</code>, and <code>org/osgi</code> itself.
+	 *
+	 * @param topic
+	 *            the topic of an event
+	 * @param result
+	 *            the collection to add the matching subscribers to
+	 */
+	public void match(String topic, Collection result) {
+		Node node = root;
+		node.addWildcard(result);
+		int start = 0;
+		while (node.children != null) {
+			final int end = levelEnd(topic, start);
+			node = node.getChild(topic.substring(start, end));
+			if (node == null) {
+				return;
+			}
+			node.addWildcard(result);
+			if (end == topic.length()) {
+				node.addExact(result);
+				return;
+			}
+			start = end + 1;
+		}
+	}
+
+	/**
+	 * @return the number of subscriptions
+	 */
+	public int size() {
+		return size;
+	}
+
+	private Node getNode(String name, boolean create) {
+		Node node = root;
+		int start = 0;
+		while (true) {
+			final int end = levelEnd(name, start);
+			final String level = name.substring(start, end);
+			Node child = node.getChild(level);
+			if (child == null) {
+				if (!create) {
+					return null;
+				}
+				child = new Node();
+				if (node.children == null) {
+					node.children = new HashMap(4);
+				}
+				node.children.put(level, child);
+			}
+			node = child;
+			if (end == name.length()) {
+				return node;
+			}
+			start = end + 1;
+		}
+	}
+
+	private static int levelEnd(String name, int start) {
+		final int end = name.indexOf('/', start);
+		return (end < 0) ? name.length() : end;
+	}
+
+	private static class Node {
+		// Map<String,Node> key is the next topic level, null if no children
+		Map children;
+		// List of subscribers to this topic name, null if none
+		List exact;
+		// List of subscribers to the partial wildcard of this topic, null if
+		// none
+		List wildcard;
+
+		Node getChild(String level) {
+			return (children == null) ? null : (Node) children.get(level);
+		}
+
+		void add(boolean toWildcard, Object subscriber) {
+			if (toWildcard) {
+				if (wildcard == null) {
+					wildcard = new ArrayList(2);
+				}
+				wildcard.add(subscriber);
+			} else {
+				if (exact == null) {
+					exact = new ArrayList(2);
+				}
+				exact.add(subscriber);
+			}
+		}
+
+		boolean remove(boolean fromWildcard, Object subscriber) {
+			final List list = fromWildcard ? wildcard : exact;
+			if (list == null || !list.remove(subscriber)) {
+				return false;
+			}
+			if (list.isEmpty()) {
+				if (fromWildcard) {
+					wildcard = null;
+				} else {
+					exact = null;
+				}
+			}
+			return true;
+		}
+
+		void addExact(Collection result) {
+			if (exact != null) {
+				result.addAll(exact);
+			}
+		}
+
+		void addWildcard(Collection result) {
+			if (wildcard != null) {
+				result.addAll(wildcard);
+			}
+		}
+
+		boolean isEmpty() {
+			return exact == null && wildcard == null
+					&& (children == null || children.isEmpty());
+		}
+	}
+}
@@ -17,13 +17,19 @@ package org.eclipse.ecf.remoteservice.eventadmin;
 import java.io.IOException;
 import java.io.NotSerializableException;
 import java.security.Permission;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.ecf.core.IContainer;
@@ -74,6 +80,53 @@ public class DistributedEventAdmin extends BaseSharedObject implements
 
 	private static final String SHARED_OBJECT_MESSAGE_METHOD = "__handlePostEventSharedObjectMsg";
 
+	private static final String SHARED_OBJECT_BATCH_MESSAGE_METHOD = "__handlePostEventBatchSharedObjectMsg";
+
+	/**
+	 * Default maximum number of events per batch. If 0 or less, batching is
+	 * disabled and every posted event is sent as a separate message.
+	 *
+	 * @since 1.5
+	 */
+	public static final int DEFAULT_BATCH_SIZE = Integer.getInteger(
+			DistributedEventAdmin.class.getName() + ".batchSize", 0)
+			.intValue();
+
+	/**
+	 * Default maximum time in ms that an event waits for its batch to be sent.
+	 *
+	 * @since 1.5
+	 */
+	public static final long DEFAULT_BATCH_WINDOW = Long.getLong(
+			DistributedEventAdmin.class.getName() + ".batchWindow", 10)
+			.longValue();
+
+	private volatile int batchSize = DEFAULT_BATCH_SIZE;
+	private volatile long batchWindow = DEFAULT_BATCH_WINDOW;
+
+	/**
+	 * Guards pendingBatches and batchScheduler
+	 */
+	private final Object batchLock = new Object();
+	/**
+	 * Held while a batch is removed from pendingBatches and sent, so that the
+	 * batches of a target are sent in order. Also guards the statistics.
+	 * Acquired before batchLock.
+	 */
+	private final Object batchSendLock = new Object();
+	/**
+	 * target ID (null for the group) -&gt; PendingBatch
+	 */
+	private final Map pendingBatches = new LinkedHashMap();
+	private ScheduledExecutorService batchScheduler;
+
+	private long batchCount;
+	private long batchEventCount;
+	private int maxBatchSize;
+	private long batchFrameBytes;
+	private long batchTotalLatency;
+	private long batchMaxLatency;
+
 	/**
 	 * @since 1.2
 	 * @noreference This field is not intended to be referenced by clients.
@@ -197,6 +250,13 @@ public class DistributedEventAdmin extends BaseSharedObject implements
 	 * registration with the OSGi service registry.
 	 */
 	public void stop() {
+		flushBatches();
+		synchronized (batchLock) {
+			if (batchScheduler != null) {
+				batchScheduler.shutdown();
+				batchScheduler = null;
+			}
+		}
 		eventHandlerTracker.close();
 		if (eventManager != null) {
 			eventManager.close();
@@ -287,12 +347,21 @@ public class DistributedEventAdmin extends BaseSharedObject implements
 	 * If an exception occurs on serialization or sending, the
 	 * {@link #handleSendMessageException(String, Event, Object[], IOException)}
 	 * method will be called to handle it.
-	 * 
+	 * <p>
+	 * If batching is enabled (see {@link #setBatching(int, long)}), the event
+	 * is added to the pending {@link EventBatch} of its target rather than
+	 * sent immediately, and {@link #createMessageDataFromEvent(ID, Event)} is
+	 * not called.
+	 *
 	 * @param eventToSend
 	 *            the event to send. Will not be <code>null</code>.
 	 * @since 1.1
 	 */
 	protected void sendMessage(Event eventToSend) {
+		if (batchSize > 0) {
+			queueMessage(eventToSend);
+			return;
+		}
 		ID target = null;
 		Object[] messageData = null;
 		try {
@@ -342,6 +411,195 @@ public class DistributedEventAdmin extends BaseSharedObject implements
 		return results;
 	}
 
+	/**
+	 * Enable or disable batching of posted events. With batching enabled,
+	 * posted events are collected per target, and sent as one
+	 * {@link EventBatch} message when the batch has maxBatchSize events, or
+	 * when its oldest event has waited maxDelay ms. The events of a target are
+	 * delivered in the order they have been posted. Receivers must run a
+	 * version of this class that handles batch messages.
+	 * <p>
+	 * The defaults are set with the system properties
+	 * <code>org.eclipse.ecf.remoteservice.eventadmin.DistributedEventAdmin.batchSize</code>
+	 * and
+	 * <code>org.eclipse.ecf.remoteservice.eventadmin.DistributedEventAdmin.batchWindow</code>.
+	 *
+	 * @param maxBatchSize
+	 *            the maximum number of events per batch. If 0 or less,
+	 *            batching is disabled and the pending batches are sent.
+	 * @param maxDelay
+	 *            the maximum time in ms that an event waits for its batch to
+	 *            be sent
+	 * @since 1.5
+	 */
+	public void setBatching(int maxBatchSize, long maxDelay) {
+		this.batchWindow = maxDelay;
+		this.batchSize = maxBatchSize;
+		if (maxBatchSize <= 0) {
+			flushBatches();
+		}
+	}
+
+	/**
+	 * @return the maximum number of events per batch, 0 or less if batching is
+	 *         disabled
+	 * @since 1.5
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * @return the maximum time in ms that an event waits for its batch to be
+	 *         sent
+	 * @since 1.5
+	 */
+	public long getBatchWindow() {
+		return batchWindow;
+	}
+
+	/**
+	 * @return statistics of the batches sent so far
+	 * @since 1.5
+	 */
+	public EventBatchStatistics getBatchStatistics() {
+		synchronized (batchSendLock) {
+			return new EventBatchStatistics(batchCount, batchEventCount,
+					maxBatchSize, batchFrameBytes, batchTotalLatency,
+					batchMaxLatency);
+		}
+	}
+
+	/**
+	 * Send all pending batches now.
+	 *
+	 * @since 1.5
+	 */
+	public void flushBatches() {
+		synchronized (batchSendLock) {
+			Object[] batches;
+			synchronized (batchLock) {
+				batches = pendingBatches.values().toArray();
+				pendingBatches.clear();
+			}
+			for (int i = 0; i < batches.length; i++) {
+				sendBatch((PendingBatch) batches[i]);
+			}
+		}
+	}
+
+	private void queueMessage(Event eventToSend) {
+		ID target = null;
+		EventMessage message = null;
+		try {
+			target = getTarget(eventToSend);
+			message = new EventMessage(eventToSend,
+					getSerializationHandler(eventToSend.getTopic()));
+		} catch (NotSerializableException e) {
+			handleSendMessageException("send exception to target=" + target,
+					eventToSend, null, e);
+			return;
+		}
+		PendingBatch batch;
+		boolean full;
+		synchronized (batchLock) {
+			batch = (PendingBatch) pendingBatches.get(target);
+			if (batch == null) {
+				batch = new PendingBatch(target);
+				pendingBatches.put(target, batch);
+				scheduleFlush(batch);
+			}
+			batch.add(message, System.nanoTime());
+			full = batch.messages.size() >= batchSize;
+		}
+		if (full) {
+			flushBatch(batch);
+		}
+	}
+
+	// called with batchLock held
+	private void scheduleFlush(final PendingBatch batch) {
+		if (batchScheduler == null) {
+			batchScheduler = Executors
+					.newSingleThreadScheduledExecutor(new ThreadFactory() {
+						public Thread newThread(Runnable r) {
+							final Thread t = new Thread(r,
+									"Distributed EventAdmin Batch Sender");
+							t.setDaemon(true);
+							return t;
+						}
+					});
+		}
+		batchScheduler.schedule(new Runnable() {
+			public void run() {
+				flushBatch(batch);
+			}
+		}, batchWindow, TimeUnit.MILLISECONDS);
+	}
+
+	private void flushBatch(PendingBatch batch) {
+		synchronized (batchSendLock) {
+			synchronized (batchLock) {
+				// already sent because it was full, or by the scheduler
+				if (pendingBatches.get(batch.target) != batch) {
+					return;
+				}
+				pendingBatches.remove(batch.target);
+			}
+			sendBatch(batch);
+		}
+	}
+
+	// called with batchSendLock held
+	private void sendBatch(PendingBatch batch) {
+		final int size = batch.messages.size();
+		final EventBatch eventBatch;
+		try {
+			eventBatch = new EventBatch(batch.messages);
+			sendSharedObjectMsgTo(batch.target, SharedObjectMsg.createMsg(
+					SHARED_OBJECT_BATCH_MESSAGE_METHOD,
+					new Object[] { eventBatch }));
+		} catch (IOException e) {
+			// may run on the scheduler thread, so log rather than throw
+			logError("send exception to target=" + batch.target
+					+ " for batch of " + size + " events", e);
+			return;
+		}
+		final long now = System.nanoTime();
+		batchCount++;
+		batchEventCount += size;
+		maxBatchSize = Math.max(maxBatchSize, size);
+		batchFrameBytes += eventBatch.getFrameLength();
+		final long maxLatency = now - batch.firstQueuedTime;
+		batchTotalLatency += size * maxLatency - batch.queuedDelaySum;
+		batchMaxLatency = Math.max(batchMaxLatency, maxLatency);
+	}
+
+	/**
+	 * The events queued for a target, not yet sent
+	 */
+	private static class PendingBatch {
+		final ID target;
+		final List messages = new ArrayList();
+		long firstQueuedTime;
+		/**
+		 * Sum of the times the events have been queued after the first
+		 */
+		long queuedDelaySum;
+
+		PendingBatch(ID target) {
+			this.target = target;
+		}
+
+		void add(EventMessage message, long queuedTime) {
+			if (messages.isEmpty()) {
+				firstQueuedTime = queuedTime;
+			}
+			messages.add(message);
+			queuedDelaySum += queuedTime - firstQueuedTime;
+		}
+	}
+
 	/**
 	 * @param topic topic
 	 * @return SerializationHandler the serialization handler associated with topic
@@ -383,6 +641,36 @@ public class DistributedEventAdmin extends BaseSharedObject implements
 		return eventMessage.getEvent();
 	}
 
+	/**
+	 * Create the local {@link Event}s from a received {@link EventBatch}. The
+	 * default implementation sets the serialization handler of each
+	 * {@link EventMessage} of the batch, and returns the events in the order
+	 * they have been sent.
+	 *
+	 * @param fromID
+	 *            the ID of the message sender. Will not be <code>null</code>.
+	 * @param batch
+	 *            the batch received from fromID. Will not be <code>null</code>.
+	 * @return List of the Events to be delivered to local {@link EventHandler}
+	 *         s. Should not be <code>null</code>.
+	 * @throws IOException
+	 *             if the batch cannot be read
+	 * @throws ClassNotFoundException
+	 *             if the class of a property value cannot be found
+	 * @since 1.5
+	 */
+	protected List createEventsFromBatch(ID fromID, EventBatch batch)
+			throws IOException, ClassNotFoundException {
+		final List eventMessages = batch.getEventMessages();
+		final List results = new ArrayList(eventMessages.size());
+		for (final Iterator i = eventMessages.iterator(); i.hasNext();) {
+			final EventMessage eventMessage = (EventMessage) i.next();
+			eventMessage.setSerializationHandler(getSerializationHandler(eventMessage.getTopic()));
+			results.add(eventMessage.getEvent());
+		}
+		return results;
+	}
+
 	/**
 	 * Handle any exceptions occuring as part of Event serialization or message
 	 * send. The default is to call {@link #logError(String, Throwable)} with
@@ -551,8 +839,9 @@ public class DistributedEventAdmin extends BaseSharedObject implements
 				throw e;
 			}
 
-			Set eventHandlerWrappers = eventHandlerTracker
-					.getHandlers(eventTopic);
+			// handlers whose filter does not match are not queued, so the
+			// filters are not evaluated again when the event is dispatched
+			Set eventHandlerWrappers = eventHandlerTracker.getHandlers(event);
 
 			SecurityManager sm = System.getSecurityManager();
 			Permission perm = (sm == null) ? null : new TopicPermission(
@@ -569,9 +858,11 @@ public class DistributedEventAdmin extends BaseSharedObject implements
 			listenerQueue.queueListeners(listeners.entrySet(),
 					eventHandlerTracker);
 			if (isAsync) {
-				listenerQueue.dispatchEventAsynchronous(0, event);
+				listenerQueue.dispatchEventAsynchronous(
+						EventHandlerTracker.FILTERED_EVENT, event);
 			} else {
-				listenerQueue.dispatchEventSynchronous(0, event);
+				listenerQueue.dispatchEventSynchronous(
+						EventHandlerTracker.FILTERED_EVENT, event);
 			}
 
 			notifyPostLocalDispatch(event);
@@ -614,6 +905,21 @@ public class DistributedEventAdmin extends BaseSharedObject implements
 								+ msg, e);
 			}
 			return true;
+		} else if (SHARED_OBJECT_BATCH_MESSAGE_METHOD.equals(soMethod)) {
+			try {
+				final List receivedEvents = createEventsFromBatch(fromID,
+						(EventBatch) msg.getParameters()[0]);
+				for (final Iterator i = receivedEvents.iterator(); i.hasNext();) {
+					final Event receivedEvent = (Event) i.next();
+					notifyReceivedEvent(fromID, receivedEvent);
+					localDispatch(receivedEvent, true);
+				}
+			} catch (Exception e) {
+				logError(
+						"DistributedEventAdmin handleSharedObjectMsg error receiving batch msg="
+								+ msg, e);
+			}
+			return true;
 		} else {
 			logError("DistributedEventAdmin received bad shared object msg="
 					+ msg + " from=" + fromID);
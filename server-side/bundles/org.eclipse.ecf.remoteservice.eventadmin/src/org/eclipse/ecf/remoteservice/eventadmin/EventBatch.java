@@ -0,0 +1,199 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.remoteservice.eventadmin;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A batch of events, sent as a single shared object message by a
+ * {@link DistributedEventAdmin} with batching enabled. The events are written
+ * in order to one compressed frame. Each topic and property key is written
+ * once per frame, and later occurrences are written as an index into the
+ * strings already written.
+ *
+ * @since 1.5
+ */
+public class EventBatch implements Serializable {
+
+	private static final long serialVersionUID = -3061535437346727393L;
+
+	/**
+	 * Written instead of an index for a string that is not yet in the
+	 * dictionary
+	 */
+	private static final int NEW_STRING = -1;
+
+	private final int size;
+	private final byte[] frame;
+
+	/**
+	 * @param eventMessages
+	 *            the {@link EventMessage}s to send, in order. Must not be
+	 *            <code>null</code>.
+	 * @throws IOException
+	 *             if a property value cannot be serialized
+	 */
+	public EventBatch(List eventMessages) throws IOException {
+		this.size = eventMessages.size();
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			final ObjectOutputStream out = new ObjectOutputStream(
+					new DeflaterOutputStream(bos, deflater));
+			final Map dictionary = new HashMap();
+			out.writeInt(size);
+			for (final Iterator i = eventMessages.iterator(); i.hasNext();) {
+				final EventMessage message = (EventMessage) i.next();
+				writeString(out, dictionary, message.getTopic());
+				final Map properties = message.getSerializedProperties();
+				out.writeInt(properties.size());
+				for (final Iterator j = properties.entrySet().iterator(); j
+						.hasNext();) {
+					final Map.Entry entry = (Map.Entry) j.next();
+					writeString(out, dictionary, (String) entry.getKey());
+					out.writeObject(entry.getValue());
+				}
+			}
+			out.close();
+		} finally {
+			deflater.end();
+		}
+		this.frame = bos.toByteArray();
+	}
+
+	private static void writeString(ObjectOutputStream out, Map dictionary,
+			String s) throws IOException {
+		final Integer index = (Integer) dictionary.get(s);
+		if (index != null) {
+			out.writeInt(index.intValue());
+		} else {
+			out.writeInt(NEW_STRING);
+			out.writeUTF(s);
+			dictionary.put(s, Integer.valueOf(dictionary.size()));
+		}
+	}
+
+	private static String readString(ObjectInputStream in, List dictionary)
+			throws IOException {
+		final int index = in.readInt();
+		if (index != NEW_STRING) {
+			return (String) dictionary.get(index);
+		}
+		final String s = in.readUTF();
+		dictionary.add(s);
+		return s;
+	}
+
+	/**
+	 * @return the number of events in this batch
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the length in bytes of the compressed frame
+	 */
+	public int getFrameLength() {
+		return frame.length;
+	}
+
+	/**
+	 * Read the events of this batch.
+	 *
+	 * @return the {@link EventMessage}s of this batch, in the order they have
+	 *         been sent. The property values are not yet deserialized by a
+	 *         serialization handler.
+	 * @throws IOException
+	 *             if the frame cannot be read
+	 * @throws ClassNotFoundException
+	 *             if the class of a property value cannot be found
+	 */
+	public List getEventMessages() throws IOException, ClassNotFoundException {
+		final Inflater inflater = new Inflater();
+		try {
+			final ObjectInputStream in = new BatchObjectInputStream(
+					new InflaterInputStream(new ByteArrayInputStream(frame),
+							inflater));
+			final List dictionary = new ArrayList();
+			final int count = in.readInt();
+			final List results = new ArrayList(count);
+			for (int i = 0; i < count; i++) {
+				final String topic = readString(in, dictionary);
+				final int propertyCount = in.readInt();
+				final Hashtable properties = new Hashtable(
+						Math.max(1, propertyCount));
+				for (int j = 0; j < propertyCount; j++) {
+					final String key = readString(in, dictionary);
+					properties.put(key, in.readObject());
+				}
+				results.add(new EventMessage(topic, properties));
+			}
+			return results;
+		} finally {
+			inflater.end();
+		}
+	}
+
+	public String toString() {
+		final StringBuffer buffer = new StringBuffer();
+		buffer.append("EventBatch[size=");
+		buffer.append(size);
+		buffer.append(", frameLength=");
+		buffer.append(frame.length);
+		buffer.append("]");
+		return buffer.toString();
+	}
+
+	/**
+	 * Resolves the classes of property values with the thread context class
+	 * loader, if they are not visible to this bundle
+	 */
+	static class BatchObjectInputStream extends ObjectInputStream {
+
+		BatchObjectInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+
+		protected Class resolveClass(ObjectStreamClass desc)
+				throws IOException, ClassNotFoundException {
+			try {
+				return super.resolveClass(desc);
+			} catch (ClassNotFoundException e) {
+				final ClassLoader cl = Thread.currentThread()
+						.getContextClassLoader();
+				if (cl == null) {
+					throw e;
+				}
+				return Class.forName(desc.getName(), false, cl);
+			}
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.remoteservice.eventadmin;
+
+/**
+ * Statistics of the {@link EventBatch}es sent by a
+ * {@link DistributedEventAdmin}. The latency of an event is the time from
+ * when it is posted until its batch is sent.
+ *
+ * @since 1.5
+ */
+public class EventBatchStatistics {
+
+	private final long batchCount;
+	private final long eventCount;
+	private final int maxBatchSize;
+	private final long frameBytes;
+	private final long totalLatency;
+	private final long maxLatency;
+
+	public EventBatchStatistics(long batchCount, long eventCount,
+			int maxBatchSize, long frameBytes, long totalLatency,
+			long maxLatency) {
+		this.batchCount = batchCount;
+		this.eventCount = eventCount;
+		this.maxBatchSize = maxBatchSize;
+		this.frameBytes = frameBytes;
+		this.totalLatency = totalLatency;
+		this.maxLatency = maxLatency;
+	}
+
+	/**
+	 * @return the number of batches sent
+	 */
+	public long getBatchCount() {
+		return batchCount;
+	}
+
+	/**
+	 * @return the number of events sent in batches
+	 */
+	public long getEventCount() {
+		return eventCount;
+	}
+
+	/**
+	 * @return the largest number of events sent in one batch
+	 */
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * @return the average number of events per batch
+	 */
+	public double getAverageBatchSize() {
+		return (batchCount == 0) ? 0 : (double) eventCount / batchCount;
+	}
+
+	/**
+	 * @return the total length in bytes of the compressed batch frames
+	 */
+	public long getFrameBytes() {
+		return frameBytes;
+	}
+
+	/**
+	 * @return the average latency of the events, in nanoseconds
+	 */
+	public double getAverageLatency() {
+		return (eventCount == 0) ? 0 : (double) totalLatency / eventCount;
+	}
+
+	/**
+	 * @return the largest latency of an event, in nanoseconds
+	 */
+	public long getMaxLatency() {
+		return maxLatency;
+	}
+
+	public String toString() {
+		final StringBuffer buffer = new StringBuffer();
+		buffer.append("EventBatchStatistics[batches=");
+		buffer.append(batchCount);
+		buffer.append(", events=");
+		buffer.append(eventCount);
+		buffer.append(", avgBatchSize=");
+		buffer.append(getAverageBatchSize());
+		buffer.append(", maxBatchSize=");
+		buffer.append(maxBatchSize);
+		buffer.append(", frameBytes=");
+		buffer.append(frameBytes);
+		buffer.append(", avgLatency(us)=");
+		buffer.append(getAverageLatency() / 1000);
+		buffer.append(", maxLatency(us)=");
+		buffer.append(maxLatency / 1000);
+		buffer.append("]");
+		return buffer.toString();
+	}
+}
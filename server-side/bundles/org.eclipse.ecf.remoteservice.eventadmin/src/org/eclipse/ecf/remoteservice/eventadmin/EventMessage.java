@@ -75,6 +75,13 @@ public class EventMessage implements Serializable {
 		return topic;
 	}
 	
+	/**
+	 * @return the properties, as serialized by the serialization handler
+	 */
+	Map getSerializedProperties() {
+		return properties;
+	}
+
 	protected Map getProperties() {
 		final Set keySet = properties.keySet();
 		for (final Iterator itr = keySet.iterator(); itr.hasNext();) {
@@ -0,0 +1,290 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.tests.ai.mcp.tools;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ecf.ai.mcp.tools.annotation.Tool;
+import org.eclipse.ecf.ai.mcp.tools.annotation.ToolParam;
+import org.eclipse.ecf.ai.mcp.tools.service.ToolGroupService;
+import org.eclipse.ecf.ai.mcp.tools.service.ToolRegistry;
+import org.eclipse.ecf.ai.mcp.tools.service.ToolRegistry.RegisteredTool;
+import org.eclipse.ecf.ai.mcp.tools.util.ToolDescription;
+
+/**
+ * Tests the tool registry, and checks that listing and calling 1000 tools (100
+ * services with 10 tools each) with the registry gives the same results as
+ * reflection on every request. If <code>org.eclipse.ecf.tests.performance</code>
+ * is set to <code>true</code>, the latencies of both are measured.
+ */
+public class ToolRegistryTest extends TestCase {
+
+	private static final int SERVICES = 100;
+
+	private static final boolean PERFORMANCE = Boolean.getBoolean("org.eclipse.ecf.tests.performance");
+
+	private static final int REQUESTS = PERFORMANCE ? 1000 : 1;
+
+	public interface Calculator extends ToolGroupService {
+
+		@Tool(description = "Add two numbers")
+		int add(@ToolParam(name = "a", description = "the \"first\" number") int a,
+				@ToolParam(name = "b", description = "second") int b);
+
+		@Tool(description = "Subtract")
+		int subtract(@ToolParam(name = "x") int a, @ToolParam(name = "y") int b);
+
+		@Tool(description = "Multiply")
+		long multiply(@ToolParam(name = "x") long a, @ToolParam(name = "y") long b);
+
+		@Tool(description = "Divide")
+		double divide(@ToolParam(name = "x") double a, @ToolParam(name = "y") double b);
+
+		@Tool(description = "Negate")
+		int negate(@ToolParam(name = "x") int a);
+
+		@Tool(description = "Concatenate")
+		String concat(@ToolParam(name = "x") String a, @ToolParam(name = "y", required = false) String b);
+
+		@Tool(description = "Compare")
+		boolean equal(@ToolParam(name = "x") String a, @ToolParam(name = "y") String b);
+
+		@Tool(description = "Length")
+		int length(@ToolParam(name = "x") String a);
+
+		@Tool(description = "Maximum")
+		int max(@ToolParam(name = "x") int[] values);
+
+		@Tool(description = "Reset")
+		void reset();
+
+		int notATool();
+	}
+
+	public static class CalculatorImpl implements Calculator {
+
+		public int add(int a, int b) {
+			return a + b;
+		}
+
+		public int subtract(int a, int b) {
+			return a - b;
+		}
+
+		public long multiply(long a, long b) {
+			return a * b;
+		}
+
+		public double divide(double a, double b) {
+			return a / b;
+		}
+
+		public int negate(int a) {
+			return -a;
+		}
+
+		public String concat(String a, String b) {
+			return a + b;
+		}
+
+		public boolean equal(String a, String b) {
+			return a.equals(b);
+		}
+
+		public int length(String a) {
+			return a.length();
+		}
+
+		public int max(int[] values) {
+			int max = Integer.MIN_VALUE;
+			for (int v : values) {
+				max = Math.max(max, v);
+			}
+			return max;
+		}
+
+		public void reset() {
+		}
+
+		public int notATool() {
+			return 0;
+		}
+	}
+
+	private ToolRegistry registry;
+
+	private List<Object> services;
+
+	protected void setUp() throws Exception {
+		registry = new ToolRegistry();
+		services = new ArrayList<Object>();
+		for (int i = 0; i < SERVICES; i++) {
+			Object service = new CalculatorImpl();
+			services.add(service);
+			registry.addService(service, Calculator.class.getName());
+		}
+	}
+
+	public void testDescriptions() throws Exception {
+		List<ToolDescription> descriptions = registry.getToolDescriptions();
+		assertEquals(SERVICES * 10, descriptions.size());
+		assertEquals(ToolDescription.fromClass(Calculator.class), descriptions.subList(0, 10));
+		assertEquals(ToolDescription.fromService(services.get(0), Calculator.class.getName()),
+				((ToolGroupService) services.get(0)).getToolDescriptions(Calculator.class.getName()));
+	}
+
+	public void testInputSchema() throws Exception {
+		assertEquals(
+				"{\"type\":\"object\",\"properties\":{\"a\":{\"type\":\"integer\",\"description\":\"the \\\"first\\\" number\"},"
+						+ "\"b\":{\"type\":\"integer\",\"description\":\"second\"}},\"required\":[\"a\",\"b\"]}",
+				registry.getTool("add").getInputSchema());
+		assertEquals(
+				"{\"type\":\"object\",\"properties\":{\"x\":{\"type\":\"string\"},\"y\":{\"type\":\"string\"}},\"required\":[\"x\"]}",
+				registry.getTool("concat").getInputSchema());
+		assertEquals("{\"type\":\"object\",\"properties\":{\"x\":{\"type\":\"array\"}},\"required\":[\"x\"]}",
+				registry.getTool("max").getInputSchema());
+		assertEquals("{\"type\":\"object\",\"properties\":{},\"required\":[]}",
+				registry.getTool("reset").getInputSchema());
+	}
+
+	public void testInvoke() throws Throwable {
+		Map<String, Object> args = new HashMap<String, Object>();
+		args.put("a", Double.valueOf(1));
+		args.put("b", Long.valueOf(2));
+		assertEquals(Integer.valueOf(3), registry.getTool("add").invoke(args));
+		args.clear();
+		args.put("x", Integer.valueOf(3));
+		args.put("y", Integer.valueOf(4));
+		assertEquals(Long.valueOf(12), registry.getTool("multiply").invoke(args));
+		assertEquals(Double.valueOf(0.75), registry.getTool("divide").invoke(args));
+		assertEquals("ab", registry.getTool("concat").invoke("a", "b"));
+		assertEquals(Integer.valueOf(5), registry.getTool("max").invoke(new Object[] { new int[] { 1, 5, 2 } }));
+		assertNull(registry.getTool("reset").invoke());
+		assertNull(registry.getTool("notATool"));
+		try {
+			registry.getTool("negate").invoke(new HashMap<String, Object>());
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testRemove() throws Throwable {
+		RegisteredTool first = registry.getTool("add");
+		assertSame(services.get(0), first.getService());
+		assertTrue(registry.removeService(services.get(0)));
+		assertFalse(registry.removeService(services.get(0)));
+		assertEquals((SERVICES - 1) * 10, registry.getToolDescriptions().size());
+		assertSame(services.get(1), registry.getTool("add").getService());
+		try {
+			first.invoke(1, 2);
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	public void testListAndCallLatency() throws Throwable {
+		Map<String, Object> args = new HashMap<String, Object>();
+		args.put("a", Integer.valueOf(1));
+		args.put("b", Integer.valueOf(2));
+		// warm up
+		for (int i = 0; i < REQUESTS; i++) {
+			listByReflection();
+			callByReflection("add", args);
+			registry.getToolDescriptions();
+			registry.getTool("add").invoke(args);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < REQUESTS; i++) {
+			assertEquals(SERVICES * 10, listByReflection().size());
+		}
+		long reflectionList = (System.nanoTime() - start) / REQUESTS;
+
+		start = System.nanoTime();
+		for (int i = 0; i < REQUESTS; i++) {
+			assertEquals(SERVICES * 10, registry.getToolDescriptions().size());
+		}
+		long registryList = (System.nanoTime() - start) / REQUESTS;
+
+		start = System.nanoTime();
+		for (int i = 0; i < REQUESTS; i++) {
+			assertEquals(Integer.valueOf(3), callByReflection("add", args));
+		}
+		long reflectionCall = (System.nanoTime() - start) / REQUESTS;
+
+		start = System.nanoTime();
+		for (int i = 0; i < REQUESTS; i++) {
+			assertEquals(Integer.valueOf(3), registry.getTool("add").invoke(args));
+		}
+		long registryCall = (System.nanoTime() - start) / REQUESTS;
+
+		if (PERFORMANCE) {
+			System.out.println("tools=" + SERVICES * 10 + " list(reflection)=" + reflectionList / 1000 + "us list(registry)="
+					+ registryList + "ns call(reflection)=" + reflectionCall / 1000 + "us call(registry)=" + registryCall
+					+ "ns");
+		}
+	}
+
+	/**
+	 * Lists the tools reading the annotations of every tool interface, as
+	 * ToolDescription.fromClass did before caching
+	 */
+	private List<ToolDescription> listByReflection() {
+		List<ToolDescription> results = new ArrayList<ToolDescription>();
+		for (Object service : services) {
+			for (Class<?> c : service.getClass().getInterfaces()) {
+				if (c.getName().equals(Calculator.class.getName())) {
+					for (Method m : c.getMethods()) {
+						ToolDescription td = ToolDescription.fromMethod(m);
+						if (td != null) {
+							results.add(td);
+						}
+					}
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Calls a tool finding the method of the first service with the tool by
+	 * reflection
+	 */
+	private Object callByReflection(String name, Map<String, Object> args) throws Exception {
+		for (Object service : services) {
+			for (Class<?> c : service.getClass().getInterfaces()) {
+				for (Method m : c.getMethods()) {
+					if (m.getName().equals(name) && m.getAnnotation(Tool.class) != null) {
+						Parameter[] params = m.getParameters();
+						Object[] values = new Object[params.length];
+						for (int i = 0; i < params.length; i++) {
+							ToolParam tp = params[i].getAnnotation(ToolParam.class);
+							values[i] = args.get("".equals(tp.name()) ? params[i].getName() : tp.name());
+						}
+						return m.invoke(service, values);
+					}
+				}
+			}
+		}
+		return null;
+	}
+}
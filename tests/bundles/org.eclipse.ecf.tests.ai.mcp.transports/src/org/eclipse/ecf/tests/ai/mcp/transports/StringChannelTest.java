@@ -0,0 +1,186 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.tests.ai.mcp.transports;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ecf.ai.mcp.transports.ServerStringChannel;
+import org.eclipse.ecf.ai.mcp.transports.UDSClientStringChannel;
+
+/**
+ * Checks the message executor, read buffer and message length limit of a
+ * string channel, with a client connected to a server channel over a unix
+ * domain socket.
+ */
+public class StringChannelTest extends TestCase {
+
+	private static final int INBUFFER_SIZE = 64;
+
+	private static final long TIMEOUT = 30000;
+
+	private final List<String> received = new ArrayList<String>();
+
+	private ExecutorService suppliedExecutor;
+
+	private TestServer server;
+
+	private UDSClientStringChannel client;
+
+	private Path socketDir;
+
+	protected void tearDown() throws Exception {
+		if (client != null) {
+			client.close();
+		}
+		if (server != null) {
+			server.close();
+		}
+		if (suppliedExecutor != null) {
+			suppliedExecutor.shutdownNow();
+		}
+		if (socketDir != null) {
+			Files.deleteIfExists(socketDir.resolve("test.sock"));
+			Files.deleteIfExists(socketDir);
+		}
+	}
+
+	private void connect(ExecutorService messageExecutor) throws Exception {
+		socketDir = Files.createTempDirectory("mcp");
+		UnixDomainSocketAddress address = UnixDomainSocketAddress.of(socketDir.resolve("test.sock"));
+		server = new TestServer(Selector.open(), messageExecutor);
+		server.start(StandardProtocolFamily.UNIX, address, null, (message) -> received(message));
+		client = new UDSClientStringChannel();
+		client.connect(address, null, null);
+	}
+
+	private void received(String message) {
+		synchronized (received) {
+			received.add(message);
+			received.notifyAll();
+		}
+	}
+
+	private void waitForMessages(int count) throws InterruptedException, IOException {
+		long end = System.currentTimeMillis() + TIMEOUT;
+		synchronized (received) {
+			while (received.size() < count) {
+				long wait = end - System.currentTimeMillis();
+				if (wait <= 0) {
+					throw new IOException("Received " + received.size() + " of " + count + " messages");
+				}
+				received.wait(wait);
+			}
+		}
+	}
+
+	public void testOwnedMessageExecutorShutdown() throws Exception {
+		connect(null);
+		client.writeMessage("hello");
+		waitForMessages(1);
+		ExecutorService messageExecutor = server.getMessageExecutor();
+		server.close();
+		assertTrue(messageExecutor.isShutdown());
+	}
+
+	public void testSuppliedMessageExecutorNotShutdown() throws Exception {
+		suppliedExecutor = Executors.newSingleThreadExecutor();
+		connect(suppliedExecutor);
+		client.writeMessage("hello");
+		waitForMessages(1);
+		assertSame(suppliedExecutor, server.getMessageExecutor());
+		server.close();
+		assertFalse(suppliedExecutor.isShutdown());
+	}
+
+	public void testReadBufferReleased() throws Exception {
+		connect(null);
+		StringBuilder large = new StringBuilder();
+		while (large.length() < 100 * INBUFFER_SIZE) {
+			large.append("\u00e9\u20ac");
+		}
+		client.writeMessage(large.toString());
+		client.writeMessage("small");
+		waitForMessages(2);
+		synchronized (received) {
+			assertEquals(large.toString(), received.get(0));
+			assertEquals("small", received.get(1));
+		}
+		// Released by the selector thread after the last message was read
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (server.getReadBufferCapacity() != INBUFFER_SIZE && System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+		}
+		assertEquals(INBUFFER_SIZE, server.getReadBufferCapacity());
+	}
+
+	public void testMessageTooLargeClosesConnection() throws Exception {
+		connect(null);
+		server.limitMessageLength(16 * INBUFFER_SIZE);
+		String longest = "x".repeat(16 * INBUFFER_SIZE);
+		client.writeMessage(longest);
+		waitForMessages(1);
+		synchronized (received) {
+			assertEquals(longest, received.get(0));
+		}
+		client.writeMessage(longest + "x");
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (server.isClientConnected() && System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+		}
+		assertFalse(server.isClientConnected());
+		synchronized (received) {
+			assertEquals(1, received.size());
+		}
+	}
+
+	/**
+	 * Server channel giving access to its message executor and read buffer
+	 */
+	static class TestServer extends ServerStringChannel {
+
+		TestServer(Selector selector, ExecutorService messageExecutor) {
+			super(selector, INBUFFER_SIZE, null, messageExecutor);
+		}
+
+		ExecutorService getMessageExecutor() {
+			return this.messageExecutor;
+		}
+
+		int getReadBufferCapacity() throws IOException {
+			SocketChannel c = this.acceptedClient;
+			SelectionKey key = c.keyFor(this.selector);
+			return getAttachedIO(key).readBuffer.capacity();
+		}
+
+		void limitMessageLength(int max) {
+			setMaxMessageLength(max);
+		}
+
+		boolean isClientConnected() {
+			return this.acceptedClient != null;
+		}
+	}
+}
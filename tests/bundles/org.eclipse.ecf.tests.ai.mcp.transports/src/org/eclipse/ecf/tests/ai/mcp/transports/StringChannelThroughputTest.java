@@ -0,0 +1,167 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.tests.ai.mcp.transports;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ecf.ai.mcp.transports.ClientStringChannel;
+import org.eclipse.ecf.ai.mcp.transports.Inet4ClientStringChannel;
+import org.eclipse.ecf.ai.mcp.transports.Inet4ServerStringChannel;
+import org.eclipse.ecf.ai.mcp.transports.ServerStringChannel;
+import org.eclipse.ecf.ai.mcp.transports.UDSClientStringChannel;
+import org.eclipse.ecf.ai.mcp.transports.UDSServerStringChannel;
+
+/**
+ * Sends many messages from a client channel to a server channel that echoes
+ * every message back, over a unix domain socket and over TCP. The messages
+ * contain multibyte characters and embedded line breaks, and must arrive
+ * unchanged apart from the escaped line breaks. If
+ * <code>org.eclipse.ecf.tests.performance</code> is set to <code>true</code>,
+ * more messages are sent and the message throughput is reported.
+ */
+public class StringChannelThroughputTest extends TestCase {
+
+	private static final boolean PERFORMANCE = Boolean.getBoolean("org.eclipse.ecf.tests.performance");
+
+	private static final int MESSAGES = PERFORMANCE ? 20000 : 1000;
+
+	private static final int[] MESSAGE_SIZES = { 100, 4096 };
+
+	/**
+	 * Maximum number of messages sent and not yet echoed back
+	 */
+	private static final int WINDOW = 500;
+
+	private static final long TIMEOUT = 60000;
+
+	private final Object lock = new Object();
+
+	private final List<String> received = new ArrayList<String>();
+
+	private ServerStringChannel server;
+
+	private ClientStringChannel client;
+
+	private Path socketDir;
+
+	protected void tearDown() throws Exception {
+		if (client != null) {
+			client.close();
+		}
+		if (server != null) {
+			server.close();
+		}
+		if (socketDir != null) {
+			Files.deleteIfExists(socketDir.resolve("test.sock"));
+			Files.deleteIfExists(socketDir);
+		}
+	}
+
+	public void testUDSThroughput() throws Exception {
+		socketDir = Files.createTempDirectory("mcp");
+		UnixDomainSocketAddress address = UnixDomainSocketAddress.of(socketDir.resolve("test.sock"));
+		UDSServerStringChannel s = new UDSServerStringChannel();
+		server = s;
+		s.start(address, null, (message) -> server.writeMessage(message));
+		UDSClientStringChannel c = new UDSClientStringChannel();
+		client = c;
+		c.connect(address, null, (message) -> received(message));
+		runThroughput("UDS");
+	}
+
+	public void testTCPThroughput() throws Exception {
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		Inet4Address localhost = (Inet4Address) InetAddress.getByName("127.0.0.1");
+		Inet4ServerStringChannel s = new Inet4ServerStringChannel();
+		server = s;
+		s.start(localhost, port, null, (message) -> server.writeMessage(message));
+		Inet4ClientStringChannel c = new Inet4ClientStringChannel();
+		client = c;
+		c.connectBlocking(localhost, port, null, (message) -> received(message));
+		runThroughput("TCP");
+	}
+
+	private void received(String message) {
+		synchronized (lock) {
+			received.add(message);
+			lock.notifyAll();
+		}
+	}
+
+	private void runThroughput(String transport) throws Exception {
+		for (int s = 0; s < MESSAGE_SIZES.length; s++) {
+			String[] messages = createMessages(MESSAGE_SIZES[s]);
+			synchronized (lock) {
+				received.clear();
+			}
+			long start = System.nanoTime();
+			for (int i = 0; i < messages.length; i++) {
+				if (i >= WINDOW) {
+					waitForMessages(i - WINDOW);
+				}
+				client.writeMessage(messages[i]);
+			}
+			waitForMessages(messages.length);
+			long elapsed = System.nanoTime() - start;
+			synchronized (lock) {
+				for (int i = 0; i < messages.length; i++) {
+					assertEquals(messages[i].replace("\n", "\\n"), received.get(i));
+				}
+			}
+			if (PERFORMANCE) {
+				System.out.println(transport + " size=" + MESSAGE_SIZES[s] + " messages=" + messages.length
+						+ " elapsed(ms)=" + elapsed / 1000000 + " msgs/s=" + messages.length * 1000000000L / elapsed);
+			}
+		}
+	}
+
+	private String[] createMessages(int size) {
+		String[] messages = new String[MESSAGES];
+		for (int i = 0; i < messages.length; i++) {
+			StringBuilder sb = new StringBuilder(size);
+			sb.append("{\"jsonrpc\":\"2.0\",\"id\":").append(i).append(",\"params\":\"");
+			while (sb.length() < size - 3) {
+				// multibyte characters, and an embedded line break
+				sb.append((sb.length() % 97 == 0) ? "\n" : "\u00e9\u20ac");
+			}
+			messages[i] = sb.append("\"}").toString();
+		}
+		return messages;
+	}
+
+	private void waitForMessages(int count) throws InterruptedException, IOException {
+		long end = System.currentTimeMillis() + TIMEOUT;
+		synchronized (lock) {
+			while (received.size() < count) {
+				long wait = end - System.currentTimeMillis();
+				if (wait <= 0) {
+					throw new IOException("Received " + received.size() + " of " + count + " messages");
+				}
+				lock.wait(wait);
+			}
+		}
+	}
+}
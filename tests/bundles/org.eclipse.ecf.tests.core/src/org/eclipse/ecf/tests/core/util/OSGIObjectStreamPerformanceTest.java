@@ -0,0 +1,177 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.tests.core.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ecf.core.util.OSGIObjectInputStream;
+import org.eclipse.ecf.core.util.OSGIObjectOutputStream;
+import org.eclipse.ecf.internal.tests.core.Activator;
+
+import junit.framework.TestCase;
+
+/**
+ * Round trips a graph of DTOs through OSGIObjectOutputStream/OSGIObjectInputStream,
+ * and an equivalent graph of Serializable objects through plain Java
+ * serialization.  Checks the round tripped DTOs, and, if
+ * <code>org.eclipse.ecf.tests.performance</code> is set to <code>true</code>,
+ * reports the times and sizes of both.
+ */
+public class OSGIObjectStreamPerformanceTest extends TestCase {
+
+	private static final boolean PERFORMANCE = Boolean.getBoolean("org.eclipse.ecf.tests.performance");
+
+	private static final int ORDERS = 1000;
+
+	private static final int LINES = 10;
+
+	private static final int WARMUP = 5;
+
+	private static final int ITERATIONS = 10;
+
+	public static class LineDTO {
+		public String sku;
+		public int quantity;
+		public double price;
+	}
+
+	public static class OrderDTO {
+		public long id;
+		public String customer;
+		public List<LineDTO> lines;
+		public Map<String, String> attributes;
+	}
+
+	public static class Line implements Serializable {
+		private static final long serialVersionUID = 2880460858493436215L;
+		public String sku;
+		public int quantity;
+		public double price;
+	}
+
+	public static class Order implements Serializable {
+		private static final long serialVersionUID = -5452384716325062047L;
+		public long id;
+		public String customer;
+		public List<Line> lines;
+		public Map<String, String> attributes;
+	}
+
+	private List<OrderDTO> dtos;
+
+	private List<Order> orders;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		dtos = new ArrayList<OrderDTO>(ORDERS);
+		orders = new ArrayList<Order>(ORDERS);
+		for (int i = 0; i < ORDERS; i++) {
+			final OrderDTO dto = new OrderDTO();
+			final Order order = new Order();
+			dto.id = order.id = i;
+			dto.customer = order.customer = "customer" + (i % 50);
+			dto.lines = new ArrayList<LineDTO>(LINES);
+			order.lines = new ArrayList<Line>(LINES);
+			for (int j = 0; j < LINES; j++) {
+				final LineDTO lineDTO = new LineDTO();
+				final Line line = new Line();
+				lineDTO.sku = line.sku = "sku" + j;
+				lineDTO.quantity = line.quantity = j;
+				lineDTO.price = line.price = j * 1.5;
+				dto.lines.add(lineDTO);
+				order.lines.add(line);
+			}
+			dto.attributes = new HashMap<String, String>();
+			dto.attributes.put("region", "r" + (i % 5));
+			order.attributes = dto.attributes;
+			dtos.add(dto);
+			orders.add(order);
+		}
+	}
+
+	private byte[] writeOSGI(Object o) throws Exception {
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final OSGIObjectOutputStream oos = new OSGIObjectOutputStream(bos);
+		oos.writeObject(o);
+		oos.close();
+		return bos.toByteArray();
+	}
+
+	private Object readOSGI(byte[] bytes) throws Exception {
+		final OSGIObjectInputStream ois = new OSGIObjectInputStream(Activator.getContext().getBundle(), new ByteArrayInputStream(bytes));
+		final Object result = ois.readObject();
+		ois.close();
+		return result;
+	}
+
+	private byte[] writeJava(Object o) throws Exception {
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final ObjectOutputStream oos = new ObjectOutputStream(bos);
+		oos.writeObject(o);
+		oos.close();
+		return bos.toByteArray();
+	}
+
+	private Object readJava(byte[] bytes) throws Exception {
+		final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+		final Object result = ois.readObject();
+		ois.close();
+		return result;
+	}
+
+	public void testDTOGraphRoundTrip() throws Exception {
+		final List result = (List) readOSGI(writeOSGI(dtos));
+		assertEquals(ORDERS, result.size());
+		final OrderDTO dto = (OrderDTO) result.get(ORDERS / 2);
+		assertEquals(ORDERS / 2, dto.id);
+		assertEquals(dtos.get(ORDERS / 2).customer, dto.customer);
+		assertEquals(LINES, dto.lines.size());
+		assertEquals(3 * 1.5, dto.lines.get(3).price, 0.0);
+		assertEquals(dtos.get(ORDERS / 2).attributes, dto.attributes);
+	}
+
+	public void testDTOGraphTimes() throws Exception {
+		if (!PERFORMANCE)
+			return;
+		long osgiTime = 0;
+		long javaTime = 0;
+		int osgiSize = 0;
+		int javaSize = 0;
+		for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+			long start = System.nanoTime();
+			final byte[] osgiBytes = writeOSGI(dtos);
+			readOSGI(osgiBytes);
+			final long osgi = System.nanoTime() - start;
+			start = System.nanoTime();
+			final byte[] javaBytes = writeJava(orders);
+			readJava(javaBytes);
+			final long java = System.nanoTime() - start;
+			if (i >= WARMUP) {
+				osgiTime += osgi;
+				javaTime += java;
+			}
+			osgiSize = osgiBytes.length;
+			javaSize = javaBytes.length;
+		}
+		System.out.println(ORDERS + " orders of " + LINES + " lines: OSGIObjectStream=" + osgiTime / ITERATIONS / 1000 + "us (" + osgiSize + " bytes) Java serialization=" + javaTime / ITERATIONS / 1000 + "us (" + javaSize + " bytes)");
+	}
+}
@@ -0,0 +1,177 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *   Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.tests.osgi.services.remoteserviceadmin;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ecf.core.identity.StringID;
+import org.eclipse.ecf.osgi.services.remoteserviceadmin.EndpointDescription;
+import org.eclipse.ecf.osgi.services.remoteserviceadmin.RemoteServiceAdmin;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.remoteserviceadmin.ExportRegistration;
+import org.osgi.service.remoteserviceadmin.ImportRegistration;
+import org.osgi.service.remoteserviceadmin.RemoteConstants;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks the asynchronous imports and exports of the RemoteServiceAdmin: a
+ * service exported and imported again, the chaining of the imports of one
+ * endpoint, and the import of an endpoint for which no container is found.
+ */
+public class AsyncImportExportTest extends TestCase {
+
+	private static final long TIMEOUT = 30000;
+
+	private BundleContext context;
+
+	private ServiceReference<org.osgi.service.remoteserviceadmin.RemoteServiceAdmin> rsaReference;
+
+	private RemoteServiceAdmin rsa;
+
+	private ServiceRegistration<TestServiceInterface1> registration;
+
+	private final List<ExportRegistration> exportRegistrations = new ArrayList<ExportRegistration>();
+
+	private final List<ImportRegistration> importRegistrations = new ArrayList<ImportRegistration>();
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		context = FrameworkUtil.getBundle(getClass()).getBundleContext();
+		rsaReference = context.getServiceReference(org.osgi.service.remoteserviceadmin.RemoteServiceAdmin.class);
+		assertNotNull(rsaReference);
+		rsa = (RemoteServiceAdmin) context.getService(rsaReference);
+	}
+
+	protected void tearDown() throws Exception {
+		for (ImportRegistration reg : importRegistrations)
+			if (reg != null)
+				reg.close();
+		for (ExportRegistration reg : exportRegistrations)
+			reg.close();
+		if (registration != null)
+			registration.unregister();
+		context.ungetService(rsaReference);
+		super.tearDown();
+	}
+
+	private static EndpointDescription createDescription(String configType) {
+		Map<String, Object> props = new HashMap<String, Object>();
+		props.put(RemoteConstants.ENDPOINT_ID, "ecftcp://localhost:3299/asyncimporttest"); //$NON-NLS-1$
+		props.put(RemoteConstants.ENDPOINT_SERVICE_ID, Long.valueOf(1));
+		props.put(RemoteConstants.ENDPOINT_FRAMEWORK_UUID, UUID.randomUUID().toString());
+		props.put(RemoteConstants.SERVICE_IMPORTED_CONFIGS, configType);
+		props.put(Constants.OBJECTCLASS, new String[] { TestServiceInterface1.class.getName() });
+		props.put(org.eclipse.ecf.osgi.services.remoteserviceadmin.RemoteConstants.ENDPOINT_CONTAINER_ID_NAMESPACE,
+				StringID.class.getName());
+		return new EndpointDescription(props);
+	}
+
+	@SuppressWarnings("unchecked")
+	private CompletableFuture<ImportRegistration> getPendingImport(String endpointId) throws Exception {
+		Method method = RemoteServiceAdmin.class.getDeclaredMethod("getPendingImport", String.class); //$NON-NLS-1$
+		method.setAccessible(true);
+		return (CompletableFuture<ImportRegistration>) method.invoke(rsa, endpointId);
+	}
+
+	private void assertNoPendingImport(String endpointId) throws Exception {
+		// removed right after the import has completed
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (getPendingImport(endpointId) != null && System.currentTimeMillis() < end)
+			Thread.sleep(10);
+		assertNull(getPendingImport(endpointId));
+	}
+
+	public void testExportAndImport() throws Exception {
+		registration = context.registerService(TestServiceInterface1.class, new TestService1(), null);
+		Map<String, Object> overridingProperties = new HashMap<String, Object>();
+		overridingProperties.put(RemoteConstants.SERVICE_EXPORTED_INTERFACES, "*"); //$NON-NLS-1$
+		overridingProperties.put(RemoteConstants.SERVICE_EXPORTED_CONFIGS, "ecf.generic.server"); //$NON-NLS-1$
+		Collection<ExportRegistration> exported = rsa
+				.exportServiceAsync(registration.getReference(), overridingProperties)
+				.get(TIMEOUT, TimeUnit.MILLISECONDS);
+		exportRegistrations.addAll(exported);
+		assertEquals(1, exported.size());
+		ExportRegistration exportRegistration = exported.iterator().next();
+		assertNull(exportRegistration.getException());
+
+		org.osgi.service.remoteserviceadmin.EndpointDescription ed = exportRegistration.getExportReference()
+				.getExportedEndpoint();
+		ImportRegistration importRegistration = rsa.importServiceAsync(ed).get(TIMEOUT, TimeUnit.MILLISECONDS);
+		importRegistrations.add(importRegistration);
+		assertNotNull(importRegistration);
+		assertNull(importRegistration.getException());
+		ServiceReference<?> imported = importRegistration.getImportReference().getImportedService();
+		assertNotNull(imported);
+		assertNotNull(imported.getProperty(RemoteConstants.SERVICE_IMPORTED));
+		TestServiceInterface1 proxy = (TestServiceInterface1) context.getService(imported);
+		try {
+			assertEquals(TestServiceInterface1.TEST_SERVICE_STRING1, proxy.doStuff1());
+		} finally {
+			context.ungetService(imported);
+		}
+		assertNoPendingImport(ed.getId());
+	}
+
+	public void testChainedImports() throws Exception {
+		EndpointDescription ed = createDescription("ecf.test.asyncimport.none"); //$NON-NLS-1$
+		final AtomicInteger outOfOrder = new AtomicInteger();
+		List<CompletableFuture<ImportRegistration>> futures = new ArrayList<CompletableFuture<ImportRegistration>>();
+		CompletableFuture<ImportRegistration> previous = null;
+		for (int i = 0; i < 3; i++) {
+			CompletableFuture<ImportRegistration> future = rsa.importServiceAsync(ed);
+			futures.add(future);
+			final CompletableFuture<ImportRegistration> before = previous;
+			future.whenComplete((reg, t) -> {
+				if (before != null && !before.isDone())
+					outOfOrder.incrementAndGet();
+			});
+			previous = future;
+		}
+		// the last import is pending until all imports have completed
+		CompletableFuture<ImportRegistration> pending = getPendingImport(ed.getId());
+		if (pending != null)
+			assertSame(futures.get(2), pending);
+		for (CompletableFuture<ImportRegistration> future : futures) {
+			ImportRegistration reg = future.get(TIMEOUT, TimeUnit.MILLISECONDS);
+			importRegistrations.add(reg);
+			// no container for the config type
+			assertTrue(reg == null || reg.getException() != null);
+		}
+		assertEquals(0, outOfOrder.get());
+		assertNoPendingImport(ed.getId());
+	}
+
+	public void testImportWithoutContainer() throws Exception {
+		EndpointDescription ed = createDescription("ecf.test.asyncimport.none"); //$NON-NLS-1$
+		CompletableFuture<ImportRegistration> future = rsa.importServiceAsync(ed);
+		ImportRegistration reg = future.get(TIMEOUT, TimeUnit.MILLISECONDS);
+		importRegistrations.add(reg);
+		assertFalse(future.isCompletedExceptionally());
+		assertTrue(reg == null || reg.getException() != null);
+		assertNoPendingImport(ed.getId());
+	}
+}
@@ -0,0 +1,136 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *   Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.tests.osgi.services.remoteserviceadmin;
+
+import java.util.Arrays;
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.eclipse.ecf.internal.osgi.services.remoteserviceadmin.EndpointListenerScopes;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.remoteserviceadmin.EndpointDescription;
+import org.osgi.service.remoteserviceadmin.EndpointListener;
+import org.osgi.service.remoteserviceadmin.RemoteConstants;
+
+import junit.framework.TestCase;
+
+@SuppressWarnings("deprecation")
+public class EndpointListenerScopesTest extends TestCase {
+
+	private static final String UUID = "0f8c5d3c-0000-0000-0000-000000000001";
+
+	private BundleContext context;
+
+	private ServiceRegistration[] registrations;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		context = FrameworkUtil.getBundle(getClass()).getBundleContext();
+	}
+
+	protected void tearDown() throws Exception {
+		if (registrations != null)
+			for (int i = 0; i < registrations.length; i++)
+				registrations[i].unregister();
+		registrations = null;
+		super.tearDown();
+	}
+
+	private EndpointDescription createDescription(String uuid, String[] interfaces) {
+		Map<String, Object> props = new HashMap<String, Object>();
+		props.put(RemoteConstants.ENDPOINT_ID, "ecftcp://localhost:3282/server"); //$NON-NLS-1$
+		props.put(RemoteConstants.ENDPOINT_FRAMEWORK_UUID, uuid);
+		props.put(RemoteConstants.SERVICE_IMPORTED_CONFIGS, "ecf.generic.server"); //$NON-NLS-1$
+		props.put(Constants.OBJECTCLASS, interfaces);
+		return new EndpointDescription(props);
+	}
+
+	private ServiceReference[] registerListeners(Object[] scopes) {
+		registrations = new ServiceRegistration[scopes.length];
+		ServiceReference[] refs = new ServiceReference[scopes.length];
+		for (int i = 0; i < scopes.length; i++) {
+			Properties props = new Properties();
+			props.put(EndpointListener.ENDPOINT_LISTENER_SCOPE, scopes[i]);
+			registrations[i] = context.registerService(EndpointListener.class.getName(), new EndpointListener() {
+				public void endpointAdded(EndpointDescription endpoint, String matchedFilter) {
+				}
+
+				public void endpointRemoved(EndpointDescription endpoint, String matchedFilter) {
+				}
+			}, (Dictionary) props);
+			refs[i] = registrations[i].getReference();
+		}
+		return refs;
+	}
+
+	public void testScopeRestrictions() throws Exception {
+		EndpointListenerScopes.Scope scope = new EndpointListenerScopes.Scope(Arrays.asList(
+				"(&(endpoint.framework.uuid=" + UUID + ")(objectClass=foo.Bar))", "(objectClass=foo.Baz)")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(scope.isRestricted());
+		assertEquals(1, scope.getFrameworkUUIDs().size());
+		assertTrue(scope.getFrameworkUUIDs().contains(UUID));
+		assertEquals(1, scope.getObjectClasses().size());
+		assertTrue(scope.getObjectClasses().contains("foo.Baz")); //$NON-NLS-1$
+
+		scope = new EndpointListenerScopes.Scope(Arrays.asList("(objectClass=foo.*)", "(|(a=b)(c=d))")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(scope.isRestricted());
+
+		scope = new EndpointListenerScopes.Scope(Arrays.asList("(invalid", "")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(scope.isEmpty());
+	}
+
+	public void testScopeMatch() throws Exception {
+		EndpointDescription description = createDescription(UUID, new String[] { "foo.Bar" }); //$NON-NLS-1$
+		Dictionary<String, Object> properties = EndpointListenerScopes.getProperties(description);
+		EndpointListenerScopes.Scope scope = new EndpointListenerScopes.Scope(
+				Arrays.asList("(objectClass=foo.Baz)", "(OBJECTCLASS=foo.Bar)")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("(OBJECTCLASS=foo.Bar)", scope.match(properties)); //$NON-NLS-1$
+		assertEquals(description.matches("(OBJECTCLASS=foo.Bar)"), scope.match(properties) != null); //$NON-NLS-1$
+		scope = new EndpointListenerScopes.Scope(Arrays.asList("(endpoint.framework.uuid=other)")); //$NON-NLS-1$
+		assertNull(scope.match(properties));
+	}
+
+	public void testCandidates() throws Exception {
+		ServiceReference[] refs = registerListeners(new Object[] { "(endpoint.framework.uuid=" + UUID + ")", //$NON-NLS-1$ //$NON-NLS-2$
+				"(objectClass=foo.Bar)", "(objectClass=foo.Baz)", "(" + RemoteConstants.ENDPOINT_ID + "=*)", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				new String[] { "(objectClass=foo.Baz)", "(endpoint.framework.uuid=other)" } }); //$NON-NLS-1$ //$NON-NLS-2$
+		EndpointListenerScopes scopes = new EndpointListenerScopes(EndpointListener.ENDPOINT_LISTENER_SCOPE);
+
+		List<ServiceReference> candidates = scopes.getCandidates(refs,
+				createDescription(UUID, new String[] { "foo.Bar" })); //$NON-NLS-1$
+		assertEquals(Arrays.asList(refs[0], refs[1], refs[3]), candidates);
+
+		candidates = scopes.getCandidates(refs, createDescription("other", new String[] { "foo.Baz" })); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(Arrays.asList(refs[2], refs[3], refs[4]), candidates);
+
+		// the scope is compiled again after the properties are modified
+		Properties props = new Properties();
+		props.put(EndpointListener.ENDPOINT_LISTENER_SCOPE, "(objectClass=foo.Baz)"); //$NON-NLS-1$
+		registrations[1].setProperties((Dictionary) props);
+		scopes.update(refs[1]);
+		candidates = scopes.getCandidates(refs, createDescription("other", new String[] { "foo.Baz" })); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(Arrays.asList(refs[1], refs[2], refs[3], refs[4]), candidates);
+
+		scopes.remove(refs[3]);
+		candidates = scopes.getCandidates(new ServiceReference[] { refs[0], refs[1] },
+				createDescription("other", new String[] { "foo.Bar" })); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(candidates.isEmpty());
+	}
+}
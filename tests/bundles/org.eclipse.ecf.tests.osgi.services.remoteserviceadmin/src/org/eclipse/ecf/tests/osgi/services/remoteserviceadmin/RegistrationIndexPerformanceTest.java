@@ -0,0 +1,137 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *   Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.tests.osgi.services.remoteserviceadmin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.ecf.internal.osgi.services.remoteserviceadmin.RegistrationIndex;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.remoteserviceadmin.EndpointDescription;
+import org.osgi.service.remoteserviceadmin.ImportReference;
+import org.osgi.service.remoteserviceadmin.ImportRegistration;
+import org.osgi.service.remoteserviceadmin.RemoteConstants;
+
+import junit.framework.TestCase;
+
+/**
+ * Replays a churn of endpoint removals and additions against a number of import
+ * registrations, and checks the registrations found by the index. If
+ * <code>org.eclipse.ecf.tests.performance</code> is set to <code>true</code>,
+ * a large number of registrations is used, and the time per event of the
+ * indexed lookup and of a scan of all registrations is reported.
+ */
+public class RegistrationIndexPerformanceTest extends TestCase {
+
+	private static final boolean PERFORMANCE = Boolean.getBoolean("org.eclipse.ecf.tests.performance"); //$NON-NLS-1$
+
+	private static final int ENDPOINTS = PERFORMANCE ? 20000 : 1000;
+
+	private static final int EVENTS = PERFORMANCE ? 20000 : 1000;
+
+	private static final int SCAN_EVENTS = 1000;
+
+	private static class TestImportRegistration implements ImportRegistration, ImportReference {
+
+		private final EndpointDescription endpointDescription;
+
+		TestImportRegistration(EndpointDescription endpointDescription) {
+			this.endpointDescription = endpointDescription;
+		}
+
+		public ServiceReference getImportedService() {
+			return null;
+		}
+
+		public EndpointDescription getImportedEndpoint() {
+			return endpointDescription;
+		}
+
+		public ImportReference getImportReference() {
+			return this;
+		}
+
+		public boolean update(EndpointDescription endpoint) {
+			return false;
+		}
+
+		public void close() {
+		}
+
+		public Throwable getException() {
+			return null;
+		}
+	}
+
+	private static EndpointDescription createDescription(int i) {
+		Map<String, Object> props = new HashMap<String, Object>();
+		props.put(RemoteConstants.ENDPOINT_ID, "ecftcp://host" + (i % 100) + ":3282/server#" + i); //$NON-NLS-1$ //$NON-NLS-2$
+		props.put(RemoteConstants.SERVICE_IMPORTED_CONFIGS, "ecf.generic.server"); //$NON-NLS-1$
+		props.put(Constants.OBJECTCLASS, new String[] { "foo.Bar" }); //$NON-NLS-1$
+		return new EndpointDescription(props);
+	}
+
+	private static ImportRegistration scan(List<ImportRegistration> registrations, String endpointId) {
+		for (ImportRegistration reg : registrations)
+			if (reg.getImportReference().getImportedEndpoint().getId().equals(endpointId))
+				return reg;
+		return null;
+	}
+
+	public void testEndpointChurn() throws Exception {
+		EndpointDescription[] eds = new EndpointDescription[ENDPOINTS];
+		RegistrationIndex<ImportRegistration> index = RegistrationIndex.createImportRegistrations();
+		List<ImportRegistration> list = new ArrayList<ImportRegistration>();
+		for (int i = 0; i < ENDPOINTS; i++) {
+			eds[i] = createDescription(i);
+			ImportRegistration reg = new TestImportRegistration(eds[i]);
+			index.add(reg);
+			list.add(reg);
+		}
+		assertEquals(ENDPOINTS, index.size());
+
+		// every event removes the registration of an endpoint and adds it again
+		Random random = new Random(0);
+		long start = System.nanoTime();
+		for (int i = 0; i < EVENTS; i++) {
+			EndpointDescription ed = eds[random.nextInt(ENDPOINTS)];
+			List<ImportRegistration> found = index.get(ed.getId());
+			assertEquals(1, found.size());
+			assertTrue(index.remove(found.get(0)));
+			assertTrue(index.get(ed.getId()).isEmpty());
+			index.add(new TestImportRegistration(ed));
+		}
+		long indexed = (System.nanoTime() - start) / EVENTS;
+		assertEquals(ENDPOINTS, index.size());
+		if (!PERFORMANCE)
+			return;
+
+		random = new Random(0);
+		start = System.nanoTime();
+		for (int i = 0; i < SCAN_EVENTS; i++) {
+			EndpointDescription ed = eds[random.nextInt(ENDPOINTS)];
+			ImportRegistration found = scan(list, ed.getId());
+			assertNotNull(found);
+			list.remove(found);
+			list.add(new TestImportRegistration(ed));
+		}
+		long scanned = (System.nanoTime() - start) / SCAN_EVENTS;
+
+		System.out.println(ENDPOINTS + " import registrations: indexed=" + indexed / 1000.0 + "us/event scan=" //$NON-NLS-1$ //$NON-NLS-2$
+				+ scanned / 1000.0 + "us/event"); //$NON-NLS-1$
+	}
+}
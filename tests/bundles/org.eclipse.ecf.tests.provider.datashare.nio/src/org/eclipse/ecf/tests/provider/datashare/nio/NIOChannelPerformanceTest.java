@@ -0,0 +1,340 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.tests.provider.datashare.nio;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ecf.core.IContainer;
+import org.eclipse.ecf.core.identity.ID;
+import org.eclipse.ecf.core.identity.IDFactory;
+import org.eclipse.ecf.core.util.ECFException;
+import org.eclipse.ecf.datashare.IChannelListener;
+import org.eclipse.ecf.datashare.events.IChannelEvent;
+import org.eclipse.ecf.datashare.events.IChannelMessageEvent;
+
+/**
+ * Connects one channel to 1, 10 and 100 peer channels that echo every message
+ * back, and reports the round trip latency of a message sent to all peers and
+ * the throughput of many messages sent to all peers. Every run is done with
+ * the polling channel that <code>NIOChannel</code> used to be,
+ * {@link PollingChannel}, and with <code>NIOChannel</code>. The polling
+ * channel drops data that does not end with a complete message, so only the
+ * messages it delivered are reported for it. Not part of the default test
+ * run, it is run if <code>org.eclipse.ecf.tests.performance</code> is set to
+ * <code>true</code>.
+ */
+public class NIOChannelPerformanceTest extends TestCase {
+
+	private static final boolean PERFORMANCE = Boolean
+			.getBoolean("org.eclipse.ecf.tests.performance"); //$NON-NLS-1$
+
+	private static final String LOCALHOST = "127.0.0.1"; //$NON-NLS-1$
+
+	private static final String CHANNEL_NAME = "channel"; //$NON-NLS-1$
+
+	private static final int ROUNDS = 100;
+
+	private static final int MESSAGES = 10000;
+
+	private static final int MESSAGE_SIZE = 1024;
+
+	private static final long TIMEOUT = 60000;
+
+	/**
+	 * How long to wait for further messages of the polling channel once none
+	 * arrive anymore.
+	 */
+	private static final long IDLE_TIMEOUT = 2000;
+
+	/**
+	 * Sends a message from the hub to a peer.
+	 */
+	private interface Hub {
+		void send(ID receiver, byte[] message) throws Exception;
+	}
+
+	private final Object lock = new Object();
+
+	private int received;
+
+	private IContainer hubContainer;
+
+	private IContainer[] peerContainers;
+
+	private PollingChannel[] pollingChannels;
+
+	private Hub hub;
+
+	private ID[] peerIds;
+
+	private static ConcreteNIOChannel createChannel(
+			ConcreteNIODatashareContainer channelContainer,
+			IChannelListener listener) throws ECFException {
+		return (ConcreteNIOChannel) channelContainer.createChannel(IDFactory
+				.getDefault().createStringID(CHANNEL_NAME), listener, null);
+	}
+
+	private void received() {
+		synchronized (lock) {
+			received++;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Creates the hub and the peer channels, and connects every peer to the
+	 * hub.
+	 */
+	private void connectPeers(int count) throws Exception {
+		hubContainer = new ContainerImpl();
+		IChannelListener hubListener = new IChannelListener() {
+			public void handleChannelEvent(IChannelEvent event) {
+				if (event instanceof IChannelMessageEvent) {
+					received();
+				}
+			}
+		};
+		final ConcreteNIOChannel hubChannel = createChannel(
+				new ConcreteNIODatashareContainer(hubContainer), hubListener);
+		hub = new Hub() {
+			public void send(ID receiver, byte[] message) throws Exception {
+				hubChannel.sendMessage(receiver, message);
+			}
+		};
+
+		final ID hubId = hubContainer.getConnectedID();
+		peerContainers = new IContainer[count];
+		peerIds = new ID[count];
+		ConcreteNIODatashareContainer[] channelContainers = new ConcreteNIODatashareContainer[count];
+		for (int i = 0; i < count; i++) {
+			final ConcreteNIOChannel[] peerChannel = new ConcreteNIOChannel[1];
+			IChannelListener peerListener = new IChannelListener() {
+				public void handleChannelEvent(IChannelEvent event) {
+					if (event instanceof IChannelMessageEvent) {
+						try {
+							// echo the message back
+							peerChannel[0].sendMessage(hubId,
+									((IChannelMessageEvent) event).getData());
+						} catch (ECFException e) {
+							fail(e.getMessage());
+						}
+					}
+				}
+			};
+			peerContainers[i] = new ContainerImpl();
+			peerIds[i] = peerContainers[i].getConnectedID();
+			channelContainers[i] = new ConcreteNIODatashareContainer(
+					peerContainers[i]);
+			peerChannel[0] = createChannel(channelContainers[i], peerListener);
+		}
+
+		// the first message to each peer is sent once the peer has connected
+		received = 0;
+		for (int i = 0; i < count; i++) {
+			hubChannel.sendMessage(peerIds[i], new byte[] { 0 });
+			channelContainers[i].enqueue(new InetSocketAddress(LOCALHOST,
+					hubChannel.getPort()));
+		}
+		assertEquals(count, waitForReceived(count, false));
+	}
+
+	/**
+	 * Creates the hub and the peer polling channels, and connects every peer
+	 * to the hub with a socket of its own.
+	 */
+	private void connectPollingPeers(int count) throws Exception {
+		final ID hubId = IDFactory.getDefault().createStringID("hub"); //$NON-NLS-1$
+		final PollingChannel hubChannel = new PollingChannel(
+				new PollingChannel.Listener() {
+					public void received(ID fromId, byte[] data) {
+						NIOChannelPerformanceTest.this.received();
+					}
+				});
+		hub = new Hub() {
+			public void send(ID receiver, byte[] message) throws Exception {
+				hubChannel.sendMessage(receiver, message);
+			}
+		};
+
+		pollingChannels = new PollingChannel[count + 1];
+		pollingChannels[count] = hubChannel;
+		peerIds = new ID[count];
+		ServerSocketChannel server = ServerSocketChannel.open();
+		try {
+			server.socket().bind(new InetSocketAddress(LOCALHOST, 0));
+			for (int i = 0; i < count; i++) {
+				final PollingChannel[] peerChannel = new PollingChannel[1];
+				peerChannel[0] = new PollingChannel(
+						new PollingChannel.Listener() {
+							public void received(ID fromId, byte[] data) {
+								try {
+									// echo the message back
+									peerChannel[0].sendMessage(hubId, data);
+								} catch (Exception e) {
+									fail(e.getMessage());
+								}
+							}
+						});
+				pollingChannels[i] = peerChannel[0];
+				peerIds[i] = IDFactory.getDefault().createStringID("peer" + i); //$NON-NLS-1$
+
+				SocketChannel peerSocket = SocketChannel
+						.open(new InetSocketAddress(LOCALHOST, server.socket()
+								.getLocalPort()));
+				hubChannel.put(peerIds[i], server.accept());
+				peerChannel[0].put(hubId, peerSocket);
+			}
+		} finally {
+			server.close();
+		}
+	}
+
+	protected void tearDown() throws Exception {
+		if (hubContainer != null) {
+			hubContainer.disconnect();
+		}
+		if (peerContainers != null) {
+			for (int i = 0; i < peerContainers.length; i++) {
+				peerContainers[i].disconnect();
+			}
+		}
+		if (pollingChannels != null) {
+			for (int i = 0; i < pollingChannels.length; i++) {
+				pollingChannels[i].dispose();
+			}
+		}
+		hubContainer = null;
+		peerContainers = null;
+		pollingChannels = null;
+		hub = null;
+		peerIds = null;
+		super.tearDown();
+	}
+
+	/**
+	 * Waits until the given number of messages has been received, or, if
+	 * messages may be lost, until no message has been received for a while.
+	 * 
+	 * @return the number of messages received
+	 */
+	private int waitForReceived(int count, boolean lossy) throws Exception {
+		long start = System.currentTimeMillis();
+		long progress = start;
+		int last = 0;
+		synchronized (lock) {
+			while (received < count) {
+				long now = System.currentTimeMillis();
+				if (received != last) {
+					last = received;
+					progress = now;
+				}
+				if (now - start >= TIMEOUT
+						|| (lossy && now - progress >= IDLE_TIMEOUT)) {
+					break;
+				}
+				lock.wait(100);
+			}
+			return received;
+		}
+	}
+
+	private void resetReceived() {
+		synchronized (lock) {
+			received = 0;
+		}
+	}
+
+	private void sendToAll(byte[] message) throws Exception {
+		for (int i = 0; i < peerIds.length; i++) {
+			hub.send(peerIds[i], message);
+		}
+	}
+
+	private void runPeers(String name, int count, boolean lossy)
+			throws Exception {
+		long[] latencies = new long[ROUNDS];
+		byte[] message = new byte[MESSAGE_SIZE];
+		int lostRounds = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			resetReceived();
+			long start = System.nanoTime();
+			sendToAll(message);
+			int echoed = waitForReceived(count, lossy);
+			latencies[i] = System.nanoTime() - start;
+			if (echoed != count) {
+				assertTrue(lossy);
+				lostRounds++;
+				// let the stragglers of the round arrive
+				Thread.sleep(IDLE_TIMEOUT);
+			}
+		}
+		Arrays.sort(latencies);
+
+		int messages = Math.max(MESSAGES / count, 100);
+		resetReceived();
+		long start = System.nanoTime();
+		for (int i = 0; i < messages; i++) {
+			sendToAll(message);
+		}
+		long total = (long) count * messages;
+		int echoed = waitForReceived((int) total, lossy);
+		long elapsed = System.nanoTime() - start;
+		if (!lossy) {
+			assertEquals(total, echoed);
+		}
+
+		System.out.println(name + ", " + count + " peers: round trip p50="
+				+ latencies[ROUNDS / 2] / 1000 + "us p99="
+				+ latencies[ROUNDS * 99 / 100] / 1000 + "us"
+				+ (lostRounds == 0 ? "" : " (" + lostRounds + " rounds lost)")
+				+ ", " + echoed + " of " + total + " echoed messages of "
+				+ MESSAGE_SIZE + " bytes in " + elapsed / 1000000 + "ms ("
+				+ echoed * 1000000000L / Math.max(elapsed, 1) + " msgs/s)");
+	}
+
+	/**
+	 * Runs the benchmark with the polling channel and then with
+	 * <code>NIOChannel</code>.
+	 */
+	private void compare(int count) throws Exception {
+		connectPollingPeers(count);
+		runPeers("polling", count, true); //$NON-NLS-1$
+		tearDown();
+
+		connectPeers(count);
+		runPeers("selector", count, false); //$NON-NLS-1$
+	}
+
+	public void testOnePeer() throws Exception {
+		if (PERFORMANCE) {
+			compare(1);
+		}
+	}
+
+	public void testTenPeers() throws Exception {
+		if (PERFORMANCE) {
+			compare(10);
+		}
+	}
+
+	public void testHundredPeers() throws Exception {
+		if (PERFORMANCE) {
+			compare(100);
+		}
+	}
+}
@@ -12,7 +12,14 @@
  *****************************************************************************/
 package org.eclipse.ecf.tests.provider.datashare.nio;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
 
 import junit.framework.TestCase;
 
@@ -285,4 +292,137 @@ public class NIODatashareTest extends TestCase {
 		assertEquals(expected1, actual[0]);
 		assertEquals(expected2, actual[1]);
 	}
+
+	public void testMessageSenders() throws Exception {
+		final IContainer containerC = new ContainerImpl();
+		ConcreteNIODatashareContainer channelContainerC = new ConcreteNIODatashareContainer(
+				containerC);
+		final ID[] actual = new ID[2];
+
+		try {
+			channelA = createChannel(channelContainerA, new IChannelListener() {
+				public void handleChannelEvent(IChannelEvent event) {
+					if (event instanceof IChannelMessageEvent) {
+						IChannelMessageEvent e = (IChannelMessageEvent) event;
+						synchronized (waitObject) {
+							actual[e.getData()[0]] = e.getFromContainerID();
+							if (actual[0] != null && actual[1] != null) {
+								waitObject.notify();
+							}
+						}
+					}
+				}
+			});
+
+			int targetPort = channelA.getPort();
+
+			channelB = createChannel(channelContainerB, new IChannelListener() {
+				public void handleChannelEvent(IChannelEvent event) {
+					if (event instanceof IChannelMessageEvent) {
+						send(channelB, containerA.getConnectedID(),
+								new byte[] { 0 });
+					}
+				}
+			});
+
+			final IChannel[] channelC = new IChannel[1];
+			channelC[0] = createChannel(channelContainerC,
+					new IChannelListener() {
+						public void handleChannelEvent(IChannelEvent event) {
+							if (event instanceof IChannelMessageEvent) {
+								send(channelC[0], containerA.getConnectedID(),
+										new byte[] { 1 });
+							}
+						}
+					});
+
+			channelA.sendMessage(containerB.getConnectedID(), new byte[] { 2 });
+			channelA.sendMessage(containerC.getConnectedID(), new byte[] { 2 });
+
+			channelContainerB.enqueue(new InetSocketAddress(LOCALHOST,
+					targetPort));
+			channelContainerC.enqueue(new InetSocketAddress(LOCALHOST,
+					targetPort));
+
+			synchronized (waitObject) {
+				if (actual[0] == null || actual[1] == null) {
+					waitObject.wait(5000);
+				}
+			}
+
+			if (exception != null) {
+				throw exception;
+			}
+
+			assertEquals(containerB.getConnectedID(), actual[0]);
+			assertEquals(containerC.getConnectedID(), actual[1]);
+		} finally {
+			containerC.disconnect();
+		}
+	}
+
+	private static byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		oos.writeObject(object);
+		oos.flush();
+		return baos.toByteArray();
+	}
+
+	private static void assertClosed(Socket socket) throws IOException {
+		InputStream in = socket.getInputStream();
+		byte[] buffer = new byte[1024];
+		try {
+			while (in.read(buffer) != -1) {
+				// skip the handshake reply
+			}
+		} catch (SocketTimeoutException e) {
+			fail("The channel did not close the connection"); //$NON-NLS-1$
+		} catch (IOException e) {
+			// reset by the channel
+		}
+	}
+
+	public void testOversizedMessageClosesConnection() throws Exception {
+		channelA = createChannel(channelContainerA);
+
+		Socket socket = new Socket(LOCALHOST, channelA.getPort());
+		try {
+			socket.setSoTimeout(10000);
+			OutputStream out = socket.getOutputStream();
+			out.write(serialize(IDFactory.getDefault().createStringID("peer"))); //$NON-NLS-1$
+			// a serialized byte[] that claims to be 2GB long
+			byte[] header = serialize(new byte[0]);
+			for (int i = header.length - 4; i < header.length; i++) {
+				header[i] = (byte) 0xff;
+			}
+			header[header.length - 4] = 0x7f;
+			out.write(header);
+			out.flush();
+
+			assertClosed(socket);
+		} finally {
+			socket.close();
+		}
+	}
+
+	public void testDisposeClosesPendingHandshake() throws Exception {
+		channelA = createChannel(channelContainerA);
+
+		Socket socket = new Socket(LOCALHOST, channelA.getPort());
+		try {
+			socket.setSoTimeout(10000);
+			// start the handshake without finishing it
+			byte[] id = serialize(IDFactory.getDefault().createStringID("peer")); //$NON-NLS-1$
+			socket.getOutputStream().write(id, 0, id.length / 2);
+			socket.getOutputStream().flush();
+			Thread.sleep(500);
+
+			channelA.dispose();
+
+			assertClosed(socket);
+		} finally {
+			socket.close();
+		}
+	}
 }
@@ -0,0 +1,192 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.tests.provider.datashare.nio;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ecf.core.identity.ID;
+
+/**
+ * The message path of <code>NIOChannel</code> before it was driven by a
+ * selector, kept as the baseline of {@link NIOChannelPerformanceTest}. A
+ * thread polls every 50ms, reads all sockets through one shared 1KB buffer,
+ * and writes the queued messages with blocking writes. Data that does not end
+ * with a complete message is dropped, as it was.
+ */
+class PollingChannel {
+
+	/**
+	 * Receives the messages read by a polling channel.
+	 */
+	interface Listener {
+		void received(ID fromId, byte[] data);
+	}
+
+	private final Map connectedSockets = new HashMap();
+
+	private final LinkedList messages = new LinkedList();
+
+	private final Listener listener;
+
+	private final Thread processingThread;
+
+	PollingChannel(Listener listener) {
+		this.listener = listener;
+		processingThread = new Thread(new Runnable() {
+			public void run() {
+				process();
+			}
+		}, getClass().getName() + "Thread"); //$NON-NLS-1$
+		processingThread.start();
+	}
+
+	void put(ID peerId, SocketChannel socketChannel) throws IOException {
+		socketChannel.configureBlocking(false);
+		synchronized (connectedSockets) {
+			connectedSockets.put(peerId, socketChannel);
+		}
+	}
+
+	void sendMessage(ID receiver, byte[] message) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		oos.writeObject(message);
+		synchronized (messages) {
+			messages.add(new Object[] { receiver, baos.toByteArray() });
+		}
+	}
+
+	void dispose() {
+		processingThread.interrupt();
+		synchronized (connectedSockets) {
+			for (Iterator it = connectedSockets.values().iterator(); it
+					.hasNext();) {
+				try {
+					((SocketChannel) it.next()).close();
+				} catch (IOException e) {
+					// ignored
+				}
+			}
+			connectedSockets.clear();
+		}
+	}
+
+	private void process() {
+		ByteBuffer buffer = ByteBuffer.allocate(1024);
+		while (true) {
+			try {
+				Thread.sleep(50);
+				if (Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				processIncomingMessages(buffer);
+				sendPendingMessages();
+			} catch (InterruptedException e) {
+				return;
+			} catch (IOException e) {
+				// the peer has gone, as the benchmark is tearing down
+				return;
+			}
+		}
+	}
+
+	private void processIncomingMessages(ByteBuffer buffer) throws IOException {
+		List entries;
+		synchronized (connectedSockets) {
+			entries = new ArrayList(connectedSockets.entrySet());
+		}
+		for (Iterator it = entries.iterator(); it.hasNext();) {
+			Map.Entry entry = (Map.Entry) it.next();
+			byte[] data = read((SocketChannel) entry.getValue(), buffer);
+			if (data != null) {
+				byte[][] received = convert(data);
+				for (int i = 0; received != null && i < received.length; i++) {
+					listener.received((ID) entry.getKey(), received[i]);
+				}
+			}
+		}
+	}
+
+	private void sendPendingMessages() throws IOException {
+		synchronized (messages) {
+			for (Iterator it = messages.iterator(); it.hasNext();) {
+				Object[] message = (Object[]) it.next();
+				SocketChannel channel;
+				synchronized (connectedSockets) {
+					channel = (SocketChannel) connectedSockets.get(message[0]);
+				}
+				if (channel != null) {
+					channel.configureBlocking(true);
+					channel.socket().getOutputStream().write(
+							(byte[]) message[1]);
+					channel.socket().getOutputStream().flush();
+					channel.configureBlocking(false);
+					it.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads everything available from the socket through the shared buffer.
+	 */
+	private static byte[] read(SocketChannel channel, ByteBuffer buffer)
+			throws IOException {
+		byte[] message = null;
+		int read = channel.read(buffer);
+		while (read > 0) {
+			int length = message == null ? 0 : message.length;
+			byte[] temp = new byte[length + read];
+			if (message != null) {
+				System.arraycopy(message, 0, temp, 0, length);
+			}
+			buffer.flip();
+			buffer.get(temp, length, read);
+			buffer.clear();
+			message = temp;
+			read = channel.read(buffer);
+		}
+		return message;
+	}
+
+	/**
+	 * Deserializes the byte[]s of the data, or returns <code>null</code> if
+	 * the data does not end with a complete one.
+	 */
+	private static byte[][] convert(byte[] data) {
+		try {
+			ByteArrayInputStream bais = new ByteArrayInputStream(data);
+			List c = new ArrayList();
+			while (bais.available() != 0) {
+				c.add(new ObjectInputStream(bais).readObject());
+			}
+			return (byte[][]) c.toArray(new byte[c.size()][]);
+		} catch (IOException e) {
+			return null;
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+}
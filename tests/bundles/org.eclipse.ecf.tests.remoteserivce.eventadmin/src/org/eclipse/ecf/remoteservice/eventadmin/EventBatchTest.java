@@ -0,0 +1,205 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.remoteservice.eventadmin;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ecf.core.identity.ID;
+import org.eclipse.ecf.core.sharedobject.SharedObjectMsg;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.event.Event;
+
+/**
+ * Sends events from one DistributedEventAdmin to another, with and without
+ * batching, checks that the events are received in order with their
+ * properties, and that batching sends fewer bytes. If
+ * <code>org.eclipse.ecf.tests.performance</code> is set to <code>true</code>,
+ * more events are sent and the number of bytes sent per event is reported.
+ */
+public class EventBatchTest {
+
+	private static final boolean PERFORMANCE = Boolean.getBoolean("org.eclipse.ecf.tests.performance");
+
+	private static final int EVENTS = PERFORMANCE ? 10000 : 1000;
+
+	private ReceivingEventAdmin receiver;
+	private SendingEventAdmin sender;
+
+	@Before
+	public void setup() {
+		receiver = new ReceivingEventAdmin();
+		sender = new SendingEventAdmin(receiver);
+	}
+
+	@After
+	public void teardown() {
+		sender.setBatching(0, 0);
+	}
+
+	private static Event createEvent(int i) {
+		final Map<String, Object> map = new HashMap<String, Object>();
+		map.put("sequence", Integer.valueOf(i));
+		map.put("sender", "sender-" + (i % 4));
+		return new Event("org/eclipse/ecf/tests/event" + (i % 8), map);
+	}
+
+	private void assertReceived(int count) {
+		Assert.assertEquals(count, receiver.events.size());
+		for (int i = 0; i < count; i++) {
+			final Event event = receiver.events.get(i);
+			final Event expected = createEvent(i);
+			Assert.assertEquals(expected.getTopic(), event.getTopic());
+			Assert.assertEquals(Integer.valueOf(i), event.getProperty("sequence"));
+			Assert.assertEquals(expected.getProperty("sender"), event.getProperty("sender"));
+		}
+	}
+
+	@Test
+	public void testUnbatched() {
+		for (int i = 0; i < 10; i++) {
+			sender.sendMessage(createEvent(i));
+		}
+		Assert.assertEquals(10, sender.messages);
+		assertReceived(10);
+		Assert.assertEquals(0, sender.getBatchStatistics().getBatchCount());
+	}
+
+	@Test
+	public void testBatchSize() {
+		sender.setBatching(10, 60000);
+		for (int i = 0; i < 25; i++) {
+			sender.sendMessage(createEvent(i));
+		}
+		// the last 5 events are pending
+		Assert.assertEquals(2, sender.messages);
+		assertReceived(20);
+		sender.flushBatches();
+		Assert.assertEquals(3, sender.messages);
+		assertReceived(25);
+
+		final EventBatchStatistics statistics = sender.getBatchStatistics();
+		Assert.assertEquals(3, statistics.getBatchCount());
+		Assert.assertEquals(25, statistics.getEventCount());
+		Assert.assertEquals(10, statistics.getMaxBatchSize());
+		// the frames are sent in shared object messages
+		Assert.assertTrue(statistics.getFrameBytes() < sender.bytes);
+	}
+
+	@Test
+	public void testBatchWindow() throws Exception {
+		sender.setBatching(1000, 10);
+		for (int i = 0; i < 5; i++) {
+			sender.sendMessage(createEvent(i));
+		}
+		for (int i = 0; i < 100 && sender.messages == 0; i++) {
+			Thread.sleep(10);
+		}
+		Assert.assertEquals(1, sender.messages);
+		assertReceived(5);
+		Assert.assertTrue(sender.getBatchStatistics().getMaxLatency() > 0);
+	}
+
+	@Test
+	public void testDisableBatchingFlushes() {
+		sender.setBatching(1000, 60000);
+		sender.sendMessage(createEvent(0));
+		Assert.assertEquals(0, sender.messages);
+		sender.setBatching(0, 0);
+		sender.sendMessage(createEvent(1));
+		Assert.assertEquals(2, sender.messages);
+		assertReceived(2);
+	}
+
+	@Test
+	public void testBatchedBytesPerEvent() {
+		for (int i = 0; i < EVENTS; i++) {
+			sender.sendMessage(createEvent(i));
+		}
+		final long unbatchedBytes = sender.bytes;
+		assertReceived(EVENTS);
+
+		receiver.events.clear();
+		sender.bytes = 0;
+		sender.setBatching(100, 60000);
+		for (int i = 0; i < EVENTS; i++) {
+			sender.sendMessage(createEvent(i));
+		}
+		sender.flushBatches();
+		assertReceived(EVENTS);
+		Assert.assertTrue(sender.bytes < unbatchedBytes);
+		if (PERFORMANCE) {
+			System.out.println("bytes/event unbatched=" + unbatchedBytes / EVENTS + " batched=" + sender.bytes / EVENTS
+					+ " " + sender.getBatchStatistics());
+		}
+	}
+
+	/**
+	 * Serializes the messages it sends, as a container would, and delivers
+	 * them to the receiver
+	 */
+	static class SendingEventAdmin extends TestDistributedEventAdmin {
+
+		private final ReceivingEventAdmin receiver;
+		volatile int messages;
+		volatile long bytes;
+
+		SendingEventAdmin(ReceivingEventAdmin receiver) {
+			this.receiver = receiver;
+		}
+
+		@Override
+		protected void sendSharedObjectMsgTo(ID toID, SharedObjectMsg msg) throws IOException {
+			final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			final ObjectOutputStream out = new ObjectOutputStream(bos);
+			out.writeObject(msg);
+			out.close();
+			synchronized (receiver) {
+				try {
+					receiver.handleSharedObjectMsg(null,
+							(SharedObjectMsg) new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray())).readObject());
+				} catch (ClassNotFoundException e) {
+					throw new IOException(e);
+				}
+				// counted after delivery, for tests waiting for the scheduler
+				bytes += bos.size();
+				messages++;
+			}
+		}
+	}
+
+	static class ReceivingEventAdmin extends TestDistributedEventAdmin {
+
+		final List<Event> events = new ArrayList<Event>();
+
+		@Override
+		protected void notifyReceivedEvent(ID fromID, Event receivedEvent) {
+			events.add(receivedEvent);
+		}
+
+		@Override
+		protected void logError(String message, Throwable exception) {
+			throw new AssertionError(message, exception);
+		}
+	}
+}
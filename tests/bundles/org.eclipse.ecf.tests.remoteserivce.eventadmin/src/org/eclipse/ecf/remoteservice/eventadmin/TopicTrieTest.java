@@ -0,0 +1,230 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.remoteservice.eventadmin;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.ecf.internal.remoteservice.eventadmin.EventHandlerTracker;
+import org.eclipse.ecf.internal.remoteservice.eventadmin.EventHandlerWrapper;
+import org.eclipse.ecf.internal.remoteservice.eventadmin.FilterCache;
+import org.eclipse.ecf.internal.remoteservice.eventadmin.TopicTrie;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * Checks the matching of topics with the topic trie, and the filtering of
+ * handlers by the EventHandlerTracker. If
+ * <code>org.eclipse.ecf.tests.performance</code> is set to <code>true</code>,
+ * the time to look up the handlers of an event is reported.
+ */
+public class TopicTrieTest {
+
+	private static final boolean PERFORMANCE = Boolean.getBoolean("org.eclipse.ecf.tests.performance");
+
+	private static final int HANDLERS = 500;
+
+	private TopicTrie trie;
+
+	private BundleContext context;
+
+	private final List<Event> handled = new ArrayList<Event>();
+
+	@Before
+	public void setup() {
+		trie = new TopicTrie();
+		final EventHandler handler = new EventHandler() {
+			public void handleEvent(Event event) {
+				handled.add(event);
+			}
+		};
+		// a context that creates filters and gets the same handler for every
+		// reference
+		context = (BundleContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class[] { BundleContext.class }, new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if (method.getName().equals("createFilter")) {
+							return FrameworkUtil.createFilter((String) args[0]);
+						}
+						if (method.getName().equals("getService")) {
+							return handler;
+						}
+						if (method.getName().equals("ungetService")) {
+							return Boolean.TRUE;
+						}
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	private Set<Object> match(String topic) {
+		Set<Object> result = new HashSet<Object>();
+		trie.match(topic, result);
+		return result;
+	}
+
+	private static Set<Object> set(Object... subscribers) {
+		return new HashSet<Object>(Arrays.asList(subscribers));
+	}
+
+	@Test
+	public void testMatch() {
+		trie.add("*", "all");
+		trie.add("org/osgi/*", "osgi");
+		trie.add("org/osgi/framework/*", "framework");
+		trie.add("org/osgi/framework/BundleEvent", "bundleEvent");
+		trie.add("org/eclipse", "eclipse");
+		Assert.assertEquals(5, trie.size());
+
+		Assert.assertEquals(set("all", "osgi", "framework", "bundleEvent"), match("org/osgi/framework/BundleEvent"));
+		Assert.assertEquals(set("all", "osgi", "framework"), match("org/osgi/framework/BundleEvent/STARTED"));
+		Assert.assertEquals(set("all", "osgi", "framework"), match("org/osgi/framework"));
+		Assert.assertEquals(set("all", "osgi"), match("org/osgi/service"));
+		Assert.assertEquals(set("all", "eclipse"), match("org/eclipse"));
+		Assert.assertEquals(set("all"), match("org/eclipse/ecf"));
+		Assert.assertEquals(set("all"), match("org"));
+		Assert.assertEquals(set("all"), match("com/example"));
+	}
+
+	@Test
+	public void testRemove() {
+		trie.add("org/osgi/*", "osgi");
+		trie.add("org/osgi/framework", "framework");
+		Assert.assertTrue(trie.remove("org/osgi/*", "osgi"));
+		Assert.assertFalse(trie.remove("org/osgi/*", "osgi"));
+		Assert.assertFalse(trie.remove("org/osgi/framework", "other"));
+		Assert.assertFalse(trie.remove("org/osgi/service", "framework"));
+		Assert.assertEquals(set("framework"), match("org/osgi/framework"));
+		Assert.assertEquals(set(), match("org/osgi/service"));
+		Assert.assertTrue(trie.remove("org/osgi/framework", "framework"));
+		Assert.assertEquals(0, trie.size());
+		Assert.assertEquals(set(), match("org/osgi/framework"));
+	}
+
+	@Test
+	public void testFilterCache() throws Exception {
+		FilterCache cache = new FilterCache(context);
+		Assert.assertSame(cache.get("(a=1)"), cache.get("(a=1)"));
+		Assert.assertEquals(1, cache.size());
+		cache.release("(a=1)");
+		Assert.assertEquals(1, cache.size());
+		cache.release("(a=1)");
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testTrackerFilters() {
+		EventHandlerTracker tracker = new EventHandlerTracker(context, null);
+		EventHandlerWrapper all = addHandler(tracker, "*", null);
+		EventHandlerWrapper red = addHandler(tracker, "org/osgi/*", "(color=red)");
+		EventHandlerWrapper red2 = addHandler(tracker, "org/osgi/framework", "(color=red)");
+		EventHandlerWrapper blue = addHandler(tracker, "org/osgi/framework", "(color=blue)");
+		addHandler(tracker, "org/eclipse/*", null);
+
+		Map<String, Object> properties = new HashMap<String, Object>();
+		properties.put("color", "red");
+		Event event = new Event("org/osgi/framework", properties);
+		Assert.assertEquals(set(all, red, red2, blue), new HashSet<Object>(tracker.getHandlers(event.getTopic())));
+		Assert.assertEquals(set(all, red, red2), new HashSet<Object>(tracker.getHandlers(event)));
+
+		tracker.removedService(null, red2);
+		Assert.assertEquals(set(all, red), new HashSet<Object>(tracker.getHandlers(event)));
+	}
+
+	@Test
+	public void testFilteredDispatch() {
+		EventHandlerTracker tracker = new EventHandlerTracker(context, null);
+		EventHandlerWrapper blue = addHandler(tracker, "org/osgi/framework", "(color=blue)");
+
+		Map<String, Object> properties = new HashMap<String, Object>();
+		properties.put("color", "red");
+		Event event = new Event("org/osgi/framework", properties);
+		tracker.dispatchEvent(blue, null, 0, event);
+		Assert.assertTrue(handled.isEmpty());
+		// the filter was matched by getHandlers(Event) and is not matched again
+		tracker.dispatchEvent(blue, null, EventHandlerTracker.FILTERED_EVENT, event);
+		Assert.assertEquals(Arrays.asList(event), handled);
+	}
+
+	@Test
+	public void testLookupTime() {
+		EventHandlerTracker tracker = new EventHandlerTracker(context, null);
+		for (int i = 0; i < HANDLERS; i++) {
+			addHandler(tracker, "org/eclipse/ecf/tests/topic" + (i % 50) + "/*", "(id=" + (i / 50) + ")");
+		}
+		Map<String, Object> properties = new HashMap<String, Object>();
+		properties.put("id", "3");
+		Event event = new Event("org/eclipse/ecf/tests/topic3/event", properties);
+		Assert.assertEquals(1, tracker.getHandlers(event).size());
+		if (!PERFORMANCE) {
+			return;
+		}
+
+		final int lookups = 100000;
+		long start = System.nanoTime();
+		for (int i = 0; i < lookups; i++) {
+			tracker.getHandlers(event);
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.println("handlers=" + HANDLERS + " ns/lookup=" + elapsed / lookups);
+	}
+
+	private EventHandlerWrapper addHandler(EventHandlerTracker tracker, String topic, String filter) {
+		final Bundle bundle = (Bundle) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { Bundle.class },
+				new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+		final Map<String, Object> properties = new HashMap<String, Object>();
+		properties.put(EventConstants.EVENT_TOPIC, topic);
+		if (filter != null) {
+			properties.put(EventConstants.EVENT_FILTER, filter);
+		}
+		ServiceReference reference = (ServiceReference) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class[] { ServiceReference.class }, new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if (method.getName().equals("getProperty")) {
+							return properties.get(args[0]);
+						}
+						if (method.getName().equals("getBundle")) {
+							return bundle;
+						}
+						if (method.getName().equals("equals")) {
+							return Boolean.valueOf(proxy == args[0]);
+						}
+						if (method.getName().equals("hashCode")) {
+							return Integer.valueOf(System.identityHashCode(proxy));
+						}
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+		return (EventHandlerWrapper) tracker.addingService(reference);
+	}
+}
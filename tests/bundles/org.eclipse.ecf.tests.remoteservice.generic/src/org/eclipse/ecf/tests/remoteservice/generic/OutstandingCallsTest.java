@@ -0,0 +1,178 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.remoteservice.generic;
+
+import java.util.Arrays;
+
+import org.eclipse.ecf.remoteservice.IRemoteCall;
+import org.eclipse.ecf.remoteservice.IRemoteCallListener;
+import org.eclipse.ecf.remoteservice.IRemoteService;
+import org.eclipse.ecf.remoteservice.events.IRemoteCallCompleteEvent;
+import org.eclipse.ecf.remoteservice.events.IRemoteCallEvent;
+import org.eclipse.ecf.tests.remoteservice.AbstractRemoteServiceTest;
+import org.eclipse.ecf.tests.remoteservice.IConcatService;
+import org.eclipse.equinox.concurrent.future.TimeoutException;
+import org.osgi.framework.ServiceException;
+
+/**
+ * Issues many asynchronous calls at once, and checks that they all complete
+ * and that the timeouts of answered calls are cancelled.  Also checks that a
+ * call whose response does not arrive in time completes with a timeout.  If
+ * <code>org.eclipse.ecf.tests.performance</code> is set to <code>true</code>,
+ * thousands of calls are issued and their latencies are reported.
+ */
+public class OutstandingCallsTest extends AbstractRemoteServiceTest {
+
+	private static final boolean PERFORMANCE = Boolean.getBoolean("org.eclipse.ecf.tests.performance");
+
+	private static final int CALL_COUNT = Integer.parseInt(System.getProperty("org.eclipse.ecf.tests.remoteservice.calls", PERFORMANCE ? "10000" : "100"));
+
+	private static final long TIMEOUT = 60000;
+
+	private final Object lock = new Object();
+
+	private int completed;
+
+	private int failed;
+
+	private static boolean isTimeoutThreadAlive() {
+		final Thread[] threads = new Thread[Thread.activeCount() * 2];
+		final int count = Thread.enumerate(threads);
+		for (int i = 0; i < count; i++)
+			if ("ECF Remote Call Timeouts".equals(threads[i].getName()))
+				return true;
+		return false;
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		setClientCount(2);
+		createServerAndClients();
+		setupRemoteServiceAdapters();
+		connectClients();
+		addRemoteServiceListeners();
+	}
+
+	protected void tearDown() throws Exception {
+		cleanUpServerAndClients();
+		super.tearDown();
+	}
+
+	protected String getClientContainerName() {
+		return Generic.CONSUMER_CONTAINER_TYPE;
+	}
+
+	protected Object createService() {
+		return new IConcatService() {
+			public String concat(String string1, String string2) {
+				if (string1.equals("sleep"))
+					try {
+						Thread.sleep(Long.parseLong(string2));
+					} catch (InterruptedException e) {
+						// ignore
+					}
+				return string1.concat(string2);
+			}
+		};
+	}
+
+	private IRemoteCall createRemoteCall(final String first, final String second, final long timeout) {
+		return new IRemoteCall() {
+			public String getMethod() {
+				return "concat";
+			}
+
+			public Object[] getParameters() {
+				return new Object[] {first, second};
+			}
+
+			public long getTimeout() {
+				return timeout;
+			}
+		};
+	}
+
+	public void testOutstandingCallLatency() throws Exception {
+		final IRemoteService service = registerAndGetRemoteService();
+		assertNotNull(service);
+		final long[] latencies = new long[CALL_COUNT];
+		completed = 0;
+		failed = 0;
+		final long start = System.nanoTime();
+		for (int i = 0; i < CALL_COUNT; i++) {
+			final int index = i;
+			final long callStart = System.nanoTime();
+			service.callAsync(createRemoteCall("call", String.valueOf(i), TIMEOUT), new IRemoteCallListener() {
+				public void handleEvent(IRemoteCallEvent event) {
+					if (event instanceof IRemoteCallCompleteEvent) {
+						final IRemoteCallCompleteEvent cce = (IRemoteCallCompleteEvent) event;
+						synchronized (lock) {
+							latencies[index] = System.nanoTime() - callStart;
+							if (cce.hadException() || !("call" + index).equals(cce.getResponse()))
+								failed++;
+							completed++;
+							lock.notifyAll();
+						}
+					}
+				}
+			});
+		}
+		final long waitStart = System.currentTimeMillis();
+		synchronized (lock) {
+			while (completed < CALL_COUNT && System.currentTimeMillis() - waitStart < TIMEOUT)
+				lock.wait(100);
+			assertEquals(CALL_COUNT, completed);
+			assertEquals(0, failed);
+		}
+		final long elapsed = (System.nanoTime() - start) / 1000000;
+		Arrays.sort(latencies);
+		// All timeouts cancelled, so the timeout thread stops without waiting for them
+		final long stopStart = System.currentTimeMillis();
+		while (isTimeoutThreadAlive() && System.currentTimeMillis() - stopStart < 5000)
+			Thread.sleep(50);
+		assertFalse(isTimeoutThreadAlive());
+		if (PERFORMANCE)
+			System.out.println(CALL_COUNT + " outstanding calls: total=" + elapsed + "ms p50=" + latencies[CALL_COUNT / 2] / 1000000 + "ms p99=" + latencies[CALL_COUNT * 99 / 100] / 1000000 + "ms max=" + latencies[CALL_COUNT - 1] / 1000000 + "ms");
+	}
+
+	public void testCallTimeout() throws Exception {
+		final IRemoteService service = registerAndGetRemoteService();
+		assertNotNull(service);
+		final IRemoteCallCompleteEvent[] result = new IRemoteCallCompleteEvent[1];
+		final long start = System.currentTimeMillis();
+		service.callAsync(createRemoteCall("sleep", "5000", 500), new IRemoteCallListener() {
+			public void handleEvent(IRemoteCallEvent event) {
+				if (event instanceof IRemoteCallCompleteEvent)
+					synchronized (result) {
+						result[0] = (IRemoteCallCompleteEvent) event;
+						result.notifyAll();
+					}
+			}
+		});
+		synchronized (result) {
+			while (result[0] == null && System.currentTimeMillis() - start < TIMEOUT)
+				result.wait(100);
+			assertNotNull(result[0]);
+			assertTrue(result[0].hadException());
+			assertTrue(result[0].getException() instanceof java.util.concurrent.TimeoutException);
+			assertNull(result[0].getResponse());
+		}
+		try {
+			service.callSync(createRemoteCall("sleep", "5000", 500));
+			fail();
+		} catch (ServiceException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.remoteservice.generic;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+
+import org.eclipse.ecf.remoteservice.IRemoteCall;
+import org.eclipse.ecf.remoteservice.IRemoteCallListener;
+import org.eclipse.ecf.remoteservice.IRemoteService;
+import org.eclipse.ecf.remoteservice.IRemoteServiceContainerAdapter;
+import org.eclipse.ecf.remoteservice.events.IRemoteCallCompleteEvent;
+import org.eclipse.ecf.remoteservice.events.IRemoteCallEvent;
+import org.eclipse.ecf.tests.remoteservice.AbstractRemoteServiceTest;
+import org.eclipse.ecf.tests.remoteservice.IConcatService;
+
+/**
+ * Registers a service with its own request executor of one worker thread and
+ * no request queue, and checks that calls arriving while the worker is busy
+ * complete with an exception instead of waiting.
+ */
+public class PooledRequestExecutorTest extends AbstractRemoteServiceTest {
+
+	private static final int CALL_COUNT = 4;
+
+	private static final long TIMEOUT = 30000;
+
+	private final Object lock = new Object();
+
+	private int completed;
+
+	private int rejected;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		setClientCount(2);
+		createServerAndClients();
+		setupRemoteServiceAdapters();
+		connectClients();
+		addRemoteServiceListeners();
+	}
+
+	protected void tearDown() throws Exception {
+		cleanUpServerAndClients();
+		super.tearDown();
+	}
+
+	protected String getClientContainerName() {
+		return Generic.CONSUMER_CONTAINER_TYPE;
+	}
+
+	protected Object createService() {
+		return new IConcatService() {
+			public String concat(String string1, String string2) {
+				try {
+					Thread.sleep(1000);
+				} catch (InterruptedException e) {
+					// ignore
+				}
+				return string1.concat(string2);
+			}
+		};
+	}
+
+	private IRemoteCall createRemoteCall(final String first, final String second) {
+		return new IRemoteCall() {
+			public String getMethod() {
+				return "concat";
+			}
+
+			public Object[] getParameters() {
+				return new Object[] {first, second};
+			}
+
+			public long getTimeout() {
+				return TIMEOUT;
+			}
+		};
+	}
+
+	public void testRejectWhenBusy() throws Exception {
+		final Dictionary props = new Hashtable();
+		props.put("ecf.rsvc.executor.poolsize", "1");
+		props.put("ecf.rsvc.executor.queuesize", "0");
+		final IRemoteServiceContainerAdapter[] adapters = getRemoteServiceAdapters();
+		final IRemoteService service = registerAndGetRemoteService(adapters[0], adapters[1], getClient(0).getConnectedID(), getIDFilter(), IConcatService.class.getName(), props, SLEEPTIME);
+		assertNotNull(service);
+		completed = 0;
+		rejected = 0;
+		for (int i = 0; i < CALL_COUNT; i++) {
+			service.callAsync(createRemoteCall("call", String.valueOf(i)), new IRemoteCallListener() {
+				public void handleEvent(IRemoteCallEvent event) {
+					if (event instanceof IRemoteCallCompleteEvent) {
+						synchronized (lock) {
+							if (((IRemoteCallCompleteEvent) event).hadException())
+								rejected++;
+							completed++;
+							lock.notifyAll();
+						}
+					}
+				}
+			});
+		}
+		final long start = System.currentTimeMillis();
+		synchronized (lock) {
+			while (completed < CALL_COUNT && System.currentTimeMillis() - start < TIMEOUT)
+				lock.wait(100);
+			assertEquals(CALL_COUNT, completed);
+			// First call is executed, calls arriving while it runs are rejected
+			assertTrue(rejected > 0);
+			assertTrue(rejected < CALL_COUNT);
+		}
+	}
+}
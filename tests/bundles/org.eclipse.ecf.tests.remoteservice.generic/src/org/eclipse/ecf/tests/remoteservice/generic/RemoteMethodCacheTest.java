@@ -0,0 +1,118 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.remoteservice.generic;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Hashtable;
+
+import org.eclipse.ecf.core.identity.IDFactory;
+import org.eclipse.ecf.provider.remoteservice.generic.RegistrySharedObject;
+import org.eclipse.ecf.provider.remoteservice.generic.RemoteCallImpl;
+import org.eclipse.ecf.provider.remoteservice.generic.RemoteServiceRegistrationImpl;
+import org.eclipse.ecf.provider.remoteservice.generic.RemoteServiceRegistryImpl;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that the methods of a registration's service are resolved once and
+ * then found in the registration's method cache, that the cache is cleared on
+ * unregister, and that calls through the cache fail with the same exceptions
+ * as {@link java.lang.reflect.Method#invoke(Object, Object[])}.
+ */
+public class RemoteMethodCacheTest extends TestCase {
+
+	public static class Service {
+		public String concat(String string1, String string2) {
+			return string1.concat(string2);
+		}
+
+		public int twice(int value) {
+			return 2 * value;
+		}
+
+		public Object fail(String message) {
+			throw new ClassCastException(message);
+		}
+	}
+
+	static class Registration extends RemoteServiceRegistrationImpl {
+		int getCachedMethods() {
+			return getCachedMethodCount();
+		}
+
+		long getHits() {
+			return getMethodCacheHitCount();
+		}
+	}
+
+	static class Invoker extends RegistrySharedObject {
+		Object invoke(RemoteServiceRegistrationImpl registration, String method, Object[] parameters) throws Exception {
+			return invokeLocal(registration, RemoteCallImpl.createRemoteCall(Service.class.getName(), method, parameters, 30000));
+		}
+	}
+
+	private final Invoker invoker = new Invoker();
+
+	private Registration registration;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		registration = new Registration();
+		registration.publish(null, new RemoteServiceRegistryImpl(IDFactory.getDefault().createGUID()), new Service(), new String[] {Service.class.getName()}, new Hashtable());
+	}
+
+	public void testCacheHit() throws Exception {
+		assertEquals("ab", invoker.invoke(registration, "concat", new Object[] {"a", "b"}));
+		assertEquals(1, registration.getCachedMethods());
+		assertEquals(0, registration.getHits());
+		for (int i = 0; i < 10; i++)
+			assertEquals("a" + i, invoker.invoke(registration, "concat", new Object[] {"a", String.valueOf(i)}));
+		assertEquals(1, registration.getCachedMethods());
+		assertEquals(10, registration.getHits());
+		assertEquals(new Integer(4), invoker.invoke(registration, "twice", new Object[] {new Integer(2)}));
+		assertEquals(2, registration.getCachedMethods());
+	}
+
+	public void testUnregisterClearsCache() throws Exception {
+		invoker.invoke(registration, "concat", new Object[] {"a", "b"});
+		invoker.invoke(registration, "twice", new Object[] {new Integer(2)});
+		assertEquals(2, registration.getCachedMethods());
+		registration.unregister();
+		assertEquals(0, registration.getCachedMethods());
+		// Calls still resolve the method, but it is no longer cached
+		assertEquals("ab", invoker.invoke(registration, "concat", new Object[] {"a", "b"}));
+		assertEquals(0, registration.getCachedMethods());
+	}
+
+	public void testArgumentMismatch() throws Exception {
+		try {
+			invoker.invoke(registration, "twice", new Object[] {null});
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected, as from Method.invoke
+		}
+	}
+
+	public void testMethodException() throws Exception {
+		// Cached after the first call
+		for (int i = 0; i < 2; i++)
+			try {
+				invoker.invoke(registration, "fail", new Object[] {"message"});
+				fail();
+			} catch (InvocationTargetException e) {
+				assertTrue(e.getCause() instanceof ClassCastException);
+				assertEquals("message", e.getCause().getMessage());
+			}
+	}
+}
@@ -0,0 +1,153 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.remoteservice.generic;
+
+import java.util.Hashtable;
+
+import org.eclipse.ecf.core.identity.IDFactory;
+import org.eclipse.ecf.provider.remoteservice.generic.RemoteFilterImpl;
+import org.eclipse.ecf.provider.remoteservice.generic.RemoteServiceRegistrationImpl;
+import org.eclipse.ecf.provider.remoteservice.generic.RemoteServiceRegistryImpl;
+import org.eclipse.ecf.remoteservice.Constants;
+import org.eclipse.ecf.remoteservice.IRemoteFilter;
+import org.eclipse.ecf.remoteservice.IRemoteServiceReference;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that indexed lookups in remote service registries find the same
+ * references as a scan of all references (the former lookup).  If
+ * <code>org.eclipse.ecf.tests.performance</code> is set to <code>true</code>,
+ * the times of both are compared for 1k, 10k and 100k registrations.
+ */
+public class RemoteServiceRegistryLookupTest extends TestCase {
+
+	private static final int CLASS_COUNT = 100;
+
+	private static final boolean PERFORMANCE = Boolean.getBoolean("org.eclipse.ecf.tests.performance");
+
+	private static final int[] SIZES = PERFORMANCE ? new int[] {1000, 10000, 100000} : new int[] {1000};
+
+	private RemoteServiceRegistryImpl createRegistry(int size) throws Exception {
+		final RemoteServiceRegistryImpl registry = new RemoteServiceRegistryImpl(IDFactory.getDefault().createGUID());
+		for (int i = 0; i < size; i++) {
+			final Hashtable props = new Hashtable();
+			props.put(Constants.SERVICE_RANKING, new Integer(i % 10));
+			props.put("name", "service" + i);
+			new RemoteServiceRegistrationImpl().publish(null, registry, new Object(), new String[] {"Service" + (i % CLASS_COUNT)}, props);
+		}
+		return registry;
+	}
+
+	private Object getServiceId(RemoteServiceRegistryImpl registry, int index) {
+		// Service ids are not per registry, so get the id of a registration
+		return registry.lookupServiceReferences()[index].getProperty(Constants.SERVICE_ID);
+	}
+
+	private int scan(RemoteServiceRegistryImpl registry, IRemoteFilter filter) {
+		final IRemoteServiceReference[] references = registry.lookupServiceReferences();
+		int result = 0;
+		for (int i = 0; i < references.length; i++)
+			if (filter.match(references[i]))
+				result++;
+		return result;
+	}
+
+	private int lookup(RemoteServiceRegistryImpl registry, String clazz, IRemoteFilter filter) {
+		final IRemoteServiceReference[] references = registry.lookupServiceReferences(clazz, filter);
+		return (references == null) ? 0 : references.length;
+	}
+
+	private void compare(RemoteServiceRegistryImpl registry, int size, String filterString) throws Exception {
+		final IRemoteFilter filter = new RemoteFilterImpl(filterString);
+		final int iterations = Math.max(10, 1000000 / size);
+		final int expected = scan(registry, filter);
+		assertEquals(expected, lookup(registry, null, filter));
+		if (!PERFORMANCE)
+			return;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++)
+			scan(registry, filter);
+		final long scanTime = (System.nanoTime() - start) / iterations;
+		start = System.nanoTime();
+		for (int i = 0; i < iterations; i++)
+			lookup(registry, null, filter);
+		final long lookupTime = (System.nanoTime() - start) / iterations;
+		System.out.println("registrations=" + size + " filter=" + filterString + " matches=" + expected + " scan=" + scanTime / 1000 + "us indexed=" + lookupTime / 1000 + "us");
+	}
+
+	public void testLookupTimes() throws Exception {
+		for (int s = 0; s < SIZES.length; s++) {
+			final int size = SIZES[s];
+			final RemoteServiceRegistryImpl registry = createRegistry(size);
+			compare(registry, size, "(" + Constants.SERVICE_ID + "=" + getServiceId(registry, size / 2) + ")");
+			compare(registry, size, "(&(" + Constants.OBJECTCLASS + "=Service7)(name=service" + (size / 2 + 7) + "))");
+			compare(registry, size, "(&(" + Constants.SERVICE_RANKING + "=3)(name=service3))");
+			compare(registry, size, "(name=service5)");
+		}
+	}
+
+	public void testLookupWithClass() throws Exception {
+		final RemoteServiceRegistryImpl registry = createRegistry(1000);
+		final IRemoteFilter filter = new RemoteFilterImpl("(" + Constants.SERVICE_ID + "=" + getServiceId(registry, 500) + ")");
+		final IRemoteServiceReference[] references = registry.lookupServiceReferences(null, filter);
+		assertEquals(1, references.length);
+		final String clazz = ((String[]) references[0].getProperty(Constants.OBJECTCLASS))[0];
+		assertEquals(1, lookup(registry, clazz, filter));
+		assertEquals(0, lookup(registry, clazz.equals("Service1") ? "Service2" : "Service1", filter));
+		assertEquals(10, lookup(registry, clazz, new RemoteFilterImpl("(name=*)")));
+		assertEquals(100, lookup(registry, null, new RemoteFilterImpl("(" + Constants.SERVICE_RANKING + "=3)")));
+	}
+
+	public void testLookupAfterPublish() throws Exception {
+		final int size = SIZES[SIZES.length - 1];
+		final int iterations = PERFORMANCE ? 1000 : 100;
+		final RemoteServiceRegistryImpl registry = createRegistry(size);
+		// Build the index
+		assertEquals(size, registry.lookupServiceReferences().length);
+		final long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			final Hashtable props = new Hashtable();
+			props.put(Constants.SERVICE_RANKING, new Integer(i));
+			final RemoteServiceRegistrationImpl registration = new RemoteServiceRegistrationImpl();
+			registration.publish(null, registry, new Object(), new String[] {"Service" + (i % CLASS_COUNT), "Added"}, props);
+			final IRemoteFilter filter = new RemoteFilterImpl("(" + Constants.SERVICE_ID + "=" + registration.getServiceId() + ")");
+			assertEquals(1, lookup(registry, "Added", filter));
+			assertEquals(1, lookup(registry, "Added", null));
+			assertEquals(1, lookup(registry, null, new RemoteFilterImpl("(&(" + Constants.SERVICE_RANKING + "=" + i + ")(" + Constants.OBJECTCLASS + "=Added))")));
+			registry.unpublishService(registration);
+			assertEquals(0, lookup(registry, null, filter));
+			assertEquals(0, lookup(registry, "Added", null));
+		}
+		final long time = (System.nanoTime() - start) / iterations;
+		assertEquals(size, registry.lookupServiceReferences().length);
+		if (PERFORMANCE)
+			System.out.println("registrations=" + size + " publish+lookup+unpublish=" + time / 1000 + "us");
+	}
+
+	public void testLookupAfterSetProperties() throws Exception {
+		final RemoteServiceRegistryImpl registry = new RemoteServiceRegistryImpl(IDFactory.getDefault().createGUID());
+		final RemoteServiceRegistrationImpl registration = new RemoteServiceRegistrationImpl();
+		final Hashtable props = new Hashtable();
+		props.put(Constants.SERVICE_RANKING, new Integer(1));
+		registration.publish(null, registry, new Object(), new String[] {"Service"}, props);
+		assertEquals(1, lookup(registry, "Service", new RemoteFilterImpl("(" + Constants.SERVICE_RANKING + "=1)")));
+		props.put(Constants.SERVICE_RANKING, new Integer(2));
+		registration.setProperties(props);
+		assertEquals(0, lookup(registry, "Service", new RemoteFilterImpl("(" + Constants.SERVICE_RANKING + "=1)")));
+		assertEquals(1, lookup(registry, "Service", new RemoteFilterImpl("(" + Constants.SERVICE_RANKING + "=2)")));
+		registry.unpublishService(registration);
+		assertEquals(0, lookup(registry, "Service", new RemoteFilterImpl("(" + Constants.SERVICE_RANKING + "=2)")));
+	}
+}
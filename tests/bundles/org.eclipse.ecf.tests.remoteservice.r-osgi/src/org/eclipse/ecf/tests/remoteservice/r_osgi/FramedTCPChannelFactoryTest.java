@@ -0,0 +1,213 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.remoteservice.r_osgi;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Dictionary;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.osgi.framework.ServiceRegistration;
+
+import ch.ethz.iks.r_osgi.Remoting;
+import ch.ethz.iks.r_osgi.URI;
+import ch.ethz.iks.r_osgi.channels.ChannelEndpoint;
+import ch.ethz.iks.r_osgi.channels.NetworkChannel;
+import ch.ethz.iks.r_osgi.channels.NetworkChannelFactory;
+import ch.ethz.iks.r_osgi.impl.ChannelEndpointImpl;
+import ch.ethz.iks.r_osgi.messages.DeliverBundlesMessage;
+import ch.ethz.iks.r_osgi.messages.LeaseUpdateMessage;
+import ch.ethz.iks.r_osgi.messages.RemoteCallMessage;
+import ch.ethz.iks.r_osgi.messages.RemoteOSGiMessage;
+
+/**
+ * Checks the framing and the order of the messages of the
+ * <code>r-osgi.bin</code> transport, over a connection to a factory of the
+ * same VM.
+ */
+public class FramedTCPChannelFactoryTest extends TestCase {
+
+	private static final long TIMEOUT = 30000;
+
+	/**
+	 * larger than the bytes queued on a channel before senders wait.
+	 */
+	private static final int BUNDLE_SIZE = 16 * 1024 * 1024;
+
+	private NetworkChannelFactory factory;
+
+	private final Recorder server = new Recorder();
+
+	private final Recorder client = new Recorder();
+
+	private NetworkChannel channel;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		final Class factoryClass = ChannelEndpointImpl.class.getClassLoader().loadClass("ch.ethz.iks.r_osgi.impl.FramedTCPChannelFactory"); //$NON-NLS-1$
+		final Constructor constructor = factoryClass.getDeclaredConstructor(new Class[0]);
+		constructor.setAccessible(true);
+		factory = (NetworkChannelFactory) constructor.newInstance(new Object[0]);
+		factory.activate(new Remoting() {
+			public ChannelEndpoint getEndpoint(String uri) {
+				return null;
+			}
+
+			public void createEndpoint(NetworkChannel c) {
+				c.bind(server);
+			}
+		});
+		channel = factory.getConnection(client, URI.create("r-osgi.bin://localhost:" + factory.getListeningPort("r-osgi.bin"))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	protected void tearDown() throws Exception {
+		channel.close();
+		factory.deactivate(null);
+		super.tearDown();
+	}
+
+	private static RemoteCallMessage createCall(int xid) {
+		final RemoteCallMessage call = new RemoteCallMessage();
+		call.setXID(xid);
+		call.setServiceID("12"); //$NON-NLS-1$
+		call.setMethodSignature("concat(Ljava/lang/String;Ljava/lang/String;)Ljava/lang/String;"); //$NON-NLS-1$
+		call.setArgs(new Object[] {"a", "b"}); //$NON-NLS-1$ //$NON-NLS-2$
+		return call;
+	}
+
+	private static DeliverBundlesMessage createBundles(int xid, byte[] bundle) {
+		final DeliverBundlesMessage bundles = new DeliverBundlesMessage();
+		bundles.setXID(xid);
+		bundles.setDependencies(new byte[][] {bundle});
+		return bundles;
+	}
+
+	private static LeaseUpdateMessage createLeaseUpdate(int xid) {
+		final LeaseUpdateMessage update = new LeaseUpdateMessage();
+		update.setXID(xid);
+		update.setType(LeaseUpdateMessage.SERVICE_ADDED);
+		update.setServiceID("12"); //$NON-NLS-1$
+		update.setPayload(new Object[] {new String[] {"org.eclipse.ecf.tests.remoteservice.IConcatService"}, null}); //$NON-NLS-1$
+		return update;
+	}
+
+	public void testMessages() throws Exception {
+		channel.sendMessage(createLeaseUpdate(1));
+		channel.sendMessage(createCall(2));
+		final List received = server.await(2);
+		final LeaseUpdateMessage update = (LeaseUpdateMessage) received.get(0);
+		assertEquals(1, update.getXID());
+		assertEquals("12", update.getServiceID()); //$NON-NLS-1$
+		final RemoteCallMessage call = (RemoteCallMessage) received.get(1);
+		assertEquals(2, call.getXID());
+		assertTrue(Arrays.equals(new Object[] {"a", "b"}, call.getArgs())); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testCallOvertakesDelivery() throws Exception {
+		final byte[] bundle = new byte[BUNDLE_SIZE];
+		Arrays.fill(bundle, (byte) 7);
+		channel.sendMessage(createBundles(1, bundle));
+		channel.sendMessage(createCall(2));
+		final List received = server.await(2);
+		assertEquals(RemoteOSGiMessage.REMOTE_CALL, ((RemoteOSGiMessage) received.get(0)).getFuncID());
+		final DeliverBundlesMessage bundles = (DeliverBundlesMessage) received.get(1);
+		assertTrue(Arrays.equals(bundle, bundles.getDependencies()[0]));
+	}
+
+	public void testCallDoesNotOvertakeLeaseUpdate() throws Exception {
+		channel.sendMessage(createBundles(1, new byte[BUNDLE_SIZE]));
+		channel.sendMessage(createLeaseUpdate(2));
+		channel.sendMessage(createCall(3));
+		final List received = server.await(3);
+		for (int i = 0; i < 3; i++)
+			assertEquals(i + 1, ((RemoteOSGiMessage) received.get(i)).getXID());
+	}
+
+	public void testDeactivate() throws Exception {
+		channel.sendMessage(createCall(1));
+		server.await(1);
+		factory.deactivate(null);
+		final Field field = factory.getClass().getDeclaredField("selector"); //$NON-NLS-1$
+		field.setAccessible(true);
+		assertNull(field.get(factory));
+		try {
+			factory.getConnection(client, channel.getRemoteAddress());
+			fail("connected to a deactivated factory"); //$NON-NLS-1$
+		} catch (final IOException e) {
+			// expected
+		}
+		// The endpoints are told that the channel is closed
+		assertNull(client.await(1).get(0));
+		assertNull(server.await(2).get(1));
+		try {
+			channel.sendMessage(createCall(2));
+			fail("sent on a closed channel"); //$NON-NLS-1$
+		} catch (final IOException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Endpoint that records the received messages.
+	 */
+	static class Recorder implements ChannelEndpoint {
+		private final List messages = new ArrayList();
+
+		public synchronized void receivedMessage(RemoteOSGiMessage msg) {
+			messages.add(msg);
+			notifyAll();
+		}
+
+		synchronized List await(int count) throws InterruptedException {
+			final long end = System.currentTimeMillis() + TIMEOUT;
+			while (messages.size() < count && System.currentTimeMillis() < end)
+				wait(100);
+			assertEquals(count, messages.size());
+			return new ArrayList(messages);
+		}
+
+		public Object invokeMethod(String service, String methodSignature, Object[] args) {
+			return null;
+		}
+
+		public Dictionary getProperties(String service) {
+			return null;
+		}
+
+		public Dictionary getPresentationProperties(String service) {
+			return null;
+		}
+
+		public void trackRegistration(String service, ServiceRegistration reg) {
+			// not used
+		}
+
+		public void untrackRegistration(String service) {
+			// not used
+		}
+
+		public URI getRemoteAddress() {
+			return null;
+		}
+
+		public void dispose() {
+			// not used
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.remoteservice.r_osgi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarInputStream;
+
+import junit.framework.TestCase;
+import ch.ethz.iks.r_osgi.URI;
+import ch.ethz.iks.r_osgi.impl.ChannelEndpointImpl;
+import ch.ethz.iks.r_osgi.messages.DeliverServiceMessage;
+
+import org.eclipse.ecf.remoteservice.IRemoteServiceListener;
+import org.eclipse.ecf.tests.remoteservice.IConcatService;
+
+/**
+ * Checks the cache of generated R-OSGi proxy classes: proxies of the same
+ * service interface from different peers share the cached classes, and the
+ * SHA-1 key changes with the interface and the version of the generator.
+ */
+public class ProxyBundleCacheTest extends TestCase {
+
+	private static final String SERVICE_URI_HEADER = "R-OSGi-Service-URI"; //$NON-NLS-1$
+
+	private Class generatorClass;
+
+	private Class cacheClass;
+
+	private Object cache;
+
+	private long hits;
+
+	private long misses;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		final ClassLoader loader = ChannelEndpointImpl.class.getClassLoader();
+		generatorClass = loader.loadClass("ch.ethz.iks.r_osgi.impl.ProxyGenerator"); //$NON-NLS-1$
+		cacheClass = loader.loadClass("ch.ethz.iks.r_osgi.impl.ProxyBundleCache"); //$NON-NLS-1$
+		final Field field = generatorClass.getDeclaredField("CACHE"); //$NON-NLS-1$
+		field.setAccessible(true);
+		cache = field.get(null);
+		call(cache, "clear"); //$NON-NLS-1$
+		// The counters are not reset by clear
+		hits = ((Long) call(cache, "getHits")).longValue(); //$NON-NLS-1$
+		misses = ((Long) call(cache, "getMisses")).longValue(); //$NON-NLS-1$
+	}
+
+	private static Object call(Object target, String name) throws Exception {
+		final Method method = target.getClass().getDeclaredMethod(name, new Class[0]);
+		method.setAccessible(true);
+		return method.invoke(target, new Object[0]);
+	}
+
+	private long getHits() throws Exception {
+		return ((Long) call(cache, "getHits")).longValue() - hits; //$NON-NLS-1$
+	}
+
+	private long getMisses() throws Exception {
+		return ((Long) call(cache, "getMisses")).longValue() - misses; //$NON-NLS-1$
+	}
+
+	private String getKey(DeliverServiceMessage deliv) throws Exception {
+		final Method method = cacheClass.getDeclaredMethod("getKey", new Class[] {DeliverServiceMessage.class}); //$NON-NLS-1$
+		method.setAccessible(true);
+		return (String) method.invoke(null, new Object[] {deliv});
+	}
+
+	private String getKey(String generatorVersion, DeliverServiceMessage deliv) throws Exception {
+		final Method method = cacheClass.getDeclaredMethod("getKey", new Class[] {String.class, DeliverServiceMessage.class}); //$NON-NLS-1$
+		method.setAccessible(true);
+		return (String) method.invoke(null, new Object[] {generatorVersion, deliv});
+	}
+
+	private String getGeneratorVersion() throws Exception {
+		final Field field = cacheClass.getDeclaredField("GENERATOR_VERSION"); //$NON-NLS-1$
+		field.setAccessible(true);
+		return (String) field.get(null);
+	}
+
+	/**
+	 * @return Attributes the main attributes of the generated proxy bundle
+	 */
+	private Attributes generate(String uri, DeliverServiceMessage deliv) throws Exception {
+		final Constructor constructor = generatorClass.getDeclaredConstructor(new Class[0]);
+		constructor.setAccessible(true);
+		final Object generator = constructor.newInstance(new Object[0]);
+		final Method method = generatorClass.getDeclaredMethod("generateProxyBundle", new Class[] {URI.class, DeliverServiceMessage.class}); //$NON-NLS-1$
+		method.setAccessible(true);
+		final JarInputStream jar = new JarInputStream((InputStream) method.invoke(generator, new Object[] {URI.create(uri), deliv}));
+		try {
+			return jar.getManifest().getMainAttributes();
+		} finally {
+			jar.close();
+		}
+	}
+
+	private static DeliverServiceMessage createMessage(Class serviceInterface) throws IOException {
+		final String resource = serviceInterface.getName().replace('.', '/') + ".class"; //$NON-NLS-1$
+		final InputStream in = serviceInterface.getClassLoader().getResourceAsStream(resource);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			final byte[] buffer = new byte[4096];
+			int n;
+			while ((n = in.read(buffer)) > 0)
+				bytes.write(buffer, 0, n);
+		} finally {
+			in.close();
+		}
+		final Map injections = new HashMap();
+		injections.put(resource, bytes.toByteArray());
+		final DeliverServiceMessage deliv = new DeliverServiceMessage();
+		deliv.setInterfaceNames(new String[] {serviceInterface.getName()});
+		deliv.setInjections(injections);
+		deliv.setImports(""); //$NON-NLS-1$
+		deliv.setExports(""); //$NON-NLS-1$
+		return deliv;
+	}
+
+	public void testSameInterfaceHits() throws Exception {
+		final String uri1 = "r-osgi://10.0.0.1:9278#12"; //$NON-NLS-1$
+		final String uri2 = "r-osgi://10.0.0.2:9278#7"; //$NON-NLS-1$
+		final Attributes first = generate(uri1, createMessage(IConcatService.class));
+		assertEquals(1, getMisses());
+		assertEquals(0, getHits());
+		// Another peer's service with the same interface
+		final DeliverServiceMessage deliv = createMessage(IConcatService.class);
+		assertEquals(getKey(createMessage(IConcatService.class)), getKey(deliv));
+		final Attributes second = generate(uri2, deliv);
+		assertEquals(1, getMisses());
+		assertEquals(1, getHits());
+		// Same classes, but the service URI is in the bundle header
+		assertEquals(first.getValue("Bundle-Activator"), second.getValue("Bundle-Activator")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(uri1, first.getValue(SERVICE_URI_HEADER));
+		assertEquals(uri2, second.getValue(SERVICE_URI_HEADER));
+		assertFalse(first.getValue("Bundle-SymbolicName").equals(second.getValue("Bundle-SymbolicName"))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testChangedInterfaceMisses() throws Exception {
+		final Attributes concat = generate("r-osgi://10.0.0.1:9278#12", createMessage(IConcatService.class)); //$NON-NLS-1$
+		final Attributes listener = generate("r-osgi://10.0.0.1:9278#12", createMessage(IRemoteServiceListener.class)); //$NON-NLS-1$
+		assertEquals(2, getMisses());
+		assertEquals(0, getHits());
+		assertFalse(concat.getValue("Bundle-Activator").equals(listener.getValue("Bundle-Activator"))); //$NON-NLS-1$ //$NON-NLS-2$
+		// A changed version of an interface has other class bytes
+		final DeliverServiceMessage changed = createMessage(IConcatService.class);
+		changed.getInjections().put(IConcatService.class.getName().replace('.', '/') + ".class", new byte[] {1, 2, 3}); //$NON-NLS-1$
+		assertFalse(getKey(createMessage(IConcatService.class)).equals(getKey(changed)));
+	}
+
+	public void testGeneratorVersionChangesKey() throws Exception {
+		final DeliverServiceMessage deliv = createMessage(IConcatService.class);
+		final String version = getGeneratorVersion();
+		assertEquals(getKey(deliv), getKey(version, deliv));
+		assertFalse(getKey(deliv).equals(getKey(version + ".1", deliv))); //$NON-NLS-1$
+		// SHA-1 in hex
+		assertEquals(40, getKey(deliv).length());
+	}
+}
@@ -0,0 +1,329 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.remoteservice.r_osgi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import ch.ethz.iks.r_osgi.URI;
+import ch.ethz.iks.r_osgi.channels.ChannelEndpoint;
+import ch.ethz.iks.r_osgi.channels.NetworkChannel;
+import ch.ethz.iks.r_osgi.impl.ChannelEndpointImpl;
+import ch.ethz.iks.r_osgi.messages.RemoteOSGiMessage;
+
+/**
+ * Checks the read-ahead and write-behind windows of R-OSGi stream proxies,
+ * with two channel endpoints connected by an in-memory channel.
+ */
+public class WindowedStreamTest extends TestCase {
+
+	private static final int SIZE = 1024 * 1024;
+
+	private static final long TIMEOUT = 30000;
+
+	private Pipe consumerPipe;
+
+	private Pipe hostPipe;
+
+	private ChannelEndpointImpl consumer;
+
+	private ChannelEndpointImpl host;
+
+	private byte[] data;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		consumerPipe = new Pipe("windowedstreamtest-consumer"); //$NON-NLS-1$
+		hostPipe = new Pipe("windowedstreamtest-host"); //$NON-NLS-1$
+		consumerPipe.peer = hostPipe;
+		hostPipe.peer = consumerPipe;
+		final Constructor constructor = ChannelEndpointImpl.class.getDeclaredConstructor(new Class[] {NetworkChannel.class});
+		constructor.setAccessible(true);
+		consumer = (ChannelEndpointImpl) constructor.newInstance(new Object[] {consumerPipe});
+		host = (ChannelEndpointImpl) constructor.newInstance(new Object[] {hostPipe});
+		data = new byte[SIZE];
+		new Random(1).nextBytes(data);
+	}
+
+	protected void tearDown() throws Exception {
+		consumer.dispose();
+		host.dispose();
+		consumerPipe.close();
+		hostPipe.close();
+		super.tearDown();
+	}
+
+	private static Object invoke(Object target, String name, Class type, Object arg) throws Exception {
+		final Method method = ChannelEndpointImpl.class.getDeclaredMethod(name, new Class[] {type});
+		method.setAccessible(true);
+		return method.invoke(target, new Object[] {arg});
+	}
+
+	/**
+	 * @return InputStream consumer proxy of the given input stream of the host
+	 */
+	private InputStream getInputStream(InputStream in) throws Exception {
+		final Object handle = invoke(host, "getInputStreamPlaceholder", InputStream.class, in); //$NON-NLS-1$
+		return (InputStream) invoke(consumer, "getInputStreamProxy", handle.getClass(), handle); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return OutputStream consumer proxy of the given output stream of the host
+	 */
+	private OutputStream getOutputStream(OutputStream out) throws Exception {
+		final Object handle = invoke(host, "getOutputStreamPlaceholder", OutputStream.class, out); //$NON-NLS-1$
+		return (OutputStream) invoke(consumer, "getOutputStreamProxy", handle.getClass(), handle); //$NON-NLS-1$
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		final byte[] buf = new byte[8192];
+		int n;
+		while ((n = in.read(buf)) != -1)
+			result.write(buf, 0, n);
+		in.close();
+		return result.toByteArray();
+	}
+
+	public void testRead() throws Exception {
+		final InputStream in = getInputStream(new ByteArrayInputStream(data));
+		new Timed() {
+			void test() throws Exception {
+				assertTrue(Arrays.equals(data, readAll(in)));
+			}
+		}.runFor(TIMEOUT);
+	}
+
+	public void testReadWithoutProgress() throws Exception {
+		final byte[] small = new byte[4096];
+		System.arraycopy(data, 0, small, 0, small.length);
+		// Array reads return 0, only single byte reads make progress
+		final InputStream stalling = new ByteArrayInputStream(small) {
+			public synchronized int read(byte[] b, int off, int len) {
+				return (len == 0 || available() > 0) ? 0 : -1;
+			}
+		};
+		final InputStream in = getInputStream(stalling);
+		new Timed() {
+			void test() throws Exception {
+				assertTrue(Arrays.equals(small, readAll(in)));
+			}
+		}.runFor(TIMEOUT);
+	}
+
+	public void testRuntimeReadError() throws Exception {
+		final InputStream failing = new InputStream() {
+			public int read() {
+				throw new IllegalStateException("stream failed"); //$NON-NLS-1$
+			}
+		};
+		final InputStream in = getInputStream(failing);
+		new Timed() {
+			void test() throws Exception {
+				try {
+					readAll(in);
+					fail("read did not report the failure"); //$NON-NLS-1$
+				} catch (final IOException e) {
+					assertTrue(e.getMessage(), e.getMessage().indexOf("stream failed") >= 0); //$NON-NLS-1$
+				}
+			}
+		}.runFor(TIMEOUT);
+	}
+
+	public void testWrite() throws Exception {
+		final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+		final OutputStream out = getOutputStream(sink);
+		new Timed() {
+			void test() throws Exception {
+				for (int i = 0; i < SIZE; i += 8192)
+					out.write(data, i, Math.min(8192, SIZE - i));
+				out.close();
+			}
+		}.runFor(TIMEOUT);
+		assertTrue(Arrays.equals(data, sink.toByteArray()));
+	}
+
+	public void testStreamWriterRemoved() throws Exception {
+		final Field field = ChannelEndpointImpl.class.getDeclaredField("streamWriters"); //$NON-NLS-1$
+		field.setAccessible(true);
+		final Map writers = (Map) field.get(host);
+		final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+		final OutputStream out = getOutputStream(sink);
+		new Timed() {
+			void test() throws Exception {
+				out.write(data, 0, 8192);
+				out.close();
+			}
+		}.runFor(TIMEOUT);
+		// Removed right after the reply to the last write was sent
+		final long end = System.currentTimeMillis() + TIMEOUT;
+		synchronized (writers) {
+			while (!writers.isEmpty() && System.currentTimeMillis() < end)
+				writers.wait(10);
+			assertTrue(writers.isEmpty());
+		}
+	}
+
+	public void testWriteErrorOnClose() throws Exception {
+		checkWriteErrorOnClose(new OutputStream() {
+			public void write(int b) throws IOException {
+				throw new IOException("disk full"); //$NON-NLS-1$
+			}
+		}, "disk full"); //$NON-NLS-1$
+	}
+
+	public void testRuntimeWriteErrorOnClose() throws Exception {
+		checkWriteErrorOnClose(new OutputStream() {
+			public void write(int b) {
+				throw new IllegalStateException("stream failed"); //$NON-NLS-1$
+			}
+		}, "stream failed"); //$NON-NLS-1$
+	}
+
+	private void checkWriteErrorOnClose(OutputStream failing, final String message) throws Exception {
+		final OutputStream out = getOutputStream(failing);
+		new Timed() {
+			void test() throws Exception {
+				// Smaller than the window, so not waited for
+				out.write(data, 0, 100);
+				try {
+					out.close();
+					fail("close did not report the failed write"); //$NON-NLS-1$
+				} catch (final IOException e) {
+					assertTrue(e.getMessage(), e.getMessage().indexOf(message) >= 0);
+				}
+			}
+		}.runFor(TIMEOUT);
+	}
+
+	/**
+	 * Runs a test on another thread, so that a hanging stream fails the test.
+	 */
+	abstract static class Timed extends Thread {
+		private Throwable failure;
+
+		abstract void test() throws Exception;
+
+		public void run() {
+			try {
+				test();
+			} catch (final Throwable t) {
+				failure = t;
+			}
+		}
+
+		void runFor(long timeout) throws Exception {
+			setDaemon(true);
+			start();
+			join(timeout);
+			assertFalse("timed out", isAlive()); //$NON-NLS-1$
+			if (failure instanceof Exception)
+				throw (Exception) failure;
+			if (failure instanceof Error)
+				throw (Error) failure;
+		}
+	}
+
+	/**
+	 * In-memory network channel, delivering the messages sent to the peer in
+	 * order on a thread of its own.
+	 */
+	static class Pipe implements NetworkChannel {
+		final String name;
+
+		Pipe peer;
+
+		private ChannelEndpoint endpoint;
+
+		private final LinkedList queue = new LinkedList();
+
+		private final Thread thread;
+
+		Pipe(String name) {
+			this.name = name;
+			thread = new Thread(name) {
+				public void run() {
+					deliver();
+				}
+			};
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		void deliver() {
+			while (true) {
+				final byte[] bytes;
+				synchronized (queue) {
+					while (queue.isEmpty()) {
+						try {
+							queue.wait();
+						} catch (final InterruptedException e) {
+							return;
+						}
+					}
+					bytes = (byte[]) queue.removeFirst();
+				}
+				try {
+					endpoint.receivedMessage(RemoteOSGiMessage.parse(new ObjectInputStream(new ByteArrayInputStream(bytes))));
+				} catch (final Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		public String getProtocol() {
+			return "mem"; //$NON-NLS-1$
+		}
+
+		public URI getRemoteAddress() {
+			return peer.getLocalAddress();
+		}
+
+		public URI getLocalAddress() {
+			return URI.create("r-osgi://" + name + ":1"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		public void bind(ChannelEndpoint endpoint) {
+			this.endpoint = endpoint;
+		}
+
+		public void close() {
+			thread.interrupt();
+		}
+
+		public void sendMessage(RemoteOSGiMessage message) throws IOException {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final ObjectOutputStream out = new ObjectOutputStream(bytes);
+			message.send(out);
+			out.flush();
+			synchronized (peer.queue) {
+				peer.queue.add(bytes.toByteArray());
+				peer.queue.notify();
+			}
+		}
+	}
+}
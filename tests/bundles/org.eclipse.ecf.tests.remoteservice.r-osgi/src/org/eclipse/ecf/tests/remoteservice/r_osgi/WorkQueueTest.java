@@ -0,0 +1,134 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.remoteservice.r_osgi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import ch.ethz.iks.r_osgi.impl.WorkQueue;
+
+/**
+ * Checks the order and concurrency of the tasks of R-OSGi endpoint work queues.
+ */
+public class WorkQueueTest extends TestCase {
+
+	private static final long TIMEOUT = 10000;
+
+	public void testOrderedTasksRunInOrder() throws Exception {
+		final WorkQueue queue = new WorkQueue("ordered", 4); //$NON-NLS-1$
+		final List order = Collections.synchronizedList(new ArrayList());
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger overlaps = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(100);
+		for (int i = 0; i < 100; i++) {
+			final Integer index = new Integer(i);
+			queue.execute(new Runnable() {
+				public void run() {
+					if (running.incrementAndGet() > 1)
+						overlaps.incrementAndGet();
+					order.add(index);
+					Thread.yield();
+					running.decrementAndGet();
+					done.countDown();
+				}
+			}, true);
+		}
+		assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+		assertEquals(0, overlaps.get());
+		for (int i = 0; i < 100; i++)
+			assertEquals(new Integer(i), order.get(i));
+	}
+
+	public void testTaskAfterOrderedTaskWaits() throws Exception {
+		final WorkQueue queue = new WorkQueue("fifo", 4); //$NON-NLS-1$
+		final CountDownLatch release = new CountDownLatch(1);
+		final List order = Collections.synchronizedList(new ArrayList());
+		final CountDownLatch done = new CountDownLatch(2);
+		queue.execute(new Runnable() {
+			public void run() {
+				try {
+					release.await();
+				} catch (final InterruptedException e) {
+					// done
+				}
+			}
+		}, true);
+		queue.execute(new Runnable() {
+			public void run() {
+				order.add("ordered"); //$NON-NLS-1$
+				done.countDown();
+			}
+		}, true);
+		queue.execute(new Runnable() {
+			public void run() {
+				order.add("unordered"); //$NON-NLS-1$
+				done.countDown();
+			}
+		});
+		// The second ordered task waits for the first, and the last task must
+		// not overtake it
+		Thread.sleep(200);
+		assertTrue(order.isEmpty());
+		release.countDown();
+		assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+		assertEquals("ordered", order.get(0)); //$NON-NLS-1$
+		assertEquals("unordered", order.get(1)); //$NON-NLS-1$
+	}
+
+	public void testTasksRunConcurrently() throws Exception {
+		final WorkQueue queue = new WorkQueue("concurrent", 4); //$NON-NLS-1$
+		final CyclicBarrier barrier = new CyclicBarrier(4);
+		final CountDownLatch done = new CountDownLatch(4);
+		for (int i = 0; i < 4; i++) {
+			queue.execute(new Runnable() {
+				public void run() {
+					try {
+						barrier.await(TIMEOUT, TimeUnit.MILLISECONDS);
+						done.countDown();
+					} catch (final Exception e) {
+						// not counted
+					}
+				}
+			});
+		}
+		assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+	}
+
+	public void testBlockingTasksOfManyQueues() throws Exception {
+		// Each task blocks until the tasks of all queues run at the same time
+		final int queues = 200;
+		final CountDownLatch started = new CountDownLatch(queues);
+		final CountDownLatch done = new CountDownLatch(queues);
+		for (int i = 0; i < queues; i++) {
+			new WorkQueue("blocking" + i, 1).execute(new Runnable() { //$NON-NLS-1$
+				public void run() {
+					started.countDown();
+					try {
+						if (started.await(TIMEOUT, TimeUnit.MILLISECONDS))
+							done.countDown();
+					} catch (final InterruptedException e) {
+						// not counted
+					}
+				}
+			});
+		}
+		assertTrue(done.await(2 * TIMEOUT, TimeUnit.MILLISECONDS));
+	}
+}
@@ -0,0 +1,304 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+package org.eclipse.ecf.tests.remoteservice.rest.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.apache.http.HttpResponse;
+import org.eclipse.ecf.core.identity.Namespace;
+import org.eclipse.ecf.remoteservice.IRemoteCall;
+import org.eclipse.ecf.remoteservice.IRemoteCallListener;
+import org.eclipse.ecf.remoteservice.IRemoteService;
+import org.eclipse.ecf.remoteservice.IRemoteServiceRegistration;
+import org.eclipse.ecf.remoteservice.client.IRemoteCallable;
+import org.eclipse.ecf.remoteservice.client.RemoteServiceClientRegistration;
+import org.eclipse.ecf.remoteservice.events.IRemoteCallCompleteEvent;
+import org.eclipse.ecf.remoteservice.events.IRemoteCallEvent;
+import org.eclipse.ecf.remoteservice.events.IRemoteCallStartEvent;
+import org.eclipse.ecf.remoteservice.rest.RestCallFactory;
+import org.eclipse.ecf.remoteservice.rest.RestCallableFactory;
+import org.eclipse.ecf.remoteservice.rest.RestException;
+import org.eclipse.ecf.remoteservice.rest.client.IRemoteResponseStreamDeserializer;
+import org.eclipse.ecf.remoteservice.rest.client.RestClientContainer;
+import org.eclipse.ecf.remoteservice.rest.client.RestClientService;
+import org.eclipse.ecf.remoteservice.rest.identity.RestID;
+import org.eclipse.ecf.remoteservice.rest.identity.RestNamespace;
+import org.eclipse.equinox.concurrent.future.IFuture;
+import org.w3c.dom.Document;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Calls a local http server with synchronous and asynchronous calls, checks
+ * that the connections are reused and that stream deserializers read the
+ * response stream. If <code>org.eclipse.ecf.tests.performance</code> is set to
+ * <code>true</code>, more calls are made and the call throughput is reported.
+ */
+public class RestClientServiceTest extends TestCase {
+
+	private static final boolean PERFORMANCE = Boolean.getBoolean("org.eclipse.ecf.tests.performance");
+
+	private static final int CALLS = PERFORMANCE ? 1000 : 100;
+
+	private static final Namespace NAMESPACE = new RestNamespace();
+
+	private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><test><value>\u00e9</value></test>";
+
+	private HttpServer server;
+
+	private ExecutorService serverExecutor;
+
+	private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+	private RestClientContainer container;
+
+	private IRemoteServiceRegistration registration;
+
+	private IRemoteService service;
+
+	/**
+	 * If true, the server responds with status 500
+	 */
+	private volatile boolean failing;
+
+	protected void setUp() throws Exception {
+		// the server writes the response headers and body separately
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		serverExecutor = Executors.newFixedThreadPool(8);
+		server.setExecutor(serverExecutor);
+		server.createContext("/test.xml", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				if (failing) {
+					respond(exchange, 500, "error");
+				} else {
+					respond(exchange, 200, XML);
+				}
+			}
+		});
+		server.start();
+		setUpContainer(new TestContainer(new RestID(NAMESPACE, getServerURI())));
+	}
+
+	private URI getServerURI() {
+		return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+	}
+
+	private void setUpContainer(RestClientContainer c) throws Exception {
+		if (container != null) {
+			registration.unregister();
+			container.dispose();
+		}
+		container = c;
+		registration = container.registerCallables(
+				new IRemoteCallable[] { RestCallableFactory.createCallable("test", "/test.xml") }, null);
+		service = container.getRemoteService(registration.getReference());
+	}
+
+	protected void tearDown() throws Exception {
+		registration.unregister();
+		container.dispose();
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	private void respond(HttpExchange exchange, int code, String body) throws IOException {
+		connections.add(exchange.getRemoteAddress());
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=UTF-8");
+		exchange.sendResponseHeaders(code, bytes.length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(bytes);
+		}
+	}
+
+	private static IRemoteCall createCall(String method) {
+		return RestCallFactory.createRestCall(method);
+	}
+
+	private static void assertTestDocument(Object result) {
+		assertTrue(result instanceof Document);
+		assertEquals("\u00e9", ((Document) result).getDocumentElement().getTextContent());
+	}
+
+	public void testSyncCallsReuseConnection() throws Exception {
+		long start = System.nanoTime();
+		for (int i = 0; i < CALLS; i++) {
+			assertTestDocument(service.callSync(createCall("test")));
+		}
+		long elapsed = System.nanoTime() - start;
+		assertEquals(1, connections.size());
+		if (PERFORMANCE) {
+			System.out.println("sync calls=" + CALLS + " calls/s=" + CALLS * 1000000000L / elapsed);
+		}
+	}
+
+	public void testSyncErrorReleasesConnection() throws Exception {
+		failing = true;
+		for (int i = 0; i < 100; i++) {
+			try {
+				service.callSync(createCall("test"));
+				fail();
+			} catch (RestException e) {
+				assertEquals(500, e.getErrorCode());
+			}
+		}
+		// error responses are consumed so the pool is not exhausted
+		failing = false;
+		assertTestDocument(service.callSync(createCall("test")));
+	}
+
+	public void testStreamDeserializer() throws Exception {
+		final AtomicInteger streams = new AtomicInteger();
+		container.setResponseDeserializer(new IRemoteResponseStreamDeserializer() {
+			public Object deserializeResponse(String endpoint, IRemoteCall call, IRemoteCallable callable, Map responseHeaders, byte[] responseBody) throws NotSerializableException {
+				throw new NotSerializableException("byte[] response body");
+			}
+
+			public Object deserializeResponse(String endpoint, IRemoteCall call, IRemoteCallable callable, Map responseHeaders, InputStream responseBody) throws NotSerializableException {
+				streams.incrementAndGet();
+				try {
+					return new String(responseBody.readAllBytes(), StandardCharsets.UTF_8);
+				} catch (IOException e) {
+					throw new NotSerializableException(e.getMessage());
+				}
+			}
+		});
+		assertEquals(XML, service.callSync(createCall("test")));
+		assertEquals(1, streams.get());
+	}
+
+	public void testAsyncCall() throws Exception {
+		IFuture future = service.callAsync(createCall("test"));
+		assertTestDocument(future.get());
+		assertTrue(future.getStatus().isOK());
+	}
+
+	public void testAsyncCallError() throws Exception {
+		failing = true;
+		IFuture future = service.callAsync(createCall("test"));
+		future.get();
+		Throwable exception = future.getStatus().getException();
+		assertTrue(exception instanceof RestException);
+		assertEquals(500, ((RestException) exception).getErrorCode());
+	}
+
+	public void testByteResponseOverride() throws Exception {
+		setUpContainer(new TestContainer(new RestID(NAMESPACE, getServerURI())) {
+			protected Object processResponse(String uri, IRemoteCall call, IRemoteCallable callable, Map responseHeaders, byte[] responseBody) {
+				return new String(responseBody, StandardCharsets.UTF_8);
+			}
+		});
+		// the override is used although the default deserializer reads streams
+		assertEquals(XML, service.callSync(createCall("test")));
+		assertEquals(XML, service.callAsync(createCall("test")).get());
+	}
+
+	public void testAsyncCallErrorBody() throws Exception {
+		setUpContainer(new TestContainer(new RestID(NAMESPACE, getServerURI())) {
+			protected IRemoteService createRemoteService(RemoteServiceClientRegistration registration) {
+				return new RestClientService(this, registration) {
+					protected boolean retrieveErrorResponseBody(HttpResponse response) {
+						return response.getStatusLine().getStatusCode() == 500;
+					}
+				};
+			}
+		});
+		failing = true;
+		try {
+			service.callSync(createCall("test"));
+			fail();
+		} catch (RestException e) {
+			assertEquals("error", new String(e.getResponseBody(), StandardCharsets.UTF_8));
+		}
+		IFuture future = service.callAsync(createCall("test"));
+		future.get();
+		RestException exception = (RestException) future.getStatus().getException();
+		assertEquals(500, exception.getErrorCode());
+		assertEquals("error", new String(exception.getResponseBody(), StandardCharsets.UTF_8));
+	}
+
+	public void testAsyncCallWithListener() throws Exception {
+		final List<IRemoteCallEvent> events = new ArrayList<IRemoteCallEvent>();
+		final CountDownLatch done = new CountDownLatch(1);
+		service.callAsync(createCall("test"), new IRemoteCallListener() {
+			public void handleEvent(IRemoteCallEvent event) {
+				synchronized (events) {
+					events.add(event);
+				}
+				if (event instanceof IRemoteCallCompleteEvent) {
+					done.countDown();
+				}
+			}
+		});
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		synchronized (events) {
+			assertEquals(2, events.size());
+			assertTrue(events.get(0) instanceof IRemoteCallStartEvent);
+			IRemoteCallCompleteEvent complete = (IRemoteCallCompleteEvent) events.get(1);
+			assertFalse(complete.hadException());
+			assertTestDocument(complete.getResponse());
+		}
+	}
+
+	public void testAsyncThroughput() throws Exception {
+		IFuture[] futures = new IFuture[CALLS];
+		long start = System.nanoTime();
+		for (int i = 0; i < CALLS; i++) {
+			futures[i] = service.callAsync(createCall("test"));
+		}
+		for (int i = 0; i < CALLS; i++) {
+			assertTestDocument(futures[i].get());
+		}
+		long elapsed = System.nanoTime() - start;
+		if (PERFORMANCE) {
+			System.out.println("async calls=" + CALLS + " calls/s=" + CALLS * 1000000000L / elapsed + " connections="
+					+ connections.size());
+		}
+	}
+
+	/**
+	 * Container that does not look up its namespace, so the test also runs
+	 * without a framework
+	 */
+	static class TestContainer extends RestClientContainer {
+
+		TestContainer(RestID id) {
+			super(id);
+		}
+
+		public Namespace getConnectNamespace() {
+			return NAMESPACE;
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.sharedobject;
+
+import org.eclipse.ecf.core.identity.ID;
+import org.eclipse.ecf.core.identity.IDFactory;
+
+/**
+ * Checks that messages broadcast through the server reach all other group
+ * members, for increasing group sizes.  If
+ * <code>org.eclipse.ecf.tests.performance</code> is set to <code>true</code>,
+ * larger groups and more messages are used and the throughput is reported.
+ */
+public class BroadcastSharedObjectMessageTest extends AbstractSharedObjectTest {
+
+	private static final boolean PERFORMANCE = Boolean.getBoolean("org.eclipse.ecf.tests.performance");
+
+	private static final int[] GROUP_SIZES = PERFORMANCE ? new int[] {2, 10, 50} : new int[] {2, 10};
+
+	private static final int MESSAGE_SEND_COUNT = PERFORMANCE ? 200 : 20;
+
+	private static final long TIMEOUT = 60000;
+
+	private final Object receivedLock = new Object();
+
+	private int received = 0;
+
+	protected void tearDown() throws Exception {
+		if (server != null)
+			cleanUpServerAndClients();
+		super.tearDown();
+	}
+
+	private TestMessagingSharedObject[] setUpGroup(int size) throws Exception {
+		setClientCount(size);
+		createServerAndClients();
+		final ID sharedObjectID = IDFactory.getDefault().createStringID("broadcast");
+		final TestMessagingSharedObject[] sharedObjects = new TestMessagingSharedObject[size];
+		// Add to every client before connecting, so that no replicas are created
+		for (int i = 0; i < size; i++) {
+			sharedObjects[i] = new TestMessagingSharedObject("client" + i, new IMessageReceiver() {
+				public void handleMessage(ID fromID, Object message) {
+					synchronized (receivedLock) {
+						received++;
+						receivedLock.notifyAll();
+					}
+				}
+			});
+			addClientSharedObject(i, sharedObjectID, sharedObjects[i], null);
+		}
+		connectClients();
+		sleep(1000);
+		return sharedObjects;
+	}
+
+	public void testBroadcastThroughput() throws Exception {
+		for (int g = 0; g < GROUP_SIZES.length; g++) {
+			final int size = GROUP_SIZES[g];
+			final TestMessagingSharedObject[] sharedObjects = setUpGroup(size);
+			synchronized (receivedLock) {
+				received = 0;
+			}
+			final int expected = MESSAGE_SEND_COUNT * (size - 1);
+			final long start = System.currentTimeMillis();
+			for (int i = 0; i < MESSAGE_SEND_COUNT; i++)
+				sharedObjects[0].sendMessage(null, "message " + i);
+			synchronized (receivedLock) {
+				while (received < expected && System.currentTimeMillis() - start < TIMEOUT)
+					receivedLock.wait(100);
+				assertEquals(expected, received);
+			}
+			final long elapsed = Math.max(1, System.currentTimeMillis() - start);
+			if (PERFORMANCE)
+				System.out.println("broadcast group size=" + size + " messages=" + expected + " time=" + elapsed + "ms rate=" + (expected * 1000 / elapsed) + "/s");
+			cleanUpServerAndClients();
+			genericServerPort++;
+		}
+	}
+}
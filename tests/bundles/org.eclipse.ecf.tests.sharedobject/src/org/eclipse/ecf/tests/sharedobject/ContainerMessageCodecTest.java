@@ -0,0 +1,107 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.sharedobject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.ecf.core.identity.ID;
+import org.eclipse.ecf.core.identity.IDFactory;
+
+/**
+ * Sends shared object messages and replicates shared objects between generic
+ * clients, which use the binary container message codec negotiated on connect
+ * (unless the <code>org.eclipse.ecf.provider.generic.codec</code> system property
+ * is set to <code>java</code>).
+ */
+public class ContainerMessageCodecTest extends AbstractSharedObjectTest {
+
+	private static final int CLIENT_COUNT = 3;
+
+	private static final long TIMEOUT = 30000;
+
+	private static final String[] MESSAGES = {"", "greetings program", "gr\u00fc\u00dfe \u4f60\u597d", new String(new char[100000]).replace('\0', 'x')};
+
+	private final List[] received = new List[CLIENT_COUNT];
+
+	protected int getClientCount() {
+		return CLIENT_COUNT;
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		createServerAndClients();
+	}
+
+	protected void tearDown() throws Exception {
+		cleanUpServerAndClients();
+		super.tearDown();
+	}
+
+	private TestMessagingSharedObject createSharedObject(final int index) {
+		received[index] = new ArrayList();
+		return new TestMessagingSharedObject("client" + index, new IMessageReceiver() {
+			public void handleMessage(ID fromID, Object message) {
+				synchronized (received) {
+					received[index].add(message);
+					received.notifyAll();
+				}
+			}
+		});
+	}
+
+	private void waitForMessages(int index, int count) throws InterruptedException {
+		final long start = System.currentTimeMillis();
+		synchronized (received) {
+			while (received[index].size() < count && System.currentTimeMillis() - start < TIMEOUT)
+				received.wait(100);
+		}
+	}
+
+	public void testSendMessages() throws Exception {
+		final ID sharedObjectID = IDFactory.getDefault().createStringID("codec");
+		final TestMessagingSharedObject[] sharedObjects = new TestMessagingSharedObject[CLIENT_COUNT];
+		for (int i = 0; i < CLIENT_COUNT; i++) {
+			sharedObjects[i] = createSharedObject(i);
+			addClientSharedObject(i, sharedObjectID, sharedObjects[i], null);
+		}
+		connectClients();
+		sleep(1000);
+		// Send each message several times, so later sends use interned IDs
+		for (int n = 0; n < 3; n++)
+			for (int i = 0; i < MESSAGES.length; i++)
+				sharedObjects[0].sendMessage(null, MESSAGES[i]);
+		for (int c = 1; c < CLIENT_COUNT; c++) {
+			waitForMessages(c, 3 * MESSAGES.length);
+			synchronized (received) {
+				assertEquals(3 * MESSAGES.length, received[c].size());
+				for (int i = 0; i < received[c].size(); i++)
+					assertEquals(MESSAGES[i % MESSAGES.length], received[c].get(i));
+			}
+		}
+	}
+
+	public void testReplicateSharedObject() throws Exception {
+		connectClients();
+		sleep(1000);
+		final ID sharedObjectID = IDFactory.getDefault().createStringID("codecreplica");
+		addClientSharedObject(0, sharedObjectID, createSharedObject(0), null);
+		final long start = System.currentTimeMillis();
+		for (int c = 1; c < CLIENT_COUNT; c++) {
+			while (getClientSharedObject(c, sharedObjectID) == null && System.currentTimeMillis() - start < TIMEOUT)
+				sleep(100);
+			assertNotNull(getClientSharedObject(c, sharedObjectID));
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.connect;
+
+import java.io.BufferedOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ecf.core.identity.ID;
+import org.eclipse.ecf.core.identity.IDFactory;
+import org.eclipse.ecf.provider.comm.AsynchEvent;
+import org.eclipse.ecf.provider.comm.ConnectionEvent;
+import org.eclipse.ecf.provider.comm.DisconnectEvent;
+import org.eclipse.ecf.provider.comm.ISynchAsynchEventHandler;
+import org.eclipse.ecf.provider.comm.SynchEvent;
+import org.eclipse.ecf.provider.comm.tcp.Client;
+
+/**
+ * Checks that a {@link Client} writes a burst of queued messages with few
+ * flushes of its output stream, and still flushes a single message right away.
+ */
+public class ClientBatchTest extends TestCase {
+
+	private static final int BURST = 1000;
+
+	private static final String KEEPALIVE_PROPERTY = "org.eclipse.ecf.provider.generic.keepalive"; //$NON-NLS-1$
+
+	private Socket peer;
+
+	private ObjectInputStream peerInput;
+
+	private Client client;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		final ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getByName("localhost")); //$NON-NLS-1$
+		peer = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+		final Socket socket = serverSocket.accept();
+		serverSocket.close();
+		final ObjectOutputStream peerOutput = new ObjectOutputStream(peer.getOutputStream());
+		peerOutput.flush();
+		final ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream(), Client.DEFAULT_BUFFER_SIZE));
+		output.flush();
+		peerInput = new ObjectInputStream(peer.getInputStream());
+		final ObjectInputStream input = new ObjectInputStream(socket.getInputStream());
+		// No pings, so only the test messages are counted
+		final String keepAlive = System.getProperty(KEEPALIVE_PROPERTY);
+		System.setProperty(KEEPALIVE_PROPERTY, "0"); //$NON-NLS-1$
+		try {
+			client = new Client(socket, input, output, new Handler());
+		} finally {
+			if (keepAlive == null)
+				System.clearProperty(KEEPALIVE_PROPERTY);
+			else
+				System.setProperty(KEEPALIVE_PROPERTY, keepAlive);
+		}
+	}
+
+	protected void tearDown() throws Exception {
+		client.disconnect();
+		peer.close();
+		super.tearDown();
+	}
+
+	private void readMessages(int count) throws Exception {
+		peer.setSoTimeout(10000);
+		for (int i = 0; i < count; i++)
+			assertNotNull(peerInput.readObject());
+	}
+
+	// The counters are updated right after the flush that let the peer read
+	private long waitForFlushCount(long count) throws InterruptedException {
+		final long end = System.currentTimeMillis() + 10000;
+		while (client.getFlushCount() < count && System.currentTimeMillis() < end)
+			Thread.sleep(10);
+		return client.getFlushCount();
+	}
+
+	public void testBurstIsCoalesced() throws Exception {
+		// Queue the burst before starting, so the sender finds it all queued
+		for (int i = 0; i < BURST; i++)
+			client.sendAsynch(null, ("message " + i).getBytes()); //$NON-NLS-1$
+		client.start();
+		readMessages(BURST);
+		final long flushes = waitForFlushCount(1);
+		assertEquals(BURST, client.getSentMessageCount());
+		assertTrue("flushes=" + flushes, flushes > 0); //$NON-NLS-1$
+		// At least Client.DEFAULT_MAX_BATCH_MSGS messages per flush, unless
+		// the batch latency expired
+		assertTrue("flushes=" + flushes, flushes <= BURST / 4); //$NON-NLS-1$
+	}
+
+	public void testSingleMessageIsFlushed() throws Exception {
+		client.start();
+		for (int i = 0; i < 3; i++) {
+			client.sendAsynch(null, ("message " + i).getBytes()); //$NON-NLS-1$
+			// Would time out if the message was left in the buffer
+			readMessages(1);
+			assertEquals(i + 1, waitForFlushCount(i + 1));
+			assertEquals(i + 1, client.getSentMessageCount());
+		}
+	}
+
+	static class Handler implements ISynchAsynchEventHandler {
+		private final ID id = IDFactory.getDefault().createGUID();
+
+		public ID getEventHandlerID() {
+			return id;
+		}
+
+		public void handleAsynchEvent(AsynchEvent event) {
+			// nothing to do
+		}
+
+		public Object handleSynchEvent(SynchEvent event) {
+			return null;
+		}
+
+		public void handleDisconnectEvent(DisconnectEvent event) {
+			// nothing to do
+		}
+
+		public void handleConnectEvent(ConnectionEvent event) {
+			// nothing to do
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.connect;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.ecf.core.ContainerFactory;
+import org.eclipse.ecf.core.IContainer;
+import org.eclipse.ecf.tests.ContainerAbstractTestCase;
+
+/**
+ * Connects generic clients to a generic server using the NIO transport
+ * ("transport" container property set to "nio").  If
+ * <code>org.eclipse.ecf.tests.performance</code> is set to <code>true</code>,
+ * many clients are connected, and the connect time and the number of live
+ * threads are compared with the blocking tcp transport.
+ */
+public class NIOClientContainerConnectTest extends ContainerAbstractTestCase {
+
+	private static final String TRANSPORT_PROP = "transport";
+
+	private static final boolean PERFORMANCE = Boolean.getBoolean("org.eclipse.ecf.tests.performance");
+
+	private static final int SCALE_CLIENTS = Integer.parseInt(System.getProperty("org.eclipse.ecf.tests.nio.clients", PERFORMANCE ? "200" : "5"));
+
+	private String transport = "nio";
+
+	protected IContainer createServer() throws Exception {
+		final Map params = new HashMap();
+		params.put("id", getServerIdentity());
+		params.put(TRANSPORT_PROP, transport);
+		return ContainerFactory.getDefault().createContainer(getServerContainerName(), params);
+	}
+
+	protected IContainer createClient(int index) throws Exception {
+		final Map params = new HashMap();
+		params.put(TRANSPORT_PROP, transport);
+		return ContainerFactory.getDefault().createContainer(getClientContainerName(), params);
+	}
+
+	protected void tearDown() throws Exception {
+		cleanUpServerAndClients();
+		super.tearDown();
+	}
+
+	public void testConnectDisconnect() throws Exception {
+		clientCount = 5;
+		createServerAndClients();
+		connectClients();
+		for (int i = 0; i < clients.length; i++)
+			assertNotNull(clients[i].getConnectedID());
+		disconnectClients();
+		for (int i = 0; i < clients.length; i++)
+			assertNull(clients[i].getConnectedID());
+		// reconnect after disconnect
+		connectClient(0);
+		assertNotNull(clients[0].getConnectedID());
+	}
+
+	public void testBlockingClientToNIOServer() throws Exception {
+		clientCount = 1;
+		serverID = createServerID();
+		server = createServer();
+		transport = "tcp";
+		clients = createClients();
+		connectClients();
+		assertNotNull(clients[0].getConnectedID());
+		disconnectClients();
+		assertNull(clients[0].getConnectedID());
+	}
+
+	public void testConnectionScaling() throws Exception {
+		final long[] tcp = connectAll("tcp");
+		cleanUpServerAndClients();
+		genericServerPort++;
+		final long[] nio = connectAll("nio");
+		if (!PERFORMANCE)
+			return;
+		System.out.println("connect " + SCALE_CLIENTS + " clients: tcp " + tcp[0] + "ms, " + tcp[1] + " threads; nio " + nio[0] + "ms, " + nio[1] + " threads");
+		// blocking transport uses threads per connection on both sides, nio a
+		// fixed number, which only pays off with more clients than event loops
+		assertTrue(nio[1] < tcp[1]);
+	}
+
+	private long[] connectAll(String t) throws Exception {
+		transport = t;
+		clientCount = SCALE_CLIENTS;
+		final int startThreads = Thread.activeCount();
+		createServerAndClients();
+		final long start = System.currentTimeMillis();
+		connectClients();
+		final long elapsed = System.currentTimeMillis() - start;
+		for (int i = 0; i < clients.length; i++)
+			assertNotNull(clients[i].getConnectedID());
+		return new long[] {elapsed, Thread.activeCount() - startThreads};
+	}
+}
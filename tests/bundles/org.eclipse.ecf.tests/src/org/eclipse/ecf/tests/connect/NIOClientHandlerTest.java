@@ -0,0 +1,202 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.connect;
+
+import java.io.InputStream;
+import java.io.Serializable;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ecf.core.identity.ID;
+import org.eclipse.ecf.core.identity.StringID;
+import org.eclipse.ecf.provider.comm.AsynchEvent;
+import org.eclipse.ecf.provider.comm.ConnectionEvent;
+import org.eclipse.ecf.provider.comm.DisconnectEvent;
+import org.eclipse.ecf.provider.comm.ISynchAsynchEventHandler;
+import org.eclipse.ecf.provider.comm.SynchEvent;
+import org.eclipse.ecf.provider.comm.tcp.ConnectRequestMessage;
+import org.eclipse.ecf.provider.comm.tcp.INIOAcceptHandler;
+import org.eclipse.ecf.provider.comm.tcp.NIOClient;
+import org.eclipse.ecf.provider.comm.tcp.NIOEventLoopGroup;
+import org.eclipse.ecf.provider.comm.tcp.NIOServer;
+
+/**
+ * Connects two {@link NIOClient}s to a {@link NIOServer} that share one
+ * selector thread, and checks that a blocked message handler of one
+ * connection does not delay the messages of the other, and that the messages
+ * of a connection are handled in order.
+ */
+public class NIOClientHandlerTest extends TestCase {
+
+	private static final int MESSAGES = 100;
+
+	private NIOEventLoopGroup group;
+
+	private NIOServer server;
+
+	private final List clients = new ArrayList();
+
+	// Messages received by the server, for each client index
+	private final List[] received = new List[] {new ArrayList(), new ArrayList()};
+
+	private final CountDownLatch blocked = new CountDownLatch(1);
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private final CountDownLatch done = new CountDownLatch(2);
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		group = new NIOEventLoopGroup("NIOClientHandlerTest", 1); //$NON-NLS-1$
+		server = new NIOServer(null, 0, 50, null, new INIOAcceptHandler() {
+			public Serializable handleConnectRequest(NIOClient client, ConnectRequestMessage request) throws Exception {
+				final int index = Integer.parseInt((String) request.getData());
+				client.setEventHandler(new ServerHandler(index));
+				client.start();
+				return null;
+			}
+
+			public void handleAccept(Socket aSocket, InputStream ins) throws Exception {
+				aSocket.close();
+			}
+
+			public void handleAccept(Socket aSocket) throws Exception {
+				aSocket.close();
+			}
+		}, group, 0);
+	}
+
+	protected void tearDown() throws Exception {
+		release.countDown();
+		for (int i = 0; i < clients.size(); i++)
+			((NIOClient) clients.get(i)).disconnect();
+		server.close();
+		group.close();
+		super.tearDown();
+	}
+
+	private static ID createID(String name) {
+		return new StringID(new StringID.StringIDNamespace(), name) {
+			private static final long serialVersionUID = 1L;
+		};
+	}
+
+	private NIOClient connect(int index) throws Exception {
+		final NIOClient client = new NIOClient(new ClientHandler(createID("client" + index)), 0, group); //$NON-NLS-1$
+		client.connect(createID("ecftcp://127.0.0.1:" + server.getLocalPort() + "/server"), String.valueOf(index), 10000); //$NON-NLS-1$ //$NON-NLS-2$
+		client.start();
+		clients.add(client);
+		return client;
+	}
+
+	public void testBlockedHandlerDoesNotDelayOtherConnection() throws Exception {
+		final NIOClient slow = connect(0);
+		final NIOClient fast = connect(1);
+		for (int i = 0; i < MESSAGES; i++)
+			slow.sendAsynch(null, Integer.valueOf(i));
+		assertTrue(blocked.await(10, TimeUnit.SECONDS));
+		// The handler for the first connection is now blocked
+		for (int i = 0; i < MESSAGES; i++)
+			fast.sendAsynch(null, Integer.valueOf(i));
+		final long end = System.currentTimeMillis() + 10000;
+		synchronized (received[1]) {
+			while (received[1].size() < MESSAGES && System.currentTimeMillis() < end)
+				received[1].wait(1000);
+			assertEquals(MESSAGES, received[1].size());
+		}
+		assertEquals(1, received[0].size());
+		release.countDown();
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		for (int c = 0; c < 2; c++) {
+			synchronized (received[c]) {
+				for (int i = 0; i < MESSAGES; i++)
+					assertEquals(Integer.valueOf(i), received[c].get(i));
+			}
+		}
+	}
+
+	class ServerHandler implements ISynchAsynchEventHandler {
+		private final int index;
+
+		ServerHandler(int index) {
+			this.index = index;
+		}
+
+		public ID getEventHandlerID() {
+			return createID("server"); //$NON-NLS-1$
+		}
+
+		public void handleAsynchEvent(AsynchEvent event) {
+			synchronized (received[index]) {
+				received[index].add(event.getData());
+				received[index].notifyAll();
+				if (received[index].size() == MESSAGES)
+					done.countDown();
+			}
+			if (index == 0 && received[0].size() == 1) {
+				blocked.countDown();
+				try {
+					release.await(30, TimeUnit.SECONDS);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		public Object handleSynchEvent(SynchEvent event) {
+			return null;
+		}
+
+		public void handleDisconnectEvent(DisconnectEvent event) {
+			// nothing to do
+		}
+
+		public void handleConnectEvent(ConnectionEvent event) {
+			// nothing to do
+		}
+	}
+
+	static class ClientHandler implements ISynchAsynchEventHandler {
+		private final ID id;
+
+		ClientHandler(ID id) {
+			this.id = id;
+		}
+
+		public ID getEventHandlerID() {
+			return id;
+		}
+
+		public void handleAsynchEvent(AsynchEvent event) {
+			// nothing to do
+		}
+
+		public Object handleSynchEvent(SynchEvent event) {
+			return null;
+		}
+
+		public void handleDisconnectEvent(DisconnectEvent event) {
+			// nothing to do
+		}
+
+		public void handleConnectEvent(ConnectionEvent event) {
+			// nothing to do
+		}
+	}
+}
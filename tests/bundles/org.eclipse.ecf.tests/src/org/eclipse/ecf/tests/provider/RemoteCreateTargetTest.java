@@ -0,0 +1,126 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.provider;
+
+import java.net.ServerSocket;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ecf.core.identity.ID;
+import org.eclipse.ecf.core.identity.IDFactory;
+import org.eclipse.ecf.core.sharedobject.BaseSharedObject;
+import org.eclipse.ecf.core.sharedobject.ReplicaSharedObjectDescription;
+import org.eclipse.ecf.provider.comm.ConnectionCreateException;
+import org.eclipse.ecf.provider.comm.ISynchAsynchConnection;
+import org.eclipse.ecf.provider.comm.tcp.Client;
+import org.eclipse.ecf.provider.generic.SOContainerConfig;
+import org.eclipse.ecf.provider.generic.TCPClientSOContainer;
+import org.eclipse.ecf.provider.generic.TCPServerSOContainer;
+import org.eclipse.ecf.provider.generic.TCPServerSOContainerGroup;
+
+/**
+ * Checks that a replica create message forwarded by the server to the other
+ * group members is addressed to each member, so that
+ * <code>checkRemoteCreate</code> is passed the ID of the receiving container,
+ * both for members using Java serialization and for members using the binary
+ * container message codec.
+ */
+public class RemoteCreateTargetTest extends TestCase {
+
+	private static final long TIMEOUT = 10000;
+
+	private TCPServerSOContainerGroup group;
+
+	private TCPServerSOContainer server;
+
+	private RecordingClient[] clients;
+
+	// Map<ID,ID> receiving container ID -> toID passed to checkRemoteCreate
+	private final Map checked = new HashMap();
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		final ServerSocket socket = new ServerSocket(0);
+		final int port = socket.getLocalPort();
+		socket.close();
+		final ID serverID = IDFactory.getDefault().createStringID("ecftcp://localhost:" + port + "/server"); //$NON-NLS-1$ //$NON-NLS-2$
+		group = new TCPServerSOContainerGroup("RemoteCreateTargetTest", port); //$NON-NLS-1$
+		server = new TCPServerSOContainer(new SOContainerConfig(serverID), group, "/server", 0); //$NON-NLS-1$
+		group.putOnTheAir();
+		clients = new RecordingClient[] {new RecordingClient(true), new RecordingClient(false), new RecordingClient(true)};
+		for (int i = 0; i < clients.length; i++)
+			clients[i].connect(serverID, null);
+	}
+
+	protected void tearDown() throws Exception {
+		for (int i = 0; i < clients.length; i++)
+			clients[i].dispose();
+		server.dispose();
+		group.takeOffTheAir();
+		super.tearDown();
+	}
+
+	public void testForwardedCreateIsAddressedToMember() throws Exception {
+		final ReplicatingSharedObject sharedObject = new ReplicatingSharedObject();
+		clients[0].getSharedObjectManager().addSharedObject(IDFactory.getDefault().createStringID("replicated"), sharedObject, null); //$NON-NLS-1$
+		sharedObject.replicate();
+		final long end = System.currentTimeMillis() + TIMEOUT;
+		synchronized (checked) {
+			while (checked.size() < clients.length - 1 && System.currentTimeMillis() < end)
+				checked.wait(100);
+			for (int i = 1; i < clients.length; i++) {
+				final ID id = clients[i].getID();
+				assertTrue("create not received by " + id, checked.containsKey(id)); //$NON-NLS-1$
+				assertEquals(id, checked.get(id));
+			}
+		}
+	}
+
+	class RecordingClient extends TCPClientSOContainer {
+		private final boolean codec;
+
+		RecordingClient(boolean codec) throws Exception {
+			super(new SOContainerConfig(IDFactory.getDefault().createGUID()));
+			this.codec = codec;
+		}
+
+		protected ISynchAsynchConnection createConnection(ID remoteSpace, Object data) throws ConnectionCreateException {
+			final ISynchAsynchConnection conn = super.createConnection(remoteSpace, data);
+			if (!codec)
+				conn.getProperties().remove(Client.CODECS_PROPERTY);
+			return conn;
+		}
+
+		protected Object checkRemoteCreate(ID fromID, ID toID, ReplicaSharedObjectDescription desc) throws Exception {
+			synchronized (checked) {
+				checked.put(getID(), toID);
+				checked.notifyAll();
+			}
+			// Ignore the create
+			return null;
+		}
+	}
+
+	static class ReplicatingSharedObject extends BaseSharedObject {
+		void replicate() {
+			replicateToRemoteContainers(null);
+		}
+
+		protected ReplicaSharedObjectDescription getReplicaDescription(ID receiver) {
+			return new ReplicaSharedObjectDescription(getClass(), getConfig().getSharedObjectID(), getConfig().getHomeContainerID(), null);
+		}
+	}
+}
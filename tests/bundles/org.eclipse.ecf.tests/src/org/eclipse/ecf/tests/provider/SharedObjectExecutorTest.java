@@ -0,0 +1,191 @@
+/****************************************************************************
+ * Copyright (c) 2026 Composent, Inc. and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * Contributors:
+ *    Composent, Inc. - initial API and implementation
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *****************************************************************************/
+
+package org.eclipse.ecf.tests.provider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ecf.core.identity.ID;
+import org.eclipse.ecf.core.identity.StringID;
+import org.eclipse.ecf.core.sharedobject.BaseSharedObject;
+import org.eclipse.ecf.core.sharedobject.SharedObjectMsg;
+import org.eclipse.ecf.internal.provider.ExecutorFIFOQueue;
+import org.eclipse.ecf.provider.generic.SOContainerConfig;
+import org.eclipse.ecf.provider.generic.TCPClientSOContainer;
+
+/**
+ * Checks that shared objects whose events are delivered by an executor (the
+ * <code>pool</code> and <code>virtual</code> thread modes) see their events
+ * one at a time and in order, and that the number of threads does not grow
+ * with the number of shared objects.
+ */
+public class SharedObjectExecutorTest extends TestCase {
+
+	private static final int POOL_SIZE = 2;
+
+	private static final int MESSAGES = 1000;
+
+	private static final int SHARED_OBJECTS = 50;
+
+	private ExecutorService executor;
+
+	private final Set threads = Collections.synchronizedSet(new HashSet());
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		executor = Executors.newFixedThreadPool(POOL_SIZE);
+	}
+
+	protected void tearDown() throws Exception {
+		executor.shutdownNow();
+		super.tearDown();
+	}
+
+	private static ID createID(String name) {
+		return new StringID(new StringID.StringIDNamespace(), name) {
+			private static final long serialVersionUID = 1L;
+		};
+	}
+
+	public void testQueueOrder() throws Exception {
+		final CountDownLatch done = new CountDownLatch(2);
+		final OrderedConsumer[] consumers = new OrderedConsumer[] {new OrderedConsumer(done), new OrderedConsumer(done)};
+		final ExecutorFIFOQueue[] queues = new ExecutorFIFOQueue[2];
+		for (int i = 0; i < queues.length; i++) {
+			queues[i] = new ExecutorFIFOQueue(executor, consumers[i]);
+			// Items enqueued before start are kept
+			queues[i].enqueue(Integer.valueOf(0));
+		}
+		for (int i = 0; i < queues.length; i++)
+			queues[i].start();
+		for (int i = 1; i < MESSAGES; i++) {
+			queues[0].enqueue(Integer.valueOf(i));
+			queues[1].enqueue(Integer.valueOf(i));
+		}
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		for (int i = 0; i < consumers.length; i++) {
+			assertNull(consumers[i].error, consumers[i].error);
+			assertEquals(MESSAGES, consumers[i].next);
+		}
+		assertTrue(threads.size() <= POOL_SIZE);
+	}
+
+	public void testConsumerStops() throws Exception {
+		final List consumed = Collections.synchronizedList(new ArrayList());
+		final CountDownLatch stopped = new CountDownLatch(1);
+		final ExecutorFIFOQueue queue = new ExecutorFIFOQueue(executor, new ExecutorFIFOQueue.Consumer() {
+			public boolean consume(Object item) {
+				consumed.add(item);
+				if (item.equals("stop")) { //$NON-NLS-1$
+					stopped.countDown();
+					return false;
+				}
+				return true;
+			}
+		});
+		queue.start();
+		queue.enqueue("a"); //$NON-NLS-1$
+		queue.enqueue("stop"); //$NON-NLS-1$
+		queue.enqueue("b"); //$NON-NLS-1$
+		assertTrue(stopped.await(10, TimeUnit.SECONDS));
+		Thread.sleep(100);
+		assertEquals(2, consumed.size());
+		assertFalse(queue.isStarted());
+	}
+
+	public void testSharedObjectOrder() throws Exception {
+		final TCPClientSOContainer container = new TCPClientSOContainer(new SOContainerConfig(createID("container"))) { //$NON-NLS-1$
+			protected java.util.concurrent.Executor getSharedObjectExecutor() {
+				return executor;
+			}
+		};
+		final int threadCount = Thread.activeCount();
+		try {
+			final CountDownLatch done = new CountDownLatch(SHARED_OBJECTS);
+			final OrderedSharedObject[] sharedObjects = new OrderedSharedObject[SHARED_OBJECTS];
+			for (int i = 0; i < sharedObjects.length; i++) {
+				sharedObjects[i] = new OrderedSharedObject(done);
+				container.getSharedObjectManager().addSharedObject(createID("so" + i), sharedObjects[i], null); //$NON-NLS-1$
+			}
+			// Interleave the messages to the shared objects
+			for (int m = 0; m < MESSAGES; m++)
+				for (int i = 0; i < sharedObjects.length; i++)
+					sharedObjects[i].sendToSelf(m);
+			assertTrue(done.await(60, TimeUnit.SECONDS));
+			for (int i = 0; i < sharedObjects.length; i++) {
+				assertNull(sharedObjects[i].consumer.error, sharedObjects[i].consumer.error);
+				assertEquals(MESSAGES, sharedObjects[i].consumer.next);
+			}
+			// No thread per shared object
+			assertTrue(threads.size() <= POOL_SIZE);
+			assertTrue(Thread.activeCount() - threadCount <= POOL_SIZE);
+		} finally {
+			container.dispose();
+		}
+	}
+
+	/**
+	 * Checks that items are consumed in order, and one at a time.
+	 */
+	class OrderedConsumer implements ExecutorFIFOQueue.Consumer {
+		private final CountDownLatch done;
+		private final AtomicInteger active = new AtomicInteger();
+		volatile int next = 0;
+		volatile String error;
+
+		OrderedConsumer(CountDownLatch done) {
+			this.done = done;
+		}
+
+		public boolean consume(Object item) {
+			threads.add(Thread.currentThread());
+			if (active.incrementAndGet() != 1)
+				error = "concurrent consume"; //$NON-NLS-1$
+			if (((Integer) item).intValue() != next)
+				error = "expected " + next + " received " + item; //$NON-NLS-1$ //$NON-NLS-2$
+			next++;
+			active.decrementAndGet();
+			if (next == MESSAGES)
+				done.countDown();
+			return true;
+		}
+	}
+
+	class OrderedSharedObject extends BaseSharedObject {
+		final OrderedConsumer consumer;
+
+		OrderedSharedObject(CountDownLatch done) {
+			consumer = new OrderedConsumer(done);
+		}
+
+		void sendToSelf(int i) {
+			sendSharedObjectMsgToSelf(SharedObjectMsg.createMsg("test", Integer.valueOf(i))); //$NON-NLS-1$
+		}
+
+		protected boolean handleSharedObjectMsg(SharedObjectMsg msg) {
+			consumer.consume(msg.getParameters()[0]);
+			return true;
+		}
+	}
+}